@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.zalando.nakadi.utils.TestUtils.buildDefaultEventType;
@@ -89,4 +90,29 @@ public class EventTypeDbRepositoryChangelistTest extends AbstractDbRepositoryTes
                 Collections.singletonList(new EventTypeDbRepository.EtChange("test2", false)),
                 changeset);
     }
+
+    @Test
+    public void whenEventTypeChangedAfterPositionThenItIsReturnedSinceThatPosition() {
+        final EventType eventType = buildDefaultEventType();
+        final EventType created = repository.saveEventType(eventType);
+        final long position = repository.getChangesPosition();
+        Assert.assertFalse(repository.getChangesSince(position).stream()
+                .anyMatch(c -> c.getName().equals(created.getName())));
+
+        created.setUpdatedAt(created.getUpdatedAt().plusMinutes(1));
+        repository.update(created);
+        Assert.assertEquals(
+                Collections.singletonList(new EventTypeDbRepository.EtChange(created.getName(), false,
+                        JsonUtils.serializeDateTime(repository.jsonMapper, created.getUpdatedAt()))),
+                repository.getChangesSince(position).stream()
+                        .filter(c -> c.getName().equals(created.getName()))
+                        .collect(Collectors.toList()));
+
+        repository.removeEventType(created.getName());
+        Assert.assertEquals(
+                Collections.singletonList(new EventTypeDbRepository.EtChange(created.getName(), true, null)),
+                repository.getChangesSince(position).stream()
+                        .filter(c -> c.getName().equals(created.getName()))
+                        .collect(Collectors.toList()));
+    }
 }
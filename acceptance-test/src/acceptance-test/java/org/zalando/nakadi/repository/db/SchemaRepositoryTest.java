@@ -9,6 +9,7 @@ import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.EventTypeSchema;
 import org.zalando.nakadi.domain.EventTypeSchemaBase;
 import org.zalando.nakadi.domain.Version;
+import org.zalando.nakadi.exceptions.runtime.NoSuchSchemaException;
 import org.zalando.nakadi.utils.EventTypeTestBuilder;
 import org.zalando.nakadi.utils.TestUtils;
 
@@ -41,6 +42,31 @@ public class SchemaRepositoryTest extends AbstractDbRepositoryTest {
         Assert.assertEquals(3, count);
     }
 
+    @Test
+    public void whenListVersionsAfterVersionThenNextPageIsReturned() throws Exception {
+        final String name = randomUUID();
+        buildEventWithMultipleSchemas(name);
+
+        final List<EventTypeSchema> firstPage = repository.getSchemasAfter(name, null, 2);
+        Assert.assertEquals(2, firstPage.size());
+        Assert.assertEquals(new Version("10.0.0"), firstPage.get(0).getVersion());
+        Assert.assertEquals(new Version("2.10.3"), firstPage.get(1).getVersion());
+
+        final List<EventTypeSchema> secondPage = repository.getSchemasAfter(name, "2.10.3", 2);
+        Assert.assertEquals(1, secondPage.size());
+        Assert.assertEquals(new Version("1.0.2"), secondPage.get(0).getVersion());
+
+        Assert.assertTrue(repository.getSchemasAfter(name, "1.0.2", 2).isEmpty());
+    }
+
+    @Test(expected = NoSuchSchemaException.class)
+    public void whenListVersionsAfterUnknownVersionThenNoSuchSchema() throws Exception {
+        final String name = randomUUID();
+        buildEventWithMultipleSchemas(name);
+
+        repository.getSchemasAfter(name, "3.0.0", 2);
+    }
+
     @Test
     public void whenGetLatestSchemaReturnLatest() throws Exception {
         final String name = randomUUID();
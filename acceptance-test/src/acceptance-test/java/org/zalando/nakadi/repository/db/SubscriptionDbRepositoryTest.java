@@ -8,6 +8,7 @@ import org.junit.Test;
 import org.zalando.nakadi.config.JsonConfig;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.domain.SubscriptionBase;
+import org.zalando.nakadi.domain.SubscriptionListingKey;
 import org.zalando.nakadi.exceptions.runtime.DuplicatedSubscriptionException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSubscriptionException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
@@ -173,6 +174,22 @@ public class SubscriptionDbRepositoryTest extends AbstractDbRepositoryTest {
         assertThat(subscriptions, equalTo(testSubscriptions));
     }
 
+    @Test
+    public void whenListSubscriptionsAfterKeyThenNextPageIsReturned() throws ServiceTemporarilyUnavailableException {
+        final String owningApp = TestUtils.randomUUID();
+        final List<Subscription> testSubscriptions = createRandomSubscriptions(10, owningApp);
+        testSubscriptions.forEach(this::insertSubscriptionToDB);
+        testSubscriptions.sort(SUBSCRIPTION_CREATION_DATE_DESC_COMPARATOR);
+
+        final List<Subscription> firstPage = repository.listSubscriptions(emptySet(), Optional.of(owningApp),
+                (SubscriptionListingKey) null, 4);
+        assertThat(firstPage, equalTo(testSubscriptions.subList(0, 4)));
+
+        final List<Subscription> secondPage = repository.listSubscriptions(emptySet(), Optional.of(owningApp),
+                SubscriptionListingKey.of(firstPage.get(3)), 4);
+        assertThat(secondPage, equalTo(testSubscriptions.subList(4, 8)));
+    }
+
     @Test
     public void whenDeleteSubscriptionThenOk()
             throws ServiceTemporarilyUnavailableException, NoSuchSubscriptionException {
@@ -14,6 +14,7 @@ import org.zalando.nakadi.domain.BatchItem;
 import org.zalando.nakadi.domain.CleanupPolicy;
 import org.zalando.nakadi.domain.EventOwnerHeader;
 import org.zalando.nakadi.domain.EventPublishingStatus;
+import org.zalando.nakadi.metrics.PublishingTimings;
 import org.zalando.nakadi.repository.NakadiTopicConfig;
 import org.zalando.nakadi.repository.zookeeper.ZookeeperSettings;
 import org.zalando.nakadi.util.UUIDGenerator;
@@ -217,7 +218,7 @@ public class KafkaRepositoryAT extends BaseAT {
             items.add(item);
         }
 
-        kafkaTopicRepository.syncPostBatch(topicId, items, null, false);
+        kafkaTopicRepository.syncPostBatch(topicId, items, null, false, new PublishingTimings());
 
         for (int i = 0; i < 10; i++) {
             assertThat(items.get(i).getResponse().getPublishingStatus(), equalTo(EventPublishingStatus.SUBMITTED));
@@ -236,7 +237,7 @@ public class KafkaRepositoryAT extends BaseAT {
             item.setOwner(new EventOwnerHeader("unit", "Nakadi"));
             items.add(item);
         }
-        kafkaTopicRepository.syncPostBatch(topicId, items, null, false);
+        kafkaTopicRepository.syncPostBatch(topicId, items, null, false, new PublishingTimings());
 
         for (int i = 0; i < 10; i++) {
             assertThat(items.get(i).getResponse().getPublishingStatus(), equalTo(EventPublishingStatus.SUBMITTED));
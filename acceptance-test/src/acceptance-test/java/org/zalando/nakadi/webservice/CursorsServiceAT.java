@@ -114,7 +114,7 @@ public class CursorsServiceAT extends BaseAT {
         final SubscriptionCache subscriptionCache = mock(SubscriptionCache.class);
         when(subscriptionCache.getSubscription(sid)).thenReturn(subscription);
         final SubscriptionClientFactory zkSubscriptionFactory = new SubscriptionClientFactory(
-                zkHolder, MAPPER, mock(NakadiSettings.class));
+                zkHolder, MAPPER, mock(NakadiSettings.class), 0);
         uuidGenerator = mock(UUIDGenerator.class);
         when(uuidGenerator.isUUID(any())).thenReturn(true);
         cursorsService = new CursorsService(subscriptionRepo, subscriptionCache, null, mock(NakadiSettings.class),
@@ -37,9 +37,19 @@ public class SchemaControllerAT extends BaseAT {
                 .and()
                 .body("items.size()", Matchers.is(1))
                 .body("items[0].version", Matchers.equalTo("1.1.0"))
-                .body("_links.next.href", Matchers.equalTo("/event-types/et_test_name/schemas?offset=1&limit=1"))
+                .body("_links.next.href", Matchers.equalTo("/event-types/et_test_name/schemas?after=1.1.0&limit=1"))
                 .body("_links.prev", Matchers.nullValue());
 
+        RestAssured.given()
+                .when()
+                .get("/event-types/et_test_name/schemas?after=1.1.0&limit=1")
+                .then()
+                .statusCode(HttpStatus.SC_OK)
+                .and()
+                .body("items.size()", Matchers.is(1))
+                .body("items[0].version", Matchers.equalTo("1.0.0"))
+                .body("_links.next", Matchers.nullValue());
+
         RestAssured.given()
                 .when()
                 .get("/event-types/et_test_name/schemas?offset=1&limit=1")
@@ -0,0 +1,124 @@
+package org.zalando.nakadi.webservice.hila;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableSet;
+import org.apache.curator.framework.CuratorFramework;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
+import org.zalando.nakadi.service.subscription.model.Partition;
+import org.zalando.nakadi.service.subscription.zk.NewZkSubscriptionClient;
+import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
+import org.zalando.nakadi.utils.TestUtils;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+import org.zalando.nakadi.webservice.BaseAT;
+import org.zalando.nakadi.webservice.utils.ZookeeperTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.Matchers.anyInt;
+
+public class ZkTopologyShardingAT extends BaseAT {
+    private static final CuratorFramework CURATOR = ZookeeperTestUtils.createCurator(ZOOKEEPER_URL);
+    private static final String EVENT_TYPE = "sharded_et";
+    private final String subscriptionId = TestUtils.randomUUID();
+
+    @Test
+    public void whenShardedThenOnlyChangedShardsAreRewritten() throws Exception {
+        final ZkSubscriptionClient client = createClient(2);
+        client.fillEmptySubscription(createCursors(5));
+
+        Assert.assertEquals(ImmutableSet.of("0-0", "1-0", "2-0"), getShardNodes());
+        Assert.assertFalse(readTopologyNode().hasNonNull("partitions"));
+
+        client.updatePartitionsConfiguration("hash", new Partition[]{
+                new Partition(EVENT_TYPE, "2", "session", null, Partition.State.ASSIGNED)});
+
+        // shard with the changed partition is replaced by the one of the new generation
+        Assert.assertEquals(ImmutableSet.of("0-0", "1-1", "2-0"), getShardNodes());
+
+        final ZkSubscriptionClient.Topology topology = createClient(2).getTopology();
+        Assert.assertEquals(topology, client.getTopology());
+        Assert.assertEquals(5, topology.getPartitions().length);
+        Assert.assertEquals("session", topology.getPartitions()[2].getSession());
+        Assert.assertEquals("hash", topology.getSessionsHash());
+    }
+
+    @Test
+    public void whenShardingSwitchedThenTopologyIsMigrated() throws Exception {
+        final ZkSubscriptionClient singleNodeClient = createClient(0);
+        final ZkSubscriptionClient shardedClient = createClient(2);
+        singleNodeClient.fillEmptySubscription(createCursors(3));
+        Assert.assertEquals(3, readTopologyNode().get("partitions").size());
+
+        shardedClient.updatePartitionsConfiguration("hash1", new Partition[]{
+                new Partition(EVENT_TYPE, "0", "session", null, Partition.State.ASSIGNED)});
+        Assert.assertTrue(readTopologyNode().has("shards"));
+        Assert.assertEquals(shardedClient.getTopology(), singleNodeClient.getTopology());
+
+        singleNodeClient.updatePartitionsConfiguration("hash2", new Partition[]{
+                new Partition(EVENT_TYPE, "1", "session", null, Partition.State.ASSIGNED)});
+        Assert.assertFalse(readTopologyNode().hasNonNull("shards"));
+        Assert.assertEquals(3, readTopologyNode().get("partitions").size());
+        Assert.assertEquals(ImmutableSet.of(), getShardNodes());
+        Assert.assertEquals(singleNodeClient.getTopology(), shardedClient.getTopology());
+
+        shardedClient.updatePartitionsConfiguration("hash3", new Partition[]{
+                new Partition(EVENT_TYPE, "2", "session", null, Partition.State.ASSIGNED)});
+        final ZkSubscriptionClient.Topology topology = singleNodeClient.getTopology();
+        Assert.assertEquals(shardedClient.getTopology(), topology);
+        Assert.assertTrue(Stream.of(topology.getPartitions()).allMatch(p -> "session".equals(p.getSession())));
+    }
+
+    @Test
+    public void whenShardedTopologyRepartitionedThenShardsAreAdded() throws Exception {
+        final ZkSubscriptionClient client = createClient(2);
+        client.fillEmptySubscription(createCursors(2));
+
+        client.repartitionTopology(EVENT_TYPE, 5, "001-0001--1");
+
+        Assert.assertEquals(ImmutableSet.of("0-0", "1-1", "2-1"), getShardNodes());
+        final List<String> partitions = Stream.of(createClient(2).getTopology().getPartitions())
+                .map(Partition::getPartition)
+                .collect(Collectors.toList());
+        Assert.assertEquals(IntStream.range(0, 5).mapToObj(String::valueOf).collect(Collectors.toList()), partitions);
+    }
+
+    private ZkSubscriptionClient createClient(final int topologyShardSize) throws Exception {
+        final ZooKeeperHolder zooKeeperHolder = Mockito.mock(ZooKeeperHolder.class);
+        Mockito.when(zooKeeperHolder.get()).thenReturn(CURATOR);
+        Mockito.when(zooKeeperHolder.getSubscriptionCurator(anyInt()))
+                .thenReturn(new ZooKeeperHolder.DisposableCuratorFramework(CURATOR));
+        return new NewZkSubscriptionClient(
+                subscriptionId,
+                zooKeeperHolder,
+                subscriptionId,
+                MAPPER,
+                30000,
+                topologyShardSize);
+    }
+
+    private static List<SubscriptionCursorWithoutToken> createCursors(final int count) {
+        return IntStream.range(0, count)
+                .mapToObj(p -> new SubscriptionCursorWithoutToken(EVENT_TYPE, String.valueOf(p), "001-0001--1"))
+                .collect(Collectors.toList());
+    }
+
+    private JsonNode readTopologyNode() throws Exception {
+        return MAPPER.readTree(CURATOR.getData().forPath(subscriptionPath() + "/topology"));
+    }
+
+    private Set<String> getShardNodes() throws Exception {
+        return new HashSet<>(CURATOR.getChildren().forPath(subscriptionPath() + "/topology_shards"));
+    }
+
+    private String subscriptionPath() {
+        return "/nakadi/subscriptions/" + subscriptionId;
+    }
+}
@@ -46,6 +46,7 @@ import org.zalando.nakadi.service.EventStream;
 import org.zalando.nakadi.service.EventStreamConfig;
 import org.zalando.nakadi.service.EventStreamFactory;
 import org.zalando.nakadi.service.EventTypeChangeListener;
+import org.zalando.nakadi.service.NonBlockingEventStreamer;
 import org.zalando.nakadi.service.timeline.TimelineService;
 import org.zalando.nakadi.util.FlowIdUtils;
 import org.zalando.nakadi.view.Cursor;
@@ -55,6 +56,7 @@ import org.zalando.problem.StatusType;
 import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -93,6 +95,7 @@ public class EventStreamController {
     private final MetricRegistry streamMetrics;
     private final AuthorizationValidator authorizationValidator;
     private final EventTypeChangeListener eventTypeChangeListener;
+    private final NonBlockingEventStreamer nonBlockingEventStreamer;
     private final Long maxMemoryUsageBytes;
 
     @Autowired
@@ -107,6 +110,7 @@ public class EventStreamController {
                                  final CursorConverter cursorConverter,
                                  final AuthorizationValidator authorizationValidator,
                                  final EventTypeChangeListener eventTypeChangeListener,
+                                 final NonBlockingEventStreamer nonBlockingEventStreamer,
                                  @Value("${nakadi.stream.maxStreamMemoryBytes}") final Long maxMemoryUsageBytes) {
         this.eventTypeRepository = eventTypeRepository;
         this.timelineService = timelineService;
@@ -119,6 +123,7 @@ public class EventStreamController {
         this.cursorConverter = cursorConverter;
         this.authorizationValidator = authorizationValidator;
         this.eventTypeChangeListener = eventTypeChangeListener;
+        this.nonBlockingEventStreamer = nonBlockingEventStreamer;
         this.maxMemoryUsageBytes = maxMemoryUsageBytes;
     }
 
@@ -194,10 +199,12 @@ public class EventStreamController {
             @Nullable
             @RequestParam(value = "stream_keep_alive_limit", required = false) final Integer streamKeepAliveLimit,
             @Nullable @RequestHeader(name = "X-nakadi-cursors", required = false) final String cursorsStr,
-            final HttpServletRequest request, final HttpServletResponse response, final Client client) {
+            final HttpServletRequest request, final HttpServletResponse response, final Client client)
+            throws IOException {
         final String flowId = FlowIdUtils.peek();
+        final boolean nonBlocking = nonBlockingEventStreamer.isEnabled();
 
-        return outputStream -> {
+        final StreamingResponseBody responseBody = outputStream -> {
             FlowIdUtils.push(flowId);
 
             if (blacklistService.isConsumptionBlocked(eventTypeName, client.getClientId())) {
@@ -207,14 +214,17 @@ public class EventStreamController {
             }
 
             final AtomicBoolean connectionReady = closedConnectionsCrutch.listenForConnectionClose(request);
+            Closeable listenerRegistration = null;
             Counter consumerCounter = null;
             EventStream eventStream = null;
+            boolean streamHandedOver = false;
             final AtomicBoolean needCheckAuthorization = new AtomicBoolean(false);
 
             LOG.info("[X-NAKADI-CURSORS] \"{}\" {}", eventTypeName, Optional.ofNullable(cursorsStr).orElse("-"));
 
-            try (Closeable ignore = eventTypeChangeListener.registerListener(et -> needCheckAuthorization.set(true),
-                    Collections.singletonList(eventTypeName))) {
+            try {
+                listenerRegistration = eventTypeChangeListener.registerListener(
+                        et -> needCheckAuthorization.set(true), Collections.singletonList(eventTypeName));
                 final EventType eventType = eventTypeRepository.findByName(eventTypeName);
 
                 authorizationValidator.authorizeEventTypeView(eventType);
@@ -251,16 +261,26 @@ public class EventStreamController {
 
                 final Meter bytesFlushedMeter = this.streamMetrics.meter(bytesFlushedMetricName);
 
+                // in non-blocking mode events are buffered until connection is ready to accept them
+                final ByteArrayOutputStream streamBuffer = nonBlocking ? new ByteArrayOutputStream() : null;
                 eventStream = eventStreamFactory.createEventStream(
-                        outputStream, eventConsumer, streamConfig, bytesFlushedMeter);
+                        nonBlocking ? streamBuffer : outputStream, eventConsumer, streamConfig, bytesFlushedMeter);
 
                 outputStream.flush(); // Flush status code to client
 
-                eventStream.streamEvents(connectionReady, () -> {
+                final Runnable checkAuthorization = () -> {
                     if (needCheckAuthorization.getAndSet(false)) {
                         authorizeStreamRead(eventTypeName);
                     }
-                });
+                };
+                if (nonBlocking) {
+                    nonBlockingEventStreamer.stream(request, eventStream, streamBuffer, connectionReady,
+                            checkAuthorization,
+                            streamResources(connectionReady, listenerRegistration, consumerCounter, eventStream));
+                    streamHandedOver = true;
+                } else {
+                    eventStream.streamEvents(connectionReady, checkAuthorization);
+                }
             } catch (final UnparseableCursorException e) {
                 LOG.debug("Incorrect syntax of X-nakadi-cursors header: {}. Respond with BAD_REQUEST.",
                         e.getCursors(), e);
@@ -287,18 +307,46 @@ public class EventStreamController {
                 LOG.error("Error while trying to stream events. Respond with INTERNAL_SERVER_ERROR.", e);
                 writeProblemResponse(response, outputStream, INTERNAL_SERVER_ERROR, e.getMessage());
             } finally {
-                connectionReady.set(false);
+                if (!streamHandedOver) {
+                    try {
+                        streamResources(connectionReady, listenerRegistration, consumerCounter, eventStream).close();
+                    } finally {
+                        try {
+                            outputStream.flush();
+                        } finally {
+                            outputStream.close();
+                        }
+                    }
+                }
+            }
+        };
+
+        if (nonBlocking) {
+            // Stream is prepared in the request thread, and events are written only when connection is ready for
+            // them, without holding a thread per consumer. Response is completed by the streamer.
+            responseBody.writeTo(response.getOutputStream());
+            return null;
+        }
+        return responseBody;
+    }
+
+    private Closeable streamResources(final AtomicBoolean connectionReady,
+                                      @Nullable final Closeable listenerRegistration,
+                                      @Nullable final Counter consumerCounter,
+                                      @Nullable final EventStream eventStream) {
+        return () -> {
+            connectionReady.set(false);
+            try {
+                if (listenerRegistration != null) {
+                    listenerRegistration.close();
+                }
+            } finally {
                 if (consumerCounter != null) {
                     consumerCounter.dec();
                 }
                 if (eventStream != null) {
                     eventStream.close();
                 }
-                try {
-                    outputStream.flush();
-                } finally {
-                    outputStream.close();
-                }
             }
         };
     }
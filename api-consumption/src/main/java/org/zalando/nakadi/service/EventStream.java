@@ -43,6 +43,18 @@ public class EventStream {
     private final long kpiFrequencyMs;
     private final NakadiKpiPublisher kpiPublisher;
 
+    private final Map<String, Integer> keepAliveInARow;
+    private final Map<String, List<byte[]>> currentBatches;
+    // Partition to NakadiCursor.
+    private final Map<String, NakadiCursor> latestOffsets;
+    private final long start;
+    private final Map<String, Long> batchStartTimes;
+    private final List<ConsumedEvent> consumedEvents;
+    private int messagesRead;
+    private long lastKpiEventSent;
+    private long bytesInMemory;
+    private boolean lastStepReadEvent;
+
     public EventStream(final EventConsumer eventConsumer,
                        final OutputStream outputStream,
                        final EventStreamConfig config,
@@ -62,137 +74,194 @@ public class EventStream {
         this.kpiData = new StreamKpiData();
         this.kpiDataStreamedEventType = kpiDataStreamedEventType;
         this.kpiFrequencyMs = kpiFrequencyMs;
+
+        this.keepAliveInARow = createMapWithPartitionKeys(partition -> 0);
+        this.currentBatches = createMapWithPartitionKeys(partition -> Lists.newArrayList());
+        this.latestOffsets = config.getCursors().stream().collect(
+                Collectors.toMap(NakadiCursor::getPartition, c -> c));
+        this.start = currentTimeMillis();
+        this.batchStartTimes = createMapWithPartitionKeys(partition -> start);
+        this.consumedEvents = new LinkedList<>();
+        this.messagesRead = 0;
+        this.lastKpiEventSent = start;
+        this.bytesInMemory = 0;
     }
 
     public void streamEvents(final AtomicBoolean connectionReady, final Runnable checkAuthorization) {
         try {
-            int messagesRead = 0;
-            final Map<String, Integer> keepAliveInARow = createMapWithPartitionKeys(partition -> 0);
-
-            final Map<String, List<byte[]>> currentBatches =
-                    createMapWithPartitionKeys(partition -> Lists.newArrayList());
-            // Partition to NakadiCursor.
-            final Map<String, NakadiCursor> latestOffsets = config.getCursors().stream().collect(
-                    Collectors.toMap(NakadiCursor::getPartition, c -> c));
-
-            final long start = currentTimeMillis();
-            final Map<String, Long> batchStartTimes = createMapWithPartitionKeys(partition -> start);
-            final List<ConsumedEvent> consumedEvents = new LinkedList<>();
-            long lastKpiEventSent = System.currentTimeMillis();
-            long bytesInMemory = 0;
-
-            while (connectionReady.get() &&
-                    !blacklistService.isConsumptionBlocked(config.getEtName(), config.getConsumingClient()
-                            .getClientId())) {
-
-                checkAuthorization.run();
-
-                if (consumedEvents.isEmpty()) {
-                    // TODO: There are a lot of optimizations here, one can significantly improve code by processing
-                    // all events at the same time, instead of processing one by one.
-                    consumedEvents.addAll(eventConsumer.readEvents());
-                }
-                final Optional<ConsumedEvent> eventOrEmpty = consumedEvents.isEmpty() ?
-                        Optional.empty() : Optional.of(consumedEvents.remove(0));
+            while (connectionReady.get() && streamStep(checkAuthorization)) {
+                // every iteration is made by streamStep, that blocks while waiting for new events in storage
+            }
+        } finally {
+            completeStreaming();
+        }
+    }
 
-                if (eventOrEmpty.isPresent()) {
-                    final ConsumedEvent event = eventOrEmpty.get();
+    /**
+     * Makes one iteration of streaming: reads the next event, sends the batches that are due and checks stream
+     * limits. Allows the stream to be driven from outside, e.g. by the readiness of the connection for writing.
+     *
+     * @return false if the stream is over and no more steps should be made
+     */
+    public boolean streamStep(final Runnable checkAuthorization) {
+        return streamStep(checkAuthorization, true);
+    }
 
-                    // update offset for the partition of event that was read
-                    latestOffsets.put(event.getPosition().getPartition(), event.getPosition());
+    /**
+     * Same as {@link #streamStep(Runnable)}, but does not wait for new events in storage, so that the thread making
+     * the step is never blocked by polling. Should be combined with {@link #getIdleTimeMs()} to avoid busy looping.
+     *
+     * @return false if the stream is over and no more steps should be made
+     */
+    public boolean streamStepWithoutWaiting(final Runnable checkAuthorization) {
+        return streamStep(checkAuthorization, false);
+    }
 
-                    // put message to batch
-                    currentBatches.get(event.getPosition().getPartition()).add(event.getEvent());
-                    messagesRead++;
-                    bytesInMemory += event.getEvent().length;
+    /**
+     * @return time in milliseconds until the next step has something to do if no new events arrive to storage: zero
+     * if the last step read an event, otherwise time left until the earliest batch flush (that sends keep-alive for
+     * empty batches) or the stream timeout
+     */
+    public long getIdleTimeMs() {
+        if (lastStepReadEvent || !consumedEvents.isEmpty()) {
+            return 0;
+        }
+        long nextStepAt = Long.MAX_VALUE;
+        for (final long batchStartTime : batchStartTimes.values()) {
+            nextStepAt = Math.min(nextStepAt, batchStartTime + config.getBatchTimeout() * 1000L);
+        }
+        if (config.getStreamTimeout() != 0) {
+            nextStepAt = Math.min(nextStepAt, start + config.getStreamTimeout() * 1000L);
+        }
+        return Math.max(0, nextStepAt - currentTimeMillis());
+    }
 
-                    // if we read the message - reset keep alive counter for this partition
-                    keepAliveInARow.put(event.getPosition().getPartition(), 0);
-                }
+    private boolean streamStep(final Runnable checkAuthorization, final boolean waitForEvents) {
+        try {
+            return nextStep(checkAuthorization, waitForEvents);
+        } catch (final IOException e) {
+            LOG.info("I/O error occurred when streaming events (possibly client closed connection)", e);
+        } catch (final IllegalStateException e) {
+            LOG.info("Error occurred when streaming events (possibly server closed connection)", e);
+        } catch (final KafkaException e) {
+            LOG.error("Error occurred when polling events from kafka; consumer: {}, event-type: {}",
+                    config.getConsumingClient().getClientId(), config.getEtName(), e);
+        }
+        return false;
+    }
 
-                // for each partition check if it's time to send the batch
-                for (final String partition : latestOffsets.keySet()) {
-                    final long timeSinceBatchStart = currentTimeMillis() - batchStartTimes.get(partition);
-                    if (config.getBatchTimeout() * 1000 <= timeSinceBatchStart
-                            || currentBatches.get(partition).size() >= config.getBatchLimit()) {
-                        final List<byte[]> eventsToSend = currentBatches.get(partition);
-                        sendBatch(latestOffsets.get(partition), eventsToSend);
-
-                        if (!eventsToSend.isEmpty()) {
-                            bytesInMemory -= eventsToSend.stream().mapToLong(v -> v.length).sum();
-                            eventsToSend.clear();
-                        } else {
-                            // if we hit keep alive count limit - close the stream
-                            keepAliveInARow.put(partition, keepAliveInARow.get(partition) + 1);
-                        }
-
-                        batchStartTimes.put(partition, currentTimeMillis());
-                    }
-                }
-                // Dump some data that is exceeding memory limits
-                while (isMemoryLimitReached(bytesInMemory)) {
-                    final Map.Entry<String, List<byte[]>> heaviestPartition = currentBatches.entrySet().stream()
-                            .max(Comparator.comparing(
-                                    entry -> entry.getValue().stream().mapToLong(event -> event.length).sum()))
-                            .get();
-                    sendBatch(latestOffsets.get(heaviestPartition.getKey()), heaviestPartition.getValue());
-                    final long freed = heaviestPartition.getValue().stream().mapToLong(v -> v.length).sum();
-                    LOG.info("Memory limit reached for event type {}: {} bytes. Freed: {} bytes, {} messages",
-                            config.getEtName(), bytesInMemory, freed, heaviestPartition.getValue().size());
-                    bytesInMemory -= freed;
-                    // Init new batch for subscription
-                    heaviestPartition.getValue().clear();
-                    batchStartTimes.put(heaviestPartition.getKey(), currentTimeMillis());
-                }
+    /**
+     * Publishes the statistics of the data that was streamed and not yet reported. Should be called once the stream
+     * is over.
+     */
+    public void completeStreaming() {
+        publishKpi(
+                config.getConsumingClient(),
+                kpiData.getAndResetNumberOfEventsSent(),
+                kpiData.getAndResetBytesSent());
+    }
 
-                if (lastKpiEventSent + kpiFrequencyMs < System.currentTimeMillis()) {
-                    final long count = kpiData.getAndResetNumberOfEventsSent();
-                    final long bytes = kpiData.getAndResetBytesSent();
+    private boolean nextStep(final Runnable checkAuthorization, final boolean waitForEvents) throws IOException {
+        if (blacklistService.isConsumptionBlocked(config.getEtName(), config.getConsumingClient().getClientId())) {
+            return false;
+        }
 
-                    publishKpi(config.getConsumingClient(), count, bytes);
+        checkAuthorization.run();
 
-                    lastKpiEventSent = System.currentTimeMillis();
-                }
+        if (consumedEvents.isEmpty()) {
+            // TODO: There are a lot of optimizations here, one can significantly improve code by processing
+            // all events at the same time, instead of processing one by one.
+            consumedEvents.addAll(waitForEvents ? eventConsumer.readEvents() : eventConsumer.readEvents(0));
+        }
+        final Optional<ConsumedEvent> eventOrEmpty = consumedEvents.isEmpty() ?
+                Optional.empty() : Optional.of(consumedEvents.remove(0));
+        lastStepReadEvent = eventOrEmpty.isPresent();
+
+        if (eventOrEmpty.isPresent()) {
+            final ConsumedEvent event = eventOrEmpty.get();
 
-                // check if we reached keepAliveInARow for all the partitions; if yes - then close stream
-                if (config.getStreamKeepAliveLimit() != 0) {
-                    final boolean keepAliveLimitReachedForAllPartitions = keepAliveInARow
-                            .values()
-                            .stream()
-                            .allMatch(keepAlives -> keepAlives >= config.getStreamKeepAliveLimit());
+            // update offset for the partition of event that was read
+            latestOffsets.put(event.getPosition().getPartition(), event.getPosition());
+
+            // put message to batch
+            currentBatches.get(event.getPosition().getPartition()).add(event.getEvent());
+            messagesRead++;
+            bytesInMemory += event.getEvent().length;
+
+            // if we read the message - reset keep alive counter for this partition
+            keepAliveInARow.put(event.getPosition().getPartition(), 0);
+        }
 
-                    if (keepAliveLimitReachedForAllPartitions) {
-                        break;
-                    }
+        // for each partition check if it's time to send the batch
+        for (final String partition : latestOffsets.keySet()) {
+            final long timeSinceBatchStart = currentTimeMillis() - batchStartTimes.get(partition);
+            if (config.getBatchTimeout() * 1000 <= timeSinceBatchStart
+                    || currentBatches.get(partition).size() >= config.getBatchLimit()) {
+                final List<byte[]> eventsToSend = currentBatches.get(partition);
+                sendBatch(latestOffsets.get(partition), eventsToSend);
+
+                if (!eventsToSend.isEmpty()) {
+                    bytesInMemory -= eventsToSend.stream().mapToLong(v -> v.length).sum();
+                    eventsToSend.clear();
+                } else {
+                    // if we hit keep alive count limit - close the stream
+                    keepAliveInARow.put(partition, keepAliveInARow.get(partition) + 1);
                 }
 
-                // check if we reached the stream timeout or message count limit
-                final long timeSinceStart = currentTimeMillis() - start;
-                if (config.getStreamTimeout() != 0 && timeSinceStart >= config.getStreamTimeout() * 1000
-                        || config.getStreamLimit() != 0 && messagesRead >= config.getStreamLimit()) {
+                batchStartTimes.put(partition, currentTimeMillis());
+            }
+        }
+        // Dump some data that is exceeding memory limits
+        while (isMemoryLimitReached(bytesInMemory)) {
+            final Map.Entry<String, List<byte[]>> heaviestPartition = currentBatches.entrySet().stream()
+                    .max(Comparator.comparing(
+                            entry -> entry.getValue().stream().mapToLong(event -> event.length).sum()))
+                    .get();
+            sendBatch(latestOffsets.get(heaviestPartition.getKey()), heaviestPartition.getValue());
+            final long freed = heaviestPartition.getValue().stream().mapToLong(v -> v.length).sum();
+            LOG.info("Memory limit reached for event type {}: {} bytes. Freed: {} bytes, {} messages",
+                    config.getEtName(), bytesInMemory, freed, heaviestPartition.getValue().size());
+            bytesInMemory -= freed;
+            // Init new batch for subscription
+            heaviestPartition.getValue().clear();
+            batchStartTimes.put(heaviestPartition.getKey(), currentTimeMillis());
+        }
+
+        if (lastKpiEventSent + kpiFrequencyMs < System.currentTimeMillis()) {
+            final long count = kpiData.getAndResetNumberOfEventsSent();
+            final long bytes = kpiData.getAndResetBytesSent();
+
+            publishKpi(config.getConsumingClient(), count, bytes);
+
+            lastKpiEventSent = System.currentTimeMillis();
+        }
 
-                    for (final String partition : latestOffsets.keySet()) {
-                        if (currentBatches.get(partition).size() > 0) {
-                            sendBatch(latestOffsets.get(partition), currentBatches.get(partition));
-                        }
-                    }
+        // check if we reached keepAliveInARow for all the partitions; if yes - then close stream
+        if (config.getStreamKeepAliveLimit() != 0) {
+            final boolean keepAliveLimitReachedForAllPartitions = keepAliveInARow
+                    .values()
+                    .stream()
+                    .allMatch(keepAlives -> keepAlives >= config.getStreamKeepAliveLimit());
 
-                    break;
+            if (keepAliveLimitReachedForAllPartitions) {
+                return false;
+            }
+        }
+
+        // check if we reached the stream timeout or message count limit
+        final long timeSinceStart = currentTimeMillis() - start;
+        if (config.getStreamTimeout() != 0 && timeSinceStart >= config.getStreamTimeout() * 1000
+                || config.getStreamLimit() != 0 && messagesRead >= config.getStreamLimit()) {
+
+            for (final String partition : latestOffsets.keySet()) {
+                if (currentBatches.get(partition).size() > 0) {
+                    sendBatch(latestOffsets.get(partition), currentBatches.get(partition));
                 }
             }
-        } catch (final IOException e) {
-            LOG.info("I/O error occurred when streaming events (possibly client closed connection)", e);
-        } catch (final IllegalStateException e) {
-            LOG.info("Error occurred when streaming events (possibly server closed connection)", e);
-        } catch (final KafkaException e) {
-            LOG.error("Error occurred when polling events from kafka; consumer: {}, event-type: {}",
-                    config.getConsumingClient().getClientId(), config.getEtName(), e);
-        } finally {
-            publishKpi(
-                    config.getConsumingClient(),
-                    kpiData.getAndResetNumberOfEventsSent(),
-                    kpiData.getAndResetBytesSent());
+
+            return false;
         }
+        return true;
     }
 
     private boolean isMemoryLimitReached(final long memoryUsed) {
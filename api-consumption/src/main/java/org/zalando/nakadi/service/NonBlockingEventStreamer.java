@@ -0,0 +1,322 @@
+package org.zalando.nakadi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zalando.nakadi.domain.Feature;
+import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
+import org.zalando.nakadi.util.FlowIdUtils;
+import org.zalando.problem.Problem;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.zalando.problem.Status.FORBIDDEN;
+
+/**
+ * Streams events of the low-level API using servlet non-blocking output. Instead of holding a thread per consumer
+ * for the whole life of the stream, steps of {@link EventStream} are made by a shared pool of threads, and only
+ * while the connection is ready to accept more data. Stream of a slow consumer is parked until the container
+ * reports that the connection is writable again. Storage is polled without waiting, a stream that has nothing to read
+ * is parked until its next batch flush (or keep-alive) is due, so idle streams do not occupy the threads. Parked
+ * streams are not woken up by new events: they poll storage again at least every nakadi.kafka.poll.timeoutMs, so an
+ * idle stream may notice new events up to that much later than a blocking poll would.
+ */
+@Component
+public class NonBlockingEventStreamer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NonBlockingEventStreamer.class);
+    // Time one stream may make steps in a row, before the thread is given to other streams
+    private static final long MAX_RUN_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final FeatureToggleService featureToggleService;
+    private final ObjectMapper jsonMapper;
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService wakeUpScheduler;
+    private final long streamTimeoutMs;
+    private final long maxParkMs;
+
+    /**
+     * @param maxParkMs the longest time a stream with nothing to read is parked, that is the longest delay before it
+     *                  notices new events in storage
+     */
+    @Autowired
+    public NonBlockingEventStreamer(
+            final FeatureToggleService featureToggleService,
+            final ObjectMapper jsonMapper,
+            @Value("${nakadi.stream.nonBlocking.threads:16}") final int threads,
+            @Value("${nakadi.stream.timeoutMs}") final long streamTimeoutMs,
+            @Value("${nakadi.kafka.poll.timeoutMs}") final long maxParkMs) {
+        this.featureToggleService = featureToggleService;
+        this.jsonMapper = jsonMapper;
+        this.executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("non-blocking-streaming-%d")
+                .setDaemon(true)
+                .build());
+        this.wakeUpScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("non-blocking-streaming-wake-up-%d")
+                .setDaemon(true)
+                .build());
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.maxParkMs = maxParkMs;
+    }
+
+    public boolean isEnabled() {
+        return featureToggleService.isFeatureEnabled(Feature.NON_BLOCKING_LOLA_STREAMING);
+    }
+
+    /**
+     * Puts the request to asynchronous mode and streams events to it until the stream is over or the connection is
+     * closed.
+     *
+     * @param request            Request to stream events to. Response status and headers should be already sent
+     * @param eventStream        Stream that was created to write to {@code streamBuffer}
+     * @param streamBuffer       Buffer that keeps the output of one step, until connection is ready to accept it
+     * @param connectionReady    Flag that is reset once connection is closed
+     * @param checkAuthorization Authorization check that is made before each step
+     * @param streamResources    Resources to release once streaming is over
+     */
+    public void stream(final HttpServletRequest request,
+                       final EventStream eventStream,
+                       final ByteArrayOutputStream streamBuffer,
+                       final AtomicBoolean connectionReady,
+                       final Runnable checkAuthorization,
+                       final Closeable streamResources) throws IOException {
+        final AsyncContext asyncContext = request.startAsync();
+        try {
+            asyncContext.setTimeout(streamTimeoutMs);
+            final StreamTask task = new StreamTask(asyncContext, asyncContext.getResponse().getOutputStream(),
+                    eventStream, streamBuffer, connectionReady, checkAuthorization, streamResources);
+            asyncContext.addListener(task);
+            // Container calls onWritePossible as soon as the listener is set, that makes the first step
+            task.output.setWriteListener(task);
+        } catch (final IOException | RuntimeException e) {
+            asyncContext.complete();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUpScheduler.shutdownNow();
+        executorService.shutdownNow();
+    }
+
+    private enum RunResult {
+        WAITING_FOR_CONNECTION,
+        WAITING_FOR_EVENTS,
+        YIELDED,
+        FINISHED
+    }
+
+    private class StreamTask implements WriteListener, AsyncListener {
+        private final AsyncContext asyncContext;
+        private final ServletOutputStream output;
+        private final EventStream eventStream;
+        private final ByteArrayOutputStream streamBuffer;
+        private final AtomicBoolean connectionReady;
+        private final Runnable checkAuthorization;
+        private final Closeable streamResources;
+        private final String flowId;
+        // Number of times the task was asked to run, it is scheduled only when the counter leaves zero
+        private final AtomicInteger runRequests = new AtomicInteger();
+        private volatile boolean finished;
+        // The fields below are only accessed by the single thread that is running the task at the moment
+        private boolean streamOver;
+        private boolean flushPending;
+        private long parkMs;
+        private ScheduledFuture<?> wakeUp;
+
+        private StreamTask(final AsyncContext asyncContext,
+                           final ServletOutputStream output,
+                           final EventStream eventStream,
+                           final ByteArrayOutputStream streamBuffer,
+                           final AtomicBoolean connectionReady,
+                           final Runnable checkAuthorization,
+                           final Closeable streamResources) {
+            this.asyncContext = asyncContext;
+            this.output = output;
+            this.eventStream = eventStream;
+            this.streamBuffer = streamBuffer;
+            this.connectionReady = connectionReady;
+            this.checkAuthorization = checkAuthorization;
+            this.streamResources = streamResources;
+            this.flowId = FlowIdUtils.peek();
+        }
+
+        @Override
+        public void onWritePossible() {
+            requestRun();
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            LOG.info("I/O error occurred when streaming events (possibly client closed connection)", t);
+            stopStreaming();
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            stopStreaming();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            stopStreaming();
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            stopStreaming();
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+        }
+
+        private void stopStreaming() {
+            connectionReady.set(false);
+            requestRun();
+        }
+
+        private void requestRun() {
+            if (runRequests.getAndIncrement() == 0) {
+                executorService.execute(this::run);
+            }
+        }
+
+        private void run() {
+            if (finished) {
+                // Counter is never decremented after that, so the task won't be scheduled anymore
+                return;
+            }
+            final int requests = runRequests.get();
+            if (null != wakeUp) {
+                wakeUp.cancel(false);
+                wakeUp = null;
+            }
+            FlowIdUtils.push(flowId);
+            try {
+                final RunResult result = runSteps();
+                if (result == RunResult.YIELDED) {
+                    executorService.execute(this::run);
+                    return;
+                }
+                if (result == RunResult.WAITING_FOR_EVENTS) {
+                    // Scheduled before the requests are released, so that the wake up can not start a run while
+                    // this one is still in progress
+                    wakeUp = wakeUpScheduler.schedule(this::requestRun, parkMs, TimeUnit.MILLISECONDS);
+                }
+                if (result != RunResult.FINISHED && runRequests.addAndGet(-requests) > 0) {
+                    // Connection became writable or closed while the steps were made
+                    executorService.execute(this::run);
+                }
+            } finally {
+                FlowIdUtils.clear();
+            }
+        }
+
+        private RunResult runSteps() {
+            final long runStartNanos = System.nanoTime();
+            parkMs = 0;
+            try {
+                while (true) {
+                    if (!connectionReady.get()) {
+                        finish();
+                        return RunResult.FINISHED;
+                    }
+                    if (!writeStreamBuffer()) {
+                        return RunResult.WAITING_FOR_CONNECTION;
+                    }
+                    if (streamOver) {
+                        finish();
+                        return RunResult.FINISHED;
+                    }
+                    if (parkMs > 0) {
+                        return RunResult.WAITING_FOR_EVENTS;
+                    }
+                    if (System.nanoTime() - runStartNanos >= MAX_RUN_NANOS) {
+                        return RunResult.YIELDED;
+                    }
+                    try {
+                        streamOver = !eventStream.streamStepWithoutWaiting(checkAuthorization);
+                    } catch (final AccessDeniedException e) {
+                        // The same as blocking streaming does: the problem is written to the stream, that is closed
+                        // once the problem is sent
+                        jsonMapper.writer().writeValue(streamBuffer, Problem.valueOf(FORBIDDEN, e.explain()));
+                        streamOver = true;
+                    }
+                    if (!streamOver) {
+                        parkMs = Math.min(eventStream.getIdleTimeMs(), maxParkMs);
+                    }
+                }
+            } catch (final IOException e) {
+                LOG.info("I/O error occurred when streaming events (possibly client closed connection)", e);
+            } catch (final RuntimeException e) {
+                LOG.error("Error occurred when streaming events, closing the stream", e);
+            }
+            finish();
+            return RunResult.FINISHED;
+        }
+
+        /**
+         * Moves data produced by the previous step to the connection.
+         *
+         * @return true if all the data was accepted and connection is ready for more
+         */
+        private boolean writeStreamBuffer() throws IOException {
+            if (streamBuffer.size() > 0) {
+                if (!output.isReady()) {
+                    return false;
+                }
+                streamBuffer.writeTo(output);
+                streamBuffer.reset();
+                flushPending = true;
+            }
+            if (flushPending) {
+                if (!output.isReady()) {
+                    return false;
+                }
+                output.flush();
+                flushPending = false;
+            }
+            return output.isReady();
+        }
+
+        private void finish() {
+            finished = true;
+            connectionReady.set(false);
+            try {
+                eventStream.completeStreaming();
+                streamResources.close();
+            } catch (final IOException | RuntimeException e) {
+                LOG.error("Failed to release resources of the stream", e);
+            } finally {
+                try {
+                    asyncContext.complete();
+                } catch (final IllegalStateException e) {
+                    LOG.debug("Stream was already completed by the container", e);
+                }
+            }
+        }
+    }
+}
@@ -11,6 +11,8 @@ import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
 import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+import org.zalando.nakadi.metrics.StreamingMetricRegistry;
+import org.zalando.nakadi.repository.zookeeper.ZkSubscription;
 import org.zalando.nakadi.service.AuthorizationValidator;
 import org.zalando.nakadi.service.BlacklistService;
 import org.zalando.nakadi.service.CursorConverter;
@@ -24,7 +26,6 @@ import org.zalando.nakadi.service.subscription.state.CleanupState;
 import org.zalando.nakadi.service.subscription.state.DummyState;
 import org.zalando.nakadi.service.subscription.state.StartingState;
 import org.zalando.nakadi.service.subscription.state.State;
-import org.zalando.nakadi.service.subscription.zk.ZkSubscription;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
@@ -61,6 +62,7 @@ public class StreamingContext implements SubscriptionStreamer {
     private final CursorConverter cursorConverter;
     private final Subscription subscription;
     private final MetricRegistry metricRegistry;
+    private final StreamingMetricRegistry streamingMetricRegistry;
     private final EventStreamWriter writer;
     private final AuthorizationValidator authorizationValidator;
     private final EventTypeChangeListener eventTypeChangeListener;
@@ -97,6 +99,7 @@ public class StreamingContext implements SubscriptionStreamer {
         this.cursorConverter = builder.cursorConverter;
         this.subscription = builder.subscription;
         this.metricRegistry = builder.metricRegistry;
+        this.streamingMetricRegistry = builder.streamingMetricRegistry;
         this.writer = builder.writer;
         this.authorizationValidator = builder.authorizationValidator;
         this.eventTypeChangeListener = builder.eventTypeChangeListener;
@@ -148,6 +151,10 @@ public class StreamingContext implements SubscriptionStreamer {
         return metricRegistry;
     }
 
+    public StreamingMetricRegistry getStreamingMetricRegistry() {
+        return streamingMetricRegistry;
+    }
+
     public EventStreamWriter getWriter() {
         return this.writer;
     }
@@ -367,6 +374,7 @@ public class StreamingContext implements SubscriptionStreamer {
         private CursorConverter cursorConverter;
         private Subscription subscription;
         private MetricRegistry metricRegistry;
+        private StreamingMetricRegistry streamingMetricRegistry;
         private TimelineService timelineService;
         private EventStreamWriter writer;
         private AuthorizationValidator authorizationValidator;
@@ -468,6 +476,11 @@ public class StreamingContext implements SubscriptionStreamer {
             return this;
         }
 
+        public Builder setStreamingMetricRegistry(final StreamingMetricRegistry streamingMetricRegistry) {
+            this.streamingMetricRegistry = streamingMetricRegistry;
+            return this;
+        }
+
         public Builder setWriter(final EventStreamWriter writer) {
             this.writer = writer;
             return this;
@@ -1,30 +1,38 @@
 package org.zalando.nakadi.service.subscription;
 
-import com.google.common.collect.Lists;
 import org.zalando.nakadi.domain.EventTypePartition;
 import org.zalando.nakadi.exceptions.runtime.RebalanceConflictException;
 import org.zalando.nakadi.service.subscription.model.Partition;
 import org.zalando.nakadi.service.subscription.model.Session;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
+/**
+ * Calculates changes to subscription topology for the current set of sessions. Partitions are indexed by key and by
+ * session once per call, so the complexity is linear in number of partitions and sessions.
+ */
 class SubscriptionRebalancer implements BiFunction<Collection<Session>, Partition[], Partition[]> {
 
     @Override
     public Partition[] apply(final Collection<Session> sessions, final Partition[] currentPartitions) {
 
-        final List<String> activeSessions = sessions.stream()
+        final Set<String> activeSessions = sessions.stream()
                 .map(Session::getId)
-                .collect(Collectors.toList());
-        final List<Partition> partitionsLeft = Lists.newArrayList(currentPartitions);
+                .collect(Collectors.toSet());
+        final boolean[] taken = new boolean[currentPartitions.length];
         final List<Partition> changedPartitions = new ArrayList<>();
 
         final List<Session> sessionsWithSpecifiedPartitions = sessions.stream()
@@ -32,94 +40,136 @@ class SubscriptionRebalancer implements BiFunction<Collection<Session>, Partitio
                 .collect(Collectors.toList());
 
         // go through all sessions that directly requested partitions to stream
-        for (final Session session : sessionsWithSpecifiedPartitions) {
-            for (final EventTypePartition requestedPartition : session.getRequestedPartitions()) {
-
-                // find a partition that is requested and assign it to a session that requests it
-                final Partition partition = partitionsLeft.stream()
-                        .filter(p -> p.getKey().equals(requestedPartition))
-                        .findFirst()
-                        .orElseThrow(() -> new RebalanceConflictException(
-                                "Two existing sessions request the same partition: " + requestedPartition));
-                partitionsLeft.remove(partition);
-
-                // if this partition is not assigned to this session - move it
-                if (!session.getId().equals(partition.getSession())) {
-                    final Partition movedPartition = partition.moveToSessionId(session.getId(), activeSessions);
-                    changedPartitions.add(movedPartition);
+        if (!sessionsWithSpecifiedPartitions.isEmpty()) {
+            final Map<EventTypePartition, Integer> partitionIndex = new HashMap<>(currentPartitions.length * 2);
+            for (int idx = 0; idx < currentPartitions.length; ++idx) {
+                partitionIndex.putIfAbsent(currentPartitions[idx].getKey(), idx);
+            }
+            for (final Session session : sessionsWithSpecifiedPartitions) {
+                for (final EventTypePartition requestedPartition : session.getRequestedPartitions()) {
+
+                    // find a partition that is requested and assign it to a session that requests it
+                    final Integer idx = partitionIndex.get(requestedPartition);
+                    if (null == idx || taken[idx]) {
+                        throw new RebalanceConflictException(
+                                "Two existing sessions request the same partition: " + requestedPartition);
+                    }
+                    taken[idx] = true;
+                    final Partition partition = currentPartitions[idx];
+
+                    // if this partition is not assigned to this session - move it
+                    if (!session.getId().equals(partition.getSession())) {
+                        final Partition movedPartition = partition.moveToSessionId(session.getId(), activeSessions);
+                        changedPartitions.add(movedPartition);
+                    }
                 }
             }
         }
 
+        final List<Partition> partitionsLeft = new ArrayList<>(currentPartitions.length);
+        for (int idx = 0; idx < currentPartitions.length; ++idx) {
+            if (!taken[idx]) {
+                partitionsLeft.add(currentPartitions[idx]);
+            }
+        }
+
         // for the rest of partitions/sessions perform a rebalance based on partitions count
         final List<Session> autoBalanceSessions = sessions.stream()
                 .filter(s -> s.getRequestedPartitions().isEmpty())
                 .collect(Collectors.toList());
 
         if (!autoBalanceSessions.isEmpty() && !partitionsLeft.isEmpty()) {
-            final Partition[] partitionsChangedByAutoRebalance = rebalanceByWeight(
-                    autoBalanceSessions,
-                    partitionsLeft.toArray(new Partition[partitionsLeft.size()]));
-            changedPartitions.addAll(Arrays.asList(partitionsChangedByAutoRebalance));
+            changedPartitions.addAll(rebalanceByWeight(autoBalanceSessions, partitionsLeft));
         }
         return changedPartitions.toArray(new Partition[changedPartitions.size()]);
     }
 
-    private Partition[] rebalanceByWeight(final Collection<Session> sessions, final Partition[] currentPartitions) {
+    private List<Partition> rebalanceByWeight(final Collection<Session> sessions,
+                                              final List<Partition> currentPartitions) {
         final Map<String, Integer> activeSessionWeights = sessions.stream()
                 .collect(Collectors.toMap(Session::getId, Session::getWeight));
         // sorted session ids.
         final List<String> activeSessionIds = activeSessionWeights.keySet().stream().sorted()
                 .collect(Collectors.toList());
+        final Set<String> activeSessionIdSet = new HashSet<>(activeSessionIds);
         // the main part of rebalance - calculate count for each partition.
         final int[] partitionsPerSession = splitByWeight(
-                currentPartitions.length,
+                currentPartitions.size(),
                 activeSessionIds.stream().mapToInt(activeSessionWeights::get).toArray());
 
         // Stage 1. Select partitions that are not assigned to any EXISTING session.
-        final List<Partition> toRebalance = Stream.of(currentPartitions)
-                .filter(p -> p.mustBeRebalanced(activeSessionIds))
-                .collect(Collectors.toList());
+        // Stage 2.1. Index the rest of partitions by session (and by state within session).
+        final List<Partition> toRebalance = new ArrayList<>();
+        final Map<String, SessionPartitions> partitions = new HashMap<>();
+        for (final Partition p : currentPartitions) {
+            if (p.mustBeRebalanced(activeSessionIdSet)) {
+                toRebalance.add(p);
+            } else {
+                partitions.computeIfAbsent(p.getEffectiveSession(), s -> new SessionPartitions()).add(p);
+            }
+        }
 
-        // State 2. Remove partitions from sessions that have too many of them.
-        // 2.1. collect information per session.
-        final Map<String, List<Partition>> partitions = Stream.of(currentPartitions)
-                .filter(p -> !toRebalance.contains(p))
-                .collect(Collectors.groupingBy(Partition::getEffectiveSession));
-        // 2.2. Remove
+        // Stage 2.2. Remove partitions from sessions that have too many of them.
         for (int idx = 0; idx < activeSessionIds.size(); ++idx) {
+            final SessionPartitions sessionPartitions = partitions.get(activeSessionIds.get(idx));
+            if (null != sessionPartitions) {
+                sessionPartitions.takeExcess(sessionPartitions.size() - partitionsPerSession[idx], toRebalance);
+            }
+        }
+
+        // Stage 3. Assign partitions to any nodes who are waiting for it.
+        final List<Partition> result = new ArrayList<>();
+        int nextToMove = 0;
+        for (int idx = 0; idx < activeSessionIds.size() && nextToMove < toRebalance.size(); ++idx) {
             final String sessionId = activeSessionIds.get(idx);
-            final int suggestedCount = partitionsPerSession[idx];
-            int toTake = (partitions.containsKey(sessionId) ? partitions.get(sessionId).size() : 0) - suggestedCount;
-            while (toTake > 0) {
-                final List<Partition> candidates = partitions.get(sessionId);
-                final Partition toTakeItem = candidates.stream()
-                        .filter(p -> p.getState() == Partition.State.REASSIGNING)
-                        .findAny()
-                        .orElse(candidates.get(candidates.size() - 1));
-                candidates.remove(toTakeItem);
-                toRebalance.add(toTakeItem);
-                toTake -= 1;
+            final SessionPartitions sessionPartitions = partitions.get(sessionId);
+            final int currentCount = null == sessionPartitions ? 0 : sessionPartitions.size();
+            for (int i = 0; i < partitionsPerSession[idx] - currentCount; ++i) {
+                result.add(toRebalance.get(nextToMove++).moveToSessionId(sessionId, activeSessionIdSet));
             }
         }
+        return result;
+    }
 
-        if (!toRebalance.isEmpty()) {
-            // 3. Assign partitions to any nodes who are waiting for it.
-            final List<Partition> result = new ArrayList<>();
-            for (int idx = 0; idx < activeSessionIds.size(); ++idx) {
-                final String sessionId = activeSessionIds.get(idx);
-
-                final int suggestedCount = partitionsPerSession[idx];
-                final int currentCount = partitions.containsKey(sessionId) ? partitions.get(sessionId).size() : 0;
-                for (int i = 0; i < suggestedCount - currentCount; ++i) {
-                    final Partition toMove = toRebalance.iterator().next();
-                    toRebalance.remove(toMove);
-                    result.add(toMove.moveToSessionId(sessionId, activeSessionIds));
+    /**
+     * Partitions effectively owned by one session. When session has too many partitions, partitions that are being
+     * reassigned are taken first (in topology order), then partitions are taken from the end of the list.
+     */
+    private static class SessionPartitions {
+        private final List<Partition> all = new ArrayList<>();
+        private final Deque<Integer> reassigning = new ArrayDeque<>();
+        private final BitSet removed = new BitSet();
+        private int last = -1;
+        private int size = 0;
+
+        private void add(final Partition partition) {
+            if (partition.getState() == Partition.State.REASSIGNING) {
+                reassigning.add(all.size());
+            }
+            all.add(partition);
+            last = all.size() - 1;
+            ++size;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void takeExcess(final int count, final List<Partition> target) {
+            for (int i = 0; i < count; ++i) {
+                final int idx;
+                if (!reassigning.isEmpty()) {
+                    idx = reassigning.poll();
+                } else {
+                    idx = last;
+                }
+                removed.set(idx);
+                --size;
+                while (last >= 0 && removed.get(last)) {
+                    --last;
                 }
+                target.add(all.get(idx));
             }
-            return result.toArray(new Partition[result.size()]);
-        } else {
-            return new Partition[0];
         }
     }
 
@@ -11,6 +11,7 @@ import org.zalando.nakadi.cache.EventTypeCache;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
+import org.zalando.nakadi.metrics.StreamingMetricRegistry;
 import org.zalando.nakadi.service.AuthorizationValidator;
 import org.zalando.nakadi.service.BlacklistService;
 import org.zalando.nakadi.service.CursorConverter;
@@ -39,6 +40,7 @@ public class SubscriptionStreamerFactory {
     private final ObjectMapper objectMapper;
     private final CursorConverter cursorConverter;
     private final MetricRegistry metricRegistry;
+    private final StreamingMetricRegistry streamingMetricRegistry;
     private final SubscriptionClientFactory zkClientFactory;
     private final EventStreamWriter eventStreamWriter;
     private final AuthorizationValidator authorizationValidator;
@@ -56,6 +58,7 @@ public class SubscriptionStreamerFactory {
             final ObjectMapper objectMapper,
             final CursorConverter cursorConverter,
             @Qualifier("streamMetricsRegistry") final MetricRegistry metricRegistry,
+            final StreamingMetricRegistry streamingMetricRegistry,
             final SubscriptionClientFactory zkClientFactory,
             final EventStreamWriter eventStreamWriter,
             final AuthorizationValidator authorizationValidator,
@@ -70,6 +73,7 @@ public class SubscriptionStreamerFactory {
         this.objectMapper = objectMapper;
         this.cursorConverter = cursorConverter;
         this.metricRegistry = metricRegistry;
+        this.streamingMetricRegistry = streamingMetricRegistry;
         this.zkClientFactory = zkClientFactory;
         this.eventStreamWriter = eventStreamWriter;
         this.authorizationValidator = authorizationValidator;
@@ -120,6 +124,7 @@ public class SubscriptionStreamerFactory {
                 .setCursorConverter(cursorConverter)
                 .setSubscription(subscription)
                 .setMetricRegistry(metricRegistry)
+                .setStreamingMetricRegistry(streamingMetricRegistry)
                 .setTimelineService(timelineService)
                 .setWriter(eventStreamWriter)
                 .setAuthorizationValidator(authorizationValidator)
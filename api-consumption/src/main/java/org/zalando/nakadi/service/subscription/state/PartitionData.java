@@ -5,12 +5,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zalando.nakadi.domain.ConsumedEvent;
 import org.zalando.nakadi.domain.NakadiCursor;
-import org.zalando.nakadi.service.subscription.zk.ZkSubscription;
+import org.zalando.nakadi.repository.zookeeper.ZkSubscription;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NavigableSet;
@@ -23,6 +25,8 @@ class PartitionData {
     private final ZkSubscription<SubscriptionCursorWithoutToken> subscription;
     private final List<ConsumedEvent> nakadiEvents = new LinkedList<>();
     private final NavigableSet<NakadiCursor> allCursorsOrdered;
+    // last cursors of the batches that were flushed, but not committed yet, with the time of flushing
+    private final Deque<FlushedBatch> flushedBatches = new ArrayDeque<>();
     private final Logger log;
 
     private NakadiCursor commitOffset;
@@ -195,13 +199,37 @@ class PartitionData {
         }
     }
 
+    private static class FlushedBatch {
+        private final NakadiCursor lastCursor;
+        private final long flushedAtMillis;
+
+        private FlushedBatch(final NakadiCursor lastCursor, final long flushedAtMillis) {
+            this.lastCursor = lastCursor;
+            this.flushedAtMillis = flushedAtMillis;
+        }
+    }
+
     static class CommitResult {
         final boolean seekOnKafka;
         final long committedCount;
+        // times when the batches that are committed now were flushed to the client
+        final List<Long> committedBatchesFlushedAtMillis;
 
-        private CommitResult(final boolean seekOnKafka, final long committedCount) {
+        private CommitResult(final boolean seekOnKafka, final long committedCount,
+                             final List<Long> committedBatchesFlushedAtMillis) {
             this.seekOnKafka = seekOnKafka;
             this.committedCount = committedCount;
+            this.committedBatchesFlushedAtMillis = committedBatchesFlushedAtMillis;
+        }
+    }
+
+    /**
+     * Remembers that events up to the sent offset were flushed to the client, to measure the time until they are
+     * committed.
+     */
+    void onBatchFlushed(final long currentTimeMillis) {
+        if (flushedBatches.isEmpty() || comparator.compare(flushedBatches.peekLast().lastCursor, sentOffset) < 0) {
+            flushedBatches.addLast(new FlushedBatch(sentOffset, currentTimeMillis));
         }
     }
 
@@ -214,6 +242,10 @@ class PartitionData {
             sentOffset = offset;
         }
         final long committed;
+        final List<Long> committedBatchesFlushedAtMillis = new ArrayList<>();
+        while (!flushedBatches.isEmpty() && comparator.compare(flushedBatches.peekFirst().lastCursor, offset) <= 0) {
+            committedBatchesFlushedAtMillis.add(flushedBatches.removeFirst().flushedAtMillis);
+        }
         if (comparator.compare(offset, commitOffset) >= 0) {
             final Set<NakadiCursor> committedCursors = allCursorsOrdered.headSet(offset, true);
             committed = committedCursors.size();
@@ -227,6 +259,7 @@ class PartitionData {
             commitOffset = offset;
             sentOffset = commitOffset;
             allCursorsOrdered.clear();
+            flushedBatches.clear();
             nakadiEvents.clear();
             bytesInMemory = 0L;
             committed = 0;
@@ -235,7 +268,7 @@ class PartitionData {
             final ConsumedEvent evt = nakadiEvents.remove(0);
             bytesInMemory -= evt.getEvent().length;
         }
-        return new CommitResult(seekKafka, committed);
+        return new CommitResult(seekKafka, committed, committedBatchesFlushedAtMillis);
     }
 
     void addEvent(final ConsumedEvent event) {
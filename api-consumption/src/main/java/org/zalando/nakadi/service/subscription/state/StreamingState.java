@@ -2,6 +2,7 @@ package org.zalando.nakadi.service.subscription.state;
 
 import com.codahale.metrics.Meter;
 import com.google.common.base.Preconditions;
+import io.opentracing.Span;
 import org.json.JSONObject;
 import org.slf4j.LoggerFactory;
 import org.zalando.nakadi.domain.ConsumedEvent;
@@ -15,14 +16,15 @@ import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
 import org.zalando.nakadi.metrics.MetricUtils;
 import org.zalando.nakadi.metrics.StreamKpiData;
+import org.zalando.nakadi.metrics.StreamingTimings;
 import org.zalando.nakadi.repository.EventConsumer;
+import org.zalando.nakadi.repository.zookeeper.ZkSubscription;
 import org.zalando.nakadi.security.Client;
 import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
 import org.zalando.nakadi.service.TracingService;
 import org.zalando.nakadi.service.subscription.IdleStreamWatcher;
 import org.zalando.nakadi.service.subscription.LogPathBuilder;
 import org.zalando.nakadi.service.subscription.model.Partition;
-import org.zalando.nakadi.service.subscription.zk.ZkSubscription;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
 import org.zalando.nakadi.view.SubscriptionCursor;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
@@ -59,6 +61,7 @@ class StreamingState extends State {
     private long sentEvents;
     private long batchesSent;
     private Meter bytesSentMeterPerSubscription;
+    private StreamingTimings streamingTimings;
     private Map<String, StreamKpiData> kpiDataPerEventType;
     private long lastKpiEventSent;
     // Uncommitted offsets are calculated right on exiting from Streaming state.
@@ -95,6 +98,8 @@ class StreamingState extends State {
                 this.getContext().getSubscription().getId()
         );
         bytesSentMeterPerSubscription = this.getContext().getMetricRegistry().meter(kafkaFlushedBytesMetricName);
+        streamingTimings = getContext().getStreamingMetricRegistry()
+                .startStream(getContext().getSubscription().getId());
 
         lastKpiEventSent = System.currentTimeMillis();
         kpiDataPerEventType = this.getContext().getSubscription().getEventTypes().stream()
@@ -213,7 +218,9 @@ class StreamingState extends State {
             scheduleTask(this::pollDataFromKafka, getKafkaPollTimeout(), TimeUnit.MILLISECONDS);
             return;
         }
+        final long pollStartNanos = System.nanoTime();
         final List<ConsumedEvent> events = eventConsumer.readEvents();
+        streamingTimings.record(StreamingTimings.Stage.KAFKA_POLL, System.nanoTime() - pollStartNanos);
         events.forEach(this::rememberEvent);
         if (!events.isEmpty()) {
             addTask(this::streamToOutput);
@@ -348,11 +355,15 @@ class StreamingState extends State {
                     sentOffset,
                     getContext().getCursorTokenService().generateToken());
 
+            final long writeStartNanos = System.nanoTime();
             final int batchSize = getContext().getWriter().writeSubscriptionBatch(
                     getOut().getOutputStream(),
                     cursor,
                     data,
                     metadata);
+            if (!data.isEmpty()) {
+                recordFlushTimings(pk, data, System.nanoTime() - writeStartNanos);
+            }
 
             bytesSentMeterPerSubscription.mark(batchSize);
 
@@ -367,6 +378,26 @@ class StreamingState extends State {
         }
     }
 
+    /**
+     * Records timings of a batch that was just flushed. Time since publishing is measured from the kafka timestamp of
+     * the oldest event, that approximates its {@code metadata.received_at} without parsing the event. Records without
+     * a timestamp (e.g. written by an old producer) are skipped, as the value would be meaningless.
+     */
+    private void recordFlushTimings(final EventTypePartition pk, final List<ConsumedEvent> data,
+                                    final long writeNanos) {
+        final long currentTimeMillis = System.currentTimeMillis();
+        // events of a batch are ordered, the first one is the oldest
+        final ConsumedEvent oldestEvent = data.get(0);
+        streamingTimings.record(StreamingTimings.Stage.WRITE, writeNanos);
+        streamingTimings.recordMillis(StreamingTimings.Stage.BUFFERED,
+                currentTimeMillis - oldestEvent.getConsumedAtMillis());
+        if (oldestEvent.getTimestamp() > 0) {
+            streamingTimings.recordMillis(StreamingTimings.Stage.RECEIVED_TO_FLUSHED,
+                    currentTimeMillis - oldestEvent.getTimestamp());
+        }
+        offsets.get(pk).onBatchFlushed(currentTimeMillis);
+    }
+
     public void logExtendedCommitInformation() {
         // We need to log situation when commit timeout was reached, and check that current committed offset is the
         // same as it is in zk.
@@ -404,6 +435,21 @@ class StreamingState extends State {
         }
     }
 
+    private void logStreamingTimings() {
+        if (null == streamingTimings) {
+            return;
+        }
+        final Map<String, Double> summary = streamingTimings.close();
+        if (summary.isEmpty()) {
+            return;
+        }
+        getLog().info("Stream stage timings: {}", summary);
+        final Span span = getContext().getCurrentSpan();
+        if (null != span) {
+            summary.forEach((name, value) -> span.setTag("stream." + name, value));
+        }
+    }
+
     @Override
     public void onExit() {
         uncommittedOffsets = offsets.entrySet().stream()
@@ -411,6 +457,7 @@ class StreamingState extends State {
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getSentOffset()));
 
         getContext().getSubscription().getEventTypes().stream().forEach(et -> publishKpi(et));
+        logStreamingTimings();
         logExtendedCommitInformation();
         if (null != topologyChangeSubscription) {
             try {
@@ -681,6 +728,10 @@ class StreamingState extends State {
             final NakadiCursor cursor = createNakadiCursor(data.getSubscription().getData());
 
             final PartitionData.CommitResult commitResult = data.onCommitOffset(cursor);
+            final long currentTimeMillis = System.currentTimeMillis();
+            for (final long flushedAtMillis : commitResult.committedBatchesFlushedAtMillis) {
+                streamingTimings.recordMillis(StreamingTimings.Stage.COMMIT, currentTimeMillis - flushedAtMillis);
+            }
             if (commitResult.seekOnKafka) {
                 reconfigureKafkaConsumer(true);
             }
@@ -43,11 +43,13 @@ import org.zalando.nakadi.service.EventStream;
 import org.zalando.nakadi.service.EventStreamConfig;
 import org.zalando.nakadi.service.EventStreamFactory;
 import org.zalando.nakadi.service.EventTypeChangeListener;
+import org.zalando.nakadi.service.NonBlockingEventStreamer;
 import org.zalando.nakadi.service.converter.CursorConverterImpl;
 import org.zalando.nakadi.service.timeline.TimelineService;
 import org.zalando.nakadi.util.ThreadUtils;
 import org.zalando.problem.Problem;
 
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
@@ -123,6 +125,7 @@ public class EventStreamControllerTest {
     private EventTypeChangeListener eventTypeChangeListener;
     private AdminService adminService;
     private AuthorizationService authorizationService;
+    private NonBlockingEventStreamer nonBlockingEventStreamer;
 
     @Before
     public void setup() throws UnknownHostException, InvalidCursorException {
@@ -165,11 +168,12 @@ public class EventStreamControllerTest {
         authorizationValidator = mock(AuthorizationValidator.class);
         eventTypeChangeListener = mock(EventTypeChangeListener.class);
         when(eventTypeChangeListener.registerListener(any(), any())).thenReturn(mock(Closeable.class));
+        nonBlockingEventStreamer = mock(NonBlockingEventStreamer.class);
         controller = new EventStreamController(
                 eventTypeRepository, timelineService, OBJECT_MAPPER, eventStreamFactoryMock, metricRegistry,
                 streamMetrics, crutch, blacklistService,
                 new CursorConverterImpl(eventTypeCache, timelineService), authorizationValidator,
-                eventTypeChangeListener, null);
+                eventTypeChangeListener, nonBlockingEventStreamer, null);
 
         settings = mock(SecuritySettings.class);
         when(settings.getAuthMode()).thenReturn(OFF);
@@ -374,6 +378,40 @@ public class EventStreamControllerTest {
         verify(outputStream, times(1)).close();
     }
 
+    @Test
+    public void whenNonBlockingStreamingThenStreamIsHandedOverWithResources() throws Exception {
+        when(nonBlockingEventStreamer.isEnabled()).thenReturn(true);
+        when(eventTypeRepository.findByName(TEST_EVENT_TYPE_NAME)).thenReturn(EVENT_TYPE);
+        when(timelineService.getActiveTimeline(eq(EVENT_TYPE))).thenReturn(timeline);
+        final ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(responseMock.getOutputStream()).thenReturn(outputStream);
+        final EventStream eventStreamMock = mock(EventStream.class);
+        final ArgumentCaptor<OutputStream> streamOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        when(eventStreamFactoryMock.createEventStream(streamOutputCaptor.capture(), any(), any(), any()))
+                .thenReturn(eventStreamMock);
+        final ArgumentCaptor<ByteArrayOutputStream> bufferCaptor =
+                ArgumentCaptor.forClass(ByteArrayOutputStream.class);
+        final ArgumentCaptor<Closeable> resourcesCaptor = ArgumentCaptor.forClass(Closeable.class);
+
+        final StreamingResponseBody responseBody = createStreamingResponseBody(1, 2, 3, 4, 5,
+                "[{\"partition\":\"0\",\"offset\":\"000000000000000000\"}]");
+
+        assertThat(responseBody, equalTo(null));
+        verify(nonBlockingEventStreamer, times(1)).stream(eq(requestMock), eq(eventStreamMock),
+                bufferCaptor.capture(), any(), any(), resourcesCaptor.capture());
+        assertThat(streamOutputCaptor.getValue(), equalTo(bufferCaptor.getValue()));
+        verify(eventStreamMock, times(0)).streamEvents(any(), any());
+        verify(outputStream, times(1)).flush();
+        verify(outputStream, times(0)).close();
+
+        final Counter counter = metricRegistry.counter(metricNameFor(TEST_EVENT_TYPE_NAME,
+                EventStreamController.CONSUMERS_COUNT_METRIC_NAME));
+        assertThat(counter.getCount(), equalTo(1L));
+        resourcesCaptor.getValue().close();
+        assertThat(counter.getCount(), equalTo(0L));
+        verify(eventStreamMock, times(1)).close();
+    }
+
     @Test
     public void whenNakadiExceptionIsThrownThenServiceUnavailable() throws IOException {
         when(eventTypeRepository.findByName(TEST_EVENT_TYPE_NAME))
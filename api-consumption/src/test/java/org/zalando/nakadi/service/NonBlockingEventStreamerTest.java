@@ -0,0 +1,223 @@
+package org.zalando.nakadi.service;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
+import org.zalando.nakadi.repository.EventConsumer;
+import org.zalando.nakadi.security.Client;
+import org.zalando.nakadi.service.converter.CursorConverterImpl;
+import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
+import org.zalando.nakadi.service.timeline.TimelineService;
+import org.zalando.nakadi.utils.TestUtils;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+
+public class NonBlockingEventStreamerTest {
+
+    private static final int THREADS = 2;
+    private static final Timeline TIMELINE = TestUtils.buildTimelineWithTopic("topic");
+
+    private final AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+    private final TestOutputStream output = new TestOutputStream();
+    private final EventStream eventStream = Mockito.mock(EventStream.class);
+    private final ByteArrayOutputStream streamBuffer = new ByteArrayOutputStream();
+    private final AtomicBoolean connectionReady = new AtomicBoolean(true);
+    private final Closeable streamResources = Mockito.mock(Closeable.class);
+    private NonBlockingEventStreamer streamer;
+
+    @Before
+    public void before() {
+        streamer = new NonBlockingEventStreamer(
+                Mockito.mock(FeatureToggleService.class), TestUtils.OBJECT_MAPPER, THREADS, 1000, 100);
+    }
+
+    @After
+    public void after() {
+        streamer.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void whenStreamIsOverThenAllStepsAreWrittenAndRequestCompleted() throws Exception {
+        final AtomicInteger steps = new AtomicInteger();
+        Mockito.when(eventStream.streamStepWithoutWaiting(any())).thenAnswer(invocation -> {
+            streamBuffer.write(("batch" + steps.incrementAndGet() + "\n").getBytes(StandardCharsets.UTF_8));
+            return steps.get() < 3;
+        });
+
+        startStreaming();
+
+        Mockito.verify(asyncContext, Mockito.timeout(5000)).complete();
+        Assert.assertEquals("batch1\nbatch2\nbatch3\n", output.written());
+        Mockito.verify(eventStream).completeStreaming();
+        Mockito.verify(streamResources).close();
+        Assert.assertFalse(connectionReady.get());
+    }
+
+    @Test(timeout = 10000)
+    public void whenConnectionIsNotReadyThenNoStepsAreMadeUntilItIsWritable() throws Exception {
+        Mockito.when(eventStream.streamStepWithoutWaiting(any())).thenReturn(false);
+        output.ready.set(false);
+
+        startStreaming();
+        Thread.sleep(200);
+        Mockito.verify(eventStream, Mockito.never()).streamStepWithoutWaiting(any());
+
+        output.ready.set(true);
+        output.listener.onWritePossible();
+
+        Mockito.verify(asyncContext, Mockito.timeout(5000)).complete();
+        Mockito.verify(eventStream, Mockito.times(1)).streamStepWithoutWaiting(any());
+    }
+
+    @Test(timeout = 10000)
+    public void whenConnectionIsClosedThenStreamingIsStoppedAndResourcesReleased() throws Exception {
+        final AtomicInteger steps = new AtomicInteger();
+        Mockito.when(eventStream.streamStepWithoutWaiting(any())).thenAnswer(invocation -> steps.incrementAndGet() > 0);
+
+        startStreaming();
+        while (steps.get() < 10) {
+            Thread.sleep(10);
+        }
+        connectionReady.set(false);
+
+        Mockito.verify(asyncContext, Mockito.timeout(5000)).complete();
+        Mockito.verify(streamResources).close();
+    }
+
+    @Test(timeout = 10000)
+    public void whenAccessIsDeniedThenProblemIsWrittenAndStreamIsClosed() throws Exception {
+        final AccessDeniedException accessDenied = TestUtils.mockAccessDeniedException();
+        Mockito.when(eventStream.streamStepWithoutWaiting(any())).thenThrow(accessDenied);
+
+        startStreaming();
+
+        Mockito.verify(asyncContext, Mockito.timeout(5000)).complete();
+        Assert.assertEquals(403, TestUtils.OBJECT_MAPPER.readTree(output.written()).get("status").asInt());
+        Mockito.verify(streamResources).close();
+    }
+
+    @Test(timeout = 15000)
+    public void whenMoreIdleStreamsThanThreadsThenKeepAlivesAreSentInTime() throws Exception {
+        final CursorConverter cursorConverter = new CursorConverterImpl(
+                Mockito.mock(EventTypeCache.class), Mockito.mock(TimelineService.class));
+        final List<TestOutputStream> outputs = new ArrayList<>();
+        final List<AtomicBoolean> connections = new ArrayList<>();
+        for (int i = 0; i < THREADS * 3; ++i) {
+            // polling with timeout blocks, like kafka consumer does when there are no events
+            final EventConsumer eventConsumer = Mockito.mock(EventConsumer.class);
+            Mockito.when(eventConsumer.readEvents()).thenAnswer(invocation -> {
+                Thread.sleep(100);
+                return Collections.emptyList();
+            });
+            Mockito.when(eventConsumer.readEvents(anyLong())).thenReturn(Collections.emptyList());
+            final EventStreamConfig config = EventStreamConfig.builder()
+                    .withCursors(Collections.singletonList(NakadiCursor.of(TIMELINE, "0", "0")))
+                    .withBatchTimeout(1)
+                    .withConsumingClient(Mockito.mock(Client.class))
+                    .build();
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final EventStream idleStream = new EventStream(eventConsumer, buffer, config,
+                    Mockito.mock(BlacklistService.class), cursorConverter, new MetricRegistry().meter("mock"),
+                    new EventStreamWriterBinary(), Mockito.mock(NakadiKpiPublisher.class), "kpi", 60000);
+
+            final TestOutputStream streamOutput = new TestOutputStream();
+            final AtomicBoolean connection = new AtomicBoolean(true);
+            startStreaming(Mockito.mock(AsyncContext.class), idleStream, buffer, streamOutput, connection);
+            outputs.add(streamOutput);
+            connections.add(connection);
+        }
+        final long start = System.currentTimeMillis();
+        Thread.sleep(3500);
+        connections.forEach(connection -> connection.set(false));
+
+        for (final TestOutputStream streamOutput : outputs) {
+            final List<Long> flushTimes = streamOutput.flushTimes();
+            Assert.assertTrue("keep-alive batches are missing: " + flushTimes, flushTimes.size() >= 3);
+            long previous = start;
+            for (final Long flushTime : flushTimes.subList(0, 3)) {
+                Assert.assertTrue("keep-alive batch is late: " + flushTimes, flushTime - previous < 1500);
+                previous = flushTime;
+            }
+        }
+    }
+
+    private void startStreaming() throws Exception {
+        startStreaming(asyncContext, eventStream, streamBuffer, output, connectionReady);
+    }
+
+    private void startStreaming(final AsyncContext context, final EventStream stream,
+                                final ByteArrayOutputStream buffer, final TestOutputStream streamOutput,
+                                final AtomicBoolean connection) throws Exception {
+        final ServletResponse response = Mockito.mock(ServletResponse.class);
+        Mockito.when(response.getOutputStream()).thenReturn(streamOutput);
+        Mockito.when(context.getResponse()).thenReturn(response);
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.startAsync()).thenReturn(context);
+        streamer.stream(request, stream, buffer, connection, () -> {
+        }, streamResources);
+        Assert.assertNotNull(streamOutput.listener);
+        // the container notifies the listener once it is set
+        streamOutput.listener.onWritePossible();
+    }
+
+    private static class TestOutputStream extends ServletOutputStream {
+        private final AtomicBoolean ready = new AtomicBoolean(true);
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private final List<Long> flushTimes = new ArrayList<>();
+        private int flushedSize;
+        private volatile WriteListener listener;
+
+        @Override
+        public boolean isReady() {
+            return ready.get();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+
+        @Override
+        public synchronized void write(final int b) {
+            data.write(b);
+        }
+
+        @Override
+        public synchronized void flush() {
+            if (data.size() > flushedSize) {
+                flushedSize = data.size();
+                flushTimes.add(System.currentTimeMillis());
+            }
+        }
+
+        private synchronized List<Long> flushTimes() {
+            return new ArrayList<>(flushTimes);
+        }
+
+        private synchronized String written() {
+            return new String(data.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package org.zalando.nakadi.service.subscription;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import org.junit.Test;
 import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.exceptions.runtime.RebalanceConflictException;
 import org.zalando.nakadi.service.subscription.model.Partition;
 import org.zalando.nakadi.service.subscription.model.Session;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.collect.Sets.newHashSet;
@@ -216,4 +226,150 @@ public class SubscriptionRebalancerTest {
         assertEquals("3", changed.getNextSession());
         assertEquals(REASSIGNING, changed.getState());
     }
+
+    @Test
+    public void rebalanceShouldProduceSameTopologyAsReferenceImplementation() {
+        final Random random = new Random(0);
+        final SubscriptionRebalancer rebalancer = new SubscriptionRebalancer();
+        final ReferenceRebalancer reference = new ReferenceRebalancer();
+        for (int i = 0; i < 2_000; ++i) {
+            final List<Session> sessions = new ArrayList<>();
+            final Partition[] partitions = randomTopology(random, sessions);
+            Partition[] expected;
+            try {
+                expected = reference.apply(sessions, partitions);
+            } catch (final RebalanceConflictException e) {
+                expected = null;
+            }
+            Partition[] actual;
+            try {
+                actual = rebalancer.apply(sessions, partitions);
+            } catch (final RebalanceConflictException e) {
+                actual = null;
+            }
+            assertArrayEquals(sessions + " " + Arrays.toString(partitions), expected, actual);
+        }
+    }
+
+    private static Partition[] randomTopology(final Random random, final List<Session> sessions) {
+        final List<String> sessionIds = new ArrayList<>();
+        for (int i = 0; i < 1 + random.nextInt(12); ++i) {
+            sessionIds.add("s" + random.nextInt(1_000));
+        }
+        final List<Partition> partitions = new ArrayList<>();
+        final int eventTypeCount = 1 + random.nextInt(3);
+        for (int et = 0; et < eventTypeCount; ++et) {
+            final int partitionCount = 1 + random.nextInt(30);
+            for (int p = 0; p < partitionCount; ++p) {
+                final String session = sessionIds.get(random.nextInt(sessionIds.size()));
+                final String nextSession = sessionIds.get(random.nextInt(sessionIds.size()));
+                final Partition.State state = Partition.State.values()[random.nextInt(3)];
+                partitions.add(new Partition("et" + et, String.valueOf(p),
+                        state == UNASSIGNED ? null : session,
+                        state == REASSIGNING ? nextSession : null,
+                        state));
+            }
+        }
+        Collections.shuffle(partitions, random);
+
+        // some of the sessions mentioned in topology are already dead
+        final int sessionCount = 1 + random.nextInt(Math.min(10, partitions.size()));
+        final List<String> activeIds = sessionIds.stream().limit(sessionCount).distinct().collect(Collectors.toList());
+        final int autoBalanceLimit = Math.max(0, partitions.size() - activeIds.size());
+        int requestedSoFar = 0;
+        for (final String id : activeIds) {
+            final List<EventTypePartition> requested = new ArrayList<>();
+            if (random.nextInt(4) == 0) {
+                for (int i = 0; i < 1 + random.nextInt(3) && requestedSoFar < autoBalanceLimit; ++i) {
+                    // conflicts are generated on purpose from time to time
+                    requested.add(partitions.get(random.nextInt(partitions.size())).getKey());
+                    ++requestedSoFar;
+                }
+            }
+            sessions.add(new Session(id, 1 + random.nextInt(3), requested));
+        }
+        return partitions.toArray(new Partition[partitions.size()]);
+    }
+
+    /**
+     * Straightforward implementation of rebalance, used to verify that optimized one produces the same topology.
+     */
+    private static class ReferenceRebalancer implements BiFunction<Collection<Session>, Partition[], Partition[]> {
+
+        @Override
+        public Partition[] apply(final Collection<Session> sessions, final Partition[] currentPartitions) {
+            final List<String> activeSessions = sessions.stream()
+                    .map(Session::getId)
+                    .collect(Collectors.toList());
+            final List<Partition> partitionsLeft = Lists.newArrayList(currentPartitions);
+            final List<Partition> changedPartitions = new ArrayList<>();
+
+            for (final Session session : sessions) {
+                for (final EventTypePartition requestedPartition : session.getRequestedPartitions()) {
+                    final Partition partition = partitionsLeft.stream()
+                            .filter(p -> p.getKey().equals(requestedPartition))
+                            .findFirst()
+                            .orElseThrow(() -> new RebalanceConflictException(
+                                    "Two existing sessions request the same partition: " + requestedPartition));
+                    partitionsLeft.remove(partition);
+                    if (!session.getId().equals(partition.getSession())) {
+                        changedPartitions.add(partition.moveToSessionId(session.getId(), activeSessions));
+                    }
+                }
+            }
+
+            final List<Session> autoBalanceSessions = sessions.stream()
+                    .filter(s -> s.getRequestedPartitions().isEmpty())
+                    .collect(Collectors.toList());
+            if (!autoBalanceSessions.isEmpty() && !partitionsLeft.isEmpty()) {
+                changedPartitions.addAll(Arrays.asList(rebalanceByWeight(
+                        autoBalanceSessions, partitionsLeft.toArray(new Partition[partitionsLeft.size()]))));
+            }
+            return changedPartitions.toArray(new Partition[changedPartitions.size()]);
+        }
+
+        private Partition[] rebalanceByWeight(final Collection<Session> sessions, final Partition[] currentPartitions) {
+            final Map<String, Integer> activeSessionWeights = sessions.stream()
+                    .collect(Collectors.toMap(Session::getId, Session::getWeight));
+            final List<String> activeSessionIds = activeSessionWeights.keySet().stream().sorted()
+                    .collect(Collectors.toList());
+            final int[] partitionsPerSession = SubscriptionRebalancer.splitByWeight(
+                    currentPartitions.length,
+                    activeSessionIds.stream().mapToInt(activeSessionWeights::get).toArray());
+
+            final List<Partition> toRebalance = Stream.of(currentPartitions)
+                    .filter(p -> p.mustBeRebalanced(activeSessionIds))
+                    .collect(Collectors.toList());
+            final Map<String, List<Partition>> partitions = Stream.of(currentPartitions)
+                    .filter(p -> !toRebalance.contains(p))
+                    .collect(Collectors.groupingBy(Partition::getEffectiveSession));
+            for (int idx = 0; idx < activeSessionIds.size(); ++idx) {
+                final String sessionId = activeSessionIds.get(idx);
+                int toTake = (partitions.containsKey(sessionId) ? partitions.get(sessionId).size() : 0)
+                        - partitionsPerSession[idx];
+                while (toTake > 0) {
+                    final List<Partition> candidates = partitions.get(sessionId);
+                    final Partition toTakeItem = candidates.stream()
+                            .filter(p -> p.getState() == Partition.State.REASSIGNING)
+                            .findAny()
+                            .orElse(candidates.get(candidates.size() - 1));
+                    candidates.remove(toTakeItem);
+                    toRebalance.add(toTakeItem);
+                    toTake -= 1;
+                }
+            }
+
+            final List<Partition> result = new ArrayList<>();
+            for (int idx = 0; idx < activeSessionIds.size(); ++idx) {
+                final String sessionId = activeSessionIds.get(idx);
+                final int currentCount = partitions.containsKey(sessionId) ? partitions.get(sessionId).size() : 0;
+                for (int i = 0; i < partitionsPerSession[idx] - currentCount; ++i) {
+                    final Partition toMove = toRebalance.iterator().next();
+                    toRebalance.remove(toMove);
+                    result.add(toMove.moveToSessionId(sessionId, activeSessionIds));
+                }
+            }
+            return result.toArray(new Partition[result.size()]);
+        }
+    }
 }
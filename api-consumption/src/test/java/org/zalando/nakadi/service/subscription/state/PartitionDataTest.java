@@ -8,6 +8,8 @@ import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.domain.storage.Storage;
 import org.zalando.nakadi.repository.kafka.KafkaCursor;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -73,6 +75,24 @@ public class PartitionDataTest {
         }
     }
 
+    @Test
+    public void commitShouldReturnFlushTimesOfCommittedBatches() {
+        final PartitionData pd = new PartitionData(COMP, null, createCursor(100L), System.currentTimeMillis());
+        for (long i = 0; i < 30; ++i) {
+            pd.addEvent(new ConsumedEvent(("test_" + i).getBytes(), createCursor(100L + i + 1), 0));
+        }
+        for (long flushedAt = 1000L; flushedAt <= 3000L; flushedAt += 1000L) {
+            pd.takeEventsToStream(currentTimeMillis(), 10, 0L, false);
+            pd.onBatchFlushed(flushedAt);
+        }
+
+        assertEquals(Arrays.asList(1000L, 2000L),
+                pd.onCommitOffset(createCursor(120L)).committedBatchesFlushedAtMillis);
+        assertEquals(Collections.emptyList(), pd.onCommitOffset(createCursor(125L)).committedBatchesFlushedAtMillis);
+        assertEquals(Collections.singletonList(3000L),
+                pd.onCommitOffset(createCursor(130L)).committedBatchesFlushedAtMillis);
+    }
+
     @Test
     public void keepAliveCountShouldIncreaseOnEachEmptyCall() {
         final PartitionData pd = new PartitionData(COMP, null, createCursor(100L), System.currentTimeMillis());
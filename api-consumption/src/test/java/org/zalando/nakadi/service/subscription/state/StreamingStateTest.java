@@ -17,8 +17,10 @@ import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+import org.zalando.nakadi.metrics.StreamingMetricRegistry;
 import org.zalando.nakadi.repository.EventConsumer;
 import org.zalando.nakadi.repository.TopicRepository;
+import org.zalando.nakadi.repository.zookeeper.ZkSubscription;
 import org.zalando.nakadi.security.Client;
 import org.zalando.nakadi.service.CursorConverter;
 import org.zalando.nakadi.service.subscription.StreamParameters;
@@ -26,7 +28,6 @@ import org.zalando.nakadi.service.subscription.StreamParametersTest;
 import org.zalando.nakadi.service.subscription.StreamingContext;
 import org.zalando.nakadi.service.subscription.SubscriptionOutput;
 import org.zalando.nakadi.service.subscription.model.Partition;
-import org.zalando.nakadi.service.subscription.zk.ZkSubscription;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
 import org.zalando.nakadi.service.timeline.TimelineService;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
@@ -65,6 +66,7 @@ public class StreamingStateTest {
         when(contextMock.getSessionId()).thenReturn(SESSION_ID);
         when(contextMock.isInState(Mockito.same(state))).thenReturn(true);
         subscription = mock(Subscription.class);
+        when(subscription.getId()).thenReturn("sid");
         when(contextMock.getSubscription()).thenReturn(subscription);
         timelineService = mock(TimelineService.class);
         when(contextMock.getTimelineService()).thenReturn(timelineService);
@@ -75,6 +77,8 @@ public class StreamingStateTest {
         final MetricRegistry metricRegistry = mock(MetricRegistry.class);
         when(metricRegistry.register(any(), any())).thenReturn(null);
         when(contextMock.getMetricRegistry()).thenReturn(metricRegistry);
+        when(contextMock.getStreamingMetricRegistry())
+                .thenReturn(new StreamingMetricRegistry(new MetricRegistry(), 3600000));
 
         zkMock = mock(ZkSubscriptionClient.class);
         when(contextMock.getZkClient()).thenReturn(zkMock);
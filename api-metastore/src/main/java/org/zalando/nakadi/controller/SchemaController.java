@@ -36,12 +36,13 @@ public class SchemaController {
             @PathVariable("name") final String name,
             @RequestParam(value = "offset", required = false, defaultValue = "0") final int offset,
             @RequestParam(value = "limit", required = false, defaultValue = "20") final int limit,
+            @RequestParam(value = "after", required = false) final String after,
             final NativeWebRequest request)
             throws InvalidLimitException, NoSuchEventTypeException, InternalNakadiException {
         // Ensures that event type exists
         eventTypeService.get(name);
 
-        final PaginationWrapper schemas = schemaService.getSchemas(name, offset, limit);
+        final PaginationWrapper schemas = schemaService.getSchemas(name, offset, limit, after);
         return ResponseEntity.status(HttpStatus.OK).body(schemas);
     }
 
@@ -56,7 +57,7 @@ public class SchemaController {
             return ResponseEntity.status(HttpStatus.OK).body(eventType.getSchema());
         }
 
-        final EventTypeSchema result = schemaService.getSchemaVersion(name, version);
+        final EventTypeSchema result = schemaService.getSchemaVersion(eventType, version);
         return ResponseEntity.status(HttpStatus.OK).body(result);
     }
 }
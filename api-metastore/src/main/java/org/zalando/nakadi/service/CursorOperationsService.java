@@ -6,7 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.NakadiCursorLag;
-import org.zalando.nakadi.domain.PartitionEndStatistics;
 import org.zalando.nakadi.domain.PartitionStatistics;
 import org.zalando.nakadi.domain.ShiftedNakadiCursor;
 import org.zalando.nakadi.domain.storage.Storage;
@@ -16,11 +15,16 @@ import org.zalando.nakadi.exceptions.runtime.InvalidCursorOperation;
 import org.zalando.nakadi.exceptions.runtime.NakadiBaseException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
 import org.zalando.nakadi.exceptions.runtime.UnknownStorageTypeException;
+import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.repository.kafka.KafkaCursor;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.zalando.nakadi.exceptions.runtime.InvalidCursorOperation.Reason.CURSORS_WITH_DIFFERENT_PARTITION;
@@ -39,6 +43,30 @@ public class CursorOperationsService {
 
     public long calculateDistance(final NakadiCursor initialCursor, final NakadiCursor finalCursor)
             throws InvalidCursorOperation {
+        return calculateDistance(initialCursor, finalCursor, this::getTimeline);
+    }
+
+    /**
+     * Calculates distances between pairs of cursors, {@code initialCursors.get(i)} and {@code finalCursors.get(i)}.
+     * Timelines of each event type are loaded at most once for the whole call.
+     *
+     * @return distances in the same order as cursors are provided
+     */
+    public List<Long> calculateDistances(final List<NakadiCursor> initialCursors,
+                                         final List<NakadiCursor> finalCursors) throws InvalidCursorOperation {
+        if (initialCursors.size() != finalCursors.size()) {
+            throw new IllegalArgumentException("Number of initial and final cursors should be the same");
+        }
+        final TimelineProvider timelineProvider = createCachingTimelineProvider();
+        final List<Long> result = new ArrayList<>(initialCursors.size());
+        for (int i = 0; i < initialCursors.size(); ++i) {
+            result.add(calculateDistance(initialCursors.get(i), finalCursors.get(i), timelineProvider));
+        }
+        return result;
+    }
+
+    private long calculateDistance(final NakadiCursor initialCursor, final NakadiCursor finalCursor,
+                                   final TimelineProvider timelineProvider) throws InvalidCursorOperation {
         // Validate query
         if (!initialCursor.getPartition().equals(finalCursor.getPartition())) {
             throw new InvalidCursorOperation(CURSORS_WITH_DIFFERENT_PARTITION);
@@ -54,7 +82,7 @@ public class CursorOperationsService {
         }
 
         for (int order = startOrder; order < Math.max(initialOrder, finalOrder); ++order) {
-            final Timeline timeline = getTimeline(initialCursor.getEventType(), order);
+            final Timeline timeline = timelineProvider.getTimeline(initialCursor.getEventType(), order);
             final long eventsTotal = getStorageWorker(timeline)
                     .totalEventsInPartition(timeline, initialCursor.getPartition());
             result += (finalOrder > initialOrder) ? eventsTotal : -eventsTotal;
@@ -62,59 +90,86 @@ public class CursorOperationsService {
         return result;
     }
 
+    /**
+     * Calculates lags of the cursors of one event type. Statistics of the oldest and the newest active timelines are
+     * loaded from storage with one call when both timelines are in the same storage, and timelines are loaded at most
+     * once for all the cursors.
+     */
     public List<NakadiCursorLag> cursorsLag(final String eventTypeName, final List<NakadiCursor> cursors)
             throws InvalidCursorOperation {
         try {
             final List<Timeline> timelines = timelineService.getActiveTimelinesOrdered(eventTypeName);
-            // Next 2 calls could be optimized to 1 storage call, instead of possible 2 calls.
-            // But it is simpler not to do anything, cause timelines are not switched every day and almost all the time
-            // (except retention time after switch) there will be only 1 active timeline, and this option is covered.
-            final List<PartitionStatistics> oldestStats = getStatsForTimeline(timelines.get(0));
-            final List<PartitionStatistics> newestStats = timelines.size() == 1 ? oldestStats :
-                    getStatsForTimeline(timelines.get(timelines.size() - 1));
-
-            return cursors.stream()
-                    .map(c -> {
-                        final PartitionStatistics oldestStat = oldestStats.stream()
-                                .filter(item -> item.getPartition().equalsIgnoreCase(c.getPartition()))
-                                .findAny().orElseThrow(() -> new InvalidCursorOperation(PARTITION_NOT_FOUND));
-
-                        NakadiCursor newestPosition = newestStats.stream()
-                                .filter(item -> item.getPartition().equalsIgnoreCase(c.getPartition()))
-                                .map(PartitionEndStatistics::getLast)
-                                .findAny().orElseThrow(() -> new InvalidCursorOperation(PARTITION_NOT_FOUND));
-                        // trick to avoid -1 position - move cursor to previous timeline while there is no data before
-                        // it
-                        while (numberOfEventsBeforeCursor(newestPosition) == -1) {
-                            final int prevOrder = newestPosition.getTimeline().getOrder() - 1;
-                            final Timeline prevTimeline = timelines.stream()
-                                    .filter(t -> t.getOrder() == prevOrder)
-                                    .findAny().orElse(null);
-                            if (null == prevTimeline) {
-                                break;
-                            }
-                            // We moved back, so timeline definitely have latest position set
-                            newestPosition = prevTimeline.getLatestPosition()
-                                    .toNakadiCursor(prevTimeline, newestPosition.getPartition());
-                        }
-
-                        // It is safe to call calculate distance here, cause it will not involve any storage-related
-                        // calls (in case of kafka)
-                        return new NakadiCursorLag(
-                                oldestStat.getFirst(),
-                                newestPosition,
-                                calculateDistance(c, newestPosition)
-                        );
-                    }).collect(Collectors.toList());
+            final Timeline oldestTimeline = timelines.get(0);
+            final Timeline newestTimeline = timelines.get(timelines.size() - 1);
+            final Map<String, PartitionStatistics> oldestStats = new HashMap<>();
+            final Map<String, PartitionStatistics> newestStats = new HashMap<>();
+            for (final PartitionStatistics stat : loadStatistics(oldestTimeline, newestTimeline)) {
+                if (oldestTimeline.equals(stat.getTimeline())) {
+                    oldestStats.put(stat.getPartition(), stat);
+                }
+                if (newestTimeline.equals(stat.getTimeline())) {
+                    newestStats.put(stat.getPartition(), stat);
+                }
+            }
+            final Map<Integer, Timeline> activeTimelinesByOrder = timelines.stream()
+                    .collect(Collectors.toMap(Timeline::getOrder, t -> t, (t1, t2) -> t1));
+            final TimelineProvider timelineProvider = createCachingTimelineProvider();
+            final Map<String, NakadiCursor> newestPositions = new HashMap<>();
 
+            final List<NakadiCursorLag> result = new ArrayList<>(cursors.size());
+            for (final NakadiCursor cursor : cursors) {
+                final PartitionStatistics oldestStat = oldestStats.get(cursor.getPartition());
+                final PartitionStatistics newestStat = newestStats.get(cursor.getPartition());
+                if (null == oldestStat || null == newestStat) {
+                    throw new InvalidCursorOperation(PARTITION_NOT_FOUND);
+                }
+                final NakadiCursor newestPosition = newestPositions.computeIfAbsent(cursor.getPartition(),
+                        partition -> findNewestPosition(newestStat.getLast(), activeTimelinesByOrder));
+                // It is safe to calculate distance here, cause it will not involve any storage-related calls
+                // (in case of kafka)
+                result.add(new NakadiCursorLag(
+                        oldestStat.getFirst(),
+                        newestPosition,
+                        calculateDistance(cursor, newestPosition, timelineProvider)));
+            }
+            return result;
         } catch (final InternalNakadiException e) {
             throw new NakadiBaseException("error", e);
         }
     }
 
-    private List<PartitionStatistics> getStatsForTimeline(final Timeline timeline)
+    private List<PartitionStatistics> loadStatistics(final Timeline oldestTimeline, final Timeline newestTimeline)
             throws ServiceTemporarilyUnavailableException {
-        return timelineService.getTopicRepository(timeline).loadTopicStatistics(Collections.singletonList(timeline));
+        final TopicRepository oldestRepository = timelineService.getTopicRepository(oldestTimeline);
+        if (oldestTimeline.equals(newestTimeline)) {
+            return oldestRepository.loadTopicStatistics(Collections.singletonList(oldestTimeline));
+        }
+        final TopicRepository newestRepository = timelineService.getTopicRepository(newestTimeline);
+        if (oldestRepository == newestRepository) {
+            return oldestRepository.loadTopicStatistics(Arrays.asList(oldestTimeline, newestTimeline));
+        }
+        final List<PartitionStatistics> result = new ArrayList<>(
+                oldestRepository.loadTopicStatistics(Collections.singletonList(oldestTimeline)));
+        result.addAll(newestRepository.loadTopicStatistics(Collections.singletonList(newestTimeline)));
+        return result;
+    }
+
+    /**
+     * Avoids -1 position: moves the cursor to the previous timeline while there is no data before it.
+     */
+    private NakadiCursor findNewestPosition(final NakadiCursor lastInNewestTimeline,
+                                            final Map<Integer, Timeline> activeTimelinesByOrder) {
+        NakadiCursor newestPosition = lastInNewestTimeline;
+        while (numberOfEventsBeforeCursor(newestPosition) == -1) {
+            final Timeline prevTimeline = activeTimelinesByOrder.get(newestPosition.getTimeline().getOrder() - 1);
+            if (null == prevTimeline) {
+                break;
+            }
+            // We moved back, so timeline definitely have latest position set
+            newestPosition = prevTimeline.getLatestPosition()
+                    .toNakadiCursor(prevTimeline, newestPosition.getPartition());
+        }
+        return newestPosition;
     }
 
     public List<NakadiCursor> unshiftCursors(final List<ShiftedNakadiCursor> cursors) throws InvalidCursorOperation {
@@ -198,19 +253,39 @@ public class CursorOperationsService {
         }
     }
 
+    /**
+     * Creates provider that loads timelines of each event type at most once.
+     */
+    private TimelineProvider createCachingTimelineProvider() {
+        final Map<String, List<Timeline>> timelines = new HashMap<>();
+        return (eventTypeName, order) -> findTimeline(
+                timelines.computeIfAbsent(eventTypeName, this::getAllTimelinesOrdered), order);
+    }
+
     private Timeline getTimeline(final String eventTypeName, final int order) {
-        final List<Timeline> timelines;
+        return findTimeline(getAllTimelinesOrdered(eventTypeName), order);
+    }
+
+    private List<Timeline> getAllTimelinesOrdered(final String eventTypeName) {
         try {
-            timelines = timelineService.getAllTimelinesOrdered(eventTypeName);
+            return timelineService.getAllTimelinesOrdered(eventTypeName);
         } catch (final InternalNakadiException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    private static Timeline findTimeline(final List<Timeline> timelines, final int order) {
         return timelines.stream()
                 .filter(t -> t.getOrder() == order)
                 .findFirst()
                 .orElseThrow(() -> new InvalidCursorOperation(TIMELINE_NOT_FOUND));
     }
 
+    @FunctionalInterface
+    private interface TimelineProvider {
+        Timeline getTimeline(String eventTypeName, int order) throws InvalidCursorOperation;
+    }
+
     private static StaticStorageWorkerFactory.StaticStorageWorker getStorageWorker(final Timeline timeline) {
         return StaticStorageWorkerFactory.get(timeline);
     }
@@ -5,8 +5,11 @@ import org.springframework.web.util.UriComponentsBuilder;
 import org.zalando.nakadi.domain.PaginationLinks;
 import org.zalando.nakadi.domain.PaginationWrapper;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
 @Component
@@ -36,6 +39,27 @@ public class PaginationService {
         return new PaginationWrapper(items, paginationLinks);
     }
 
+    /**
+     * Keyset pagination: items of the page are queried starting after the key of the previous page, so the cost of
+     * fetching a page does not depend on its depth. Only the link to the next page is provided, as it is created from
+     * the last item of the current page.
+     *
+     * @param limit         maximum number of items on the page
+     * @param itemsSupplier queries at most the given number of items, starting after the current key
+     * @param nextUri       creates uri of the next page from the last item of the current page
+     */
+    public <T> PaginationWrapper<T> paginateByKey(final int limit,
+                                                  final IntFunction<List<T>> itemsSupplier,
+                                                  final Function<T, String> nextUri) {
+        final List<T> items = new ArrayList<>(itemsSupplier.apply(limit + 1));
+        Optional<PaginationLinks.Link> nextLink = Optional.empty();
+        if (items.size() > limit) {
+            items.subList(limit, items.size()).clear();
+            nextLink = Optional.of(new PaginationLinks.Link(nextUri.apply(items.get(limit - 1))));
+        }
+        return new PaginationWrapper<>(items, new PaginationLinks(Optional.empty(), nextLink));
+    }
+
     private PaginationLinks createLinks(final String path,
                                         final int offset,
                                         final int limit,
@@ -1,16 +1,25 @@
 package org.zalando.nakadi.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.EventTypeSchema;
 import org.zalando.nakadi.domain.PaginationWrapper;
+import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
 import org.zalando.nakadi.exceptions.runtime.InvalidLimitException;
 import org.zalando.nakadi.exceptions.runtime.InvalidVersionNumberException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSchemaException;
 import org.zalando.nakadi.repository.db.SchemaRepository;
 
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,19 +27,26 @@ import java.util.regex.Pattern;
 public class SchemaService {
 
     private static final Pattern VERSION_PATTERN = Pattern.compile("\\d+\\.\\d+\\.\\d+");
-    private static final Logger LOG = LoggerFactory.getLogger(SchemaService.class);
 
     private final SchemaRepository schemaRepository;
     private final PaginationService paginationService;
+    // Schema versions are never changed once created. Event type may be deleted and created again with the same
+    // name, but then it gets new creation time, that is a part of the key.
+    private final Cache<SchemaVersionKey, EventTypeSchema> schemaVersionCache;
 
     @Autowired
     public SchemaService(final SchemaRepository schemaRepository,
-                         final PaginationService paginationService) {
+                         final PaginationService paginationService,
+                         @Value("${nakadi.schema.versionCacheSize:10000}") final long versionCacheSize) {
         this.schemaRepository = schemaRepository;
         this.paginationService = paginationService;
+        this.schemaVersionCache = CacheBuilder.newBuilder()
+                .maximumSize(versionCacheSize)
+                .build();
     }
 
-    public PaginationWrapper getSchemas(final String name, final int offset, final int limit)
+    public PaginationWrapper getSchemas(final String name, final int offset, final int limit,
+                                        @Nullable final String after)
             throws InvalidLimitException {
         if (limit < 1 || limit > 1000) {
             throw new InvalidLimitException("'limit' parameter sholud have value between 1 and 1000");
@@ -40,19 +56,86 @@ public class SchemaService {
             throw new InvalidLimitException("'offset' parameter can't be lower than 0");
         }
 
-        return paginationService
-                .paginate(offset,  limit, String.format("/event-types/%s/schemas", name),
-                        (o, l) -> schemaRepository.getSchemas(name, o, l),
-                        () -> schemaRepository.getSchemasCount(name));
+        if (after != null && (offset > 0 || !(after.isEmpty() || VERSION_PATTERN.matcher(after).matches()))) {
+            throw new InvalidLimitException("'after' parameter should be a schema version and can't be used " +
+                    "together with 'offset'");
+        }
+
+        final String path = String.format("/event-types/%s/schemas", name);
+        if (null == after) {
+            return paginationService
+                    .paginate(offset, limit, path,
+                            (o, l) -> schemaRepository.getSchemas(name, o, l),
+                            () -> schemaRepository.getSchemasCount(name));
+        }
+        // Paging by version is used only by clients that opted in with 'after' (empty one starts from the latest
+        // schema), the default stays offset based
+        final String afterVersion = after.isEmpty() ? null : after;
+        return paginationService.paginateByKey(
+                limit,
+                l -> {
+                    try {
+                        return schemaRepository.getSchemasAfter(name, afterVersion, l);
+                    } catch (final NoSuchSchemaException e) {
+                        // otherwise a page after a version that does not exist is silently empty
+                        throw new InvalidLimitException("'after' parameter should be an existing schema version");
+                    }
+                },
+                last -> UriComponentsBuilder.fromPath(path)
+                        .queryParam("after", last.getVersion())
+                        .queryParam("limit", limit)
+                        .build()
+                        .toString());
     }
 
-    public EventTypeSchema getSchemaVersion(final String name, final String version)
+    public EventTypeSchema getSchemaVersion(final EventType eventType, final String version)
             throws NoSuchSchemaException, InvalidVersionNumberException {
         final Matcher versionMatcher = VERSION_PATTERN.matcher(version);
         if (!versionMatcher.matches()) {
             throw new InvalidVersionNumberException("Invalid version number");
         }
-        final EventTypeSchema schema = schemaRepository.getSchemaVersion(name, version);
-        return schema;
+        try {
+            return schemaVersionCache.get(
+                    new SchemaVersionKey(eventType.getName(), eventType.getCreatedAt(), version),
+                    () -> schemaRepository.getSchemaVersion(eventType.getName(), version));
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InternalNakadiException("Failed to load schema version", (Exception) e.getCause());
+        }
+    }
+
+    private static class SchemaVersionKey {
+        private final String eventTypeName;
+        @Nullable
+        private final DateTime eventTypeCreatedAt;
+        private final String version;
+
+        private SchemaVersionKey(final String eventTypeName, @Nullable final DateTime eventTypeCreatedAt,
+                                 final String version) {
+            this.eventTypeName = eventTypeName;
+            this.eventTypeCreatedAt = eventTypeCreatedAt;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final SchemaVersionKey that = (SchemaVersionKey) o;
+            return Objects.equals(eventTypeName, that.eventTypeName)
+                    && Objects.equals(eventTypeCreatedAt, that.eventTypeCreatedAt)
+                    && Objects.equals(version, that.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventTypeName, eventTypeCreatedAt, version);
+        }
     }
 }
@@ -1,7 +1,10 @@
 package org.zalando.nakadi.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +25,7 @@ import org.zalando.nakadi.domain.PartitionEndStatistics;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.domain.SubscriptionBase;
 import org.zalando.nakadi.domain.SubscriptionEventTypeStats;
+import org.zalando.nakadi.domain.SubscriptionListingKey;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.Try;
 import org.zalando.nakadi.exceptions.runtime.AuthorizationNotPresentException;
@@ -32,6 +36,7 @@ import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorOperation;
 import org.zalando.nakadi.exceptions.runtime.InvalidLimitException;
+import org.zalando.nakadi.exceptions.runtime.NakadiBaseException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSubscriptionException;
 import org.zalando.nakadi.exceptions.runtime.RepositoryProblemException;
@@ -60,10 +65,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -71,6 +80,7 @@ public class SubscriptionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SubscriptionService.class);
     private static final UriComponentsBuilder SUBSCRIPTION_PATH = UriComponentsBuilder.fromPath("/subscriptions/{id}");
+    private static final int STATS_CACHE_MAX_SIZE = 10_000;
 
     private final SubscriptionDbRepository subscriptionRepository;
     private final EventTypeRepository eventTypeRepository;
@@ -85,6 +95,11 @@ public class SubscriptionService {
     private final SubscriptionTimeLagService subscriptionTimeLagService;
     private final AuthorizationValidator authorizationValidator;
     private final NakadiAuditLogPublisher nakadiAuditLogPublisher;
+    private final PaginationService paginationService;
+    // Stats are requested by monitoring systems for the same subscriptions over and over again, therefore stats
+    // are cached for a short time, and concurrent requests for the same stats wait for the single computation.
+    @Nullable
+    private final Cache<StatsKey, List<SubscriptionEventTypeStats>> statsCache;
 
     @Autowired
     public SubscriptionService(final SubscriptionDbRepository subscriptionRepository,
@@ -99,7 +114,9 @@ public class SubscriptionService {
                                final SubscriptionTimeLagService subscriptionTimeLagService,
                                @Value("${nakadi.kpi.event-types.nakadiSubscriptionLog}") final String subLogEventType,
                                final NakadiAuditLogPublisher nakadiAuditLogPublisher,
-                               final AuthorizationValidator authorizationValidator) {
+                               final AuthorizationValidator authorizationValidator,
+                               final PaginationService paginationService,
+                               @Value("${nakadi.subscription.statsCacheTtlMs:0}") final long statsCacheTtlMs) {
         this.subscriptionRepository = subscriptionRepository;
         this.subscriptionClientFactory = subscriptionClientFactory;
         this.timelineService = timelineService;
@@ -113,6 +130,11 @@ public class SubscriptionService {
         this.subLogEventType = subLogEventType;
         this.nakadiAuditLogPublisher = nakadiAuditLogPublisher;
         this.authorizationValidator = authorizationValidator;
+        this.paginationService = paginationService;
+        this.statsCache = statsCacheTtlMs <= 0 ? null : CacheBuilder.newBuilder()
+                .expireAfterWrite(statsCacheTtlMs, TimeUnit.MILLISECONDS)
+                .maximumSize(STATS_CACHE_MAX_SIZE)
+                .build();
     }
 
     public Subscription createSubscription(final SubscriptionBase subscriptionBase)
@@ -189,7 +211,8 @@ public class SubscriptionService {
                                                              @Nullable final Set<String> eventTypes,
                                                              final boolean showStatus,
                                                              final int limit,
-                                                             final int offset)
+                                                             final int offset,
+                                                             @Nullable final String after)
             throws InvalidLimitException, ServiceTemporarilyUnavailableException {
         if (limit < 1 || limit > 1000) {
             throw new InvalidLimitException("'limit' parameter should have value between 1 and 1000");
@@ -199,14 +222,30 @@ public class SubscriptionService {
             throw new InvalidLimitException("'offset' parameter can't be lower than 0");
         }
 
+        if (offset > 0 && after != null) {
+            throw new InvalidLimitException("'offset' and 'after' parameters can't be used together");
+        }
+
         final Set<String> eventTypesFilter = eventTypes == null ? ImmutableSet.of() : eventTypes;
         final Optional<String> owningAppOption = Optional.ofNullable(owningApplication);
-        final List<Subscription> subscriptions =
-                subscriptionRepository.listSubscriptions(eventTypesFilter, owningAppOption, offset, limit);
-        final PaginationLinks paginationLinks = SubscriptionsUriHelper.createSubscriptionPaginationLinks(
-                owningAppOption, eventTypesFilter, offset, limit, showStatus, subscriptions.size());
-        final PaginationWrapper<Subscription> paginationWrapper =
-                new PaginationWrapper<>(subscriptions, paginationLinks);
+        final PaginationWrapper<Subscription> paginationWrapper;
+        if (null == after) {
+            final List<Subscription> subscriptions =
+                    subscriptionRepository.listSubscriptions(eventTypesFilter, owningAppOption, offset, limit);
+            final PaginationLinks paginationLinks = SubscriptionsUriHelper.createSubscriptionPaginationLinks(
+                    owningAppOption, eventTypesFilter, offset, limit, showStatus, subscriptions.size());
+            paginationWrapper = new PaginationWrapper<>(subscriptions, paginationLinks);
+        } else {
+            // Keyset pagination is used only by clients that opted in with 'after' (empty one starts from the
+            // beginning), the default stays offset based
+            final SubscriptionListingKey afterKey = parseListingKey(after);
+            paginationWrapper = paginationService.paginateByKey(
+                    limit,
+                    queryLimit -> subscriptionRepository.listSubscriptions(
+                            eventTypesFilter, owningAppOption, afterKey, queryLimit),
+                    last -> SubscriptionsUriHelper.createSubscriptionListUri(owningAppOption, eventTypesFilter,
+                            SubscriptionListingKey.of(last).toToken(), limit, showStatus));
+        }
         if (showStatus) {
             final List<Subscription> items = paginationWrapper.getItems();
             items.forEach(s -> s.setStatus(createSubscriptionStat(s, StatsMode.LIGHT)));
@@ -214,6 +253,18 @@ public class SubscriptionService {
         return paginationWrapper;
     }
 
+    @Nullable
+    private static SubscriptionListingKey parseListingKey(@Nullable final String after) throws InvalidLimitException {
+        if (null == after || after.isEmpty()) {
+            return null;
+        }
+        try {
+            return SubscriptionListingKey.fromToken(after);
+        } catch (final IllegalArgumentException e) {
+            throw new InvalidLimitException("'after' parameter is not valid: " + after);
+        }
+    }
+
     public Subscription getSubscription(final String subscriptionId)
             throws NoSuchSubscriptionException, ServiceTemporarilyUnavailableException {
         final Subscription subscription = subscriptionRepository.getSubscription(subscriptionId);
@@ -258,15 +309,45 @@ public class SubscriptionService {
         } catch (final ServiceTemporarilyUnavailableException ex) {
             throw new InconsistentStateException(ex.getMessage());
         }
-        final List<SubscriptionEventTypeStats> subscriptionStat = createSubscriptionStat(subscription, statsMode);
+        final List<EventType> eventTypes = getEventTypesForSubscription(subscription);
+        subscriptionValidationService.verifyViewAccessOnEventTypes(eventTypes);
+        final List<SubscriptionEventTypeStats> subscriptionStat = null == statsCache ?
+                loadSubscriptionStat(subscription, eventTypes, statsMode) :
+                getCachedSubscriptionStat(subscription, eventTypes, statsMode);
         return new ItemsWrapper<>(subscriptionStat);
     }
 
+    private List<SubscriptionEventTypeStats> getCachedSubscriptionStat(final Subscription subscription,
+                                                                       final List<EventType> eventTypes,
+                                                                       final StatsMode statsMode)
+            throws InconsistentStateException, NoSuchEventTypeException, ServiceTemporarilyUnavailableException {
+        try {
+            return statsCache.get(
+                    new StatsKey(subscription.getId(), statsMode),
+                    () -> loadSubscriptionStat(subscription, eventTypes, statsMode));
+        } catch (final UncheckedExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof NakadiBaseException) {
+                throw (NakadiBaseException) cause;
+            }
+            throw new ServiceTemporarilyUnavailableException("Failed to calculate subscription stats", cause);
+        } catch (final ExecutionException e) {
+            throw new ServiceTemporarilyUnavailableException("Failed to calculate subscription stats", e.getCause());
+        }
+    }
+
     private List<SubscriptionEventTypeStats> createSubscriptionStat(final Subscription subscription,
                                                                     final StatsMode statsMode)
             throws InconsistentStateException, NoSuchEventTypeException, ServiceTemporarilyUnavailableException {
         final List<EventType> eventTypes = getEventTypesForSubscription(subscription);
         subscriptionValidationService.verifyViewAccessOnEventTypes(eventTypes);
+        return loadSubscriptionStat(subscription, eventTypes, statsMode);
+    }
+
+    private List<SubscriptionEventTypeStats> loadSubscriptionStat(final Subscription subscription,
+                                                                  final List<EventType> eventTypes,
+                                                                  final StatsMode statsMode)
+            throws InconsistentStateException, ServiceTemporarilyUnavailableException {
         final ZkSubscriptionClient subscriptionClient = createZkSubscriptionClient(subscription);
         final Optional<ZkSubscriptionNode> zkSubscriptionNode = subscriptionClient.getZkSubscriptionNode();
 
@@ -333,13 +414,14 @@ public class SubscriptionService {
         final Map<EventTypePartition, Duration> timeLags = statsMode == StatsMode.TIMELAG ?
                 subscriptionTimeLagService.getTimeLags(committedPositions, stats) :
                 ImmutableMap.of();
+        final Map<EventTypePartition, Long> distances = computeDistances(committedPositions, stats);
+        final Map<String, List<PartitionEndStatistics>> statsByEventType = stats.stream()
+                .collect(Collectors.groupingBy(s -> s.getTimeline().getEventType()));
 
         for (final EventType eventType : eventTypes) {
-            final List<PartitionBaseStatistics> statsForEventType = stats.stream()
-                    .filter(s -> s.getTimeline().getEventType().equals(eventType.getName()))
-                    .collect(Collectors.toList());
-            result.add(getEventTypeStats(subscriptionNode, eventType.getName(), statsForEventType,
-                    committedPositions, timeLags));
+            result.add(getEventTypeStats(subscriptionNode, eventType.getName(),
+                    statsByEventType.getOrDefault(eventType.getName(), Collections.emptyList()),
+                    distances, timeLags));
         }
         return result;
     }
@@ -357,15 +439,15 @@ public class SubscriptionService {
     private SubscriptionEventTypeStats getEventTypeStats(final Optional<ZkSubscriptionNode> subscriptionNode,
                                                          final String eventTypeName,
                                                          final List<? extends PartitionBaseStatistics> stats,
-                                                         final Collection<NakadiCursor> committedPositions,
+                                                         final Map<EventTypePartition, Long> distances,
                                                          final Map<EventTypePartition, Duration> timeLags) {
         final List<SubscriptionEventTypeStats.Partition> resultPartitions =
                 new ArrayList<>(stats.size());
         for (final PartitionBaseStatistics stat : stats) {
             final String partition = stat.getPartition();
-            final NakadiCursor lastPosition = ((PartitionEndStatistics) stat).getLast();
-            final Long distance = computeDistance(committedPositions, lastPosition);
-            final Long lagSeconds = Optional.ofNullable(timeLags.get(new EventTypePartition(eventTypeName, partition)))
+            final EventTypePartition key = new EventTypePartition(eventTypeName, partition);
+            final Long distance = distances.get(key);
+            final Long lagSeconds = Optional.ofNullable(timeLags.get(key))
                     .map(Duration::getSeconds)
                     .orElse(null);
             resultPartitions.add(getPartitionStats(subscriptionNode, eventTypeName, partition, distance, lagSeconds));
@@ -429,19 +511,43 @@ public class SubscriptionService {
                 .orElse("");
     }
 
-    private Long computeDistance(final Collection<NakadiCursor> committedPositions, final NakadiCursor lastPosition) {
-        return committedPositions.stream()
-                .filter(pos -> pos.getEventTypePartition().equals(lastPosition.getEventTypePartition()))
-                .findAny()
-                .map(committed -> {
-                    try {
-                        return cursorOperationsService.calculateDistance(committed, lastPosition);
-                    } catch (final InvalidCursorOperation ex) {
-                        throw new InconsistentStateException(
-                                "Unexpected exception while calculating distance", ex);
-                    }
-                })
-                .orElse(null);
+    /**
+     * Calculates distances from committed positions to the ends of partitions. Partitions without committed
+     * position are not present in the result.
+     */
+    private Map<EventTypePartition, Long> computeDistances(final Collection<NakadiCursor> committedPositions,
+                                                           final List<PartitionEndStatistics> stats)
+            throws InconsistentStateException {
+        final Map<EventTypePartition, NakadiCursor> committedByKey = new HashMap<>(committedPositions.size() * 2);
+        committedPositions.forEach(c -> committedByKey.putIfAbsent(c.getEventTypePartition(), c));
+
+        final List<EventTypePartition> keys = new ArrayList<>(stats.size());
+        final List<NakadiCursor> committed = new ArrayList<>(stats.size());
+        final List<NakadiCursor> lastPositions = new ArrayList<>(stats.size());
+        for (final PartitionEndStatistics stat : stats) {
+            final NakadiCursor lastPosition = stat.getLast();
+            final NakadiCursor committedPosition = committedByKey.get(lastPosition.getEventTypePartition());
+            if (null != committedPosition) {
+                keys.add(lastPosition.getEventTypePartition());
+                committed.add(committedPosition);
+                lastPositions.add(lastPosition);
+            }
+        }
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<Long> distances;
+        try {
+            distances = cursorOperationsService.calculateDistances(committed, lastPositions);
+        } catch (final InvalidCursorOperation ex) {
+            throw new InconsistentStateException("Unexpected exception while calculating distance", ex);
+        }
+        final Map<EventTypePartition, Long> result = new HashMap<>(keys.size() * 2);
+        for (int i = 0; i < keys.size(); ++i) {
+            result.put(keys.get(i), distances.get(i));
+        }
+        return result;
     }
 
     private Collection<NakadiCursor> loadCommittedPositions(
@@ -464,4 +570,31 @@ public class SubscriptionService {
         TIMELAG
     }
 
+    private static class StatsKey {
+        private final String subscriptionId;
+        private final StatsMode statsMode;
+
+        private StatsKey(final String subscriptionId, final StatsMode statsMode) {
+            this.subscriptionId = subscriptionId;
+            this.statsMode = statsMode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final StatsKey that = (StatsKey) o;
+            return subscriptionId.equals(that.subscriptionId) && statsMode == that.statsMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subscriptionId, statsMode);
+        }
+    }
+
 }
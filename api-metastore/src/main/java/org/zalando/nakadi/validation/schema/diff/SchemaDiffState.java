@@ -4,31 +4,72 @@ import org.everit.json.schema.Schema;
 import org.zalando.nakadi.domain.SchemaChange;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
+/**
+ * Keeps state of one schema comparison. Large schemas tend to reference the same definitions many times, and such
+ * pairs of subschemas are compared only once: changes found for a pair are remembered relative to the pair's path
+ * and are replayed on the path where the same pair is met again.
+ */
 public class SchemaDiffState {
     private final Stack<String> jsonPath;
     private final List<SchemaChange> changes;
-    private final List<Schema> schemasInAnalysis;
+    private final List<List<String>> changePaths;
+    private final List<Frame> schemasInAnalysis;
+    private final Map<Schema, Integer> analysisDepth;
+    private final Map<SchemaPair, Diff> diffs;
 
     public SchemaDiffState() {
         jsonPath = new Stack<>();
         changes = new ArrayList<>();
+        changePaths = new ArrayList<>();
         schemasInAnalysis = new ArrayList<>();
+        analysisDepth = new IdentityHashMap<>();
+        diffs = new HashMap<>();
     }
 
-    public void analyzeSchema(final Schema schema, final Runnable r) {
+    public void analyzeSchema(final Schema original, final Schema update, final Runnable r) {
+        if (original == update) {
+            return;
+        }
         // The problem here that hashCode will die for recursive schema
-        if (schemasInAnalysis.stream().anyMatch(s -> s == schema)) {
+        final Integer cycleStart = analysisDepth.get(original);
+        if (null != cycleStart) {
+            // Result of every schema between the cycle start and this one is now incomplete without the cycle start
+            // being analyzed at the same time, so it can't be reused in other places.
+            for (int i = cycleStart + 1; i < schemasInAnalysis.size(); ++i) {
+                schemasInAnalysis.get(i).reusable = false;
+            }
+            return;
+        }
+
+        final SchemaPair pair = new SchemaPair(original, update);
+        final Diff diff = diffs.get(pair);
+        if (null != diff && diff.canBeReplayed()) {
+            diff.replay();
             return;
         }
-        schemasInAnalysis.add(schema);
+
+        final Frame frame = new Frame(original, changes.size());
+        analysisDepth.put(original, schemasInAnalysis.size());
+        schemasInAnalysis.add(frame);
         try {
             r.run();
         } finally {
             schemasInAnalysis.remove(schemasInAnalysis.size() - 1);
+            analysisDepth.remove(original);
         }
+        final Diff result = new Diff(frame);
+        if (frame.reusable) {
+            diffs.put(pair, result);
+        }
+        onAnalyzed(result.analyzed);
     }
 
     public void runOnPath(final String name, final Runnable r) {
@@ -46,6 +87,7 @@ public class SchemaDiffState {
 
     public void addChange(final SchemaChange.Type type) {
         changes.add(new SchemaChange(type, jsonPathString(jsonPath)));
+        changePaths.add(new ArrayList<>(jsonPath));
     }
 
     public void addChange(final String attribute, final SchemaChange.Type type) {
@@ -54,7 +96,86 @@ public class SchemaDiffState {
         jsonPath.pop();
     }
 
+    private void onAnalyzed(final Set<Schema> analyzed) {
+        if (!schemasInAnalysis.isEmpty()) {
+            schemasInAnalysis.get(schemasInAnalysis.size() - 1).analyzed.addAll(analyzed);
+        }
+    }
+
     private static String jsonPathString(final List<String> jsonPath) {
         return "#/" + String.join("/", jsonPath);
     }
+
+    private static class Frame {
+        private final int firstChange;
+        private final Set<Schema> analyzed = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean reusable = true;
+
+        private Frame(final Schema original, final int firstChange) {
+            this.firstChange = firstChange;
+            this.analyzed.add(original);
+        }
+    }
+
+    private class Diff {
+        private final List<SchemaChange.Type> types = new ArrayList<>();
+        private final List<List<String>> relativePaths = new ArrayList<>();
+        private final Set<Schema> analyzed;
+
+        private Diff(final Frame frame) {
+            // Path is the same as it was when the frame was started
+            final int pathDepth = jsonPath.size();
+            for (int i = frame.firstChange; i < changes.size(); ++i) {
+                types.add(changes.get(i).getType());
+                final List<String> path = changePaths.get(i);
+                relativePaths.add(new ArrayList<>(path.subList(pathDepth, path.size())));
+            }
+            this.analyzed = frame.analyzed;
+        }
+
+        /**
+         * Replaying is only the same as comparing again if no schema met while comparing this pair is being analyzed
+         * right now, otherwise the comparison would have been cut at that schema.
+         */
+        private boolean canBeReplayed() {
+            return analysisDepth.keySet().stream().noneMatch(analyzed::contains);
+        }
+
+        private void replay() {
+            for (int i = 0; i < types.size(); ++i) {
+                final List<String> relativePath = relativePaths.get(i);
+                relativePath.forEach(jsonPath::push);
+                addChange(types.get(i));
+                relativePath.forEach(p -> jsonPath.pop());
+            }
+            onAnalyzed(analyzed);
+        }
+    }
+
+    private static class SchemaPair {
+        private final Schema original;
+        private final Schema update;
+
+        private SchemaPair(final Schema original, final Schema update) {
+            this.original = original;
+            this.update = update;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final SchemaPair that = (SchemaPair) o;
+            return original == that.original && update == that.update;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(original) + System.identityHashCode(update);
+        }
+    }
 }
@@ -30,11 +30,11 @@ public class SchemaControllerTest {
 
     @Test
     public void testSuccess() {
-        Mockito.when(schemaService.getSchemas("et_test", 0, 1)).thenReturn(null);
+        Mockito.when(schemaService.getSchemas("et_test", 0, 1, null)).thenReturn(null);
         Mockito.when(eventTypeService.get("et_test")).thenReturn(EventTypeTestBuilder.builder().build());
         final ResponseEntity<?> result =
                 new SchemaController(schemaService, eventTypeService)
-                        .getSchemas("et_test", 0, 1, nativeWebRequest);
+                        .getSchemas("et_test", 0, 1, null, nativeWebRequest);
         Assert.assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
@@ -62,7 +62,8 @@ public class SchemaControllerTest {
     @Test
     public void testGetLatestSchemaVersionByNumberThen200() {
         final EventType eventType = buildDefaultEventType();
-        Mockito.when(schemaService.getSchemaVersion(eventType.getName(),
+        Mockito.when(eventTypeService.get(eventType.getName())).thenReturn(eventType);
+        Mockito.when(schemaService.getSchemaVersion(eventType,
                 eventType.getSchema().getVersion().toString())).thenReturn(eventType.getSchema());
         final ResponseEntity<?> result =
                 new SchemaController(schemaService, eventTypeService).getSchemaVersion(eventType.getName(),
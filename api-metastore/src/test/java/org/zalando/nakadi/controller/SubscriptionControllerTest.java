@@ -24,6 +24,7 @@ import org.zalando.nakadi.domain.PaginationWrapper;
 import org.zalando.nakadi.domain.PartitionEndStatistics;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.domain.SubscriptionEventTypeStats;
+import org.zalando.nakadi.domain.SubscriptionListingKey;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSubscriptionException;
@@ -38,6 +39,7 @@ import org.zalando.nakadi.service.AuthorizationValidator;
 import org.zalando.nakadi.service.CursorConverter;
 import org.zalando.nakadi.service.CursorOperationsService;
 import org.zalando.nakadi.service.FeatureToggleService;
+import org.zalando.nakadi.service.PaginationService;
 import org.zalando.nakadi.service.SubscriptionService;
 import org.zalando.nakadi.service.SubscriptionValidationService;
 import org.zalando.nakadi.service.publishing.NakadiAuditLogPublisher;
@@ -128,7 +130,8 @@ public class SubscriptionControllerTest {
         final SubscriptionService subscriptionService = new SubscriptionService(subscriptionRepository,
                 zkSubscriptionClientFactory, timelineService, eventTypeRepository, subscriptionValidationService,
                 cursorConverter, cursorOperationsService, nakadiKpiPublisher, featureToggleService, null,
-                "subscription_log_et", nakadiAuditLogPublisher, mock(AuthorizationValidator.class));
+                "subscription_log_et", nakadiAuditLogPublisher, mock(AuthorizationValidator.class),
+                new PaginationService(), 0);
         final SubscriptionController controller = new SubscriptionController(subscriptionService);
         final ApplicationService applicationService = mock(ApplicationService.class);
         doReturn(true).when(applicationService).exists(any());
@@ -231,6 +234,50 @@ public class SubscriptionControllerTest {
                 .andExpect(content().string(TestUtils.JSON_TEST_HELPER.matchesObject(expectedResult)));
     }
 
+    @Test
+    public void whenListSubscriptionsByKeyThenNextLinkPointsAfterLastItem() throws Exception {
+        final List<Subscription> subscriptions = TestUtils.createRandomSubscriptions(4);
+        when(subscriptionRepository.listSubscriptions(any(), any(), any(SubscriptionListingKey.class), anyInt()))
+                .thenReturn(subscriptions);
+        final SubscriptionListingKey after = new SubscriptionListingKey("2019-01-01T00:00:00.000Z", "sid");
+
+        final String lastKey = SubscriptionListingKey.of(subscriptions.get(2)).toToken();
+        final PaginationLinks.Link nextLink = new PaginationLinks.Link(
+                "/subscriptions?owning_application=app&after=" + lastKey + "&limit=3");
+        final PaginationWrapper expectedResult = new PaginationWrapper(subscriptions.subList(0, 3),
+                new PaginationLinks(Optional.empty(), Optional.of(nextLink)));
+
+        mockMvc.perform(get(createSubscriptionListUri(Optional.of("app"), ImmutableSet.of(), after.toToken(), 3,
+                false)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(TestUtils.JSON_TEST_HELPER.matchesObject(expectedResult)));
+
+        verify(subscriptionRepository, times(1))
+                .listSubscriptions(ImmutableSet.of(), Optional.of("app"), after, 4);
+    }
+
+    @Test
+    public void whenListSubscriptionsWithEmptyKeyThenListedByKeyFromStart() throws Exception {
+        final List<Subscription> subscriptions = TestUtils.createRandomSubscriptions(2);
+        when(subscriptionRepository.listSubscriptions(any(), any(), any(SubscriptionListingKey.class), anyInt()))
+                .thenReturn(subscriptions);
+
+        mockMvc.perform(get("/subscriptions?after=&limit=3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(TestUtils.JSON_TEST_HELPER.matchesObject(
+                        new PaginationWrapper(subscriptions, new PaginationLinks()))));
+
+        verify(subscriptionRepository, times(1))
+                .listSubscriptions(ImmutableSet.of(), Optional.empty(), (SubscriptionListingKey) null, 4);
+    }
+
+    @Test
+    public void whenListSubscriptionsWithOffsetAndKeyThenBadRequest() throws Exception {
+        final Problem expectedProblem = Problem.valueOf(BAD_REQUEST,
+                "'offset' and 'after' parameters can't be used together");
+        checkForProblem(mockMvc.perform(get("/subscriptions?offset=5&after=abc")), expectedProblem);
+    }
+
     @Test
     public void whenGetSubscriptionAndExceptionThenServiceUnavailable() throws Exception {
         when(subscriptionRepository.getSubscription(any()))
@@ -265,8 +312,10 @@ public class SubscriptionControllerTest {
         when(currentCursor.getEventTypePartition()).thenReturn(new EventTypePartition(TIMELINE.getEventType(), "0"));
         when(cursorConverter.convert((List<SubscriptionCursorWithoutToken>) any()))
                 .thenReturn(Collections.singletonList(currentCursor));
-        when(cursorOperationsService.calculateDistance(eq(currentCursor), eq(statistics.get(0).getLast())))
-                .thenReturn(10L);
+        when(cursorOperationsService.calculateDistances(
+                eq(Collections.singletonList(currentCursor)),
+                eq(Collections.singletonList(statistics.get(0).getLast()))))
+                .thenReturn(Collections.singletonList(10L));
 
         final List<SubscriptionEventTypeStats> expectedStats =
                 Collections.singletonList(new SubscriptionEventTypeStats(
@@ -6,6 +6,8 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.zalando.nakadi.config.NakadiSettings;
 import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.NakadiCursorLag;
+import org.zalando.nakadi.domain.PartitionStatistics;
 import org.zalando.nakadi.domain.ShiftedNakadiCursor;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.domain.storage.Storage;
@@ -13,6 +15,7 @@ import org.zalando.nakadi.exceptions.runtime.InvalidCursorOperation;
 import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.repository.kafka.KafkaFactory;
 import org.zalando.nakadi.repository.kafka.KafkaLocationManager;
+import org.zalando.nakadi.repository.kafka.KafkaPartitionStatistics;
 import org.zalando.nakadi.repository.kafka.KafkaSettings;
 import org.zalando.nakadi.repository.kafka.KafkaTopicConfigFactory;
 import org.zalando.nakadi.repository.kafka.KafkaTopicRepository;
@@ -254,6 +257,53 @@ public class CursorOperationsServiceTest {
         assertEquals(service.calculateDistance(lastCursor, firstCursor), -19L);
     }
 
+    @Test
+    public void whenCalculateDistancesThenTimelinesAreLoadedOnce() throws Exception {
+        final Timeline first = mockTimeline(1, 10L);
+        final Timeline intermediary = mockTimeline(2, 9L);
+        final Timeline last = mockOpenTimeline(3);
+        mockTimelines(first, intermediary, last);
+
+        final List<Long> distances = service.calculateDistances(
+                Arrays.asList(
+                        NakadiCursor.of(first, "0", "0000000000000003"),
+                        NakadiCursor.of(first, "0", "0000000000000001"),
+                        NakadiCursor.of(last, "0", "0000000000000001")),
+                Arrays.asList(
+                        NakadiCursor.of(last, "0", "0000000000000001"),
+                        NakadiCursor.of(intermediary, "0", "0000000000000002"),
+                        NakadiCursor.of(last, "0", "0000000000000005")));
+
+        assertEquals(Arrays.asList(7L + 10L + 2L, 1L + 11L, 4L), distances);
+        Mockito.verify(timelineService, Mockito.times(1)).getAllTimelinesOrdered(any());
+    }
+
+    @Test
+    public void whenCursorsLagThenStatisticsOfAllTimelinesAreLoadedOnce() throws Exception {
+        final Timeline first = mockTimeline(1, 9L);
+        final Timeline last = mockOpenTimeline(2);
+        mockTimelines(first, last);
+        Mockito.when(timelineService.getActiveTimelinesOrdered(any())).thenReturn(Arrays.asList(first, last));
+        final TopicRepository repository = Mockito.mock(TopicRepository.class);
+        Mockito.when(timelineService.getTopicRepository(first)).thenReturn(repository);
+        Mockito.when(timelineService.getTopicRepository(last)).thenReturn(repository);
+        final List<PartitionStatistics> statistics = Arrays.asList(
+                new KafkaPartitionStatistics(first, 0, 2L, 9L),
+                new KafkaPartitionStatistics(last, 0, 0L, 4L));
+        Mockito.when(repository.loadTopicStatistics(any())).thenReturn(statistics);
+
+        final List<NakadiCursorLag> lags = service.cursorsLag("et", Arrays.asList(
+                NakadiCursor.of(first, "0", "000000000000000005"),
+                NakadiCursor.of(last, "0", "000000000000000001")));
+
+        assertEquals(9L, lags.get(0).getLag());
+        assertEquals(3L, lags.get(1).getLag());
+        assertEquals(NakadiCursor.of(first, "0", "000000000000000002"), lags.get(1).getFirstCursor());
+        assertEquals(NakadiCursor.of(last, "0", "000000000000000004"), lags.get(1).getLastCursor());
+        Mockito.verify(repository, Mockito.times(1)).loadTopicStatistics(Arrays.asList(first, last));
+        Mockito.verify(timelineService, Mockito.times(1)).getAllTimelinesOrdered(any());
+    }
+
     @Test
     public void testShiftWithEmptyTimelines() throws Exception {
         final Timeline first = mockTimeline(1, 9L);
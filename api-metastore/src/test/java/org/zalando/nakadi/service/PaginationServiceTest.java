@@ -75,4 +75,26 @@ public class PaginationServiceTest {
         Assert.assertEquals("/schemas?offset=5&limit=3", paginationWrapper.getLinks().getNext().get().getHref());
         Assert.assertEquals("/schemas?offset=0&limit=3", paginationWrapper.getLinks().getPrev().get().getHref());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPaginationByKeyNext() {
+        final PaginationService paginationService = new PaginationService();
+        final PaginationWrapper<String> paginationWrapper = paginationService.paginateByKey(3,
+                l -> Lists.newArrayList("One", "Two", "Three", "Four").subList(0, l),
+                last -> "/schemas?after=" + last + "&limit=3");
+        Assert.assertEquals(Lists.newArrayList("One", "Two", "Three"), paginationWrapper.getItems());
+        Assert.assertEquals("/schemas?after=Three&limit=3", paginationWrapper.getLinks().getNext().get().getHref());
+        Assert.assertFalse(paginationWrapper.getLinks().getPrev().isPresent());
+    }
+
+    @Test
+    public void testPaginationByKeyLastPage() {
+        final PaginationService paginationService = new PaginationService();
+        final PaginationWrapper<String> paginationWrapper = paginationService.paginateByKey(3,
+                l -> Lists.newArrayList("One", "Two", "Three"),
+                last -> "/schemas?after=" + last + "&limit=3");
+        Assert.assertEquals(3, paginationWrapper.getItems().size());
+        Assert.assertFalse(paginationWrapper.getLinks().getNext().isPresent());
+        Assert.assertFalse(paginationWrapper.getLinks().getPrev().isPresent());
+    }
+}
@@ -1,5 +1,7 @@
 package org.zalando.nakadi.service;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,27 +26,27 @@ public class SchemaServiceTest {
     public void setUp() {
         schemaRepository = Mockito.mock(SchemaRepository.class);
         paginationService = Mockito.mock(PaginationService.class);
-        schemaService = new SchemaService(schemaRepository, paginationService);
+        schemaService = new SchemaService(schemaRepository, paginationService, 100);
     }
 
     @Test(expected = InvalidLimitException.class)
     public void testOffsetBounds() {
-        schemaService.getSchemas("name", -1, 1);
+        schemaService.getSchemas("name", -1, 1, null);
     }
 
     @Test(expected = InvalidLimitException.class)
     public void testLimitLowerBounds() {
-        schemaService.getSchemas("name", 0, 0);
+        schemaService.getSchemas("name", 0, 0, null);
     }
 
     @Test(expected = InvalidLimitException.class)
     public void testLimitUpperBounds() {
-        schemaService.getSchemas("name", 0, 1001);
+        schemaService.getSchemas("name", 0, 1001, null);
     }
 
     @Test
     public void testSuccess() {
-        final PaginationWrapper result = schemaService.getSchemas("name", 0, 1000);
+        final PaginationWrapper result = schemaService.getSchemas("name", 0, 1000, null);
         Assert.assertTrue(true);
     }
 
@@ -54,7 +56,8 @@ public class SchemaServiceTest {
         Mockito.when(schemaRepository.getSchemaVersion(eventType.getName() + "wrong",
                 eventType.getSchema().getVersion().toString()))
                 .thenThrow(NoSuchSchemaException.class);
-        final EventTypeSchema result = schemaService.getSchemaVersion(eventType.getName() + "wrong",
+        eventType.setName(eventType.getName() + "wrong");
+        final EventTypeSchema result = schemaService.getSchemaVersion(eventType,
                 eventType.getSchema().getVersion().toString());
     }
 
@@ -64,7 +67,7 @@ public class SchemaServiceTest {
         Mockito.when(schemaRepository.getSchemaVersion(eventType.getName(),
                 eventType.getSchema().getVersion().bump(Version.Level.MINOR).toString()))
                 .thenThrow(NoSuchSchemaException.class);
-        schemaService.getSchemaVersion(eventType.getName(),
+        schemaService.getSchemaVersion(eventType,
                 eventType.getSchema().getVersion().bump(Version.Level.MINOR).toString());
     }
 
@@ -75,8 +78,95 @@ public class SchemaServiceTest {
                 eventType.getSchema().getVersion().toString()))
                 .thenReturn(eventType.getSchema());
         final EventTypeSchema result =
-                schemaService.getSchemaVersion(eventType.getName(), eventType.getSchema().getVersion().toString());
+                schemaService.getSchemaVersion(eventType, eventType.getSchema().getVersion().toString());
         Assert.assertTrue(true);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void whenSchemaVersionRequestedAgainThenItIsTakenFromCache() throws Exception {
+        final EventType eventType = buildDefaultEventType();
+        eventType.setCreatedAt(new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC));
+        final String version = eventType.getSchema().getVersion().toString();
+        Mockito.when(schemaRepository.getSchemaVersion(eventType.getName(), version))
+                .thenReturn(eventType.getSchema());
+
+        Assert.assertEquals(eventType.getSchema(), schemaService.getSchemaVersion(eventType, version));
+        Assert.assertEquals(eventType.getSchema(), schemaService.getSchemaVersion(eventType, version));
+        Mockito.verify(schemaRepository, Mockito.times(1)).getSchemaVersion(eventType.getName(), version);
+
+        // event type was deleted and created again with the same name
+        eventType.setCreatedAt(new DateTime(2020, 2, 1, 0, 0, DateTimeZone.UTC));
+        schemaService.getSchemaVersion(eventType, version);
+        Mockito.verify(schemaRepository, Mockito.times(2)).getSchemaVersion(eventType.getName(), version);
+    }
+
+    @Test
+    public void whenSchemaVersionIsNotFoundThenItIsNotCached() throws Exception {
+        final EventType eventType = buildDefaultEventType();
+        Mockito.when(schemaRepository.getSchemaVersion(eventType.getName(), "2.0.0"))
+                .thenThrow(new NoSuchSchemaException("no schema"))
+                .thenReturn(eventType.getSchema());
+        try {
+            schemaService.getSchemaVersion(eventType, "2.0.0");
+            Assert.fail("NoSuchSchemaException is expected");
+        } catch (final NoSuchSchemaException ignore) {
+        }
+        Assert.assertEquals(eventType.getSchema(), schemaService.getSchemaVersion(eventType, "2.0.0"));
+    }
+
+    @Test
+    public void whenAfterThenSchemasArePagedByVersion() {
+        schemaService.getSchemas("name", 0, 10, "1.0.0");
+        Mockito.verify(paginationService).paginateByKey(Mockito.eq(10), Mockito.any(), Mockito.any());
+        Mockito.verify(paginationService, Mockito.never())
+                .paginate(Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void whenEmptyAfterThenSchemasArePagedByVersionFromLatest() {
+        final SchemaService service = new SchemaService(schemaRepository, new PaginationService(), 100);
+        service.getSchemas("name", 0, 10, "");
+        Mockito.verify(schemaRepository).getSchemasAfter("name", null, 11);
+    }
+
+    @Test
+    public void whenNoAfterThenSchemasArePagedByOffset() {
+        schemaService.getSchemas("name", 0, 10, null);
+        Mockito.verify(paginationService)
+                .paginate(Mockito.eq(0), Mockito.eq(10), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(paginationService, Mockito.never())
+                .paginateByKey(Mockito.anyInt(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void whenOffsetThenSchemasArePagedByOffset() {
+        schemaService.getSchemas("name", 5, 10, null);
+        Mockito.verify(paginationService)
+                .paginate(Mockito.eq(5), Mockito.eq(10), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test(expected = InvalidLimitException.class)
+    public void whenOffsetAndAfterThenInvalidLimit() {
+        schemaService.getSchemas("name", 5, 10, "1.0.0");
+    }
+
+    @Test(expected = InvalidLimitException.class)
+    public void whenAfterIsNotVersionThenInvalidLimit() {
+        schemaService.getSchemas("name", 0, 10, "latest");
+    }
+
+    @Test(expected = InvalidLimitException.class)
+    public void whenAfterVersionDoesNotExistThenInvalidLimit() {
+        Mockito.when(schemaRepository.getSchemasAfter("name", "3.0.0", 11))
+                .thenThrow(new NoSuchSchemaException("no schema"));
+        new SchemaService(schemaRepository, new PaginationService(), 100).getSchemas("name", 0, 10, "3.0.0");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenSchemaVersionLoadingFailsThenRuntimeCauseIsRethrown() {
+        final EventType eventType = buildDefaultEventType();
+        Mockito.when(schemaRepository.getSchemaVersion(eventType.getName(), "2.0.0"))
+                .thenThrow(new IllegalStateException("db is not available"));
+        schemaService.getSchemaVersion(eventType, "2.0.0");
+    }
+}
@@ -4,25 +4,38 @@ import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.EventTypeBase;
 import org.zalando.nakadi.domain.Feature;
 import org.zalando.nakadi.domain.ResourceImpl;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.domain.SubscriptionBase;
+import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
 import org.zalando.nakadi.exceptions.runtime.AuthorizationNotPresentException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSubscriptionException;
 import org.zalando.nakadi.exceptions.runtime.UnableProcessException;
 import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
 import org.zalando.nakadi.repository.EventTypeRepository;
+import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.repository.db.SubscriptionDbRepository;
 import org.zalando.nakadi.service.publishing.NakadiAuditLogPublisher;
 import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
 import org.zalando.nakadi.service.subscription.zk.SubscriptionClientFactory;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
 import org.zalando.nakadi.service.timeline.TimelineService;
+import org.zalando.nakadi.service.SubscriptionService.StatsMode;
 import org.zalando.nakadi.util.TestKpiUtils;
+import org.zalando.nakadi.utils.EventTypeTestBuilder;
 import org.zalando.nakadi.utils.RandomSubscriptionBuilder;
 
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 
@@ -56,7 +69,7 @@ public class SubscriptionServiceTest {
         subscriptionService = new SubscriptionService(subscriptionRepository, zkSubscriptionClientFactory,
                 timelineService, eventTypeRepository, subscriptionValidationService, cursorConverter,
                 cursorOperationsService, nakadiKpiPublisher, featureToggleService, null, SUBSCRIPTION_LOG_ET,
-                nakadiAuditLogPublisher, authorizationValidator);
+                nakadiAuditLogPublisher, authorizationValidator, new PaginationService(), 0);
     }
 
     @Test(expected = AuthorizationNotPresentException.class)
@@ -148,4 +161,64 @@ public class SubscriptionServiceTest {
 
         subscriptionService.deleteSubscription("test");
     }
+
+    @Test
+    public void whenStatsRequestedConcurrentlyThenTheyAreCalculatedOnce() throws Exception {
+        final EventType eventType = EventTypeTestBuilder.builder().build();
+        final Subscription subscription = RandomSubscriptionBuilder.builder()
+                .withEventType(eventType.getName())
+                .build();
+        Mockito.when(subscriptionRepository.getSubscription(subscription.getId())).thenReturn(subscription);
+        final EventTypeRepository eventTypeRepository = Mockito.mock(EventTypeRepository.class);
+        Mockito.when(eventTypeRepository.findByName(eventType.getName())).thenReturn(eventType);
+        final TimelineService timelineService = Mockito.mock(TimelineService.class);
+        final Timeline timeline = Mockito.mock(Timeline.class);
+        final TopicRepository topicRepository = Mockito.mock(TopicRepository.class);
+        Mockito.when(timelineService.getActiveTimeline((EventTypeBase) any())).thenReturn(timeline);
+        Mockito.when(timelineService.getTopicRepository(timeline)).thenReturn(topicRepository);
+        Mockito.when(topicRepository.loadTopicEndStatistics(any())).thenReturn(Collections.emptyList());
+
+        final AtomicInteger calculations = new AtomicInteger();
+        final CountDownLatch calculationStarted = new CountDownLatch(1);
+        final CountDownLatch finishCalculation = new CountDownLatch(1);
+        final ZkSubscriptionClient zkSubscriptionClient = Mockito.mock(ZkSubscriptionClient.class);
+        final SubscriptionClientFactory zkSubscriptionClientFactory = Mockito.mock(SubscriptionClientFactory.class);
+        Mockito.when(zkSubscriptionClientFactory.createClient(any(), any())).thenAnswer(invocation -> {
+            calculations.incrementAndGet();
+            calculationStarted.countDown();
+            finishCalculation.await(10, TimeUnit.SECONDS);
+            return zkSubscriptionClient;
+        });
+        Mockito.when(zkSubscriptionClient.getZkSubscriptionNode()).thenReturn(Optional.empty());
+
+        final SubscriptionService cachingService = new SubscriptionService(subscriptionRepository,
+                zkSubscriptionClientFactory, timelineService, eventTypeRepository, subscriptionValidationService,
+                Mockito.mock(CursorConverter.class), Mockito.mock(CursorOperationsService.class),
+                nakadiKpiPublisher, featureToggleService, Mockito.mock(SubscriptionTimeLagService.class),
+                SUBSCRIPTION_LOG_ET, Mockito.mock(NakadiAuditLogPublisher.class), authorizationValidator,
+                new PaginationService(), TimeUnit.MINUTES.toMillis(1));
+
+        final Thread first = new Thread(() -> cachingService.getSubscriptionStat(subscription.getId(),
+                StatsMode.NORMAL));
+        final Thread second = new Thread(() -> cachingService.getSubscriptionStat(subscription.getId(),
+                StatsMode.NORMAL));
+        first.start();
+        calculationStarted.await(10, TimeUnit.SECONDS);
+        second.start();
+        while (second.getState() != Thread.State.WAITING && second.isAlive()) {
+            Thread.sleep(1);
+        }
+        finishCalculation.countDown();
+        first.join(TimeUnit.SECONDS.toMillis(10));
+        second.join(TimeUnit.SECONDS.toMillis(10));
+        assertEquals(1, calculations.get());
+
+        assertEquals(1, cachingService.getSubscriptionStat(subscription.getId(), StatsMode.NORMAL)
+                .getItems().size());
+        assertEquals(1, calculations.get());
+        Mockito.verify(authorizationValidator, Mockito.times(3)).authorizeSubscriptionView(subscription);
+
+        cachingService.getSubscriptionStat(subscription.getId(), StatsMode.TIMELAG);
+        assertEquals(2, calculations.get());
+    }
 }
@@ -40,4 +40,14 @@ public class RFC3339DateTimeValidatorTest {
             Assert.assertThat(valid, validator.validate(valid), IsOptional.isAbsent());
         }
     }
+
+    @Test
+    public void whenDateTimeIsNotParsableThenErrorContainsPosition() {
+        Assert.assertEquals(
+                "must be a valid date-time Text '1996-10-15 16:39:57Z' could not be parsed at index 10",
+                validator.validate("1996-10-15 16:39:57Z").get());
+        Assert.assertEquals(
+                "must be a valid date-time",
+                validator.validate("1996-10-15T16:39:57+07:00:30").get());
+    }
 }
@@ -10,6 +10,7 @@ import org.zalando.nakadi.domain.SchemaChange;
 import org.zalando.nakadi.validation.schema.diff.SchemaDiff;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -67,4 +68,36 @@ public class SchemaDiffTest {
         final List<SchemaChange> changes = service.collectChanges(first, second);
         assertTrue(changes.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test(timeout = 10000)
+    public void whenDefinitionsAreReferencedManyTimesThenTheyAreComparedOnce() {
+        // every definition references the next one twice, so there are 2^30 paths to the last one
+        final Schema original = SchemaLoader.load(buildChainOfDefinitions(30, "string"));
+        final Schema update = SchemaLoader.load(buildChainOfDefinitions(30, "string"));
+        assertTrue(service.collectChanges(original, update).isEmpty());
+    }
+
+    @Test
+    public void whenReferencedDefinitionChangedThenChangeIsReportedOnEveryPath() {
+        final Schema original = SchemaLoader.load(buildChainOfDefinitions(2, "string"));
+        final Schema update = SchemaLoader.load(buildChainOfDefinitions(2, "number"));
+        assertThat(service.collectChanges(original, update).stream()
+                .map(change -> change.getType().toString() + " " + change.getJsonPath())
+                .collect(toList()), is(Arrays.asList(
+                "TYPE_CHANGED #/$ref/properties/a/$ref/properties/a/$ref",
+                "TYPE_CHANGED #/$ref/properties/a/$ref/properties/b/$ref",
+                "TYPE_CHANGED #/$ref/properties/b/$ref/properties/a/$ref",
+                "TYPE_CHANGED #/$ref/properties/b/$ref/properties/b/$ref")));
+    }
+
+    private static JSONObject buildChainOfDefinitions(final int length, final String lastType) {
+        final JSONObject definitions = new JSONObject();
+        for (int i = 0; i < length; ++i) {
+            final String next = "{\"$ref\": \"#/definitions/d" + (i + 1) + "\"}";
+            definitions.put("d" + i, new JSONObject(
+                    "{\"type\": \"object\", \"properties\": {\"a\": " + next + ", \"b\": " + next + "}}"));
+        }
+        definitions.put("d" + length, new JSONObject("{\"type\": \"" + lastType + "\"}"));
+        return new JSONObject("{\"$ref\": \"#/definitions/d0\"}").put("definitions", definitions);
+    }
+}
@@ -74,7 +74,7 @@ public class EventPublishingControllerTest {
     public void setUp() {
         metricRegistry = new MetricRegistry();
         publisher = Mockito.mock(EventPublisher.class);
-        eventTypeMetricRegistry = new EventTypeMetricRegistry(metricRegistry);
+        eventTypeMetricRegistry = new EventTypeMetricRegistry(metricRegistry, 3600000);
         kpiPublisher = Mockito.mock(NakadiKpiPublisher.class);
         settings = Mockito.mock(SecuritySettings.class);
         authorizationService = Mockito.mock(AuthorizationService.class);
@@ -0,0 +1,70 @@
+package org.zalando.nakadi.service.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.zalando.nakadi.domain.Feature;
+import org.zalando.nakadi.repository.db.EventTypeDbRepository;
+import org.zalando.nakadi.service.FeatureToggleService;
+
+/**
+ * Removes records of event type deletions, that are kept for incremental synchronization of event type caches (see
+ * EventTypeDataProvider). Caches look through the changes made since the oldest transaction that was running during
+ * their previous refresh, and compare all the cached event types with database at least once per full reconciliation
+ * interval, so records older than that are not needed by any cache.
+ */
+@Service
+public class EventTypeDeletionCleanupJob {
+
+    private static final String JOB_NAME = "event-type-deletions-cleanup";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventTypeDeletionCleanupJob.class);
+
+    private final EventTypeDbRepository eventTypeDbRepository;
+    private final FeatureToggleService featureToggleService;
+    private final ExclusiveJobWrapper jobWrapper;
+    private final long retentionMs;
+
+    @Autowired
+    public EventTypeDeletionCleanupJob(
+            final EventTypeDbRepository eventTypeDbRepository,
+            final FeatureToggleService featureToggleService,
+            final JobWrapperFactory jobWrapperFactory,
+            @Value("${nakadi.jobs.eventTypeDeletionCleanup.runPeriodMs}") final int periodMs,
+            @Value("${nakadi.jobs.eventTypeDeletionCleanup.retentionMs}") final long retentionMs,
+            @Value("${nakadi.cache.eventTypes.fullReconciliationIntervalMs:3600000}")
+            final long fullReconciliationIntervalMs) {
+        if (retentionMs <= fullReconciliationIntervalMs) {
+            throw new IllegalArgumentException("Retention of event type deletions (" + retentionMs +
+                    " ms) must be longer than full reconciliation interval of caches (" +
+                    fullReconciliationIntervalMs + " ms)");
+        }
+        this.eventTypeDbRepository = eventTypeDbRepository;
+        this.featureToggleService = featureToggleService;
+        this.jobWrapper = jobWrapperFactory.createExclusiveJobWrapper(JOB_NAME, periodMs);
+        this.retentionMs = retentionMs;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${nakadi.jobs.checkRunMs}",
+            initialDelayString = "${random.int(${nakadi.jobs.checkRunMs})}")
+    public void cleanupDeletions() {
+        if (featureToggleService.isFeatureEnabled(Feature.DISABLE_DB_WRITE_OPERATIONS)) {
+            LOG.warn("Skipping event type deletions cleanup because write operations to the DB are disabled");
+            return;
+        }
+        try {
+            jobWrapper.runJobLocked(this::cleanupDeletionsLocked);
+        } catch (final RuntimeException ex) {
+            LOG.warn("Event type deletions cleanup failed", ex);
+        }
+    }
+
+    private void cleanupDeletionsLocked() {
+        final int removed = eventTypeDbRepository.deleteDeletionRecordsOlderThan(retentionMs);
+        LOG.info("Removed {} records of event type deletions older than {} ms", removed, retentionMs);
+    }
+}
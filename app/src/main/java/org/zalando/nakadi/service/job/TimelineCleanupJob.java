@@ -1,5 +1,6 @@
 package org.zalando.nakadi.service.job;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,20 +13,34 @@ import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.InconsistentStateException;
 import org.zalando.nakadi.exceptions.runtime.RepositoryProblemException;
 import org.zalando.nakadi.exceptions.runtime.TopicDeletionException;
+import org.zalando.nakadi.exceptions.runtime.TopicRepositoryException;
 import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.repository.db.TimelineDbRepository;
 import org.zalando.nakadi.service.FeatureToggleService;
 import org.zalando.nakadi.service.timeline.TimelineService;
 import org.zalando.nakadi.util.ThreadUtils;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 @Service
 public class TimelineCleanupJob {
 
     private static final String JOB_NAME = "timelines-cleanup";
+    // How many times to check if storage has finished previous deletions before giving up till the next run
+    private static final int MAX_STORAGE_WAIT_ATTEMPTS = 30;
 
     private static final Logger LOG = LoggerFactory.getLogger(TimelineCleanupJob.class);
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setNameFormat(JOB_NAME + "-%d")
+            .setDaemon(true)
+            .build();
 
     private final EventTypeCache eventTypeCache;
     private final TimelineDbRepository timelineDbRepository;
@@ -33,6 +48,8 @@ public class TimelineCleanupJob {
     private final FeatureToggleService featureToggleService;
     private final ExclusiveJobWrapper jobWrapper;
     private final long deletionDelayMs;
+    private final int parallelism;
+    private final int maxPendingDeletions;
 
     @Autowired
     public TimelineCleanupJob(final EventTypeCache eventTypeCache,
@@ -41,13 +58,18 @@ public class TimelineCleanupJob {
                               final FeatureToggleService featureToggleService,
                               final JobWrapperFactory jobWrapperFactory,
                               @Value("${nakadi.jobs.timelineCleanup.runPeriodMs}") final int periodMs,
-                              @Value("${nakadi.jobs.timelineCleanup.deletionDelayMs}") final long deletionDelayMs) {
+                              @Value("${nakadi.jobs.timelineCleanup.deletionDelayMs}") final long deletionDelayMs,
+                              @Value("${nakadi.jobs.timelineCleanup.parallelism:4}") final int parallelism,
+                              @Value("${nakadi.jobs.timelineCleanup.maxPendingDeletions:20}")
+                              final int maxPendingDeletions) {
         this.eventTypeCache = eventTypeCache;
         this.timelineDbRepository = timelineDbRepository;
         this.timelineService = timelineService;
         this.jobWrapper = jobWrapperFactory.createExclusiveJobWrapper(JOB_NAME, periodMs);
         this.featureToggleService = featureToggleService;
         this.deletionDelayMs = deletionDelayMs;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxPendingDeletions = maxPendingDeletions;
     }
 
     @Scheduled(
@@ -65,27 +87,81 @@ public class TimelineCleanupJob {
         }
     }
 
+    /**
+     * Expired timelines are grouped by storage, and topics of each storage are deleted in batches of
+     * {@code parallelism} topics at a time. Before each batch the job waits for the storage to process previously
+     * requested deletions, so that the pace follows the storage instead of a fixed delay. Every timeline is marked
+     * as deleted as soon as its topic is deleted, so a job that was stopped continues where it stopped.
+     */
     private void deleteTimelinesLocked() {
-        final List<Timeline> expired = timelineDbRepository.getExpiredTimelines();
-        for (int i = 0; i < expired.size(); ++i) {
-            if (i != 0 && deletionDelayMs > 0) {
-                try {
-                    ThreadUtils.sleep(deletionDelayMs);
-                } catch (InterruptedException e) {
-                    LOG.warn("Timeline deletion thread was interrupted", e);
-                    Thread.currentThread().interrupt();
-                    return;
-                }
+        final Map<TopicRepository, List<Timeline>> expiredByStorage = new IdentityHashMap<>();
+        for (final Timeline timeline : timelineDbRepository.getExpiredTimelines()) {
+            expiredByStorage.computeIfAbsent(timelineService.getTopicRepository(timeline), r -> new ArrayList<>())
+                    .add(timeline);
+        }
+        if (expiredByStorage.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, THREAD_FACTORY);
+        try {
+            for (final Map.Entry<TopicRepository, List<Timeline>> entry : expiredByStorage.entrySet()) {
+                deleteStorageTimelines(entry.getKey(), entry.getValue(), executor);
+            }
+        } catch (final InterruptedException e) {
+            LOG.warn("Timeline deletion thread was interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void deleteStorageTimelines(final TopicRepository topicRepository, final List<Timeline> expired,
+                                        final ExecutorService executor) throws InterruptedException {
+        for (int batchStart = 0; batchStart < expired.size(); batchStart += parallelism) {
+            if (!waitForPendingDeletions(topicRepository)) {
+                LOG.warn("Postponing deletion of {} expired timelines, as storage is busy with previous deletions",
+                        expired.size() - batchStart);
+                return;
             }
-            final Timeline timeline = expired.get(i);
-            deleteTimelineTopic(timeline);
+            final CompletableFuture[] batch = expired
+                    .subList(batchStart, Math.min(expired.size(), batchStart + parallelism))
+                    .stream()
+                    .map(timeline -> CompletableFuture.runAsync(
+                            () -> deleteTimeline(topicRepository, timeline), executor))
+                    .toArray(CompletableFuture[]::new);
+            // failures are handled per timeline, so that one of them does not postpone the rest of the batches
+            CompletableFuture.allOf(batch).join();
+        }
+    }
+
+    private void deleteTimeline(final TopicRepository topicRepository, final Timeline timeline) {
+        try {
+            deleteTimelineTopic(topicRepository, timeline);
             markTimelineDeleted(timeline);
+        } catch (final RuntimeException e) {
+            LOG.error("Failed to delete expired timeline {}", timeline.getId(), e);
+        }
+    }
+
+    private boolean waitForPendingDeletions(final TopicRepository topicRepository) throws InterruptedException {
+        for (int attempt = 0; attempt < MAX_STORAGE_WAIT_ATTEMPTS; ++attempt) {
+            try {
+                if (topicRepository.countTopicsPendingDeletion() < maxPendingDeletions) {
+                    return true;
+                }
+            } catch (final TopicRepositoryException e) {
+                LOG.error("Failed to check topics pending deletion", e);
+                return false;
+            }
+            if (deletionDelayMs > 0) {
+                ThreadUtils.sleep(deletionDelayMs);
+            }
         }
+        return false;
     }
 
-    private void deleteTimelineTopic(final Timeline timeline) {
+    private void deleteTimelineTopic(final TopicRepository topicRepository, final Timeline timeline) {
         try {
-            final TopicRepository topicRepository = timelineService.getTopicRepository(timeline);
             topicRepository.deleteTopic(timeline.getTopic());
         } catch (final TopicDeletionException e) {
             LOG.error("Failed to delete topic {} for expired timeline {}", timeline.getTopic(), timeline.getId(), e);
@@ -0,0 +1,51 @@
+package org.zalando.nakadi.service.job;
+
+import org.junit.Test;
+import org.zalando.nakadi.domain.Feature;
+import org.zalando.nakadi.repository.db.EventTypeDbRepository;
+import org.zalando.nakadi.service.FeatureToggleService;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventTypeDeletionCleanupJobTest {
+
+    private final EventTypeDbRepository eventTypeDbRepository = mock(EventTypeDbRepository.class);
+    private final FeatureToggleService featureToggleService = mock(FeatureToggleService.class);
+    private final JobWrapperFactory jobWrapperFactory = mock(JobWrapperFactory.class);
+
+    public EventTypeDeletionCleanupJobTest() {
+        final ExclusiveJobWrapper jobWrapper = DummyJobWrapper.create();
+        when(jobWrapperFactory.createExclusiveJobWrapper(any(), anyLong())).thenReturn(jobWrapper);
+    }
+
+    @Test
+    public void whenCleanupThenDeletionsOlderThanRetentionAreRemoved() {
+        createJob(86400000L).cleanupDeletions();
+
+        verify(eventTypeDbRepository).deleteDeletionRecordsOlderThan(86400000L);
+    }
+
+    @Test
+    public void whenDbWriteOperationsDisabledThenNothingIsRemoved() {
+        when(featureToggleService.isFeatureEnabled(Feature.DISABLE_DB_WRITE_OPERATIONS)).thenReturn(true);
+
+        createJob(86400000L).cleanupDeletions();
+
+        verify(eventTypeDbRepository, never()).deleteDeletionRecordsOlderThan(anyLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRetentionIsNotLongerThanFullReconciliationIntervalThenJobIsNotCreated() {
+        createJob(3600000L);
+    }
+
+    private EventTypeDeletionCleanupJob createJob(final long retentionMs) {
+        return new EventTypeDeletionCleanupJob(
+                eventTypeDbRepository, featureToggleService, jobWrapperFactory, 0, retentionMs, 3600000L);
+    }
+}
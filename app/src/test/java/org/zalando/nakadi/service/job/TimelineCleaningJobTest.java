@@ -11,6 +11,7 @@ import org.zalando.nakadi.repository.db.TimelineDbRepository;
 import org.zalando.nakadi.service.FeatureToggleService;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,22 +36,24 @@ public class TimelineCleaningJobTest {
     private final TimelineService timelineService;
     private final EventTypeCache eventTypeCache;
     private final TimelineDbRepository timelineDbRepository;
+    private final FeatureToggleService featureToggleService;
+    private final JobWrapperFactory jobWrapperFactory;
 
     public TimelineCleaningJobTest() {
         timelineService = mock(TimelineService.class);
         eventTypeCache = mock(EventTypeCache.class);
         timelineDbRepository = mock(TimelineDbRepository.class);
 
-        final JobWrapperFactory jobWrapperFactory = mock(JobWrapperFactory.class);
+        jobWrapperFactory = mock(JobWrapperFactory.class);
         final ExclusiveJobWrapper jobWrapper = DummyJobWrapper.create();
         when(jobWrapperFactory.createExclusiveJobWrapper(any(), anyLong())).thenReturn(jobWrapper);
 
-        final FeatureToggleService featureToggleService = mock(FeatureToggleService.class);
+        featureToggleService = mock(FeatureToggleService.class);
         when(featureToggleService.isFeatureEnabled(Feature.DISABLE_DB_WRITE_OPERATIONS))
                 .thenReturn(false);
 
         timelineCleanupJob = new TimelineCleanupJob(eventTypeCache, timelineDbRepository, timelineService,
-                featureToggleService, jobWrapperFactory, 0, 0L);
+                featureToggleService, jobWrapperFactory, 0, 0L, 1, 1);
     }
 
     @Test
@@ -98,6 +102,64 @@ public class TimelineCleaningJobTest {
         assertThat(t1.isDeleted(), is(false));
     }
 
+    @Test
+    public void whenStorageIsBusyWithPreviousDeletionsThenTopicsAreNotDeleted() {
+        final Timeline t1 = createTimeline("et1", "topic1");
+        when(timelineDbRepository.getExpiredTimelines()).thenReturn(ImmutableList.of(t1));
+
+        final TopicRepository topicRepository = mock(TopicRepository.class);
+        when(timelineService.getTopicRepository(eq(t1))).thenReturn(topicRepository);
+        when(topicRepository.countTopicsPendingDeletion()).thenReturn(1);
+
+        timelineCleanupJob.cleanupTimelines();
+
+        verify(topicRepository, never()).deleteTopic(any());
+        verify(timelineDbRepository, never()).updateTimelime(any());
+        assertThat(t1.isDeleted(), is(false));
+    }
+
+    @Test
+    public void whenCleanupTimelinesOfSeveralStoragesThenAllAreDeletedInBatches() {
+        final TimelineCleanupJob parallelJob = new TimelineCleanupJob(eventTypeCache, timelineDbRepository,
+                timelineService, featureToggleService, jobWrapperFactory, 0, 0L, 3, 10);
+        final TopicRepository storage1 = mock(TopicRepository.class);
+        final TopicRepository storage2 = mock(TopicRepository.class);
+        final List<Timeline> expired = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            final Timeline timeline = createTimeline("et" + i, "topic" + i);
+            when(timelineService.getTopicRepository(eq(timeline))).thenReturn(i % 2 == 0 ? storage1 : storage2);
+            expired.add(timeline);
+        }
+        when(timelineDbRepository.getExpiredTimelines()).thenReturn(expired);
+
+        parallelJob.cleanupTimelines();
+
+        for (int i = 0; i < 10; ++i) {
+            verify(i % 2 == 0 ? storage1 : storage2).deleteTopic("topic" + i);
+            assertThat(expired.get(i).isDeleted(), is(true));
+        }
+        // 5 timelines of each storage are deleted in 2 batches
+        verify(storage1, times(2)).countTopicsPendingDeletion();
+        verify(storage2, times(2)).countTopicsPendingDeletion();
+    }
+
+    @Test
+    public void whenTimelineDeletionFailsThenRemainingBatchesAreDeleted() {
+        final Timeline t1 = createTimeline("et1", "topic1");
+        final Timeline t2 = createTimeline("et2", "topic2");
+        when(timelineDbRepository.getExpiredTimelines()).thenReturn(ImmutableList.of(t1, t2));
+
+        final TopicRepository topicRepository = mock(TopicRepository.class);
+        when(timelineService.getTopicRepository(argThat(isOneOf(t1, t2)))).thenReturn(topicRepository);
+        doThrow(new IllegalStateException()).when(topicRepository).deleteTopic("topic1");
+
+        timelineCleanupJob.cleanupTimelines();
+
+        verify(topicRepository).deleteTopic("topic2");
+        assertThat(t1.isDeleted(), is(false));
+        assertThat(t2.isDeleted(), is(true));
+    }
+
     private Timeline createTimeline(final String et, final String topic) {
         return new Timeline(et, 0, null, topic, null);
     }
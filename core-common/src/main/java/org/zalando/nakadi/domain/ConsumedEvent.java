@@ -9,11 +9,22 @@ public class ConsumedEvent {
     private final byte[] event;
     private final NakadiCursor position;
     private final long timestamp;
+    private final long consumedAtMillis;
 
     public ConsumedEvent(final byte[] event, final NakadiCursor position, final long timestamp) {
+        this(event, position, timestamp, System.currentTimeMillis());
+    }
+
+    /**
+     * @param timestamp        timestamp of the record in storage, that is set when the event is published
+     * @param consumedAtMillis time when the event was read from storage
+     */
+    public ConsumedEvent(final byte[] event, final NakadiCursor position, final long timestamp,
+                         final long consumedAtMillis) {
         this.event = event;
         this.position = position;
         this.timestamp = timestamp;
+        this.consumedAtMillis = consumedAtMillis;
     }
 
     public byte[] getEvent() {
@@ -28,6 +39,10 @@ public class ConsumedEvent {
         return timestamp;
     }
 
+    public long getConsumedAtMillis() {
+        return consumedAtMillis;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -5,6 +5,7 @@ import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.exceptions.runtime.NakadiBaseException;
 import org.zalando.nakadi.repository.kafka.KafkaCursor;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 public abstract class NakadiCursor {
@@ -28,14 +29,16 @@ public abstract class NakadiCursor {
     }
 
     private final Timeline timeline;
-    private final String partition;
+    // Cursors read from storage keep their position in numeric form, string representation is formatted only when
+    // it is requested. Concurrent formatting is harmless, as the result is always the same immutable string.
+    private String partition;
     // NO BEGIN HERE - only real offset!
-    private final String offset;
+    private String offset;
 
     private NakadiCursor(
             final Timeline timeline,
-            final String partition,
-            final String offset) {
+            @Nullable final String partition,
+            @Nullable final String offset) {
         this.timeline = timeline;
         this.partition = partition;
         this.offset = offset;
@@ -54,25 +57,46 @@ public abstract class NakadiCursor {
     }
 
     public String getPartition() {
+        if (null == partition) {
+            partition = formatPartition();
+        }
         return partition;
     }
 
     public String getOffset() {
+        if (null == offset) {
+            offset = formatOffset();
+        }
         return offset;
     }
 
     public EventTypePartition getEventTypePartition() {
-        return new EventTypePartition(timeline.getEventType(), partition);
+        return new EventTypePartition(timeline.getEventType(), getPartition());
     }
 
     public TopicPartition getTopicPartition() {
-        return new TopicPartition(timeline.getTopic(), partition);
+        return new TopicPartition(timeline.getTopic(), getPartition());
     }
 
+    protected abstract String formatPartition();
+
+    protected abstract String formatOffset();
+
     public abstract NakadiCursor shiftWithinTimeline(long offset);
 
+    /**
+     * Compares offsets of the cursors, assuming that both cursors belong to the same partition of the same timeline.
+     */
+    public abstract int compareOffset(NakadiCursor other);
+
     public abstract boolean isLast();
 
+    /**
+     * Checks if the cursor points to the last offset of its partition in the given latest position of its timeline.
+     * Allows to use the latest position of another (e.g. cached) instance of the timeline.
+     */
+    public abstract boolean isLast(Timeline.StoragePosition latestPosition);
+
     public abstract boolean isInitial();
 
     public KafkaCursor asKafkaCursor() throws InvalidCursorException {
@@ -81,35 +105,12 @@ public abstract class NakadiCursor {
 
     public abstract void checkStorageAvailability() throws InvalidCursorException;
 
-    @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof NakadiCursor)) {
-            return false;
-        }
-
-        final NakadiCursor that = (NakadiCursor) o;
-        return Objects.equals(this.timeline, that.timeline)
-                && Objects.equals(this.partition, that.partition)
-                && Objects.equals(this.offset, that.offset);
-    }
-
-    @Override
-    public int hashCode() {
-        int result = timeline.hashCode();
-        result = 31 * result + partition.hashCode();
-        result = 31 * result + offset.hashCode();
-        return result;
-    }
-
     @Override
     public String toString() {
         //Ok, it's time to compact the message.
         return "T(" + Timeline.debugString(timeline) + ")-" +
-                "P(" + partition + ")-" +
-                "O(" + offset + ")";
+                "P(" + getPartition() + ")-" +
+                "O(" + getOffset() + ")";
     }
 
 
@@ -123,44 +124,131 @@ public abstract class NakadiCursor {
         }
     }
 
+    /**
+     * Creates cursor from the position in the storage, without formatting partition and offset.
+     */
+    public static NakadiCursor of(final Timeline timeline, final int partition, final long offset) {
+        switch (timeline.getStorage().getType()) {
+            case KAFKA:
+                return new NakadiKafkaCursor(timeline, partition, offset);
+            default:
+                throw new NakadiBaseException(
+                        "Cursor storage type " + timeline.getStorage().getType() + " not supported");
+        }
+    }
+
     private static class NakadiKafkaCursor extends NakadiCursor {
+        private final boolean numericPartition;
+        private final int kafkaPartition;
+        private final boolean numericOffset;
+        private final long kafkaOffset;
+
         NakadiKafkaCursor(final Timeline timeline, final String partition, final String offset) {
             super(timeline, partition, offset);
+            int parsedPartition = 0;
+            boolean partitionParsed = false;
+            if (null != partition) {
+                try {
+                    parsedPartition = KafkaCursor.toKafkaPartition(partition);
+                    partitionParsed = true;
+                } catch (final NumberFormatException ignore) {
+                    // the cursor is reported as invalid when it is checked
+                }
+            }
+            long parsedOffset = 0;
+            boolean offsetParsed = false;
+            if (null != offset) {
+                try {
+                    parsedOffset = KafkaCursor.toKafkaOffset(offset);
+                    offsetParsed = true;
+                } catch (final NumberFormatException ignore) {
+                    // the cursor is reported as invalid when it is checked
+                }
+            }
+            this.numericPartition = partitionParsed;
+            this.kafkaPartition = parsedPartition;
+            this.numericOffset = offsetParsed;
+            this.kafkaOffset = parsedOffset;
+            // Partitions of equal cursors must be the same strings (e.g. not "01" and "1"), as they are used in keys.
+            // Offsets are kept as they were provided (e.g. not padded by clients), they are not a part of any key.
+            if (partitionParsed && !isCanonicalPartition(partition, parsedPartition)) {
+                ((NakadiCursor) this).partition = null;
+            }
+        }
+
+        NakadiKafkaCursor(final Timeline timeline, final int partition, final long offset) {
+            super(timeline, null, null);
+            this.numericPartition = true;
+            this.kafkaPartition = partition;
+            this.numericOffset = true;
+            this.kafkaOffset = offset;
+        }
+
+        private static boolean isCanonicalPartition(final String partition, final int parsed) {
+            return parsed >= 0 ?
+                    Character.isDigit(partition.charAt(0)) && (partition.length() == 1 || partition.charAt(0) != '0') :
+                    partition.equals(KafkaCursor.toNakadiPartition(parsed));
+        }
+
+        @Override
+        protected String formatPartition() {
+            return numericPartition ? KafkaCursor.toNakadiPartition(kafkaPartition) : null;
+        }
+
+        @Override
+        protected String formatOffset() {
+            return numericOffset ? KafkaCursor.toNakadiOffset(kafkaOffset) : null;
+        }
+
+        private int getKafkaPartition() {
+            // throws the same exception as before for the cursors with invalid partition
+            return numericPartition ? kafkaPartition : KafkaCursor.toKafkaPartition(getPartition());
+        }
+
+        private long getKafkaOffset() {
+            return numericOffset ? kafkaOffset : KafkaCursor.toKafkaOffset(getOffset());
         }
 
         @Override
         public NakadiCursor shiftWithinTimeline(final long toAdd) {
-            return new NakadiKafkaCursor(
-                    getTimeline(),
-                    getPartition(),
-                    KafkaCursor.toNakadiOffset(KafkaCursor.toKafkaOffset(getOffset()) + toAdd)
-            );
+            return new NakadiKafkaCursor(getTimeline(), getKafkaPartition(), getKafkaOffset() + toAdd);
+        }
+
+        @Override
+        public int compareOffset(final NakadiCursor other) {
+            if (numericOffset && other instanceof NakadiKafkaCursor && ((NakadiKafkaCursor) other).numericOffset) {
+                return Long.compare(kafkaOffset, ((NakadiKafkaCursor) other).kafkaOffset);
+            }
+            return getOffset().compareTo(other.getOffset());
         }
 
         @Override
         public KafkaCursor asKafkaCursor() throws InvalidCursorException {
+            if (numericPartition && numericOffset) {
+                return new KafkaCursor(getTopic(), kafkaPartition, kafkaOffset);
+            }
             return KafkaCursor.fromNakadiCursor(this);
         }
 
         @Override
         public boolean isLast() {
-            final Timeline timeline = getTimeline();
-            if (null == timeline.getLatestPosition()) {
+            return isLast(getTimeline().getLatestPosition());
+        }
+
+        @Override
+        public boolean isLast(@Nullable final Timeline.StoragePosition latestPosition) {
+            if (null == latestPosition) {
                 return false;
             }
-            final int partition = KafkaCursor.toKafkaPartition(getPartition());
+            final long existingOffset = ((Timeline.KafkaStoragePosition) latestPosition)
+                    .getLastOffsetForPartition(getKafkaPartition());
 
-            final long existingOffset = ((Timeline.KafkaStoragePosition) timeline.getLatestPosition())
-                    .getLastOffsetForPartition(partition);
-
-            final long offset = KafkaCursor.toKafkaOffset(getOffset());
-
-            return offset == existingOffset;
+            return getKafkaOffset() == existingOffset;
         }
 
         @Override
         public boolean isInitial() {
-            return Long.parseLong(getOffset()) == -1; // Yes, it is always like that for kafka.
+            return getKafkaOffset() == -1; // Yes, it is always like that for kafka.
         }
 
         @Override
@@ -171,6 +259,31 @@ public abstract class NakadiCursor {
             }
 
         }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof NakadiKafkaCursor)) {
+                return false;
+            }
+
+            final NakadiKafkaCursor that = (NakadiKafkaCursor) o;
+            return Objects.equals(getTimeline(), that.getTimeline())
+                    && (numericPartition && that.numericPartition ?
+                    kafkaPartition == that.kafkaPartition : Objects.equals(getPartition(), that.getPartition()))
+                    && (numericOffset && that.numericOffset ?
+                    kafkaOffset == that.kafkaOffset : Objects.equals(getOffset(), that.getOffset()));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = getTimeline().hashCode();
+            result = 31 * result + (numericPartition ? kafkaPartition : Objects.hashCode(getPartition()));
+            result = 31 * result + (numericOffset ? Long.hashCode(kafkaOffset) : Objects.hashCode(getOffset()));
+            return result;
+        }
     }
 
 }
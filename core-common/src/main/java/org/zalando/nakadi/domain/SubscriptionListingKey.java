@@ -0,0 +1,77 @@
+package org.zalando.nakadi.domain;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import javax.annotation.concurrent.Immutable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position of subscription in subscriptions listing, which is ordered by creation time and then by id (both
+ * descending). Used for keyset pagination, when next page is requested as "subscriptions after this key". Creation
+ * time is kept in the same text form as it is stored in database, so that it is compared the same way.
+ */
+@Immutable
+public class SubscriptionListingKey {
+
+    private static final DateTimeFormatter CREATED_AT_FORMAT = ISODateTimeFormat.dateTime().withZoneUTC();
+    private static final char SEPARATOR = '|';
+
+    private final String createdAt;
+    private final String id;
+
+    public SubscriptionListingKey(final String createdAt, final String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static SubscriptionListingKey of(final Subscription subscription) {
+        return new SubscriptionListingKey(CREATED_AT_FORMAT.print(subscription.getCreatedAt()), subscription.getId());
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String toToken() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SubscriptionListingKey fromToken(final String token) throws IllegalArgumentException {
+        final String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        final int separatorIdx = decoded.indexOf(SEPARATOR);
+        if (separatorIdx <= 0 || separatorIdx == decoded.length() - 1) {
+            throw new IllegalArgumentException("Malformed subscription listing key: " + token);
+        }
+        return new SubscriptionListingKey(decoded.substring(0, separatorIdx), decoded.substring(separatorIdx + 1));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final SubscriptionListingKey that = (SubscriptionListingKey) o;
+        return Objects.equals(createdAt, that.createdAt) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionListingKey{createdAt='" + createdAt + "', id='" + id + "'}";
+    }
+}
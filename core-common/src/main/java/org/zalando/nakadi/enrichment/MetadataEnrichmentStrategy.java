@@ -1,13 +1,13 @@
 package org.zalando.nakadi.enrichment;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
+import org.joda.time.DateTimeUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.zalando.nakadi.domain.BatchItem;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.exceptions.runtime.EnrichmentException;
 import org.zalando.nakadi.util.FlowIdUtils;
+import org.zalando.nakadi.util.RFC3339DateTime;
 
 public class MetadataEnrichmentStrategy implements EnrichmentStrategy {
     @Override
@@ -43,8 +43,7 @@ public class MetadataEnrichmentStrategy implements EnrichmentStrategy {
     }
 
     private void setReceivedAt(final JSONObject metadata) {
-        final DateTime dateTime = new DateTime(DateTimeZone.UTC);
-        metadata.put("received_at", dateTime.toString());
+        metadata.put("received_at", RFC3339DateTime.formatEpochMilli(DateTimeUtils.currentTimeMillis()));
     }
 
     public void setPartition(final JSONObject metadata, final BatchItem batchItem) {
@@ -1,21 +1,34 @@
 package org.zalando.nakadi.metrics;
 
 import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class EventTypeMetricRegistry {
 
+    private static final Logger LOG = LoggerFactory.getLogger(EventTypeMetricRegistry.class);
+
     private final ConcurrentMap<String, EventTypeMetrics> metricsPerEventType = new ConcurrentHashMap<>();
     private final MetricRegistry metricRegistry;
+    private final long idleTimeoutNanos;
+    private long lastTickNanos;
 
     @Autowired
-    public EventTypeMetricRegistry(final MetricRegistry metricRegistry) {
+    public EventTypeMetricRegistry(
+            final MetricRegistry metricRegistry,
+            @Value("${nakadi.metrics.eventTypes.idleTimeoutMs:3600000}") final long idleTimeoutMs) {
         this.metricRegistry = metricRegistry;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.lastTickNanos = System.nanoTime();
     }
 
     public EventTypeMetrics metricsFor(final String eventTypeName) {
@@ -23,4 +36,29 @@ public class EventTypeMetricRegistry {
                 key -> new EventTypeMetrics(eventTypeName, metricRegistry));
     }
 
+    /**
+     * Publishes snapshots of the last interval for all the event types and drops the metrics of event types that
+     * were not published to for longer than the idle timeout, so that they don't occupy memory and the registry.
+     */
+    @Scheduled(fixedDelayString = "${nakadi.metrics.eventTypes.snapshotIntervalMs:60000}")
+    public synchronized void tick() {
+        tick(System.nanoTime());
+    }
+
+    synchronized void tick(final long currentNanos) {
+        final long intervalNanos = currentNanos - lastTickNanos;
+        lastTickNanos = currentNanos;
+        for (final String eventTypeName : metricsPerEventType.keySet()) {
+            metricsPerEventType.computeIfPresent(eventTypeName, (name, metrics) -> {
+                final long lastActiveNanos = metrics.tick(intervalNanos, currentNanos);
+                if (currentNanos - lastActiveNanos < idleTimeoutNanos) {
+                    return metrics;
+                }
+                // Publishing that is happening right now may still report to the dropped metrics, it is lost then
+                LOG.debug("Dropping metrics of idle event type {}", name);
+                metrics.unregister();
+                return null;
+            });
+        }
+    }
 }
@@ -1,57 +1,113 @@
 package org.zalando.nakadi.metrics;
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
-import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
 
 import static org.zalando.nakadi.metrics.MetricUtils.metricNameFor;
 
+/**
+ * Publishing metrics of one event type. Values are recorded with {@link IntervalCounter} and {@link IntervalRecorder}
+ * and exported to the {@link MetricRegistry} as gauges by {@link IntervalGauges}, e.g. "publishing.events.m1_rate" or
+ * "publishing.p99". Gauges report the state at the last {@link #tick}. Durations of publishing stages are exported
+ * per stage, e.g. "publishing.stages.kafka_ack.p99", for the stages that were reached at least once.
+ */
 public class EventTypeMetrics {
 
     private final String eventTypeName;
-    private final MetricRegistry metricRegistry;
+    private final IntervalGauges gauges;
 
-    private final Histogram eventsPerBatchHistogram;
-    private final Timer publishingTimer;
-    private final Meter eventCountMeter;
-    private final Histogram averageEventSizeInBytesHistogram;
-    private final ConcurrentMap<Integer, Meter> statusCodeMeter = new ConcurrentHashMap<>();
+    private final IntervalRecorder eventsPerBatchRecorder;
+    private final IntervalRecorder publishingTimeRecorder;
+    private final IntervalCounter eventCountCounter;
+    private final IntervalRecorder averageEventSizeInBytesRecorder;
+    private final ConcurrentMap<Integer, IntervalCounter> statusCodeCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<PublishingTimings.Stage, IntervalRecorder> stageRecorders = new ConcurrentHashMap<>();
+    private final long createdAtNanos;
+    private long lastActiveNanos;
 
     public EventTypeMetrics(final String eventTypeName, final MetricRegistry metricRegistry) {
+        this(eventTypeName, metricRegistry, System.nanoTime());
+    }
+
+    EventTypeMetrics(final String eventTypeName, final MetricRegistry metricRegistry, final long createdAtNanos) {
         this.eventTypeName = eventTypeName;
-        this.metricRegistry = metricRegistry;
-        eventCountMeter = metricRegistry.meter(metricNameFor(eventTypeName, "publishing.events"));
-        eventsPerBatchHistogram = metricRegistry.histogram(metricNameFor(eventTypeName, "publishing.eventsPerBatch"));
-        averageEventSizeInBytesHistogram = metricRegistry.histogram(
-                metricNameFor(eventTypeName, "publishing.averageEventSizeInBytes"));
-        publishingTimer = metricRegistry.timer(metricNameFor(eventTypeName, "publishing"));
+        this.gauges = new IntervalGauges(metricRegistry);
+        this.createdAtNanos = createdAtNanos;
+        this.lastActiveNanos = createdAtNanos;
+        eventCountCounter = new IntervalCounter(createdAtNanos);
+        gauges.registerCounter(name("publishing.events"), eventCountCounter);
+        eventsPerBatchRecorder = new IntervalRecorder(createdAtNanos);
+        gauges.registerHistogram(name("publishing.eventsPerBatch"), eventsPerBatchRecorder);
+        averageEventSizeInBytesRecorder = new IntervalRecorder(createdAtNanos);
+        gauges.registerHistogram(name("publishing.averageEventSizeInBytes"), averageEventSizeInBytesRecorder);
+        publishingTimeRecorder = new IntervalRecorder(createdAtNanos);
+        gauges.registerTimer(name("publishing"), publishingTimeRecorder);
     }
 
     public void reportSizing(final int eventsPerBatch, final int totalEventSize) {
-        eventsPerBatchHistogram.update(eventsPerBatch);
-        eventCountMeter.mark(eventsPerBatch);
-        averageEventSizeInBytesHistogram.update(eventsPerBatch == 0 ? 0 : totalEventSize / eventsPerBatch);
+        eventsPerBatchRecorder.record(eventsPerBatch);
+        eventCountCounter.add(eventsPerBatch);
+        averageEventSizeInBytesRecorder.record(eventsPerBatch == 0 ? 0 : totalEventSize / eventsPerBatch);
     }
 
     public void incrementResponseCount(final int code) {
-        statusCodeMeter.computeIfAbsent(code,
-                key -> metricRegistry.meter(metricNameFor(eventTypeName, "publishing." + code)))
-                .mark();
+        statusCodeCounters.computeIfAbsent(code, key -> {
+            final IntervalCounter counter = new IntervalCounter(createdAtNanos);
+            gauges.registerCounter(name("publishing." + code), counter);
+            return counter;
+        }).add(1);
     }
 
     public void updateTiming(final long startingNanos, final long currentNanos) {
-        publishingTimer.update(currentNanos - startingNanos, TimeUnit.NANOSECONDS);
+        publishingTimeRecorder.record(currentNanos - startingNanos);
+    }
+
+    public void reportStageTimings(final PublishingTimings timings) {
+        timings.forEachCompleted((stage, durationNanos) -> stageRecorders.computeIfAbsent(stage, key -> {
+            final IntervalRecorder recorder = new IntervalRecorder(createdAtNanos);
+            gauges.registerDurationHistogram(name("publishing.stages." + stage.getMetricName()), recorder);
+            return recorder;
+        }).record(durationNanos));
     }
 
     @VisibleForTesting
     public long getResponseCount(final int code) {
-        return Optional.ofNullable(statusCodeMeter.get(code)).map(Meter::getCount).orElse(-1L);
+        return Optional.ofNullable(statusCodeCounters.get(code)).map(IntervalCounter::getCount).orElse(-1L);
+    }
+
+    /**
+     * Updates exported values with the data recorded since the previous tick. Should be called by one thread at a
+     * time.
+     *
+     * @return time in nanoseconds when something was recorded for the event type for the last time, with the
+     * precision of the tick interval
+     */
+    long tick(final long intervalNanos, final long currentNanos) {
+        long recorded = eventCountCounter.tick(intervalNanos, currentNanos)
+                + eventsPerBatchRecorder.tick(intervalNanos, currentNanos)
+                + averageEventSizeInBytesRecorder.tick(intervalNanos, currentNanos)
+                + publishingTimeRecorder.tick(intervalNanos, currentNanos);
+        for (final IntervalCounter counter : statusCodeCounters.values()) {
+            recorded += counter.tick(intervalNanos, currentNanos);
+        }
+        for (final IntervalRecorder recorder : stageRecorders.values()) {
+            recorded += recorder.tick(intervalNanos, currentNanos);
+        }
+        if (recorded > 0) {
+            lastActiveNanos = currentNanos;
+        }
+        return lastActiveNanos;
+    }
+
+    void unregister() {
+        gauges.unregister();
+    }
+
+    private String name(final String metricName) {
+        return metricNameFor(eventTypeName, metricName);
     }
 }
@@ -0,0 +1,84 @@
+package org.zalando.nakadi.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter that is cheap to increment from many threads. Rates are not updated on every increment like in
+ * {@link com.codahale.metrics.Meter}, but recalculated from the counts of an interval, when {@link #tick} is called.
+ */
+public class IntervalCounter {
+
+    private static final double SECONDS_PER_MINUTE = 60.0;
+
+    private final LongAdder count = new LongAdder();
+    private final long createdAtNanos;
+    private long lastCount;
+    private boolean ratesInitialized;
+    private volatile double m1Rate;
+    private volatile double m5Rate;
+    private volatile double m15Rate;
+    private volatile double meanRate;
+
+    public IntervalCounter(final long createdAtNanos) {
+        this.createdAtNanos = createdAtNanos;
+    }
+
+    public void add(final long value) {
+        count.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Recalculates rates. Should be called by one thread at a time.
+     *
+     * @return number of increments since the previous tick
+     */
+    public long tick(final long intervalNanos, final long currentNanos) {
+        final long currentCount = count.sum();
+        final long intervalCount = currentCount - lastCount;
+        lastCount = currentCount;
+
+        final double intervalSeconds = Math.max(intervalNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        final double intervalRate = intervalCount / intervalSeconds;
+        if (ratesInitialized) {
+            m1Rate = decay(m1Rate, intervalRate, intervalSeconds, 1);
+            m5Rate = decay(m5Rate, intervalRate, intervalSeconds, 5);
+            m15Rate = decay(m15Rate, intervalRate, intervalSeconds, 15);
+        } else {
+            m1Rate = intervalRate;
+            m5Rate = intervalRate;
+            m15Rate = intervalRate;
+            ratesInitialized = true;
+        }
+        final double secondsSinceCreation = Math.max(currentNanos - createdAtNanos, 1)
+                / (double) TimeUnit.SECONDS.toNanos(1);
+        meanRate = currentCount / secondsSinceCreation;
+        return intervalCount;
+    }
+
+    public double getM1Rate() {
+        return m1Rate;
+    }
+
+    public double getM5Rate() {
+        return m5Rate;
+    }
+
+    public double getM15Rate() {
+        return m15Rate;
+    }
+
+    public double getMeanRate() {
+        return meanRate;
+    }
+
+    private static double decay(final double rate, final double intervalRate, final double intervalSeconds,
+                                final int minutes) {
+        final double alpha = 1 - Math.exp(-intervalSeconds / (SECONDS_PER_MINUTE * minutes));
+        return rate + alpha * (intervalRate - rate);
+    }
+}
@@ -0,0 +1,108 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports {@link IntervalCounter} and {@link IntervalRecorder} to a {@link MetricRegistry} as gauges, named after the
+ * attributes of Dropwizard meters, histograms and timers, e.g. "name.m1_rate" or "name.p99", and removes them all
+ * together once they are not needed. Only the gauges registered by this instance are removed, and nothing is
+ * registered after that, so that metrics that were dropped while still in use can not affect the ones that replaced
+ * them under the same names.
+ */
+class IntervalGauges {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IntervalGauges.class);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final MetricRegistry metricRegistry;
+    private final Map<String, Gauge<?>> gauges = new HashMap<>();
+    private boolean unregistered;
+
+    IntervalGauges(final MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    void registerCounter(final String name, final IntervalCounter counter) {
+        registerGauge(name, "count", counter::getCount);
+        registerGauge(name, "m1_rate", counter::getM1Rate);
+        registerGauge(name, "m5_rate", counter::getM5Rate);
+        registerGauge(name, "m15_rate", counter::getM15Rate);
+        registerGauge(name, "mean_rate", counter::getMeanRate);
+    }
+
+    void registerHistogram(final String name, final IntervalRecorder recorder) {
+        registerGauge(name, "count", recorder.getCounter()::getCount);
+        registerDistribution(name, recorder, 1);
+    }
+
+    /**
+     * Exports recorder of durations in nanoseconds, durations are reported in seconds, as the metrics servlet does
+     * for timers by default.
+     */
+    void registerTimer(final String name, final IntervalRecorder recorder) {
+        registerCounter(name, recorder.getCounter());
+        registerDistribution(name, recorder, NANOS_PER_SECOND);
+    }
+
+    /**
+     * Exports recorder of durations in nanoseconds without the rates of a timer, for durations that are measured
+     * too often to afford all the gauges of it. Durations are reported in seconds.
+     */
+    void registerDurationHistogram(final String name, final IntervalRecorder recorder) {
+        registerGauge(name, "count", recorder.getCounter()::getCount);
+        registerDistribution(name, recorder, NANOS_PER_SECOND);
+    }
+
+    synchronized void unregister() {
+        unregistered = true;
+        final Map<String, Metric> registered = metricRegistry.getMetrics();
+        gauges.forEach((gaugeName, gauge) -> {
+            if (registered.get(gaugeName) == gauge) {
+                metricRegistry.remove(gaugeName);
+            }
+        });
+        gauges.clear();
+    }
+
+    private void registerDistribution(final String name, final IntervalRecorder recorder, final double unit) {
+        registerGauge(name, "min", () -> recorder.getSnapshot().getMin() / unit);
+        registerGauge(name, "max", () -> recorder.getSnapshot().getMax() / unit);
+        registerGauge(name, "mean", () -> recorder.getSnapshot().getMean() / unit);
+        for (int i = 0; i < IntervalRecorder.QUANTILES.length; ++i) {
+            final int quantileIndex = i;
+            registerGauge(name, quantileName(IntervalRecorder.QUANTILES[i]),
+                    () -> recorder.getSnapshot().getQuantile(quantileIndex) / unit);
+        }
+    }
+
+    private synchronized void registerGauge(final String name, final String attribute, final Gauge<?> gauge) {
+        if (unregistered) {
+            return;
+        }
+        final String gaugeName = MetricRegistry.name(name, attribute);
+        if (gauges.containsKey(gaugeName)) {
+            return;
+        }
+        try {
+            metricRegistry.register(gaugeName, gauge);
+            gauges.put(gaugeName, gauge);
+        } catch (final IllegalArgumentException e) {
+            // the name is taken by another owner, that keeps exporting it
+            LOG.debug("Gauge {} is already registered", gaugeName);
+        }
+    }
+
+    private static String quantileName(final double quantile) {
+        // 0.5 -> p50, 0.999 -> p999
+        final String digits = String.valueOf(quantile).substring("0.".length());
+        return "p" + (digits.length() == 1 ? digits + "0" : digits);
+    }
+}
@@ -0,0 +1,154 @@
+package org.zalando.nakadi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records distribution of values into log-linear buckets, like HdrHistogram does: every power of two is split into
+ * {@link #SUB_BUCKETS} buckets of the same width, so that the relative error of any reported value is bounded by
+ * 1 / {@link #SUB_BUCKETS}, while the memory used doesn't depend on the number of values recorded.
+ * Recording is one atomic increment; distribution is reported for intervals between calls of {@link #tick}.
+ */
+public class IntervalRecorder {
+
+    public static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values of up to 2^48 are distinguished, bigger values are put into the last bucket
+    private static final int MAX_MAGNITUDE = 47;
+    private static final int BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final IntervalCounter counter;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public IntervalRecorder(final long createdAtNanos) {
+        this.counter = new IntervalCounter(createdAtNanos);
+    }
+
+    public void record(final long value) {
+        final long nonNegative = Math.max(value, 0);
+        buckets.incrementAndGet(bucketIndex(nonNegative));
+        sum.add(nonNegative);
+        counter.add(1);
+    }
+
+    public IntervalCounter getCounter() {
+        return counter;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Takes snapshot of the values recorded since the previous tick. Should be called by one thread at a time.
+     *
+     * @return number of values recorded since the previous tick
+     */
+    public long tick(final long intervalNanos, final long currentNanos) {
+        final long[] intervalBuckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            intervalBuckets[i] = buckets.getAndSet(i, 0);
+            count += intervalBuckets[i];
+        }
+        final long intervalSum = sum.sumThenReset();
+        snapshot = count == 0 ? Snapshot.EMPTY : new Snapshot(intervalBuckets, count, intervalSum);
+        return counter.tick(intervalNanos, currentNanos);
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+        final long subBucket = Math.min(value >>> (magnitude - SUB_BUCKET_BITS), 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) subBucket;
+    }
+
+    static long bucketLowerBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (magnitude - SUB_BUCKET_BITS);
+    }
+
+    static long bucketWidth(final int index) {
+        if (index < SUB_BUCKETS) {
+            return 1;
+        }
+        return 1L << (index / SUB_BUCKETS - 1);
+    }
+
+    public static class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, new long[QUANTILES.length]);
+
+        private final long count;
+        private final long min;
+        private final long max;
+        private final double mean;
+        private final long[] quantileValues;
+
+        private Snapshot(final long count, final long min, final long max, final double mean,
+                         final long[] quantileValues) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.quantileValues = quantileValues;
+        }
+
+        private Snapshot(final long[] buckets, final long count, final long sum) {
+            int first = 0;
+            while (buckets[first] == 0) {
+                ++first;
+            }
+            int last = buckets.length - 1;
+            while (buckets[last] == 0) {
+                --last;
+            }
+            this.count = count;
+            this.min = bucketLowerBound(first);
+            this.max = bucketLowerBound(last) + bucketWidth(last) - 1;
+            this.mean = sum / (double) count;
+            this.quantileValues = new long[QUANTILES.length];
+
+            long seen = 0;
+            int quantile = 0;
+            for (int i = first; i <= last && quantile < QUANTILES.length; ++i) {
+                seen += buckets[i];
+                while (quantile < QUANTILES.length && seen >= Math.ceil(QUANTILES[quantile] * count)) {
+                    // middle of the bucket, as values are distributed within it
+                    quantileValues[quantile++] = bucketLowerBound(i) + (bucketWidth(i) - 1) / 2;
+                }
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * @param quantileIndex index of the quantile in {@link #QUANTILES}
+         */
+        public long getQuantile(final int quantileIndex) {
+            return quantileValues[quantileIndex];
+        }
+    }
+}
@@ -4,9 +4,9 @@ import com.codahale.metrics.Counter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 import org.zalando.nakadi.config.SecuritySettings;
 import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
 import org.zalando.nakadi.plugin.api.authz.Subject;
@@ -20,20 +20,22 @@ import java.io.IOException;
 @Component
 public class MonitoringRequestFilter extends OncePerRequestFilter {
 
+    private static final String UNMATCHED_PATH = "unmatched";
+
     private final Timer httpConnectionsTimer;
     private final Counter openHttpConnectionsCounter;
-    private final MetricRegistry perPathMetricRegistry;
+    private final RequestTimerRegistry requestTimerRegistry;
     private final AuthorizationService authorizationService;
 
     @Autowired
     public MonitoringRequestFilter(final MetricRegistry metricRegistry,
-                                   @Qualifier("perPathMetricRegistry") final MetricRegistry perPathMetricRegistry,
+                                   final RequestTimerRegistry requestTimerRegistry,
                                    final AuthorizationService authorizationService) {
         openHttpConnectionsCounter = metricRegistry.counter(MetricUtils.NAKADI_PREFIX
                 + "general.openSynchronousHttpConnections");
         httpConnectionsTimer = metricRegistry
                 .timer(MetricUtils.NAKADI_PREFIX + "general.synchronousHttpConnections");
-        this.perPathMetricRegistry = perPathMetricRegistry;
+        this.requestTimerRegistry = requestTimerRegistry;
         this.authorizationService = authorizationService;
     }
 
@@ -46,19 +48,25 @@ public class MonitoringRequestFilter extends OncePerRequestFilter {
 
         final String clientId = authorizationService.getSubject().map(Subject::getName)
                 .orElse(SecuritySettings.UNAUTHENTICATED_CLIENT_ID);
-        final String perPathMetricKey = MetricRegistry.name(
-                clientId,
-                request.getMethod(),
-                request.getServletPath());
-        final Timer.Context perPathTimerContext = perPathMetricRegistry.timer(perPathMetricKey).time();
+        final long startNanos = System.nanoTime();
 
         try {
             filterChain.doFilter(request, response);
         } finally {
-            perPathTimerContext.stop();
+            requestTimerRegistry.record(clientId, request.getMethod(), getPathPattern(request),
+                    System.nanoTime() - startNanos);
             timerContext.stop();
             openHttpConnectionsCounter.dec();
         }
 
     }
+
+    /**
+     * Path pattern of the handler, e.g. "/event-types/{name}/events", so that requests to all the event types or
+     * subscriptions are timed together.
+     */
+    private static String getPathPattern(final HttpServletRequest request) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return null == pattern ? UNMATCHED_PATH : pattern.toString();
+    }
 }
@@ -0,0 +1,75 @@
+package org.zalando.nakadi.metrics;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Durations of the stages of publishing of one batch, captured with {@link System#nanoTime()} checkpoints: the time
+ * passed since the previous checkpoint is attributed to the stage that is completed. Is not thread safe, the batch is
+ * expected to be processed by one thread.
+ */
+public class PublishingTimings {
+
+    public enum Stage {
+        TIMELINE_LOCK("timeline_lock"),
+        AUTHORIZATION("authorization"),
+        VALIDATION("validation"),
+        PARTITIONING("partitioning"),
+        ENRICHMENT("enrichment"),
+        KAFKA_SEND("kafka_send"),
+        KAFKA_ACK("kafka_ack");
+
+        private static final Stage[] STAGES = values();
+
+        private final String metricName;
+
+        Stage(final String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private final long[] durationsNanos = new long[Stage.STAGES.length];
+    private final boolean[] completed = new boolean[Stage.STAGES.length];
+    private long lastCheckpointNanos;
+
+    public PublishingTimings() {
+        this(System.nanoTime());
+    }
+
+    PublishingTimings(final long startNanos) {
+        this.lastCheckpointNanos = startNanos;
+    }
+
+    public void checkpoint(final Stage stage) {
+        checkpoint(stage, System.nanoTime());
+    }
+
+    void checkpoint(final Stage stage, final long currentNanos) {
+        durationsNanos[stage.ordinal()] += currentNanos - lastCheckpointNanos;
+        completed[stage.ordinal()] = true;
+        lastCheckpointNanos = currentNanos;
+    }
+
+    public boolean isCompleted(final Stage stage) {
+        return completed[stage.ordinal()];
+    }
+
+    public long getDurationNanos(final Stage stage) {
+        return durationsNanos[stage.ordinal()];
+    }
+
+    /**
+     * Passes the duration in nanoseconds of each of the completed stages to the consumer, the stages that were not
+     * reached, e.g. because the batch was rejected, are skipped.
+     */
+    public void forEachCompleted(final ObjLongConsumer<Stage> consumer) {
+        for (final Stage stage : Stage.STAGES) {
+            if (completed[stage.ordinal()]) {
+                consumer.accept(stage, durationsNanos[stage.ordinal()]);
+            }
+        }
+    }
+}
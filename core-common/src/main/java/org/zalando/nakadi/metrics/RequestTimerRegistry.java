@@ -0,0 +1,114 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of requests per method and path, exported to the per path metric registry. Number of timers is limited:
+ * requests that don't fit into the limit are timed together in the "other" timer. Requests are only timed per client
+ * for the client ids that are configured explicitly, all the other clients share timers.
+ */
+@Component
+public class RequestTimerRegistry {
+
+    static final String ALL_CLIENTS = "all";
+    static final String OVERFLOW = "other";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestTimerRegistry.class);
+
+    private final ConcurrentMap<String, RequestTimer> timers = new ConcurrentHashMap<>();
+    private final MetricRegistry perPathMetricRegistry;
+    private final int maxTimers;
+    private final Set<String> perClientIds;
+    private final long idleTimeoutNanos;
+    private final RequestTimer overflowTimer;
+    private long lastTickNanos;
+
+    @Autowired
+    public RequestTimerRegistry(
+            @Qualifier("perPathMetricRegistry") final MetricRegistry perPathMetricRegistry,
+            @Value("${nakadi.metrics.requests.maxTimers:200}") final int maxTimers,
+            @Value("${nakadi.metrics.requests.perClientIds:}") final String perClientIds,
+            @Value("${nakadi.metrics.requests.idleTimeoutMs:3600000}") final long idleTimeoutMs) {
+        this.perPathMetricRegistry = perPathMetricRegistry;
+        this.maxTimers = maxTimers;
+        this.perClientIds = ImmutableSet.copyOf(
+                Splitter.on(',').trimResults().omitEmptyStrings().split(perClientIds));
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.lastTickNanos = System.nanoTime();
+        this.overflowTimer = new RequestTimer(MetricRegistry.name(ALL_CLIENTS, OVERFLOW), lastTickNanos);
+    }
+
+    public void record(final String clientId, final String method, final String path, final long durationNanos) {
+        final String name = MetricRegistry.name(
+                perClientIds.contains(clientId) ? clientId : ALL_CLIENTS, method, path);
+        RequestTimer timer = timers.get(name);
+        if (null == timer) {
+            // size is checked without locking the whole map, so the limit may be exceeded by concurrent requests
+            timer = timers.computeIfAbsent(name,
+                    key -> timers.size() < maxTimers ? new RequestTimer(key, System.nanoTime()) : null);
+            if (null == timer) {
+                timer = overflowTimer;
+            }
+        }
+        timer.recorder.record(durationNanos);
+    }
+
+    /**
+     * Publishes snapshots of the last interval for all the timers and drops the timers that were not used for
+     * longer than the idle timeout, making room for new ones.
+     */
+    @Scheduled(fixedDelayString = "${nakadi.metrics.requests.snapshotIntervalMs:60000}")
+    public void tick() {
+        tick(System.nanoTime());
+    }
+
+    synchronized void tick(final long currentNanos) {
+        final long intervalNanos = currentNanos - lastTickNanos;
+        lastTickNanos = currentNanos;
+        overflowTimer.tick(intervalNanos, currentNanos);
+        for (final String name : timers.keySet()) {
+            timers.computeIfPresent(name, (key, timer) -> {
+                if (currentNanos - timer.tick(intervalNanos, currentNanos) < idleTimeoutNanos) {
+                    return timer;
+                }
+                LOG.debug("Dropping idle request timer {}", key);
+                timer.gauges.unregister();
+                return null;
+            });
+        }
+    }
+
+    private class RequestTimer {
+        private final IntervalRecorder recorder;
+        private final IntervalGauges gauges;
+        private long lastActiveNanos;
+
+        private RequestTimer(final String name, final long createdAtNanos) {
+            this.recorder = new IntervalRecorder(createdAtNanos);
+            this.gauges = new IntervalGauges(perPathMetricRegistry);
+            this.lastActiveNanos = createdAtNanos;
+            gauges.registerTimer(name, recorder);
+        }
+
+        private long tick(final long intervalNanos, final long currentNanos) {
+            if (recorder.tick(intervalNanos, currentNanos) > 0) {
+                lastActiveNanos = currentNanos;
+            }
+            return lastActiveNanos;
+        }
+    }
+}
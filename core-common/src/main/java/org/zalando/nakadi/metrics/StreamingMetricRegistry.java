@@ -0,0 +1,83 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of the stages of subscription streams, aggregated per subscription and exported to the stream metric
+ * registry.
+ */
+@Component
+public class StreamingMetricRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingMetricRegistry.class);
+
+    private final ConcurrentMap<String, SubscriptionStreamingMetrics> metricsPerSubscription =
+            new ConcurrentHashMap<>();
+    private final MetricRegistry metricRegistry;
+    private final long idleTimeoutNanos;
+    private long lastTickNanos;
+
+    @Autowired
+    public StreamingMetricRegistry(
+            @Qualifier("streamMetricsRegistry") final MetricRegistry metricRegistry,
+            @Value("${nakadi.metrics.streaming.idleTimeoutMs:3600000}") final long idleTimeoutMs) {
+        this.metricRegistry = metricRegistry;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.lastTickNanos = System.nanoTime();
+    }
+
+    /**
+     * Starts timing of a stream of the subscription, the timings should be closed when the stream is over.
+     */
+    public StreamingTimings startStream(final String subscriptionId) {
+        final long currentNanos = System.nanoTime();
+        final SubscriptionStreamingMetrics subscriptionMetrics = metricsPerSubscription.compute(subscriptionId,
+                (id, metrics) -> {
+                    final SubscriptionStreamingMetrics result = null != metrics ? metrics :
+                            new SubscriptionStreamingMetrics(id, metricRegistry, currentNanos);
+                    result.streamStarted();
+                    return result;
+                });
+        return new StreamingTimings(subscriptionMetrics, () -> metricsPerSubscription.computeIfPresent(
+                subscriptionId, (id, metrics) -> {
+                    metrics.streamClosed();
+                    return metrics;
+                }), currentNanos);
+    }
+
+    /**
+     * Publishes snapshots of the last interval for all the subscriptions and drops the metrics of subscriptions that
+     * have no streams and were not streamed from for longer than the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${nakadi.metrics.streaming.snapshotIntervalMs:60000}")
+    public void tick() {
+        tick(System.nanoTime());
+    }
+
+    synchronized void tick(final long currentNanos) {
+        final long intervalNanos = currentNanos - lastTickNanos;
+        lastTickNanos = currentNanos;
+        for (final String subscriptionId : metricsPerSubscription.keySet()) {
+            metricsPerSubscription.computeIfPresent(subscriptionId, (id, metrics) -> {
+                final long lastActiveNanos = metrics.tick(intervalNanos, currentNanos);
+                if (metrics.hasActiveStreams() || currentNanos - lastActiveNanos < idleTimeoutNanos) {
+                    return metrics;
+                }
+                LOG.debug("Dropping streaming metrics of idle subscription {}", id);
+                metrics.unregister();
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.zalando.nakadi.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of the stages of one subscription stream. Every value is recorded both for the stream itself and for the
+ * subscription, see {@link StreamingMetricRegistry}. Values are recorded once per poll or per batch, not per event,
+ * so that streaming throughput is not affected. Is not thread safe, the stream is expected to be served by one thread.
+ */
+public class StreamingTimings {
+
+    public enum Stage {
+        // time of one poll from storage, including waiting for new events
+        KAFKA_POLL("kafka_poll"),
+        // time the oldest event of a batch spent in memory between reading from storage and sending
+        BUFFERED("buffered"),
+        // time of serialization and writing of a batch to the client
+        WRITE("write"),
+        // time between sending a batch and receiving the commit of it
+        COMMIT("commit"),
+        // time between publishing the oldest event of a batch and flushing the batch to the client, publishing time is
+        // taken from the kafka record timestamp, that approximates metadata.received_at of the event
+        RECEIVED_TO_FLUSHED("received_to_flushed");
+
+        private static final Stage[] STAGES = values();
+
+        private final String metricName;
+
+        Stage(final String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    // indexes in IntervalRecorder.QUANTILES
+    private static final int P50 = 0;
+    private static final int P99 = 4;
+
+    private final SubscriptionStreamingMetrics subscriptionMetrics;
+    private final Runnable onClose;
+    private final IntervalRecorder[] streamRecorders = new IntervalRecorder[Stage.STAGES.length];
+    private final long startedAtNanos;
+    private boolean closed;
+
+    StreamingTimings(final SubscriptionStreamingMetrics subscriptionMetrics, final Runnable onClose,
+                     final long startedAtNanos) {
+        this.subscriptionMetrics = subscriptionMetrics;
+        this.onClose = onClose;
+        this.startedAtNanos = startedAtNanos;
+        for (final Stage stage : Stage.STAGES) {
+            streamRecorders[stage.ordinal()] = new IntervalRecorder(startedAtNanos);
+        }
+    }
+
+    public void record(final Stage stage, final long durationNanos) {
+        streamRecorders[stage.ordinal()].record(durationNanos);
+        subscriptionMetrics.record(stage, durationNanos);
+    }
+
+    public void recordMillis(final Stage stage, final long durationMillis) {
+        record(stage, TimeUnit.MILLISECONDS.toNanos(durationMillis));
+    }
+
+    /**
+     * Stops reporting to the subscription metrics and summarizes the whole stream.
+     *
+     * @return median, 99th percentile and maximum in milliseconds of the stages that were recorded at least once,
+     * named like "kafka_poll.p99_ms"
+     */
+    public Map<String, Double> close() {
+        if (!closed) {
+            closed = true;
+            onClose.run();
+        }
+        final long currentNanos = System.nanoTime();
+        final Map<String, Double> summary = new LinkedHashMap<>();
+        for (final Stage stage : Stage.STAGES) {
+            final IntervalRecorder recorder = streamRecorders[stage.ordinal()];
+            if (recorder.tick(currentNanos - startedAtNanos, currentNanos) == 0) {
+                continue;
+            }
+            final IntervalRecorder.Snapshot snapshot = recorder.getSnapshot();
+            summary.put(stage.getMetricName() + ".p50_ms", snapshot.getQuantile(P50) / NANOS_PER_MILLI);
+            summary.put(stage.getMetricName() + ".p99_ms", snapshot.getQuantile(P99) / NANOS_PER_MILLI);
+            summary.put(stage.getMetricName() + ".max_ms", snapshot.getMax() / NANOS_PER_MILLI);
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,63 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+
+import static org.zalando.nakadi.metrics.MetricUtils.metricNameForSubscription;
+
+/**
+ * Timings of the stages of all the streams of one subscription on this instance, exported as
+ * "subscription.{id}.streaming.{stage}.*" gauges.
+ */
+class SubscriptionStreamingMetrics {
+
+    private final IntervalGauges gauges;
+    private final IntervalRecorder[] recorders = new IntervalRecorder[StreamingTimings.Stage.values().length];
+    private int activeStreams;
+    private long lastActiveNanos;
+
+    SubscriptionStreamingMetrics(final String subscriptionId, final MetricRegistry metricRegistry,
+                                 final long createdAtNanos) {
+        this.gauges = new IntervalGauges(metricRegistry);
+        this.lastActiveNanos = createdAtNanos;
+        for (final StreamingTimings.Stage stage : StreamingTimings.Stage.values()) {
+            final IntervalRecorder recorder = new IntervalRecorder(createdAtNanos);
+            gauges.registerDurationHistogram(
+                    metricNameForSubscription(subscriptionId, "streaming." + stage.getMetricName()), recorder);
+            recorders[stage.ordinal()] = recorder;
+        }
+    }
+
+    void record(final StreamingTimings.Stage stage, final long durationNanos) {
+        recorders[stage.ordinal()].record(durationNanos);
+    }
+
+    /**
+     * Should be called only while the subscription metrics are locked in the registry.
+     */
+    void streamStarted() {
+        ++activeStreams;
+    }
+
+    void streamClosed() {
+        --activeStreams;
+    }
+
+    boolean hasActiveStreams() {
+        return activeStreams > 0;
+    }
+
+    long tick(final long intervalNanos, final long currentNanos) {
+        long recorded = 0;
+        for (final IntervalRecorder recorder : recorders) {
+            recorded += recorder.tick(intervalNanos, currentNanos);
+        }
+        if (recorded > 0) {
+            lastActiveNanos = currentNanos;
+        }
+        return lastActiveNanos;
+    }
+
+    void unregister() {
+        gauges.unregister();
+    }
+}
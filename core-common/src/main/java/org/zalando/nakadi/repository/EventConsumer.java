@@ -15,6 +15,12 @@ public interface EventConsumer extends Closeable {
 
     List<ConsumedEvent> readEvents();
 
+    /**
+     * Reads events waiting for them not longer than the timeout. Zero timeout returns only the events that are
+     * already fetched from storage, without blocking.
+     */
+    List<ConsumedEvent> readEvents(long timeoutMs);
+
     interface LowLevelConsumer extends EventConsumer {
         Set<TopicPartition> getAssignment();
     }
@@ -14,6 +14,7 @@ import org.zalando.nakadi.exceptions.runtime.TopicConfigException;
 import org.zalando.nakadi.exceptions.runtime.TopicCreationException;
 import org.zalando.nakadi.exceptions.runtime.TopicDeletionException;
 import org.zalando.nakadi.exceptions.runtime.TopicRepositoryException;
+import org.zalando.nakadi.metrics.PublishingTimings;
 
 import java.util.Collection;
 import java.util.List;
@@ -44,9 +45,19 @@ public interface TopicRepository {
 
     void deleteTopic(String topic) throws TopicDeletionException;
 
+    /**
+     * Returns the number of topics which deletion was requested, but is not completed by the storage yet.
+     */
+    int countTopicsPendingDeletion() throws TopicRepositoryException;
+
     boolean topicExists(String topic) throws TopicRepositoryException;
 
-    void syncPostBatch(String topicId, List<BatchItem> batch, String eventTypeName, boolean delete)
+    /**
+     * Publishes the batch, attributing the time spent to the {@link PublishingTimings.Stage#KAFKA_SEND} and
+     * {@link PublishingTimings.Stage#KAFKA_ACK} stages of the timings.
+     */
+    void syncPostBatch(String topicId, List<BatchItem> batch, String eventTypeName, boolean delete,
+                       PublishingTimings timings)
             throws EventPublishingException;
 
     void repartition(String topic, int partitionsNumber) throws CannotAddPartitionToTopicException,
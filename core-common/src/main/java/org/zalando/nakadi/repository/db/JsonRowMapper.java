@@ -0,0 +1,39 @@
+package org.zalando.nakadi.repository.db;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps json(b) column of a row to an object. The value is parsed directly from the bytes received from database,
+ * without creating an intermediate string, by a reader that is built once for the type (with afterburner module, that
+ * replaces reflection with generated accessors).
+ */
+public class JsonRowMapper<T> implements RowMapper<T> {
+
+    private final ObjectReader reader;
+    private final String column;
+
+    public JsonRowMapper(final ObjectMapper jsonMapper, final Class<T> type, final String column) {
+        this.reader = jsonMapper.copy().registerModule(new AfterburnerModule()).readerFor(type);
+        this.column = column;
+    }
+
+    @Override
+    public T mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+        final byte[] value = rs.getBytes(column);
+        if (null == value) {
+            return null;
+        }
+        try {
+            return reader.readValue(value);
+        } catch (final IOException e) {
+            throw new SQLException(e);
+        }
+    }
+}
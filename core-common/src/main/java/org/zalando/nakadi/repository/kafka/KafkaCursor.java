@@ -37,9 +37,7 @@ public class KafkaCursor implements Comparable<KafkaCursor> {
     }
 
     public NakadiCursor toNakadiCursor(final Timeline timeline) {
-        return NakadiCursor.of(timeline,
-                toNakadiPartition(partition),
-                toNakadiOffset(offset));
+        return NakadiCursor.of(timeline, partition, offset);
     }
 
     public static String toNakadiOffset(final long offset) {
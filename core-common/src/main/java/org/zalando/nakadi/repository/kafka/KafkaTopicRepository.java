@@ -40,6 +40,7 @@ import org.zalando.nakadi.exceptions.runtime.TopicConfigException;
 import org.zalando.nakadi.exceptions.runtime.TopicCreationException;
 import org.zalando.nakadi.exceptions.runtime.TopicDeletionException;
 import org.zalando.nakadi.exceptions.runtime.TopicRepositoryException;
+import org.zalando.nakadi.metrics.PublishingTimings;
 import org.zalando.nakadi.repository.EventConsumer;
 import org.zalando.nakadi.repository.NakadiTopicConfig;
 import org.zalando.nakadi.repository.TopicRepository;
@@ -252,6 +253,15 @@ public class KafkaTopicRepository implements TopicRepository {
         }
     }
 
+    @Override
+    public int countTopicsPendingDeletion() throws TopicRepositoryException {
+        try {
+            return kafkaZookeeper.listTopicsPendingDeletion().size();
+        } catch (final Exception e) {
+            throw new TopicRepositoryException("Failed to list topics pending deletion", e);
+        }
+    }
+
     @Override
     public boolean topicExists(final String topic) throws TopicRepositoryException {
         return listTopics()
@@ -261,7 +271,8 @@ public class KafkaTopicRepository implements TopicRepository {
 
     @Override
     public void syncPostBatch(
-            final String topicId, final List<BatchItem> batch, final String eventType, final boolean delete)
+            final String topicId, final List<BatchItem> batch, final String eventType, final boolean delete,
+            final PublishingTimings timings)
             throws EventPublishingException {
         final Producer<String, String> producer = kafkaFactory.takeProducer();
         try {
@@ -290,6 +301,7 @@ public class KafkaTopicRepository implements TopicRepository {
                 LOG.warn("Short circuiting request to Kafka {} time(s) due to timeout for topic {}",
                         shortCircuited, topicId);
             }
+            timings.checkpoint(PublishingTimings.Stage.KAFKA_SEND);
             final CompletableFuture<Void> multiFuture = CompletableFuture.allOf(
                     sendFutures.values().toArray(new CompletableFuture<?>[sendFutures.size()]));
             multiFuture.get(createSendTimeout(), TimeUnit.MILLISECONDS);
@@ -316,6 +328,10 @@ public class KafkaTopicRepository implements TopicRepository {
             failUnpublished(batch, "interrupted");
             throw new EventPublishingException("Interrupted publishing message to kafka", ex);
         } finally {
+            if (timings.isCompleted(PublishingTimings.Stage.KAFKA_SEND)) {
+                // waiting for acks is timed also when it fails, timeouts are the most interesting case
+                timings.checkpoint(PublishingTimings.Stage.KAFKA_ACK);
+            }
             kafkaFactory.releaseProducer(producer);
         }
         final boolean atLeastOneFailed = batch.stream()
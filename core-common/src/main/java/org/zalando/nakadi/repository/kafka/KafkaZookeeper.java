@@ -1,8 +1,10 @@
 package org.zalando.nakadi.repository.kafka;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.zookeeper.KeeperException;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 
+import java.util.Collections;
 import java.util.List;
 
 public class KafkaZookeeper {
@@ -22,6 +24,19 @@ public class KafkaZookeeper {
                 .forPath("/brokers/topics");
     }
 
+    /**
+     * Topics that are marked for deletion, but are not deleted by kafka controller yet.
+     */
+    public List<String> listTopicsPendingDeletion() throws Exception {
+        try {
+            return zooKeeperHolder.get()
+                    .getChildren()
+                    .forPath("/admin/delete_topics");
+        } catch (final KeeperException.NoNodeException e) {
+            return Collections.emptyList();
+        }
+    }
+
     public List<String> getBrokerIdsForSizeStats() throws Exception {
         return zooKeeperHolder.get().getChildren()
                 .forPath("/bubuku/size_stats");
@@ -5,6 +5,7 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.common.TopicPartition;
 import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.repository.EventConsumer;
 
@@ -51,15 +52,26 @@ public class NakadiKafkaConsumer implements EventConsumer.LowLevelConsumer {
 
     @Override
     public List<ConsumedEvent> readEvents() {
-        final ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(pollTimeout);
+        return readEvents(pollTimeout);
+    }
+
+    @Override
+    public List<ConsumedEvent> readEvents(final long timeoutMs) {
+        final ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(timeoutMs);
         if (records.isEmpty()) {
             return Collections.emptyList();
         }
+        final long consumedAtMillis = System.currentTimeMillis();
         final ArrayList<ConsumedEvent> result = new ArrayList<>(records.count());
-        for (final ConsumerRecord<byte[], byte[]> record : records) {
-            final KafkaCursor cursor = new KafkaCursor(record.topic(), record.partition(), record.offset());
-            final Timeline timeline = timelineMap.get(new TopicPartition(record.topic(), record.partition()));
-            result.add(new ConsumedEvent(record.value(), cursor.toNakadiCursor(timeline), record.timestamp()));
+        for (final TopicPartition topicPartition : records.partitions()) {
+            final Timeline timeline = timelineMap.get(topicPartition);
+            for (final ConsumerRecord<byte[], byte[]> record : records.records(topicPartition)) {
+                result.add(new ConsumedEvent(
+                        record.value(),
+                        NakadiCursor.of(timeline, record.partition(), record.offset()),
+                        record.timestamp(),
+                        consumedAtMillis));
+            }
         }
         return result;
     }
@@ -1,4 +1,4 @@
-package org.zalando.nakadi.service.subscription.zk;
+package org.zalando.nakadi.repository.zookeeper;
 
 import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
 
@@ -0,0 +1,95 @@
+package org.zalando.nakadi.repository.zookeeper;
+
+import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Subscription of one listener to changes of a znode. The watch itself and the data read from zookeeper are
+ * shared between all subscriptions to the same znode through {@link ZkWatchHub}.
+ */
+class ZkSubscriptionImpl<ReturnType, ZkType> implements ZkSubscription<ReturnType> {
+    private volatile Runnable listener;
+    // Data is valid only for the generation it was read in, the generation is incremented on every change of the
+    // node, so that a change that happened during a read is not lost.
+    private final AtomicLong generation = new AtomicLong();
+    private volatile ExceptionOrData<ReturnType> data;
+    private final Function<ZkType, ReturnType> converter;
+    private ZkWatchHub.WatchedNode<ZkType> node;
+    private Runnable onClose;
+
+    private static class ExceptionOrData<T> {
+        private final long generation;
+        private final NakadiRuntimeException ex;
+        private final T data;
+
+        ExceptionOrData(final long generation, final NakadiRuntimeException ex) {
+            this.generation = generation;
+            this.ex = ex;
+            this.data = null;
+        }
+
+        ExceptionOrData(final long generation, final T data) {
+            this.generation = generation;
+            this.data = data;
+            this.ex = null;
+        }
+
+        public T get() throws NakadiRuntimeException {
+            if (null != ex) {
+                throw ex;
+            }
+            return data;
+        }
+    }
+
+    ZkSubscriptionImpl(final Runnable listener, final Function<ZkType, ReturnType> converter) {
+        this.listener = listener;
+        this.converter = converter;
+        this.data = null;
+    }
+
+    void attach(final ZkWatchHub.WatchedNode<ZkType> node, final Runnable onClose) {
+        this.node = node;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public ReturnType getData() throws NakadiRuntimeException {
+        final long readGeneration = generation.get();
+        final ExceptionOrData<ReturnType> current = data;
+        if (null != current && current.generation == readGeneration) {
+            return current.get();
+        }
+        // There is new value pending
+        ExceptionOrData<ReturnType> result;
+        try {
+            // create listener only in case if subscription is still active.
+            final ZkType zkData = node.read(null != listener);
+            result = new ExceptionOrData<>(readGeneration, converter.apply(zkData));
+        } catch (NakadiRuntimeException ex) {
+            result = new ExceptionOrData<>(readGeneration, ex);
+        }
+        data = result;
+        return result.get();
+    }
+
+    @Override
+    public void close() {
+        if (null != listener) {
+            listener = null;
+            onClose.run();
+        }
+    }
+
+    void onNodeChanged() {
+        // on this call one actually notifies that data has changed and waits for refresh call.
+        generation.incrementAndGet();
+        final Runnable toNotify = listener;
+        // In case if subscription is still active - notify
+        if (null != toNotify) {
+            toNotify.run();
+        }
+    }
+}
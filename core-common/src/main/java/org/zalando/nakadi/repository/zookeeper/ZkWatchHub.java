@@ -0,0 +1,162 @@
+package org.zalando.nakadi.repository.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.GetChildrenBuilder;
+import org.apache.curator.framework.api.GetDataBuilder;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one zookeeper watch per znode for all the subscriptions of one curator, no matter how many streams are
+ * listening for the changes of the node. Notification is passed to every subscription, and the data that is read
+ * after notification is shared between them.
+ */
+public class ZkWatchHub {
+
+    private final CuratorFramework curatorFramework;
+    private final ConcurrentMap<String, WatchedNode<byte[]>> dataNodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, WatchedNode<List<String>>> childrenNodes = new ConcurrentHashMap<>();
+
+    public ZkWatchHub(final CuratorFramework curatorFramework) {
+        this.curatorFramework = curatorFramework;
+    }
+
+    public <R> ZkSubscription<R> subscribeForData(
+            final String key, final Function<byte[], R> converter, final Runnable listener)
+            throws NakadiRuntimeException {
+        return subscribe(dataNodes, key, () -> new DataNode(key), converter, listener);
+    }
+
+    public ZkSubscription<List<String>> subscribeForChildren(final String key, final Runnable listener)
+            throws NakadiRuntimeException {
+        return subscribe(childrenNodes, key, () -> new ChildrenNode(key), Function.identity(), listener);
+    }
+
+    private <Z, R> ZkSubscription<R> subscribe(
+            final ConcurrentMap<String, WatchedNode<Z>> nodes,
+            final String key,
+            final Supplier<WatchedNode<Z>> nodeCreator,
+            final Function<Z, R> converter,
+            final Runnable listener) throws NakadiRuntimeException {
+        final ZkSubscriptionImpl<R, Z> subscription = new ZkSubscriptionImpl<>(listener, converter);
+        final WatchedNode<Z> node = nodes.compute(key, (k, existing) -> {
+            final WatchedNode<Z> result = null == existing ? nodeCreator.get() : existing;
+            result.subscriptions.add(subscription);
+            return result;
+        });
+        subscription.attach(node, () -> nodes.computeIfPresent(key, (k, existing) -> {
+            existing.subscriptions.remove(subscription);
+            return existing.subscriptions.isEmpty() ? null : existing;
+        }));
+        try {
+            // The very first call is used to initialize listener
+            subscription.getData();
+        } catch (final RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        return subscription;
+    }
+
+    abstract static class WatchedNode<Z> implements Watcher {
+        private final Set<ZkSubscriptionImpl<?, Z>> subscriptions = new CopyOnWriteArraySet<>();
+        protected final String key;
+        // Incremented on every notification. Zookeeper is never queried under a lock, as notifications are delivered
+        // by the only event thread of zookeeper client, that must not be blocked by reads.
+        private final AtomicLong generation = new AtomicLong();
+        // the last data read together with setting a watch, null or of an older generation if it changed since then
+        private final AtomicReference<ReadResult<Z>> lastRead = new AtomicReference<>();
+
+        WatchedNode(final String key) {
+            this.key = key;
+        }
+
+        Z read(final boolean watch) throws NakadiRuntimeException {
+            if (!watch) {
+                return query(false);
+            }
+            final long readGeneration = generation.get();
+            final ReadResult<Z> cached = lastRead.get();
+            if (null != cached && cached.generation == readGeneration) {
+                return cached.data;
+            }
+            final Z data = query(true);
+            // If there was a notification during the query, the data may already be outdated. It is returned to the
+            // caller, that will be notified anyway, but is not shared with others.
+            if (generation.get() == readGeneration) {
+                lastRead.compareAndSet(cached, new ReadResult<>(readGeneration, data));
+            }
+            return data;
+        }
+
+        protected abstract Z query(boolean setWatcher) throws NakadiRuntimeException;
+
+        @Override
+        public void process(final WatchedEvent event) {
+            // Data is not read here, as it is not always possible to query zk from within notification callback.
+            // The first subscription to request data will read it again and set a new watch.
+            generation.incrementAndGet();
+            lastRead.set(null);
+            subscriptions.forEach(ZkSubscriptionImpl::onNodeChanged);
+        }
+    }
+
+    private static class ReadResult<Z> {
+        private final long generation;
+        private final Z data;
+
+        private ReadResult(final long generation, final Z data) {
+            this.generation = generation;
+            this.data = data;
+        }
+    }
+
+    private class DataNode extends WatchedNode<byte[]> {
+        private DataNode(final String key) {
+            super(key);
+        }
+
+        @Override
+        protected byte[] query(final boolean setWatcher) throws NakadiRuntimeException {
+            final GetDataBuilder builder = curatorFramework.getData();
+            if (setWatcher) {
+                builder.usingWatcher(this);
+            }
+            try {
+                return builder.forPath(key);
+            } catch (final Exception ex) {
+                throw new NakadiRuntimeException(ex);
+            }
+        }
+    }
+
+    private class ChildrenNode extends WatchedNode<List<String>> {
+        private ChildrenNode(final String key) {
+            super(key);
+        }
+
+        @Override
+        protected List<String> query(final boolean setWatcher) throws NakadiRuntimeException {
+            final GetChildrenBuilder builder = curatorFramework.getChildren();
+            if (setWatcher) {
+                builder.usingWatcher(this);
+            }
+            try {
+                return builder.forPath(key);
+            } catch (final Exception ex) {
+                throw new NakadiRuntimeException(ex);
+            }
+        }
+    }
+}
@@ -15,7 +15,10 @@ import org.zalando.nakadi.domain.storage.ZookeeperConnection;
 import org.zalando.nakadi.exceptions.runtime.ZookeeperException;
 
 import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class ZooKeeperHolder {
@@ -23,6 +26,8 @@ public class ZooKeeperHolder {
     private static final int EXHIBITOR_RETRY_TIME = 1000;
     private static final int EXHIBITOR_RETRY_MAX = 3;
     private static final int EXHIBITOR_POLLING_MS = 300000;
+    // Commit timeout is set in seconds, so rounding to seconds does not change session timeout of a stream
+    private static final long SESSION_TIMEOUT_BUCKET_MS = TimeUnit.SECONDS.toMillis(1);
 
     private final Integer connectionTimeoutMs;
     private final long maxCommitTimeoutMs;
@@ -30,6 +35,8 @@ public class ZooKeeperHolder {
 
     private CuratorFramework zooKeeper;
     private CuratorFramework subscriptionCurator;
+    private ZkWatchHub subscriptionWatchHub;
+    private final ConcurrentMap<Long, SharedCuratorFramework> sharedSubscriptionCurators = new ConcurrentHashMap<>();
 
     public ZooKeeperHolder(final ZookeeperConnection conn,
                            final Integer sessionTimeoutMs,
@@ -41,37 +48,85 @@ public class ZooKeeperHolder {
 
         zooKeeper = createCuratorFramework(sessionTimeoutMs, connectionTimeoutMs);
         subscriptionCurator = createCuratorFramework((int) maxCommitTimeoutMs, connectionTimeoutMs);
+        subscriptionWatchHub = new ZkWatchHub(subscriptionCurator);
     }
 
     public CuratorFramework get() {
         return zooKeeper;
     }
 
+    /**
+     * Returns curator with the requested session timeout. Streams with the same session timeout share one zookeeper
+     * session, that is closed when the last of them releases it.
+     */
     public CloseableCuratorFramework getSubscriptionCurator(final long sessionTimeoutMs) throws ZookeeperException {
+        final long bucketTimeoutMs = (sessionTimeoutMs + SESSION_TIMEOUT_BUCKET_MS - 1)
+                / SESSION_TIMEOUT_BUCKET_MS * SESSION_TIMEOUT_BUCKET_MS;
         // most of the clients use default max timeout, subscriptionCurator client saves zookeeper resource
-        if (sessionTimeoutMs == maxCommitTimeoutMs) {
-            return new StaticCuratorFramework(subscriptionCurator);
+        if (bucketTimeoutMs >= maxCommitTimeoutMs) {
+            return new StaticCuratorFramework(subscriptionCurator, subscriptionWatchHub);
         }
 
         try {
-            // max commit timeout is not higher than 60 seconds, it is safe to cast to integer
-            return new DisposableCuratorFramework(createCuratorFramework((int) sessionTimeoutMs, connectionTimeoutMs));
-        } catch (final Exception e) {
+            final SharedCuratorFramework shared = sharedSubscriptionCurators.compute(bucketTimeoutMs, (k, v) -> {
+                final SharedCuratorFramework result = null != v ? v : new SharedCuratorFramework(
+                        // max commit timeout is not higher than 60 seconds, it is safe to cast to integer
+                        createCuratorFrameworkUnchecked((int) bucketTimeoutMs, connectionTimeoutMs));
+                result.references++;
+                return result;
+            });
+            return new PooledCuratorFramework(shared.curatorFramework, shared.watchHub, bucketTimeoutMs);
+        } catch (final RuntimeException e) {
             throw new ZookeeperException("Failed to create curator framework", e);
         }
     }
 
+    private void releaseSubscriptionCurator(final long bucketTimeoutMs) {
+        sharedSubscriptionCurators.computeIfPresent(bucketTimeoutMs, (k, v) -> {
+            if (--v.references > 0) {
+                return v;
+            }
+            v.curatorFramework.close();
+            return null;
+        });
+    }
+
+    private static class SharedCuratorFramework {
+        private final CuratorFramework curatorFramework;
+        private final ZkWatchHub watchHub;
+        // guarded by the map, as it is only changed from within compute methods
+        private int references;
+
+        private SharedCuratorFramework(final CuratorFramework curatorFramework) {
+            this.curatorFramework = curatorFramework;
+            this.watchHub = new ZkWatchHub(curatorFramework);
+        }
+    }
+
     public abstract static class CloseableCuratorFramework implements Closeable {
 
         private final CuratorFramework curatorFramework;
+        private final ZkWatchHub watchHub;
 
         public CloseableCuratorFramework(final CuratorFramework curatorFramework) {
+            this(curatorFramework, new ZkWatchHub(curatorFramework));
+        }
+
+        protected CloseableCuratorFramework(final CuratorFramework curatorFramework, final ZkWatchHub watchHub) {
             this.curatorFramework = curatorFramework;
+            this.watchHub = watchHub;
         }
 
         public CuratorFramework getCuratorFramework() {
             return curatorFramework;
         }
+
+        /**
+         * Watches of all the users of the same curator framework are shared through the same hub.
+         */
+        public ZkWatchHub getWatchHub() {
+            return watchHub;
+        }
     }
 
     public static class StaticCuratorFramework extends CloseableCuratorFramework {
@@ -80,6 +135,10 @@ public class ZooKeeperHolder {
             super(curatorFramework);
         }
 
+        private StaticCuratorFramework(final CuratorFramework curatorFramework, final ZkWatchHub watchHub) {
+            super(curatorFramework, watchHub);
+        }
+
         @Override
         public void close() {
             // do not ever close this particular instance of curator
@@ -98,6 +157,34 @@ public class ZooKeeperHolder {
         }
     }
 
+    private class PooledCuratorFramework extends CloseableCuratorFramework {
+
+        private final long bucketTimeoutMs;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private PooledCuratorFramework(final CuratorFramework curatorFramework, final ZkWatchHub watchHub,
+                                       final long bucketTimeoutMs) {
+            super(curatorFramework, watchHub);
+            this.bucketTimeoutMs = bucketTimeoutMs;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                releaseSubscriptionCurator(bucketTimeoutMs);
+            }
+        }
+    }
+
+    private CuratorFramework createCuratorFrameworkUnchecked(final int sessionTimeoutMs,
+                                                             final int connectionTimeoutMs) {
+        try {
+            return createCuratorFramework(sessionTimeoutMs, connectionTimeoutMs);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private CuratorFramework createCuratorFramework(final int sessionTimeoutMs,
                                                     final int connectionTimeoutMs) throws Exception {
         final CuratorFramework curatorFramework = CuratorFrameworkFactory.builder()
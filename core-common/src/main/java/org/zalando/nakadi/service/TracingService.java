@@ -4,7 +4,9 @@ import com.google.common.collect.ImmutableMap;
 import io.opentracing.References;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
+import io.opentracing.noop.NoopSpan;
 import io.opentracing.util.GlobalTracer;
+import org.zalando.nakadi.metrics.PublishingTimings;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.concurrent.TimeUnit;
@@ -15,6 +17,8 @@ public class TracingService {
     private static final String BUCKET_NAME_5_KB = "<5K";
     private static final String BUCKET_NAME_MORE_THAN_50_KB = ">50K";
 
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
     private static final Long BUCKET_5_KB = 5000L;
     private static final Long BUCKET_MORE_THAN_50_KB = 50000L;
 
@@ -30,6 +34,18 @@ public class TracingService {
         }
     }
 
+    /**
+     * Tags the span with the durations of publishing stages in milliseconds, e.g. "stage.kafka_ack_ms". Nothing is
+     * done when there is no span or tracing is disabled, unsampled spans are dropped by the tracer.
+     */
+    public static void setStageTimingTags(final Span span, final PublishingTimings timings) {
+        if (span == null || span instanceof NoopSpan) {
+            return;
+        }
+        timings.forEachCompleted((stage, durationNanos) -> span.setTag(
+                "stage." + stage.getMetricName() + "_ms", durationNanos / (double) NANOS_PER_MILLI));
+    }
+
     public static Span extractSpan(final HttpServletRequest request, final String operation) {
         final Span span = (Span) request.getAttribute("span");
         if (span != null) {
@@ -20,6 +20,8 @@ import org.zalando.nakadi.exceptions.runtime.RequestInProgressException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
 import org.zalando.nakadi.exceptions.runtime.UnableProcessException;
 import org.zalando.nakadi.exceptions.runtime.ZookeeperException;
+import org.zalando.nakadi.repository.zookeeper.ZkSubscription;
+import org.zalando.nakadi.repository.zookeeper.ZkWatchHub;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 import org.zalando.nakadi.service.subscription.model.Session;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
@@ -35,7 +37,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -56,6 +60,8 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
     private final String subscriptionId;
     private final CuratorFramework defaultCurator;
     private final ZooKeeperHolder.CloseableCuratorFramework closeableCuratorFramework;
+    // zookeeper session may be shared with other streams, so ephemeral nodes are not removed with the session on close
+    private final Set<String> registeredSessionPaths = ConcurrentHashMap.newKeySet();
     private final String closeSubscriptionStream;
     private final Logger log;
     private InterProcessSemaphoreMutex lock;
@@ -76,6 +82,10 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
         return this.closeableCuratorFramework.getCuratorFramework();
     }
 
+    protected ZkWatchHub getWatchHub() {
+        return this.closeableCuratorFramework.getWatchHub();
+    }
+
     protected ZooKeeperHolder.CloseableCuratorFramework getCloseableCuratorFramework() {
         return this.closeableCuratorFramework;
     }
@@ -188,6 +198,7 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
             final String clientPath = getSubscriptionPath("/sessions/" + session.getId());
             final byte[] sessionData = serializeSession(session);
             getCurator().create().withMode(CreateMode.EPHEMERAL).forPath(clientPath, sessionData);
+            registeredSessionPaths.add(clientPath);
         } catch (final Exception e) {
             throw new NakadiRuntimeException(e);
         }
@@ -196,7 +207,9 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
     @Override
     public final void unregisterSession(final Session session) {
         try {
-            getCurator().delete().guaranteed().forPath(getSubscriptionPath("/sessions/" + session.getId()));
+            final String clientPath = getSubscriptionPath("/sessions/" + session.getId());
+            getCurator().delete().guaranteed().forPath(clientPath);
+            registeredSessionPaths.remove(clientPath);
         } catch (final Exception e) {
             throw new NakadiRuntimeException(e);
         }
@@ -314,12 +327,11 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
             final EventTypePartition key, final Runnable commitListener) {
         final String path = getOffsetPath(key);
         getLog().info("subscribeForOffsetChanges: {}, path: {}", key, path);
-        return new ZkSubscriptionImpl.ZkSubscriptionValueImpl<>(
-                getCurator(),
-                commitListener,
+        return getWatchHub().subscribeForData(
+                path,
                 data -> new SubscriptionCursorWithoutToken(
                         key.getEventType(), key.getPartition(), new String(data, UTF_8)),
-                path);
+                commitListener);
     }
 
     @Override
@@ -384,8 +396,7 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
     public final ZkSubscription<List<String>> subscribeForSessionListChanges(final Runnable listener)
             throws NakadiRuntimeException {
         getLog().info("subscribeForSessionListChanges: " + listener.hashCode());
-        return new ZkSubscriptionImpl.ZkSubscriptionChildrenImpl(
-                getCurator(), listener, getSubscriptionPath("/sessions"));
+        return getWatchHub().subscribeForChildren(getSubscriptionPath("/sessions"), listener);
     }
 
     @Override
@@ -485,6 +496,16 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
 
     @Override
     public void close() throws IOException {
+        for (final String clientPath : registeredSessionPaths) {
+            try {
+                getCurator().delete().guaranteed().forPath(clientPath);
+            } catch (final KeeperException.NoNodeException e) {
+                // session node was removed together with expired zookeeper session
+            } catch (final Exception e) {
+                getLog().error("Failed to remove session node {}", clientPath, e);
+            }
+        }
+        registeredSessionPaths.clear();
         getCloseableCuratorFramework().close();
     }
 }
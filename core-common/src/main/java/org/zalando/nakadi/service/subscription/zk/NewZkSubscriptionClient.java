@@ -1,26 +1,35 @@
 package org.zalando.nakadi.service.subscription.zk;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.zookeeper.KeeperException;
 import org.zalando.nakadi.domain.EventTypePartition;
 import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
 import org.zalando.nakadi.exceptions.runtime.ZookeeperException;
+import org.zalando.nakadi.repository.zookeeper.ZkSubscription;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 import org.zalando.nakadi.service.subscription.model.Partition;
 import org.zalando.nakadi.service.subscription.model.Session;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Charsets.UTF_8;
@@ -45,7 +54,13 @@ import static com.google.common.base.Charsets.UTF_8;
  *     | |- {session_N}                     // Ephemeral node of session_N
  *     |
  *     |- topology                          // Persistent node that holds all assignment information about partitions
- *     |                                    // Content is json serialized {@link Topology} object.
+ *     |                                    // Content is json serialized {@link Topology} object. In sharded layout
+ *     |                                    // it holds sessions hash, version, generation and generations of shards.
+ *     |
+ *     |- topology_shards                   // Optional node, exists only for sharded topology layout
+ *     | |- 0-{generation}                  // Partitions [0, shard_size) of topology, written by the topology write
+ *     | |- ...                             // of that generation. Shard nodes are never changed, replaced ones are
+ *     | |- {shards_count - 1}-{generation} // deleted after topology node is updated.
  *     |
  *     |- offsets                           // Node that holds up all the dynamic data for this subscription (offsets)
  *       |- {event_type_1}
@@ -61,10 +76,25 @@ import static com.google.common.base.Charsets.UTF_8;
  *         |- {event_type_M_max_partitions}
  *
  *  </pre>
+ *
+ * Topology of a subscription with many partitions may not fit into a single zk node, and re-reading and parsing it
+ * on every change is expensive for every streaming session. In case if {@code topologyShardSize} is positive,
+ * topology is written in sharded layout: partitions are split into chunks of {@code topologyShardSize} partitions
+ * (keeping the order), and only chunks that were changed are written, see {@link TopologyWritePlan}. Client caches
+ * shards that were read, so on topology change only changed shards are read and parsed again.
+ * Both layouts are always readable, existing subscriptions are migrated to sharded layout (and back, in case if
+ * sharding is switched off) on the next topology update. Nodes running versions that only know the single node layout
+ * can not read sharded topology, so sharding should be switched on only after all the nodes are able to read it.
  */
 public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
 
+    private static final int MAX_TOPOLOGY_READ_ATTEMPTS = 5;
+    // Limit of the size of one zookeeper transaction, well below the default jute.maxbuffer of 1MB
+    private static final int MAX_TRANSACTION_BYTES = 512 * 1024;
+
     private final ObjectMapper objectMapper;
+    private final int topologyShardSize;
+    private final Map<Integer, TopologyShard> shardsCache = new ConcurrentHashMap<>();
 
     public NewZkSubscriptionClient(
             final String subscriptionId,
@@ -72,8 +102,19 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
             final String loggingPath,
             final ObjectMapper objectMapper,
             final long zkSessionTimeout) throws ZookeeperException {
+        this(subscriptionId, zooKeeperHolder, loggingPath, objectMapper, zkSessionTimeout, 0);
+    }
+
+    public NewZkSubscriptionClient(
+            final String subscriptionId,
+            final ZooKeeperHolder zooKeeperHolder,
+            final String loggingPath,
+            final ObjectMapper objectMapper,
+            final long zkSessionTimeout,
+            final int topologyShardSize) throws ZookeeperException {
         super(subscriptionId, zooKeeperHolder, loggingPath, zkSessionTimeout);
         this.objectMapper = objectMapper;
+        this.topologyShardSize = topologyShardSize;
     }
 
     @Override
@@ -93,53 +134,175 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
         )).toArray(Partition[]::new);
         final Topology topology = new Topology(partitions, "", 0);
         getLog().info("Generating topology {}", topology);
-        return objectMapper.writeValueAsBytes(topology);
+        if (topologyShardSize <= 0) {
+            return objectMapper.writeValueAsBytes(topology);
+        }
+        final int[] shardGenerations =
+                new int[TopologyWritePlan.getShardsCount(partitions.length, topologyShardSize)];
+        for (int shard = 0; shard < shardGenerations.length; ++shard) {
+            getCurator().create().creatingParentsIfNeeded().forPath(
+                    getSubscriptionPath(TopologyWritePlan.getShardPath(shard, 0)),
+                    objectMapper.writeValueAsBytes(
+                            TopologyWritePlan.createShard(topology, shard, topologyShardSize, 0)));
+        }
+        return objectMapper.writeValueAsBytes(new TopologyRoot(topology, topologyShardSize, 0, shardGenerations));
     }
 
     @Override
     public void updatePartitionsConfiguration(
             final String newSessionsHash, final Partition[] partitions) throws NakadiRuntimeException,
             SubscriptionNotInitializedException {
-        final Topology newTopology = getTopology().withUpdatedPartitions(newSessionsHash, partitions);
-        try {
-            getLog().info("Updating topology to {}", newTopology);
-            getCurator().setData().forPath(
-                    getSubscriptionPath(NODE_TOPOLOGY),
-                    objectMapper.writeValueAsBytes(newTopology));
-        } catch (final Exception ex) {
-            throw new NakadiRuntimeException(ex);
-        }
+        final StoredTopology current = loadTopology();
+        final Topology newTopology = current.topology.withUpdatedPartitions(newSessionsHash, partitions);
+        getLog().info("Updating topology to {}", newTopology);
+        storeTopology(current, newTopology);
     }
 
     @Override
     public Topology getTopology() throws NakadiRuntimeException,
             SubscriptionNotInitializedException {
+        return loadTopology().topology;
+    }
+
+    private StoredTopology loadTopology() throws NakadiRuntimeException, SubscriptionNotInitializedException {
         try {
-            return parseTopology(getCurator().getData().forPath(getSubscriptionPath(NODE_TOPOLOGY)));
+            return readTopology(getCurator().getData().forPath(getSubscriptionPath(NODE_TOPOLOGY)));
         } catch (KeeperException.NoNodeException ex) {
             throw new SubscriptionNotInitializedException(getSubscriptionId());
+        } catch (final NakadiRuntimeException | ServiceTemporarilyUnavailableException ex) {
+            throw ex;
         } catch (final Exception ex) {
             throw new NakadiRuntimeException(ex);
         }
     }
 
     private Topology parseTopology(final byte[] data) {
+        return readTopology(data).topology;
+    }
+
+    /**
+     * Reads topology from the content of topology node. In case of sharded layout, only shards with generations
+     * that differ from cached ones are loaded. Shards are never changed once written, but they are deleted when
+     * replaced by a newer write, so topology node is reread in case if some of the shards it refers to are gone.
+     */
+    private StoredTopology readTopology(final byte[] rootData) throws NakadiRuntimeException,
+            ServiceTemporarilyUnavailableException {
+        byte[] data = rootData;
+        for (int attempt = 0; attempt < MAX_TOPOLOGY_READ_ATTEMPTS; ++attempt) {
+            final TopologyRoot root = parse(data, TopologyRoot.class);
+            if (null == root.shardGenerations) {
+                return new StoredTopology(
+                        new Topology(root.partitions, root.sessionsHash, root.version), null, 0, 0);
+            }
+            final List<Integer> shardsToLoad = IntStream.range(0, root.shardGenerations.length)
+                    .filter(shard -> !isCached(shard, root.shardGenerations[shard]))
+                    .boxed()
+                    .collect(Collectors.toList());
+            final Map<Integer, TopologyShard> loaded = loadDataAsync(
+                    shardsToLoad,
+                    shard -> getSubscriptionPath(TopologyWritePlan.getShardPath(shard, root.shardGenerations[shard])),
+                    (shard, shardData) -> parse(shardData, TopologyShard.class));
+            loaded.forEach(shardsCache::put);
+            shardsCache.keySet().removeIf(shard -> shard >= root.shardGenerations.length);
+
+            if (IntStream.range(0, root.shardGenerations.length)
+                    .allMatch(shard -> isCached(shard, root.shardGenerations[shard]))) {
+                final Partition[] partitions = IntStream.range(0, root.shardGenerations.length)
+                        .mapToObj(shardsCache::get)
+                        .flatMap(shard -> Stream.of(shard.partitions))
+                        .toArray(Partition[]::new);
+                return new StoredTopology(
+                        new Topology(partitions, root.sessionsHash, root.version),
+                        root.shardGenerations,
+                        root.shardSize,
+                        root.generation);
+            }
+            getLog().info("Topology was changed while reading shards, rereading it");
+            try {
+                data = getCurator().getData().forPath(getSubscriptionPath(NODE_TOPOLOGY));
+            } catch (final Exception ex) {
+                throw new NakadiRuntimeException(ex);
+            }
+        }
+        throw new ServiceTemporarilyUnavailableException("Failed to read consistent topology in " +
+                MAX_TOPOLOGY_READ_ATTEMPTS + " attempts", null);
+    }
+
+    private boolean isCached(final int shard, final int generation) {
+        final TopologyShard cached = shardsCache.get(shard);
+        return null != cached && cached.generation == generation;
+    }
+
+    private <T> T parse(final byte[] data, final Class<T> clazz) {
         try {
-            return objectMapper.readValue(data, Topology.class);
+            return objectMapper.readValue(data, clazz);
         } catch (IOException e) {
             throw new NakadiRuntimeException(e);
         }
     }
 
+    /**
+     * Writes {@code newTopology} in the layout that is currently configured, see {@link TopologyWritePlan}.
+     */
+    private void storeTopology(final StoredTopology current, final Topology newTopology)
+            throws NakadiRuntimeException {
+        try {
+            if (topologyShardSize > 0 && !current.isSharded()) {
+                getLog().info("Migrating topology to sharded layout with shard size {}", topologyShardSize);
+            }
+            final TopologyWritePlan plan = TopologyWritePlan.create(current, newTopology, topologyShardSize,
+                    getShardNodes(current), objectMapper, MAX_TRANSACTION_BYTES);
+            getLog().info("Writing topology in {} transactions", plan.getTransactions().size());
+            for (final List<TopologyWritePlan.Operation> transaction : plan.getTransactions()) {
+                final List<CuratorOp> operations = new ArrayList<>(transaction.size());
+                for (final TopologyWritePlan.Operation operation : transaction) {
+                    operations.add(toCuratorOp(operation));
+                }
+                getCurator().transaction().forOperations(operations);
+            }
+        } catch (final Exception ex) {
+            throw new NakadiRuntimeException(ex);
+        }
+    }
+
+    /**
+     * @return names of the children of topology shards node, null if the node does not exist
+     */
+    @Nullable
+    private List<String> getShardNodes(final StoredTopology current) throws Exception {
+        if (topologyShardSize <= 0 && !current.isSharded()) {
+            // shards of the sharded layout are deleted when switching back to single node layout
+            return Collections.emptyList();
+        }
+        try {
+            return getCurator().getChildren().forPath(getSubscriptionPath(TopologyWritePlan.NODE_TOPOLOGY_SHARDS));
+        } catch (final KeeperException.NoNodeException ex) {
+            return null;
+        }
+    }
+
+    private CuratorOp toCuratorOp(final TopologyWritePlan.Operation operation) throws Exception {
+        final String path = getSubscriptionPath(operation.getPath());
+        switch (operation.getType()) {
+            case CREATE:
+                return getCurator().transactionOp().create().forPath(path, operation.getData());
+            case SET_DATA:
+                return getCurator().transactionOp().setData().forPath(path, operation.getData());
+            case DELETE:
+                return getCurator().transactionOp().delete().forPath(path);
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
     @Override
     public final ZkSubscription<Topology> subscribeForTopologyChanges(final Runnable onTopologyChanged)
             throws NakadiRuntimeException {
         getLog().info("subscribeForTopologyChanges");
-        return new ZkSubscriptionImpl.ZkSubscriptionValueImpl<>(
-                getCurator(),
-                onTopologyChanged,
+        return getWatchHub().subscribeForData(
+                getSubscriptionPath(NODE_TOPOLOGY),
                 this::parseTopology,
-                getSubscriptionPath(NODE_TOPOLOGY));
+                onTopologyChanged);
     }
 
     protected byte[] serializeSession(final Session session)
@@ -222,7 +385,8 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
     @Override
     public void repartitionTopology(final String eventTypeName, final int newPartitionsCount, final String offset)
             throws NakadiRuntimeException {
-        final Topology currentTopology = getTopology();
+        final StoredTopology current = loadTopology();
+        final Topology currentTopology = current.topology;
         final List<Partition> partitionsList = Lists.newArrayList(currentTopology.getPartitions());
 
         final int oldPartitionsCount = (int) partitionsList.stream().
@@ -251,13 +415,116 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
                 Optional.ofNullable(currentTopology.getVersion()).map(v -> v + 1).orElse(0)
         );
 
-        try {
-            getLog().info("Updating topology due to repartitioning event type: {} to {}", eventTypeName,
-                    partitionedTopology);
-            getCurator().setData().forPath(getSubscriptionPath(NODE_TOPOLOGY),
-                    objectMapper.writeValueAsBytes(partitionedTopology));
-        } catch (final Exception exception) {
-            throw new NakadiRuntimeException(exception);
+        getLog().info("Updating topology due to repartitioning event type: {} to {}", eventTypeName,
+                partitionedTopology);
+        storeTopology(current, partitionedTopology);
+    }
+
+    static class StoredTopology {
+        private final Topology topology;
+        // generations of shards, null in case if topology is stored in a single node
+        @Nullable
+        private final int[] shardGenerations;
+        private final int shardSize;
+        private final int generation;
+
+        StoredTopology(final Topology topology, @Nullable final int[] shardGenerations, final int shardSize,
+                       final int generation) {
+            this.topology = topology;
+            this.shardGenerations = shardGenerations;
+            this.shardSize = shardSize;
+            this.generation = generation;
+        }
+
+        Topology getTopology() {
+            return topology;
+        }
+
+        boolean isSharded() {
+            return null != shardGenerations;
+        }
+
+        @Nullable
+        int[] getShardGenerations() {
+            return shardGenerations;
+        }
+
+        int getShardSize() {
+            return shardSize;
+        }
+
+        int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * @return names of the shard nodes this topology refers to
+         */
+        Set<String> getShardNodes() {
+            if (null == shardGenerations) {
+                return Collections.emptySet();
+            }
+            return IntStream.range(0, shardGenerations.length)
+                    .mapToObj(shard -> TopologyWritePlan.getShardNode(shard, shardGenerations[shard]))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Content of topology node. For single node layout it is the same as {@link Topology}. For sharded layout
+     * partitions are absent, so that nodes that do not know the layout fail instead of seeing a topology without
+     * partitions, and each shard is described by the generation of the write that created it.
+     */
+    static class TopologyRoot {
+        @Nullable
+        @JsonProperty("partitions")
+        private final Partition[] partitions;
+        @Nullable
+        @JsonProperty("sessions_hash")
+        private final String sessionsHash;
+        @Nullable
+        @JsonProperty("version")
+        private final Integer version;
+        @JsonProperty("shard_size")
+        private final int shardSize;
+        @JsonProperty("generation")
+        private final int generation;
+        @Nullable
+        @JsonProperty("shards")
+        private final int[] shardGenerations;
+
+        TopologyRoot(
+                @Nullable @JsonProperty("partitions") final Partition[] partitions,
+                @Nullable @JsonProperty("sessions_hash") final String sessionsHash,
+                @Nullable @JsonProperty("version") final Integer version,
+                @JsonProperty("shard_size") final int shardSize,
+                @JsonProperty("generation") final int generation,
+                @Nullable @JsonProperty("shards") final int[] shardGenerations) {
+            this.partitions = partitions;
+            this.sessionsHash = sessionsHash;
+            this.version = version;
+            this.shardSize = shardSize;
+            this.generation = generation;
+            this.shardGenerations = shardGenerations;
+        }
+
+        TopologyRoot(final Topology topology, final int shardSize, final int generation,
+                     final int[] shardGenerations) {
+            this(null, topology.getSessionsHash(), topology.getVersion(), shardSize, generation, shardGenerations);
+        }
+    }
+
+    static class TopologyShard {
+        @JsonProperty("generation")
+        private final int generation;
+        @JsonProperty("partitions")
+        private final Partition[] partitions;
+
+        TopologyShard(
+                @JsonProperty("generation") final int generation,
+                @JsonProperty("partitions") final Partition[] partitions) {
+            this.generation = generation;
+            this.partitions = partitions;
         }
     }
 }
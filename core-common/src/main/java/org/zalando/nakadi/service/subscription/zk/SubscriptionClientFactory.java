@@ -3,6 +3,7 @@ package org.zalando.nakadi.service.subscription.zk;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.zalando.nakadi.config.NakadiSettings;
 import org.zalando.nakadi.domain.Subscription;
@@ -19,15 +20,18 @@ public class SubscriptionClientFactory {
     private final ZooKeeperHolder zkHolder;
     private final ObjectMapper objectMapper;
     private final long maxCommitTimeoutMs;
+    private final int topologyShardSize;
 
     @Autowired
     public SubscriptionClientFactory(
             final ZooKeeperHolder zkHolder,
             final ObjectMapper objectMapper,
-            final NakadiSettings nakadiSettings) {
+            final NakadiSettings nakadiSettings,
+            @Value("${nakadi.subscription.topologyShardSize:0}") final int topologyShardSize) {
         this.zkHolder = zkHolder;
         this.objectMapper = objectMapper;
         this.maxCommitTimeoutMs = TimeUnit.SECONDS.toMillis(nakadiSettings.getMaxCommitTimeout());
+        this.topologyShardSize = topologyShardSize;
     }
 
     public ZkSubscriptionClient createClient(final Subscription subscription, final String loggingPath)
@@ -45,6 +49,7 @@ public class SubscriptionClientFactory {
                 zkHolder,
                 loggingPath,
                 objectMapper,
-                commitTimeoutMillis);
+                commitTimeoutMillis,
+                topologyShardSize);
     }
 }
@@ -0,0 +1,208 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.zalando.nakadi.service.subscription.model.Partition;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sequence of zookeeper transactions that stores a new topology of a subscription. Each transaction is sent to
+ * zookeeper as one request, that is limited by jute.maxbuffer, so shards of a large topology are written in several
+ * transactions of bounded size.
+ * <p>
+ * As the transactions are not atomic together, shards are never overwritten: changed shards are created under the
+ * names of the new generation, then topology node is switched to them and only after that shards that are not
+ * referenced anymore are deleted. Readers of topology node either find all the shards it refers to, or the topology
+ * node was already replaced by a newer one and should be read again. Shards that were left by an interrupted write
+ * are not referenced by topology node and are deleted by the next write.
+ */
+final class TopologyWritePlan {
+
+    static final String NODE_TOPOLOGY_SHARDS = "/topology_shards";
+    // Estimation of the size of an operation in zookeeper request, without path and data
+    private static final int OPERATION_OVERHEAD_BYTES = 64;
+
+    enum OperationType {
+        CREATE,
+        SET_DATA,
+        DELETE
+    }
+
+    static final class Operation {
+        private final OperationType type;
+        private final String path;
+        private final byte[] data;
+
+        private Operation(final OperationType type, final String path, final byte[] data) {
+            this.type = type;
+            this.path = path;
+            this.data = data;
+        }
+
+        OperationType getType() {
+            return type;
+        }
+
+        /**
+         * @return path of the node relative to the subscription node
+         */
+        String getPath() {
+            return path;
+        }
+
+        byte[] getData() {
+            return data;
+        }
+
+        private int getEstimatedSize() {
+            return OPERATION_OVERHEAD_BYTES + path.length() + data.length;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + path;
+        }
+    }
+
+    private final List<List<Operation>> transactions;
+
+    private TopologyWritePlan(final List<List<Operation>> transactions) {
+        this.transactions = transactions;
+    }
+
+    List<List<Operation>> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * @param current             topology that is stored at the moment
+     * @param newTopology         topology to store
+     * @param shardSize           number of partitions in one shard, single node layout is used if not positive
+     * @param shardNodes          names of existing children of topology shards node, null if it does not exist
+     * @param objectMapper        mapper to serialize topology with
+     * @param maxTransactionBytes limit of the size of one transaction
+     */
+    static TopologyWritePlan create(final NewZkSubscriptionClient.StoredTopology current,
+                                    final ZkSubscriptionClient.Topology newTopology,
+                                    final int shardSize,
+                                    @Nullable final Collection<String> shardNodes,
+                                    final ObjectMapper objectMapper,
+                                    final int maxTransactionBytes) throws JsonProcessingException {
+        final List<Operation> writes = new ArrayList<>();
+        final Set<String> newShardNodes = new HashSet<>();
+        final byte[] rootData;
+        if (shardSize <= 0) {
+            rootData = objectMapper.writeValueAsBytes(newTopology);
+        } else {
+            if (null == shardNodes) {
+                writes.add(new Operation(OperationType.CREATE, NODE_TOPOLOGY_SHARDS, new byte[0]));
+            }
+            final int generation = current.getGeneration() + 1;
+            final int[] shardGenerations = new int[getShardsCount(newTopology.getPartitions().length, shardSize)];
+            final boolean sameLayout = current.isSharded() && current.getShardSize() == shardSize;
+            for (int shard = 0; shard < shardGenerations.length; ++shard) {
+                if (sameLayout && shard < current.getShardGenerations().length
+                        && isSameShard(current.getTopology(), newTopology, shard, shardSize)) {
+                    shardGenerations[shard] = current.getShardGenerations()[shard];
+                } else {
+                    shardGenerations[shard] = generation;
+                    writes.add(new Operation(OperationType.CREATE, getShardPath(shard, generation),
+                            objectMapper.writeValueAsBytes(createShard(newTopology, shard, shardSize, generation))));
+                }
+                newShardNodes.add(getShardNode(shard, shardGenerations[shard]));
+            }
+            rootData = objectMapper.writeValueAsBytes(
+                    new NewZkSubscriptionClient.TopologyRoot(newTopology, shardSize, generation, shardGenerations));
+        }
+
+        final Set<String> currentShardNodes = current.getShardNodes();
+        final List<Operation> orphanDeletes = new ArrayList<>();
+        final List<Operation> replacedDeletes = new ArrayList<>();
+        for (final String node : Optional.ofNullable(shardNodes).orElse(Collections.emptyList())) {
+            final Operation delete = new Operation(OperationType.DELETE, NODE_TOPOLOGY_SHARDS + "/" + node,
+                    new byte[0]);
+            if (!currentShardNodes.contains(node)) {
+                orphanDeletes.add(delete);
+            } else if (!newShardNodes.contains(node)) {
+                replacedDeletes.add(delete);
+            }
+        }
+
+        final List<List<Operation>> transactions = new ArrayList<>();
+        // Orphans are deleted first, as they may have the same names as shards of the new generation
+        transactions.addAll(split(orphanDeletes, maxTransactionBytes));
+        transactions.addAll(split(writes, maxTransactionBytes));
+        transactions.add(Collections.singletonList(new Operation(
+                OperationType.SET_DATA, AbstractZkSubscriptionClient.NODE_TOPOLOGY, rootData)));
+        transactions.addAll(split(replacedDeletes, maxTransactionBytes));
+        return new TopologyWritePlan(transactions);
+    }
+
+    static String getShardPath(final int shard, final int generation) {
+        return NODE_TOPOLOGY_SHARDS + "/" + getShardNode(shard, generation);
+    }
+
+    static String getShardNode(final int shard, final int generation) {
+        return shard + "-" + generation;
+    }
+
+    static int getShardsCount(final int partitionsCount, final int shardSize) {
+        return (partitionsCount + shardSize - 1) / shardSize;
+    }
+
+    static NewZkSubscriptionClient.TopologyShard createShard(
+            final ZkSubscriptionClient.Topology topology, final int shard, final int shardSize,
+            final int generation) {
+        final int from = shard * shardSize;
+        final int to = Math.min(from + shardSize, topology.getPartitions().length);
+        return new NewZkSubscriptionClient.TopologyShard(
+                generation, Arrays.copyOfRange(topology.getPartitions(), from, to));
+    }
+
+    private static boolean isSameShard(final ZkSubscriptionClient.Topology current,
+                                       final ZkSubscriptionClient.Topology updated,
+                                       final int shard,
+                                       final int shardSize) {
+        final Partition[] currentPartitions = current.getPartitions();
+        final Partition[] updatedPartitions = updated.getPartitions();
+        final int from = shard * shardSize;
+        final int to = Math.min(from + shardSize, currentPartitions.length);
+        if (to != Math.min(from + shardSize, updatedPartitions.length)) {
+            return false;
+        }
+        for (int idx = from; idx < to; ++idx) {
+            if (!currentPartitions[idx].equals(updatedPartitions[idx])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<List<Operation>> split(final List<Operation> operations, final int maxTransactionBytes) {
+        final List<List<Operation>> result = new ArrayList<>();
+        List<Operation> transaction = new ArrayList<>();
+        int transactionBytes = 0;
+        for (final Operation operation : operations) {
+            if (!transaction.isEmpty() && transactionBytes + operation.getEstimatedSize() > maxTransactionBytes) {
+                result.add(transaction);
+                transaction = new ArrayList<>();
+                transactionBytes = 0;
+            }
+            transaction.add(operation);
+            transactionBytes += operation.getEstimatedSize();
+        }
+        if (!transaction.isEmpty()) {
+            result.add(transaction);
+        }
+        return result;
+    }
+}
@@ -1,12 +1,16 @@
 package org.zalando.nakadi.service.subscription.zk;
 
+import org.zalando.nakadi.domain.EventTypePartition;
 import org.zalando.nakadi.domain.SubscriptionEventTypeStats;
 import org.zalando.nakadi.service.subscription.model.Partition;
 import org.zalando.nakadi.service.subscription.model.Session;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.zalando.nakadi.domain.SubscriptionEventTypeStats.Partition.AssignmentType.AUTO;
 import static org.zalando.nakadi.domain.SubscriptionEventTypeStats.Partition.AssignmentType.DIRECT;
@@ -14,11 +18,16 @@ import static org.zalando.nakadi.domain.SubscriptionEventTypeStats.Partition.Ass
 public final class ZkSubscriptionNode {
 
     private final Collection<Partition> partitions;
-    private final Collection<Session> sessions;
+    private final Map<EventTypePartition, Partition> partitionsByKey;
+    // session ids are compared ignoring case
+    private final Map<String, Session> sessionsById;
 
     public ZkSubscriptionNode(final Collection<Partition> partitions, final Collection<Session> sessions) {
         this.partitions = partitions;
-        this.sessions = sessions;
+        this.partitionsByKey = new HashMap<>(partitions.size() * 2);
+        partitions.forEach(p -> partitionsByKey.putIfAbsent(p.getKey(), p));
+        this.sessionsById = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sessions.forEach(s -> sessionsById.putIfAbsent(s.getId(), s));
     }
 
     public Collection<Partition> getPartitions() {
@@ -32,10 +41,13 @@ public final class ZkSubscriptionNode {
     }
 
     private Optional<Partition> getPartitionWithActiveSession(final String eventType, final String partition) {
-        return partitions.stream()
-                .filter(p -> p.getPartition().equals(partition) && p.getEventType().equals(eventType))
-                .filter(p -> sessions.stream().anyMatch(s -> s.getId().equalsIgnoreCase(p.getSession())))
-                .findAny();
+        return Optional.ofNullable(partitionsByKey.get(new EventTypePartition(eventType, partition)))
+                .filter(p -> null != getSession(p));
+    }
+
+    @Nullable
+    private Session getSession(final Partition partition) {
+        return null == partition.getSession() ? null : sessionsById.get(partition.getSession());
     }
 
     @Nullable
@@ -48,10 +60,8 @@ public final class ZkSubscriptionNode {
     @Nullable
     public SubscriptionEventTypeStats.Partition.AssignmentType getPartitionAssignmentType(final String eventType,
                                                                                           final String partition) {
-        return partitions.stream()
-                .filter(p -> p.getPartition().equals(partition) && p.getEventType().equals(eventType))
-                .flatMap(p -> sessions.stream().filter(s -> s.getId().equalsIgnoreCase(p.getSession())))
-                .findAny()
+        return Optional.ofNullable(partitionsByKey.get(new EventTypePartition(eventType, partition)))
+                .map(this::getSession)
                 .map(s -> s.getRequestedPartitions().isEmpty() ? AUTO : DIRECT)
                 .orElse(null);
     }
@@ -5,18 +5,30 @@ import com.google.common.hash.Hashing;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.domain.SubscriptionBase;
 
+import java.util.Set;
+
 import static com.google.common.base.Charsets.UTF_8;
 
 @Component
 public class HashGenerator {
 
     public String generateSubscriptionKeyFieldsHash(final SubscriptionBase subscription) {
+        return generateSubscriptionKeyFieldsHash(
+                subscription.getOwningApplication(), subscription.getEventTypes(), subscription.getConsumerGroup());
+    }
+
+    /**
+     * Hash of subscription key fields, that is stored in s_key_fields_hash column of subscription table. The value is
+     * the same as md5 of owning application, consumer group and sorted event types concatenated together, which
+     * allows to calculate it in database migrations as well.
+     */
+    public String generateSubscriptionKeyFieldsHash(final String owningApplication, final Set<String> eventTypes,
+                                                    final String consumerGroup) {
         final Hasher hasher = Hashing.md5()
                 .newHasher()
-                .putString(subscription.getOwningApplication(), UTF_8)
-                .putString(subscription.getConsumerGroup(), UTF_8);
-        subscription.getEventTypes()
-                .stream()
+                .putString(owningApplication, UTF_8)
+                .putString(consumerGroup, UTF_8);
+        eventTypes.stream()
                 .sorted()
                 .forEach(et -> hasher.putString(et, UTF_8));
         return hasher.hash().toString();
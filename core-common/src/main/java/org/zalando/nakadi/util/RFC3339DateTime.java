@@ -0,0 +1,231 @@
+package org.zalando.nakadi.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Character level validator, parser and formatter for RFC 3339 date-time values
+ * (https://tools.ietf.org/html/rfc3339#section-5.6).
+ *
+ * Validation and parsing do not allocate. The accepted grammar is the same as the one that was previously enforced
+ * by a combination of {@link java.time.OffsetDateTime#parse(CharSequence)} and a regular expression:
+ * <ul>
+ *     <li>four digits year, {@code T} or {@code t} as separator and mandatory seconds;</li>
+ *     <li>optional fraction of second with 1 to 9 digits;</li>
+ *     <li>offset is either {@code Z}, {@code z} or {@code +hh:mm}/{@code -hh:mm} within +-18:00;</li>
+ *     <li>leap seconds ({@code :60}) are rejected, as they can not be represented by java.time and joda-time.</li>
+ * </ul>
+ */
+public final class RFC3339DateTime {
+
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final int MIN_LENGTH = "0000-00-00T00:00:00Z".length();
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int MAX_OFFSET_HOURS = 18;
+    private static final int[] NANOS_SCALE = {
+            0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1};
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int DAYS_PER_400_YEARS = 146_097;
+    private static final int DAYS_FROM_0000_03_01_TO_1970_01_01 = 719_468;
+    private static final long MAX_FORMATTED_MILLIS = 253_402_300_799_999L; // 9999-12-31T23:59:59.999Z
+
+    private static volatile FormattedMillis lastFormatted = new FormattedMillis(INVALID, null);
+
+    private RFC3339DateTime() {
+    }
+
+    public static boolean isValid(final String value) {
+        return value != null && parse(value) != INVALID;
+    }
+
+    /**
+     * Parses RFC 3339 date-time into milliseconds since epoch. Digits of fraction after milliseconds are truncated.
+     *
+     * @throws IllegalArgumentException if value is not a valid RFC 3339 date-time
+     */
+    public static long parseEpochMilli(final String value) throws IllegalArgumentException {
+        final long result = null == value ? INVALID : parse(value);
+        if (result == INVALID) {
+            throw new IllegalArgumentException("\"" + value + "\" is not a valid RFC 3339 date-time");
+        }
+        return result;
+    }
+
+    /**
+     * Formats milliseconds since epoch as UTC date-time with millisecond precision, e.g.
+     * {@code 1970-01-01T00:00:00.000Z}, the same way as joda-time does. Events in the same batch are usually
+     * received within the same millisecond, therefore the last formatted value is cached.
+     */
+    public static String formatEpochMilli(final long epochMilli) {
+        final FormattedMillis cached = lastFormatted;
+        if (cached.epochMilli == epochMilli) {
+            return cached.value;
+        }
+        final String value = (epochMilli < 0 || epochMilli > MAX_FORMATTED_MILLIS) ?
+                new DateTime(epochMilli, DateTimeZone.UTC).toString() : format(epochMilli);
+        lastFormatted = new FormattedMillis(epochMilli, value);
+        return value;
+    }
+
+    private static String format(final long epochMilli) {
+        final long epochSecond = epochMilli / 1000;
+        final int millis = (int) (epochMilli % 1000);
+        final int secondOfDay = (int) (epochSecond % SECONDS_PER_DAY);
+
+        // Civil date from days, see http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+        final long shiftedDays = epochSecond / SECONDS_PER_DAY + DAYS_FROM_0000_03_01_TO_1970_01_01;
+        final long era = shiftedDays / DAYS_PER_400_YEARS;
+        final int dayOfEra = (int) (shiftedDays - era * DAYS_PER_400_YEARS);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        final char[] chars = new char[24];
+        writeDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, day, 2);
+        chars[10] = 'T';
+        writeDigits(chars, 11, secondOfDay / 3600, 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, (secondOfDay / 60) % 60, 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, secondOfDay % 60, 2);
+        chars[19] = '.';
+        writeDigits(chars, 20, millis, 3);
+        chars[23] = 'Z';
+        return new String(chars);
+    }
+
+    private static void writeDigits(final char[] chars, final int offset, final int value, final int width) {
+        int remaining = value;
+        for (int i = offset + width - 1; i >= offset; --i) {
+            chars[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+
+    private static long parse(final String value) {
+        final int length = value.length();
+        if (length < MIN_LENGTH
+                || value.charAt(4) != '-'
+                || value.charAt(7) != '-'
+                || (value.charAt(10) != 'T' && value.charAt(10) != 't')
+                || value.charAt(13) != ':'
+                || value.charAt(16) != ':') {
+            return INVALID;
+        }
+        final int year = readDigits(value, 0, 4);
+        final int month = readDigits(value, 5, 2);
+        final int day = readDigits(value, 8, 2);
+        final int hour = readDigits(value, 11, 2);
+        final int minute = readDigits(value, 14, 2);
+        final int second = readDigits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+
+        int position = 19;
+        int nanos = 0;
+        if (value.charAt(position) == '.') {
+            final int fractionStart = ++position;
+            while (position < length && isDigit(value.charAt(position))) {
+                nanos = nanos * 10 + (value.charAt(position) - '0');
+                ++position;
+            }
+            final int fractionDigits = position - fractionStart;
+            if (fractionDigits == 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+                return INVALID;
+            }
+            nanos *= NANOS_SCALE[fractionDigits];
+        }
+
+        final int offsetSeconds = parseOffsetSeconds(value, position);
+        if (offsetSeconds == Integer.MIN_VALUE) {
+            return INVALID;
+        }
+
+        final long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY
+                + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return epochSecond * 1000 + nanos / 1_000_000;
+    }
+
+    private static int parseOffsetSeconds(final String value, final int position) {
+        final int remaining = value.length() - position;
+        if (remaining == 1) {
+            final char zulu = value.charAt(position);
+            return (zulu == 'Z' || zulu == 'z') ? 0 : Integer.MIN_VALUE;
+        }
+        if (remaining != 6 || value.charAt(position + 3) != ':') {
+            return Integer.MIN_VALUE;
+        }
+        final char sign = value.charAt(position);
+        final int hours = readDigits(value, position + 1, 2);
+        final int minutes = readDigits(value, position + 4, 2);
+        if ((sign != '+' && sign != '-') || hours < 0 || minutes < 0 || minutes > 59
+                || hours > MAX_OFFSET_HOURS || (hours == MAX_OFFSET_HOURS && minutes != 0)) {
+            return Integer.MIN_VALUE;
+        }
+        final int seconds = hours * 3600 + minutes * 60;
+        return sign == '+' ? seconds : -seconds;
+    }
+
+    private static int readDigits(final String value, final int offset, final int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; ++i) {
+            final char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Days from civil date, see http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+    private static long epochDay(final int year, final int month, final int day) {
+        final int shiftedYear = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(shiftedYear, 400);
+        final int yearOfEra = shiftedYear - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_0000_03_01_TO_1970_01_01;
+    }
+
+    private static class FormattedMillis {
+        private final long epochMilli;
+        private final String value;
+
+        private FormattedMillis(final long epochMilli, final String value) {
+            this.epochMilli = epochMilli;
+            this.value = value;
+        }
+    }
+}
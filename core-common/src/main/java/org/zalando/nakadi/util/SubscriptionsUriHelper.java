@@ -33,7 +33,26 @@ public class SubscriptionsUriHelper {
     public static String createSubscriptionListUri(final Optional<String> owningApplication,
                                                    final Set<String> eventTypes, final int offset, final int limit,
                                                    final boolean showStatus) {
+        return createSubscriptionListUriBuilder(owningApplication, eventTypes, showStatus)
+                .queryParam("offset", offset)
+                .queryParam("limit", limit)
+                .build()
+                .toString();
+    }
+
+    public static String createSubscriptionListUri(final Optional<String> owningApplication,
+                                                   final Set<String> eventTypes, final String after, final int limit,
+                                                   final boolean showStatus) {
+        return createSubscriptionListUriBuilder(owningApplication, eventTypes, showStatus)
+                .queryParam("after", after)
+                .queryParam("limit", limit)
+                .build()
+                .toString();
+    }
 
+    private static UriComponentsBuilder createSubscriptionListUriBuilder(final Optional<String> owningApplication,
+                                                                         final Set<String> eventTypes,
+                                                                         final boolean showStatus) {
         final UriComponentsBuilder urlBuilder = UriComponentsBuilder.fromPath("/subscriptions");
         if (!eventTypes.isEmpty()) {
             urlBuilder.queryParam("event_type", eventTypes.toArray());
@@ -42,10 +61,6 @@ public class SubscriptionsUriHelper {
         if (showStatus) {
             urlBuilder.queryParam("show_status", "true");
         }
-        return urlBuilder
-                .queryParam("offset", offset)
-                .queryParam("limit", limit)
-                .build()
-                .toString();
+        return urlBuilder;
     }
 }
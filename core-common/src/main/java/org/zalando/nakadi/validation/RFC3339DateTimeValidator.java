@@ -1,41 +1,30 @@
 package org.zalando.nakadi.validation;
 
 import org.everit.json.schema.FormatValidator;
+import org.zalando.nakadi.util.RFC3339DateTime;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
 public class RFC3339DateTimeValidator implements FormatValidator {
 
-    private final String errorMessage = "must be a valid date-time";
-
-    // Valid offsets are either Z or hh:mm. The format hh:mm:ss is not valid
-    // Pattern is used to catch situations that are not covered by {@link OffsetDateTime#parse(CharSequence)}
-    private final String dateTimeOffsetPattern = "^.*[Tt]\\d{2}:\\d{2}:\\d{2}.*([zZ]|([+-]\\d{2}:\\d{2}))$";
-    private final Pattern pattern = Pattern.compile(dateTimeOffsetPattern);
-    private final Optional<String> error = Optional.of(errorMessage);
+    private static final String ERROR_MESSAGE = "must be a valid date-time";
+    private static final Optional<String> ERROR = Optional.of(ERROR_MESSAGE);
 
     @Override
     public Optional<String> validate(final String dateTime) {
+        if (RFC3339DateTime.isValid(dateTime)) {
+            return Optional.empty();
+        }
+        // Invalid values are rare, so java.time is used only to keep the position of the error in the message
         try {
             OffsetDateTime.parse(dateTime, ISO_OFFSET_DATE_TIME);
-
-            // Unfortunately, ISO_OFFSET_DATE_TIME accepts offsets with seconds, which is not RFC3339 compliant. So
-            // we need to do some further checks using a regex in order to be sure that it adhere to the given format.
-            final Matcher matcher = pattern.matcher(dateTime);
-            if (matcher.matches()) {
-                return Optional.empty();
-            } else {
-                return error;
-            }
-
+            return ERROR;
         } catch (final DateTimeParseException e) {
-            return Optional.of(error.get() + " " + e.getMessage());
+            return Optional.of(ERROR_MESSAGE + " " + e.getMessage());
         }
     }
 }
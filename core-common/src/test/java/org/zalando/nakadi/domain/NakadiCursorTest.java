@@ -5,6 +5,8 @@ import org.junit.Test;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.utils.TestUtils;
 
+import java.util.Arrays;
+
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
@@ -30,4 +32,55 @@ public class NakadiCursorTest {
                 });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void whenCursorIsCreatedFromStoragePositionThenItIsSameAsParsedOne() {
+        final Timeline timeline = TestUtils.buildTimelineWithTopic("tmp");
+        final NakadiCursor fromStorage = NakadiCursor.of(timeline, 1, 23L);
+        final NakadiCursor parsed = NakadiCursor.of(timeline, "1", "000000000000000023");
+
+        assertThat(fromStorage, equalTo(parsed));
+        assertThat(fromStorage.hashCode(), equalTo(parsed.hashCode()));
+        assertThat(fromStorage.getPartition(), equalTo("1"));
+        assertThat(fromStorage.getOffset(), equalTo("000000000000000023"));
+        assertThat(fromStorage.shiftWithinTimeline(-24).isInitial(), equalTo(true));
+    }
+
+    @Test
+    public void whenCompareOffsetsThenTheyAreComparedAsNumbers() {
+        final Timeline timeline = TestUtils.buildTimelineWithTopic("tmp");
+
+        assertThat(NakadiCursor.of(timeline, "0", "9").compareOffset(NakadiCursor.of(timeline, 0, 10L)) < 0,
+                equalTo(true));
+        assertThat(NakadiCursor.of(timeline, 0, -1L).compareOffset(NakadiCursor.of(timeline, "0", "0")) < 0,
+                equalTo(true));
+        assertThat(NakadiCursor.of(timeline, 0, 10L).compareOffset(NakadiCursor.of(timeline, 0, 10L)),
+                equalTo(0));
+    }
+
+    @Test
+    public void whenCursorIsParsedFromNonCanonicalPartitionThenItIsNormalised() {
+        final Timeline timeline = TestUtils.buildTimelineWithTopic("tmp");
+        final NakadiCursor nonCanonical = NakadiCursor.of(timeline, "01", "23");
+        final NakadiCursor canonical = NakadiCursor.of(timeline, "1", "000000000000000023");
+
+        assertThat(nonCanonical, equalTo(canonical));
+        assertThat(nonCanonical.hashCode(), equalTo(canonical.hashCode()));
+        assertThat(nonCanonical.getPartition(), equalTo("1"));
+        assertThat(nonCanonical.getOffset(), equalTo("23"));
+        assertThat(nonCanonical.getEventTypePartition(), equalTo(canonical.getEventTypePartition()));
+        assertThat(nonCanonical.getTopicPartition(), equalTo(canonical.getTopicPartition()));
+        assertThat(NakadiCursor.of(timeline, "-1", "0").getPartition(), equalTo("-1"));
+        assertThat(NakadiCursor.of(timeline, "abc", "0").getPartition(), equalTo("abc"));
+    }
+
+    @Test
+    public void whenLatestPositionIsGivenThenCursorIsCheckedAgainstIt() {
+        final Timeline timeline = TestUtils.buildTimelineWithTopic("tmp");
+        final Timeline.KafkaStoragePosition latestPosition =
+                new Timeline.KafkaStoragePosition(Arrays.asList(5L, 10L));
+
+        assertThat(NakadiCursor.of(timeline, 1, 10L).isLast(latestPosition), equalTo(true));
+        assertThat(NakadiCursor.of(timeline, 0, 10L).isLast(latestPosition), equalTo(false));
+        assertThat(NakadiCursor.of(timeline, 1, 10L).isLast(null), equalTo(false));
+    }
+}
@@ -0,0 +1,36 @@
+package org.zalando.nakadi.domain;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+import org.zalando.nakadi.utils.RandomSubscriptionBuilder;
+import org.zalando.nakadi.utils.TestUtils;
+
+public class SubscriptionListingKeyTest {
+
+    @Test
+    public void whenCreatedFromSubscriptionThenCreatedAtIsFormattedAsInDatabase() throws Exception {
+        final Subscription subscription = RandomSubscriptionBuilder.builder()
+                .withCreatedAt(new DateTime(2019, 5, 4, 3, 2, 1, 123, DateTimeZone.forOffsetHours(2)))
+                .build();
+        final String storedCreatedAt = TestUtils.OBJECT_MAPPER.readTree(
+                TestUtils.OBJECT_MAPPER.writeValueAsString(subscription)).get("created_at").asText();
+
+        final SubscriptionListingKey key = SubscriptionListingKey.of(subscription);
+
+        Assert.assertEquals(storedCreatedAt, key.getCreatedAt());
+        Assert.assertEquals(subscription.getId(), key.getId());
+    }
+
+    @Test
+    public void whenConvertedToTokenAndBackThenSameKey() {
+        final SubscriptionListingKey key = new SubscriptionListingKey("2019-05-04T01:02:01.123Z", "some|id");
+        Assert.assertEquals(key, SubscriptionListingKey.fromToken(key.toToken()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenTokenIsMalformedThenIllegalArgument() {
+        SubscriptionListingKey.fromToken("bm8tc2VwYXJhdG9y");
+    }
+}
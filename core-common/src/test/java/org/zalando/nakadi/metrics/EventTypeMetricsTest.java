@@ -0,0 +1,119 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.nakadi.metrics.MetricUtils.metricNameFor;
+
+public class EventTypeMetricsTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final EventTypeMetricRegistry eventTypeMetricRegistry =
+            new EventTypeMetricRegistry(metricRegistry, TimeUnit.MINUTES.toMillis(10));
+
+    @Test
+    public void whenValueRecordedThenItFallsIntoBucketWithBoundedError() {
+        for (long value = 0; value < 1_000_000; value += 997) {
+            final int index = IntervalRecorder.bucketIndex(value);
+            final long lowerBound = IntervalRecorder.bucketLowerBound(index);
+            final long width = IntervalRecorder.bucketWidth(index);
+            Assert.assertTrue(lowerBound <= value && value < lowerBound + width);
+            Assert.assertTrue(width == 1 || width * 8 <= lowerBound);
+        }
+        Assert.assertEquals(IntervalRecorder.bucketIndex(1L << 60), IntervalRecorder.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void whenTickThenSnapshotContainsOnlyValuesOfInterval() {
+        final IntervalRecorder recorder = new IntervalRecorder(0);
+        for (int i = 1; i <= 100; ++i) {
+            recorder.record(i);
+        }
+        recorder.tick(MINUTE_NANOS, MINUTE_NANOS);
+
+        final IntervalRecorder.Snapshot snapshot = recorder.getSnapshot();
+        Assert.assertEquals(100, snapshot.getCount());
+        Assert.assertEquals(1, snapshot.getMin());
+        Assert.assertEquals(103, snapshot.getMax());
+        Assert.assertEquals(50.5, snapshot.getMean(), 0.001);
+        Assert.assertEquals(50, snapshot.getQuantile(0), 4);
+        Assert.assertEquals(99, snapshot.getQuantile(4), 4);
+
+        recorder.record(7);
+        recorder.tick(MINUTE_NANOS, 2 * MINUTE_NANOS);
+        Assert.assertEquals(1, recorder.getSnapshot().getCount());
+        Assert.assertEquals(7, recorder.getSnapshot().getMax());
+        Assert.assertEquals(101, recorder.getCounter().getCount());
+    }
+
+    @Test
+    public void whenPublishedThenValuesAreExportedAsGauges() {
+        final EventTypeMetrics metrics = eventTypeMetricRegistry.metricsFor("et.name");
+        metrics.reportSizing(10, 1000);
+        metrics.reportSizing(20, 4000);
+        metrics.incrementResponseCount(200);
+        metrics.updateTiming(0, TimeUnit.MILLISECONDS.toNanos(500));
+        eventTypeMetricRegistry.tick(System.nanoTime() + MINUTE_NANOS);
+
+        Assert.assertEquals(30L, gaugeValue("et.name", "publishing.events.count"));
+        Assert.assertEquals(0.5, (double) gaugeValue("et.name", "publishing.events.m1_rate"), 0.1);
+        Assert.assertEquals(20.0, (double) gaugeValue("et.name", "publishing.eventsPerBatch.max"), 3);
+        Assert.assertEquals(150.0, (double) gaugeValue("et.name", "publishing.averageEventSizeInBytes.mean"), 0.1);
+        Assert.assertEquals(1L, gaugeValue("et.name", "publishing.200.count"));
+        Assert.assertEquals(0.5, (double) gaugeValue("et.name", "publishing.p99"), 0.05);
+        Assert.assertEquals(1L, metrics.getResponseCount(200));
+    }
+
+    @Test
+    public void whenDroppedMetricsAreStillUsedThenTheyDoNotAffectNewOnes() {
+        final long start = System.nanoTime();
+        final EventTypeMetrics stale = eventTypeMetricRegistry.metricsFor("et");
+        eventTypeMetricRegistry.tick(start + 11 * MINUTE_NANOS);
+
+        final EventTypeMetrics live = eventTypeMetricRegistry.metricsFor("et");
+        Assert.assertNotSame(stale, live);
+        live.incrementResponseCount(200);
+        stale.incrementResponseCount(200);
+        stale.incrementResponseCount(500);
+        eventTypeMetricRegistry.tick(start + 12 * MINUTE_NANOS);
+
+        Assert.assertEquals(1L, gaugeValue("et", "publishing.200.count"));
+        Assert.assertFalse(metricRegistry.getGauges().containsKey(metricNameFor("et", "publishing.500.count")));
+    }
+
+    @Test
+    public void whenEventTypeIsIdleThenItsMetricsAreDropped() {
+        final long start = System.nanoTime();
+        eventTypeMetricRegistry.metricsFor("active").reportSizing(1, 1);
+        eventTypeMetricRegistry.metricsFor("idle").reportSizing(1, 1);
+        eventTypeMetricRegistry.tick(start + MINUTE_NANOS);
+
+        for (int minute = 2; minute <= 12; ++minute) {
+            eventTypeMetricRegistry.metricsFor("active").reportSizing(1, 1);
+            eventTypeMetricRegistry.tick(start + minute * MINUTE_NANOS);
+        }
+
+        Assert.assertNotNull(metricRegistry.getGauges().get(gaugeName("active", "publishing.events.count")));
+        Assert.assertNull(metricRegistry.getGauges().get(gaugeName("idle", "publishing.events.count")));
+        Assert.assertTrue(metricRegistry.getGauges((name, metric) -> name.contains("idle")).isEmpty());
+
+        eventTypeMetricRegistry.metricsFor("idle").reportSizing(1, 1);
+        Assert.assertEquals(1L, gaugeValue("idle", "publishing.events.count"));
+    }
+
+    private Object gaugeValue(final String eventType, final String name) {
+        final Gauge gauge = metricRegistry.getGauges().get(gaugeName(eventType, name));
+        Assert.assertNotNull(name, gauge);
+        return gauge.getValue();
+    }
+
+    private static String gaugeName(final String eventType, final String name) {
+        return metricNameFor(eventType, name);
+    }
+}
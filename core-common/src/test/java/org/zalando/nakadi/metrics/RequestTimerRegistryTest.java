@@ -0,0 +1,64 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RequestTimerRegistryTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MetricRegistry perPathMetricRegistry = new MetricRegistry();
+    private final RequestTimerRegistry requestTimerRegistry = new RequestTimerRegistry(
+            perPathMetricRegistry, 2, "stups_important-app, other-app", TimeUnit.MINUTES.toMillis(10));
+
+    @Test
+    public void whenClientIsNotConfiguredThenItSharesTimerWithOtherClients() {
+        requestTimerRegistry.record("app1", "GET", "/event-types", 1000);
+        requestTimerRegistry.record("app2", "GET", "/event-types", 1000);
+        requestTimerRegistry.record("stups_important-app", "GET", "/event-types", 1000);
+
+        Assert.assertEquals(2L, gaugeValue("all.GET./event-types.count"));
+        Assert.assertEquals(1L, gaugeValue("stups_important-app.GET./event-types.count"));
+        Assert.assertTrue(perPathMetricRegistry.getGauges((name, metric) -> name.startsWith("app")).isEmpty());
+    }
+
+    @Test
+    public void whenLimitOfTimersReachedThenRequestsAreTimedInOverflowTimer() {
+        requestTimerRegistry.record("app", "GET", "/event-types", 1000);
+        requestTimerRegistry.record("app", "POST", "/event-types", 1000);
+        requestTimerRegistry.record("app", "DELETE", "/event-types/{name}", 1000);
+        requestTimerRegistry.record("app", "PUT", "/event-types/{name}", 1000);
+
+        Assert.assertEquals(2L, gaugeValue("all.other.count"));
+        Assert.assertNull(perPathMetricRegistry.getGauges().get("all.PUT./event-types/{name}.count"));
+    }
+
+    @Test
+    public void whenTimerIsIdleThenItIsDroppedAndMakesRoomForNewOne() {
+        final long start = System.nanoTime();
+        requestTimerRegistry.record("app", "GET", "/event-types", TimeUnit.MILLISECONDS.toNanos(20));
+        requestTimerRegistry.record("app", "POST", "/event-types", 1000);
+        requestTimerRegistry.tick(start + MINUTE_NANOS);
+        Assert.assertEquals(0.02, (double) gaugeValue("all.GET./event-types.p50"), 0.002);
+
+        for (int minute = 2; minute <= 12; ++minute) {
+            requestTimerRegistry.record("app", "POST", "/event-types", 1000);
+            requestTimerRegistry.tick(start + minute * MINUTE_NANOS);
+        }
+        Assert.assertNull(perPathMetricRegistry.getGauges().get("all.GET./event-types.count"));
+
+        requestTimerRegistry.record("app", "PUT", "/event-types/{name}", 1000);
+        Assert.assertEquals(1L, gaugeValue("all.PUT./event-types/{name}.count"));
+        Assert.assertEquals(0L, gaugeValue("all.other.count"));
+    }
+
+    private Object gaugeValue(final String name) {
+        final Gauge gauge = perPathMetricRegistry.getGauges().get(name);
+        Assert.assertNotNull(name, gauge);
+        return gauge.getValue();
+    }
+}
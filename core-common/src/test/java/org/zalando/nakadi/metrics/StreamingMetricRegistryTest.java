@@ -0,0 +1,61 @@
+package org.zalando.nakadi.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.nakadi.metrics.MetricUtils.metricNameForSubscription;
+
+public class StreamingMetricRegistryTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final StreamingMetricRegistry streamingMetricRegistry =
+            new StreamingMetricRegistry(metricRegistry, TimeUnit.MINUTES.toMillis(10));
+
+    @Test
+    public void whenStreamsRecordTimingsThenTheyAreAggregatedPerSubscription() {
+        final StreamingTimings first = streamingMetricRegistry.startStream("s1");
+        final StreamingTimings second = streamingMetricRegistry.startStream("s1");
+        first.recordMillis(StreamingTimings.Stage.WRITE, 10);
+        second.recordMillis(StreamingTimings.Stage.WRITE, 20);
+        streamingMetricRegistry.tick(System.nanoTime() + MINUTE_NANOS);
+
+        Assert.assertEquals(2L, gaugeValue("s1", "streaming.write.count"));
+        Assert.assertEquals(0.02, (double) gaugeValue("s1", "streaming.write.max"), 0.002);
+
+        final Map<String, Double> summary = first.close();
+        Assert.assertEquals(10.0, summary.get("write.max_ms"), 1.0);
+        Assert.assertFalse(summary.containsKey("kafka_poll.max_ms"));
+    }
+
+    @Test
+    public void whenSubscriptionIsIdleThenMetricsAreDroppedOnlyAfterStreamsAreClosed() {
+        final long start = System.nanoTime();
+        final StreamingTimings timings = streamingMetricRegistry.startStream("s1");
+        timings.recordMillis(StreamingTimings.Stage.KAFKA_POLL, 1);
+        streamingMetricRegistry.tick(start + MINUTE_NANOS);
+
+        streamingMetricRegistry.tick(start + 20 * MINUTE_NANOS);
+        Assert.assertNotNull(metricRegistry.getGauges().get(gaugeName("s1", "streaming.kafka_poll.count")));
+
+        timings.close();
+        streamingMetricRegistry.tick(start + 21 * MINUTE_NANOS);
+        Assert.assertTrue(metricRegistry.getGauges().isEmpty());
+    }
+
+    private Object gaugeValue(final String subscriptionId, final String name) {
+        final Gauge gauge = metricRegistry.getGauges().get(gaugeName(subscriptionId, name));
+        Assert.assertNotNull(name, gauge);
+        return gauge.getValue();
+    }
+
+    private static String gaugeName(final String subscriptionId, final String name) {
+        return metricNameForSubscription(subscriptionId, name);
+    }
+}
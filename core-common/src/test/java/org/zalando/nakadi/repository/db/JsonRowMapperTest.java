@@ -0,0 +1,52 @@
+package org.zalando.nakadi.repository.db;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.Subscription;
+import org.zalando.nakadi.utils.RandomSubscriptionBuilder;
+import org.zalando.nakadi.utils.TestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+
+public class JsonRowMapperTest {
+
+    @Test
+    public void whenMapRowThenObjectIsParsedFromColumnBytes() throws Exception {
+        final EventType eventType = TestUtils.buildDefaultEventType();
+        final ResultSet rs = mockColumn("et_event_type_object",
+                TestUtils.OBJECT_MAPPER.writeValueAsString(eventType));
+
+        final EventType mapped = new JsonRowMapper<>(TestUtils.OBJECT_MAPPER, EventType.class, "et_event_type_object")
+                .mapRow(rs, 0);
+
+        Assert.assertEquals(
+                TestUtils.OBJECT_MAPPER.readTree(TestUtils.OBJECT_MAPPER.writeValueAsString(eventType)),
+                TestUtils.OBJECT_MAPPER.readTree(TestUtils.OBJECT_MAPPER.writeValueAsString(mapped)));
+    }
+
+    @Test
+    public void whenMapRowThenResultIsTheSameAsWithObjectMapper() throws Exception {
+        final Subscription subscription = RandomSubscriptionBuilder.builder().build();
+        final String json = TestUtils.OBJECT_MAPPER.writeValueAsString(subscription);
+
+        final Subscription mapped = new JsonRowMapper<>(TestUtils.OBJECT_MAPPER, Subscription.class, "column")
+                .mapRow(mockColumn("column", json), 0);
+
+        Assert.assertEquals(TestUtils.OBJECT_MAPPER.readValue(json, Subscription.class), mapped);
+    }
+
+    @Test
+    public void whenColumnIsNullThenNull() throws Exception {
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Assert.assertNull(new JsonRowMapper<>(TestUtils.OBJECT_MAPPER, Subscription.class, "column").mapRow(rs, 0));
+    }
+
+    private static ResultSet mockColumn(final String column, final String value) throws Exception {
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getBytes(column)).thenReturn(value.getBytes(StandardCharsets.UTF_8));
+        return rs;
+    }
+}
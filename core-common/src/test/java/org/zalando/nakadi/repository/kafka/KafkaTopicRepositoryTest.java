@@ -29,6 +29,7 @@ import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.domain.TopicPartition;
 import org.zalando.nakadi.exceptions.runtime.EventPublishingException;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
+import org.zalando.nakadi.metrics.PublishingTimings;
 import org.zalando.nakadi.repository.zookeeper.ZookeeperSettings;
 import org.zalando.nakadi.view.Cursor;
 
@@ -50,6 +51,7 @@ import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -150,7 +152,7 @@ public class KafkaTopicRepositoryTest {
                 new PartitionInfo(myTopic, 1, new Node(1, "host", 9091), null, null)));
 
         try {
-            kafkaTopicRepository.syncPostBatch(myTopic, batch, "random", false);
+            kafkaTopicRepository.syncPostBatch(myTopic, batch, "random", false, new PublishingTimings());
             fail();
         } catch (final EventPublishingException e) {
             final ProducerRecord<String, String> recordSent = captureProducerRecordSent();
@@ -281,12 +283,16 @@ public class KafkaTopicRepositoryTest {
                 .when(kafkaProducer)
                 .send(any(), any());
 
+        final PublishingTimings timings = new PublishingTimings();
         try {
-            kafkaTopicRepository.syncPostBatch(EXPECTED_PRODUCER_RECORD.topic(), batch, "random", false);
+            kafkaTopicRepository.syncPostBatch(EXPECTED_PRODUCER_RECORD.topic(), batch, "random", false, timings);
             fail();
         } catch (final EventPublishingException e) {
             assertThat(item.getResponse().getPublishingStatus(), equalTo(EventPublishingStatus.FAILED));
             assertThat(item.getResponse().getDetail(), equalTo("timed out"));
+            assertThat(timings.isCompleted(PublishingTimings.Stage.KAFKA_SEND), is(true));
+            assertThat(timings.getDurationNanos(PublishingTimings.Stage.KAFKA_ACK),
+                    greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
         }
     }
 
@@ -309,7 +315,8 @@ public class KafkaTopicRepositoryTest {
                 .send(any(), any());
 
         try {
-            kafkaTopicRepository.syncPostBatch(EXPECTED_PRODUCER_RECORD.topic(), batch, "random", false);
+            kafkaTopicRepository.syncPostBatch(
+                    EXPECTED_PRODUCER_RECORD.topic(), batch, "random", false, new PublishingTimings());
             fail();
         } catch (final EventPublishingException e) {
             assertThat(item.getResponse().getPublishingStatus(), equalTo(EventPublishingStatus.FAILED));
@@ -346,7 +353,8 @@ public class KafkaTopicRepositoryTest {
         });
 
         try {
-            kafkaTopicRepository.syncPostBatch(EXPECTED_PRODUCER_RECORD.topic(), batch, "random", false);
+            kafkaTopicRepository.syncPostBatch(
+                    EXPECTED_PRODUCER_RECORD.topic(), batch, "random", false, new PublishingTimings());
             fail();
         } catch (final EventPublishingException e) {
             assertThat(firstItem.getResponse().getPublishingStatus(), equalTo(EventPublishingStatus.SUBMITTED));
@@ -404,7 +412,7 @@ public class KafkaTopicRepositoryTest {
                 batches.add(batchItem);
                 TimeUnit.MILLISECONDS.sleep(5);
                 kafkaTopicRepository.syncPostBatch(EXPECTED_PRODUCER_RECORD.topic(),
-                        ImmutableList.of(batchItem), "random", false);
+                        ImmutableList.of(batchItem), "random", false, new PublishingTimings());
             } catch (final EventPublishingException | InterruptedException ex) {
             }
         }
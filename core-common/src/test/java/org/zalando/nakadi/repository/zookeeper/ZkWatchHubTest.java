@@ -0,0 +1,132 @@
+package org.zalando.nakadi.repository.zookeeper;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.GetChildrenBuilder;
+import org.apache.curator.framework.api.GetDataBuilder;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+
+public class ZkWatchHubTest {
+
+    private static final String PATH = "/nakadi/subscriptions/s1/offsets/et/0";
+
+    private final CuratorFramework curator = Mockito.mock(CuratorFramework.class);
+    private final GetDataBuilder getDataBuilder = Mockito.mock(GetDataBuilder.class);
+    private final GetChildrenBuilder getChildrenBuilder = Mockito.mock(GetChildrenBuilder.class);
+    private final ZkWatchHub watchHub = new ZkWatchHub(curator);
+
+    @Before
+    public void before() throws Exception {
+        Mockito.when(curator.getData()).thenReturn(getDataBuilder);
+        Mockito.when(curator.getChildren()).thenReturn(getChildrenBuilder);
+        Mockito.when(getDataBuilder.forPath(PATH)).thenReturn(bytes("001"), bytes("002"));
+    }
+
+    @Test
+    public void whenSeveralSubscriptionsThenOneWatchAndOneReadIsShared() throws Exception {
+        final AtomicInteger notifications = new AtomicInteger();
+        final ZkSubscription<String> first = watchHub.subscribeForData(
+                PATH, String::new, notifications::incrementAndGet);
+        final ZkSubscription<String> second = watchHub.subscribeForData(
+                PATH, String::new, notifications::incrementAndGet);
+
+        Assert.assertEquals("001", first.getData());
+        Assert.assertEquals("001", second.getData());
+        final ArgumentCaptor<Watcher> watcher = ArgumentCaptor.forClass(Watcher.class);
+        Mockito.verify(getDataBuilder, Mockito.times(1)).usingWatcher(watcher.capture());
+        Mockito.verify(getDataBuilder, Mockito.times(1)).forPath(PATH);
+
+        watcher.getValue().process(Mockito.mock(WatchedEvent.class));
+
+        Assert.assertEquals(2, notifications.get());
+        Assert.assertEquals("002", first.getData());
+        Assert.assertEquals("002", second.getData());
+        Mockito.verify(getDataBuilder, Mockito.times(2)).usingWatcher(any(Watcher.class));
+        Mockito.verify(getDataBuilder, Mockito.times(2)).forPath(PATH);
+    }
+
+    @Test
+    public void whenSubscriptionClosedThenItIsNotNotified() throws Exception {
+        final AtomicInteger closedNotifications = new AtomicInteger();
+        final AtomicInteger activeNotifications = new AtomicInteger();
+        final ZkSubscription<String> closed = watchHub.subscribeForData(
+                PATH, String::new, closedNotifications::incrementAndGet);
+        watchHub.subscribeForData(PATH, String::new, activeNotifications::incrementAndGet);
+        closed.close();
+
+        final ArgumentCaptor<Watcher> watcher = ArgumentCaptor.forClass(Watcher.class);
+        Mockito.verify(getDataBuilder).usingWatcher(watcher.capture());
+        watcher.getValue().process(Mockito.mock(WatchedEvent.class));
+
+        Assert.assertEquals(0, closedNotifications.get());
+        Assert.assertEquals(1, activeNotifications.get());
+    }
+
+    @Test
+    public void whenAllSubscriptionsClosedThenNextSubscriptionReadsAgain() throws Exception {
+        watchHub.subscribeForData(PATH, String::new, () -> {
+        }).close();
+
+        Assert.assertEquals("002", watchHub.subscribeForData(PATH, String::new, () -> {
+        }).getData());
+        Mockito.verify(getDataBuilder, Mockito.times(2)).forPath(PATH);
+    }
+
+    @Test
+    public void whenSubscribedForChildrenThenDataAndChildrenAreWatchedSeparately() throws Exception {
+        final List<String> sessions = ImmutableList.of("session1", "session2");
+        Mockito.when(getChildrenBuilder.forPath(PATH)).thenReturn(sessions);
+
+        final ZkSubscription<List<String>> children = watchHub.subscribeForChildren(PATH, () -> {
+        });
+        final ZkSubscription<String> data = watchHub.subscribeForData(PATH, String::new, () -> {
+        });
+
+        Assert.assertEquals(sessions, children.getData());
+        Assert.assertEquals("001", data.getData());
+    }
+
+    @Test(timeout = 10_000)
+    public void whenNotifiedDuringReadThenNotificationIsNotBlockedAndReadIsNotShared() throws Exception {
+        final ZkSubscription<String> subscription = watchHub.subscribeForData(PATH, String::new, () -> {
+        });
+        final ArgumentCaptor<Watcher> watcher = ArgumentCaptor.forClass(Watcher.class);
+        Mockito.verify(getDataBuilder).usingWatcher(watcher.capture());
+        watcher.getValue().process(Mockito.mock(WatchedEvent.class));
+
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch notified = new CountDownLatch(1);
+        Mockito.when(getDataBuilder.forPath(PATH)).thenAnswer(invocation -> {
+            readStarted.countDown();
+            notified.await();
+            return bytes("002");
+        }).thenReturn(bytes("003"));
+        final Thread reader = new Thread(subscription::getData);
+        reader.start();
+        readStarted.await();
+
+        // zookeeper event thread is not blocked by the read in progress
+        watcher.getValue().process(Mockito.mock(WatchedEvent.class));
+        notified.countDown();
+        reader.join();
+
+        Assert.assertEquals("003", subscription.getData());
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
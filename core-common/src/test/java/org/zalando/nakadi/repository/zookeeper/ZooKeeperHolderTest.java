@@ -0,0 +1,55 @@
+package org.zalando.nakadi.repository.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zalando.nakadi.config.NakadiSettings;
+import org.zalando.nakadi.domain.storage.ZookeeperConnection;
+
+public class ZooKeeperHolderTest {
+
+    private final ZooKeeperHolder zooKeeperHolder;
+
+    public ZooKeeperHolderTest() throws Exception {
+        final NakadiSettings nakadiSettings = Mockito.mock(NakadiSettings.class);
+        Mockito.when(nakadiSettings.getMaxCommitTimeout()).thenReturn(60L);
+        // curator connects in background, so nothing has to listen on this port
+        zooKeeperHolder = new ZooKeeperHolder(
+                ZookeeperConnection.valueOf("zookeeper://localhost:1"), 30000, 1000, nakadiSettings);
+    }
+
+    @After
+    public void after() {
+        zooKeeperHolder.get().close();
+    }
+
+    @Test
+    public void whenSameSessionTimeoutThenCuratorIsSharedUntilLastClose() throws Exception {
+        final ZooKeeperHolder.CloseableCuratorFramework first = zooKeeperHolder.getSubscriptionCurator(10000);
+        final ZooKeeperHolder.CloseableCuratorFramework second = zooKeeperHolder.getSubscriptionCurator(9500);
+        final CuratorFramework curator = first.getCuratorFramework();
+        Assert.assertSame(curator, second.getCuratorFramework());
+        Assert.assertNotSame(curator, zooKeeperHolder.getSubscriptionCurator(20000).getCuratorFramework());
+
+        first.close();
+        first.close();
+        Assert.assertEquals(CuratorFrameworkState.STARTED, curator.getState());
+
+        second.close();
+        Assert.assertEquals(CuratorFrameworkState.STOPPED, curator.getState());
+        Assert.assertNotSame(curator, zooKeeperHolder.getSubscriptionCurator(10000).getCuratorFramework());
+    }
+
+    @Test
+    public void whenMaxSessionTimeoutThenStaticCuratorIsNeverClosed() throws Exception {
+        final ZooKeeperHolder.CloseableCuratorFramework closeable = zooKeeperHolder.getSubscriptionCurator(60000);
+        Assert.assertSame(closeable.getCuratorFramework(),
+                zooKeeperHolder.getSubscriptionCurator(60000).getCuratorFramework());
+
+        closeable.close();
+        Assert.assertEquals(CuratorFrameworkState.STARTED, closeable.getCuratorFramework().getState());
+    }
+}
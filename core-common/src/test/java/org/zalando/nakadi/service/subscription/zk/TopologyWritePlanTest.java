@@ -0,0 +1,142 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.zalando.nakadi.service.subscription.model.Partition;
+import org.zalando.nakadi.utils.TestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.zalando.nakadi.service.subscription.zk.TopologyWritePlan.OperationType.CREATE;
+import static org.zalando.nakadi.service.subscription.zk.TopologyWritePlan.OperationType.DELETE;
+import static org.zalando.nakadi.service.subscription.zk.TopologyWritePlan.OperationType.SET_DATA;
+
+public class TopologyWritePlanTest {
+
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    @Test
+    public void whenShardsDoNotFitIntoOneTransactionThenTheyAreWrittenInSeveral() throws Exception {
+        final ZkSubscriptionClient.Topology topology = createTopology(100, null);
+        final int shardBytes = TestUtils.OBJECT_MAPPER.writeValueAsBytes(
+                TopologyWritePlan.createShard(topology, 0, 10, 1)).length;
+        final int maxTransactionBytes = 3 * (shardBytes + 100);
+
+        final TopologyWritePlan plan = TopologyWritePlan.create(
+                singleNode(topology), topology, 10, null, TestUtils.OBJECT_MAPPER, maxTransactionBytes);
+
+        final List<List<TopologyWritePlan.Operation>> transactions = plan.getTransactions();
+        Assert.assertTrue(transactions.size() > 2);
+        for (final List<TopologyWritePlan.Operation> transaction : transactions) {
+            final int size = transaction.stream()
+                    .mapToInt(op -> 64 + op.getPath().length() + op.getData().length)
+                    .sum();
+            Assert.assertTrue("Transaction is too big: " + size, size <= maxTransactionBytes);
+        }
+        final List<String> created = operations(plan).stream()
+                .filter(op -> op.getType() == CREATE)
+                .map(TopologyWritePlan.Operation::getPath)
+                .collect(Collectors.toList());
+        Assert.assertEquals("/topology_shards", created.get(0));
+        Assert.assertEquals(
+                IntStream.range(0, 10).mapToObj(shard -> "/topology_shards/" + shard + "-1")
+                        .collect(Collectors.toList()),
+                created.subList(1, created.size()));
+    }
+
+    @Test
+    public void whenTopologyIsUpdatedThenRootIsWrittenAfterShardsAndReplacedShardsDeletedAfterRoot()
+            throws Exception {
+        final ZkSubscriptionClient.Topology current = createTopology(6, null);
+        final ZkSubscriptionClient.Topology updated = current.withUpdatedPartitions("hash", new Partition[]{
+                new Partition("et", "3", "session", null, Partition.State.ASSIGNED)});
+        final NewZkSubscriptionClient.StoredTopology stored =
+                new NewZkSubscriptionClient.StoredTopology(current, new int[]{1, 3, 2}, 2, 3);
+
+        final TopologyWritePlan plan = TopologyWritePlan.create(stored, updated, 2,
+                Arrays.asList("0-1", "1-3", "2-2"), TestUtils.OBJECT_MAPPER, NO_LIMIT);
+
+        Assert.assertEquals(
+                Arrays.asList("CREATE /topology_shards/1-4", "SET_DATA /topology", "DELETE /topology_shards/1-3"),
+                operations(plan).stream().map(Object::toString).collect(Collectors.toList()));
+        Assert.assertEquals(3, plan.getTransactions().size());
+
+        final JsonNode root = TestUtils.OBJECT_MAPPER.readTree(operations(plan).get(1).getData());
+        Assert.assertEquals(4, root.get("generation").asInt());
+        Assert.assertEquals("[1,4,2]", root.get("shards").toString());
+        Assert.assertFalse(root.hasNonNull("partitions"));
+    }
+
+    @Test
+    public void whenShardsAreLeftByInterruptedWriteThenTheyAreDeletedBeforeWriting() throws Exception {
+        final ZkSubscriptionClient.Topology current = createTopology(4, null);
+        final ZkSubscriptionClient.Topology updated = current.withUpdatedPartitions("hash", new Partition[]{
+                new Partition("et", "0", "session", null, Partition.State.ASSIGNED)});
+        final NewZkSubscriptionClient.StoredTopology stored =
+                new NewZkSubscriptionClient.StoredTopology(current, new int[]{1, 1}, 2, 1);
+
+        final TopologyWritePlan plan = TopologyWritePlan.create(stored, updated, 2,
+                Arrays.asList("0-1", "1-1", "0-2", "5-2"), TestUtils.OBJECT_MAPPER, NO_LIMIT);
+
+        Assert.assertEquals(
+                Arrays.asList("DELETE /topology_shards/0-2", "DELETE /topology_shards/5-2",
+                        "CREATE /topology_shards/0-2", "SET_DATA /topology", "DELETE /topology_shards/0-1"),
+                operations(plan).stream().map(Object::toString).collect(Collectors.toList()));
+        Assert.assertEquals(
+                Arrays.asList(DELETE, DELETE),
+                plan.getTransactions().get(0).stream()
+                        .map(TopologyWritePlan.Operation::getType)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void whenShardingIsSwitchedOffThenShardsAreDeletedAfterRoot() throws Exception {
+        final ZkSubscriptionClient.Topology current = createTopology(4, null);
+        final NewZkSubscriptionClient.StoredTopology stored =
+                new NewZkSubscriptionClient.StoredTopology(current, new int[]{1, 2}, 2, 2);
+
+        final TopologyWritePlan plan = TopologyWritePlan.create(stored, current, 0,
+                Arrays.asList("0-1", "1-2"), TestUtils.OBJECT_MAPPER, NO_LIMIT);
+
+        final List<TopologyWritePlan.Operation> operations = operations(plan);
+        Assert.assertEquals(
+                Arrays.asList("SET_DATA /topology", "DELETE /topology_shards/0-1", "DELETE /topology_shards/1-2"),
+                operations.stream().map(Object::toString).collect(Collectors.toList()));
+        Assert.assertEquals(current, TestUtils.OBJECT_MAPPER.readValue(
+                operations.get(0).getData(), ZkSubscriptionClient.Topology.class));
+    }
+
+    @Test
+    public void whenSingleNodeLayoutIsUsedThenOnlyRootIsWritten() throws Exception {
+        final ZkSubscriptionClient.Topology topology = createTopology(3, "session");
+
+        final TopologyWritePlan plan = TopologyWritePlan.create(
+                singleNode(topology), topology, 0, Collections.emptyList(), TestUtils.OBJECT_MAPPER, NO_LIMIT);
+
+        Assert.assertEquals(1, plan.getTransactions().size());
+        Assert.assertEquals(SET_DATA, operations(plan).get(0).getType());
+    }
+
+    private static NewZkSubscriptionClient.StoredTopology singleNode(final ZkSubscriptionClient.Topology topology) {
+        return new NewZkSubscriptionClient.StoredTopology(topology, null, 0, 0);
+    }
+
+    private static ZkSubscriptionClient.Topology createTopology(final int partitions, final String session) {
+        return new ZkSubscriptionClient.Topology(
+                IntStream.range(0, partitions)
+                        .mapToObj(p -> new Partition("et", String.valueOf(p), session, null,
+                                null == session ? Partition.State.UNASSIGNED : Partition.State.ASSIGNED))
+                        .toArray(Partition[]::new),
+                "",
+                0);
+    }
+
+    private static List<TopologyWritePlan.Operation> operations(final TopologyWritePlan plan) {
+        return plan.getTransactions().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
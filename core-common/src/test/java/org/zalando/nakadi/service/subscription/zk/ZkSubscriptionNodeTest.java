@@ -60,4 +60,21 @@ public class ZkSubscriptionNodeTest {
         assertThat(zkSubscriptionNode.getPartitionAssignmentType("et2", "0"), equalTo(AUTO));
         assertThat(zkSubscriptionNode.getPartitionAssignmentType("et2", "1"), equalTo(null));
     }
+
+    @Test
+    public void whenSessionIsNotActiveOrDiffersInCaseThenOk() {
+        final ZkSubscriptionNode node = new ZkSubscriptionNode(
+                ImmutableList.of(
+                        new Partition("et1", "0", "STREAM1", null, Partition.State.ASSIGNED),
+                        new Partition("et1", "1", "dead", null, Partition.State.ASSIGNED)),
+                ImmutableList.of(new Session("stream1", 1)));
+
+        assertThat(node.guessStream("et1", "0"), equalTo("STREAM1"));
+        assertThat(node.guessState("et1", "0"), equalTo(Partition.State.ASSIGNED));
+        assertThat(node.getPartitionAssignmentType("et1", "0"), equalTo(AUTO));
+        assertThat(node.guessStream("et1", "1"), equalTo(null));
+        assertThat(node.guessState("et1", "1"), equalTo(Partition.State.UNASSIGNED));
+        assertThat(node.getPartitionAssignmentType("et1", "1"), equalTo(null));
+        assertThat(node.guessState("et2", "0"), equalTo(Partition.State.UNASSIGNED));
+    }
 }
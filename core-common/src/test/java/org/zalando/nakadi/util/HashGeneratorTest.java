@@ -1,10 +1,12 @@
 package org.zalando.nakadi.util;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
 import org.junit.Test;
 import org.zalando.nakadi.domain.SubscriptionBase;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
@@ -26,6 +28,15 @@ public class HashGeneratorTest {
                 equalTo("a2749954511a4ff3423fe4cefd76b011"));
     }
 
+    @Test
+    public void whenGenerateHashFromKeyFieldsThenItIsMd5OfConcatenatedFields() {
+        // backfill of s_key_fields_hash in database relies on this
+        assertThat(
+                hashGenerator.generateSubscriptionKeyFieldsHash(
+                        "my-app", newHashSet("et2", "et1"), "my-consumer-group"),
+                equalTo(Hashing.md5().hashString("my-appmy-consumer-groupet1et2", UTF_8).toString()));
+    }
+
     @Test
     public void whenGenerateHashForEqualSubscriptionsThenHashIsEqual() {
         final SubscriptionBase s1 = createSubscription("my-app", "abc", "et1", "et2");
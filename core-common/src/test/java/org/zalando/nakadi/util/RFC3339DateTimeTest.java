@@ -0,0 +1,184 @@
+package org.zalando.nakadi.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class RFC3339DateTimeTest {
+
+    private static final Pattern LEGACY_OFFSET_PATTERN =
+            Pattern.compile("^.*[Tt]\\d{2}:\\d{2}:\\d{2}.*([zZ]|([+-]\\d{2}:\\d{2}))$");
+
+    private static final String[] VALID = new String[]{
+            "1996-10-15T16:39:57+07:00",
+            "1996-10-15T16:39:57-07:00",
+            "1996-10-15T16:39:57.123+07:00",
+            "1996-10-15T16:39:57.1234Z",
+            "1996-10-15t16:39:57Z",
+            "1996-10-15T16:39:57z",
+            "1996-10-15T16:39:57.1Z",
+            "1996-10-15T16:39:57.12Z",
+            "1996-10-15T16:39:57.123456789Z",
+            "1996-10-15T16:39:57.000000001-00:00",
+            "0000-01-01T00:00:00Z",
+            "9999-12-31T23:59:59.999999999Z",
+            "1969-12-31T23:59:59.999Z",
+            "2000-02-29T12:00:00Z",
+            "2016-02-29T12:00:00Z",
+            "1996-10-15T16:39:57+18:00",
+            "1996-10-15T16:39:57-18:00",
+            "1996-10-15T16:39:57+05:45",
+            "1996-10-15T00:00:00+00:00",
+    };
+
+    private static final String[] INVALID = new String[]{
+            "",
+            "x",
+            "1996-10-15T16:39:57+07:00:30",
+            "1996-10-15T16:39:57+0700",
+            "1996-10-15T16:39:57 07:00",
+            "1996-10-15T16:39:57.1234567890Z",
+            "1996-10-15T16:39:57.Z",
+            "1996-10-45T16:39:57Z",
+            "1996-13-15T16:39:57Z",
+            "1996-00-15T16:39:57Z",
+            "1996-10-00T16:39:57Z",
+            "1900-02-29T12:00:00Z",
+            "2015-02-29T12:00:00Z",
+            "1996-04-31T12:00:00Z",
+            "1996-10-15 16:39:57Z",
+            "1996-10-15T16:39:57",
+            "1996-10-15T16:39Z",
+            "1996-10-15T24:00:00Z",
+            "1996-10-15T16:60:00Z",
+            "1996-10-15T16:39:57+19:00",
+            "1996-10-15T16:39:57+18:01",
+            "1996-10-15T16:39:57+07:60",
+            "1996-10-15T16:39:57ZZ",
+            "1996-10-15T16:39:57Z ",
+            " 1996-10-15T16:39:57Z",
+            "96-10-15T16:39:57Z",
+            "+1996-10-15T16:39:57Z",
+            "1996-1-15T16:39:57Z",
+            "1996-10-15T16:39:5Z",
+            "1996/10/15T16:39:57Z",
+            "1996-10-15T16-39-57Z",
+    };
+
+    @Test
+    public void whenValidDateTimeThenAccepted() {
+        for (final String value : VALID) {
+            assertTrue(value, RFC3339DateTime.isValid(value));
+        }
+    }
+
+    @Test
+    public void whenInvalidDateTimeThenRejected() {
+        for (final String value : INVALID) {
+            assertFalse(value, RFC3339DateTime.isValid(value));
+        }
+        assertFalse(RFC3339DateTime.isValid(null));
+    }
+
+    @Test
+    public void whenLeapSecondThenRejected() {
+        assertFalse(RFC3339DateTime.isValid("1990-12-31T23:59:60Z"));
+        assertFalse(RFC3339DateTime.isValid("1990-12-31T15:59:60-08:00"));
+        assertFalse(RFC3339DateTime.isValid("1990-12-31T23:59:60.5Z"));
+    }
+
+    @Test
+    public void whenParseThenSameAsJavaTime() {
+        for (final String value : VALID) {
+            final long expected = OffsetDateTime.parse(value.toUpperCase(), ISO_OFFSET_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            assertThat(value, RFC3339DateTime.parseEpochMilli(value), equalTo(expected));
+        }
+    }
+
+    @Test
+    public void whenParseRandomDateTimesThenSameAsJavaTime() {
+        final Random random = new Random(0);
+        for (int i = 0; i < 10_000; ++i) {
+            final String value = randomDateTime(random);
+            assertThat(value, RFC3339DateTime.parseEpochMilli(value),
+                    equalTo(OffsetDateTime.parse(value, ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenParseInvalidThenException() {
+        RFC3339DateTime.parseEpochMilli("1996-10-45T16:39:57Z");
+    }
+
+    @Test
+    public void whenFormatThenSameAsJodaTime() {
+        final Random random = new Random(0);
+        for (int i = 0; i < 10_000; ++i) {
+            final long millis = (long) (random.nextDouble() * 253_402_300_800_000L);
+            assertThat(RFC3339DateTime.formatEpochMilli(millis),
+                    equalTo(new DateTime(millis, DateTimeZone.UTC).toString()));
+        }
+        assertThat(RFC3339DateTime.formatEpochMilli(0), equalTo("1970-01-01T00:00:00.000Z"));
+        assertThat(RFC3339DateTime.formatEpochMilli(951_782_400_000L), equalTo("2000-02-29T00:00:00.000Z"));
+        assertThat(RFC3339DateTime.formatEpochMilli(-1), equalTo("1969-12-31T23:59:59.999Z"));
+    }
+
+    @Test
+    public void whenFormatSameMillisecondThenCachedValueReturned() {
+        final long now = System.currentTimeMillis();
+        final String first = RFC3339DateTime.formatEpochMilli(now);
+        assertTrue(first == RFC3339DateTime.formatEpochMilli(now));
+        assertThat(RFC3339DateTime.parseEpochMilli(first), equalTo(now));
+    }
+
+    @Test
+    public void whenValidateRandomDateTimesThenSameAsJavaTimeAndRegex() {
+        final Random random = new Random(0);
+        for (int i = 0; i < 10_000; ++i) {
+            final String value = randomDateTime(random);
+            assertThat(value, RFC3339DateTime.isValid(value), equalTo(isValidLegacy(value)));
+        }
+    }
+
+    private static boolean isValidLegacy(final String value) {
+        try {
+            OffsetDateTime.parse(value, ISO_OFFSET_DATE_TIME);
+            return LEGACY_OFFSET_PATTERN.matcher(value).matches();
+        } catch (final DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String randomDateTime(final Random random) {
+        final StringBuilder sb = new StringBuilder(String.format("%04d-%02d-%02dT%02d:%02d:%02d",
+                random.nextInt(10_000), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+        final int fractionDigits = random.nextInt(10);
+        if (fractionDigits > 0) {
+            sb.append('.');
+            for (int i = 0; i < fractionDigits; ++i) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        if (random.nextBoolean()) {
+            sb.append('Z');
+        } else {
+            final int offsetHours = random.nextInt(18);
+            sb.append(random.nextBoolean() ? '+' : '-')
+                    .append(String.format("%02d:%02d", offsetHours, random.nextInt(60)));
+        }
+        return sb.toString();
+    }
+}
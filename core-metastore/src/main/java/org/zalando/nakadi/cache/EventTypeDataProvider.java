@@ -1,15 +1,20 @@
 package org.zalando.nakadi.cache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.repository.db.EventTypeDbRepository;
 import org.zalando.nakadi.util.JsonUtils;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Component
@@ -17,17 +22,41 @@ public class EventTypeDataProvider implements CacheDataProvider<EventTypeDataPro
 
     private final ObjectMapper objectMapper;
     private final EventTypeDbRepository eventTypeDbRepository;
+    private final long fullReconciliationIntervalMs;
+    private final LongSupplier currentTimeMillis;
+    // Position of changes in database, that cache is synchronized with. It is taken before the first event type is
+    // loaded, so synchronization only looks through the changes made since that position. Rarely all the cached event
+    // types are compared with database, as a safety net. Calls to getFullChangeList are serialized, the only
+    // concurrent write is the initialization in load.
+    private volatile Long changesPosition;
+    private long lastFullReconciliationMillis;
 
     @Autowired
     public EventTypeDataProvider(
             final ObjectMapper objectMapper,
-            final EventTypeDbRepository eventTypeDbRepository) {
+            final EventTypeDbRepository eventTypeDbRepository,
+            @Value("${nakadi.cache.eventTypes.fullReconciliationIntervalMs:3600000}")
+            final long fullReconciliationIntervalMs) {
+        this(objectMapper, eventTypeDbRepository, fullReconciliationIntervalMs, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    EventTypeDataProvider(
+            final ObjectMapper objectMapper,
+            final EventTypeDbRepository eventTypeDbRepository,
+            final long fullReconciliationIntervalMs,
+            final LongSupplier currentTimeMillis) {
         this.objectMapper = objectMapper;
         this.eventTypeDbRepository = eventTypeDbRepository;
+        this.fullReconciliationIntervalMs = fullReconciliationIntervalMs;
+        this.currentTimeMillis = currentTimeMillis;
     }
 
     @Override
     public VersionedEventType load(final String key) {
+        if (null == changesPosition) {
+            initChangesPosition();
+        }
         return eventTypeDbRepository.findByNameO(key).map(this::convert).orElse(null);
     }
 
@@ -36,7 +65,27 @@ public class EventTypeDataProvider implements CacheDataProvider<EventTypeDataPro
         final Map<String, String> currentValues = snapshot.stream()
                 .collect(Collectors.toMap(VersionedEventType::getKey, VersionedEventType::getVersion));
 
-        final List<EventTypeDbRepository.EtChange> changeset = eventTypeDbRepository.getChangeset(currentValues);
+        if (null == changesPosition) {
+            // Nothing was loaded before the position was taken, so there is nothing to synchronize yet
+            initChangesPosition();
+            return new CacheChange(Collections.emptyList(), Collections.emptyList());
+        }
+        final long currentMillis = currentTimeMillis.getAsLong();
+        final long newChangesPosition = eventTypeDbRepository.getChangesPosition();
+        final List<EventTypeDbRepository.EtChange> changeset;
+        if (currentMillis - lastFullReconciliationMillis >= fullReconciliationIntervalMs) {
+            changeset = eventTypeDbRepository.getChangeset(currentValues);
+            lastFullReconciliationMillis = currentMillis;
+        } else {
+            // Changes are not filtered by the snapshot, as the event type could be loaded after it was taken.
+            // Invalidation of event types that are not cached is harmless.
+            changeset = eventTypeDbRepository.getChangesSince(changesPosition).stream()
+                    .filter(change -> change.isDeleted()
+                            || !Objects.equals(currentValues.get(change.getName()), change.getUpdatedAt()))
+                    .collect(Collectors.toList());
+        }
+        changesPosition = newChangesPosition;
+
         return new CacheChange(
                 changeset.stream()
                         .filter(v -> !v.isDeleted())
@@ -49,6 +98,13 @@ public class EventTypeDataProvider implements CacheDataProvider<EventTypeDataPro
         );
     }
 
+    private synchronized void initChangesPosition() {
+        if (null == changesPosition) {
+            lastFullReconciliationMillis = currentTimeMillis.getAsLong();
+            changesPosition = eventTypeDbRepository.getChangesPosition();
+        }
+    }
+
     private VersionedEventType convert(final EventType et) {
         return new VersionedEventType(
                 et,
@@ -9,7 +9,6 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.annotations.DB;
 import org.zalando.nakadi.domain.EventType;
@@ -19,9 +18,7 @@ import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.repository.EventTypeRepository;
 
-import java.io.IOException;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -32,9 +29,12 @@ import java.util.stream.Collectors;
 @Component
 public class EventTypeDbRepository extends AbstractDbRepository implements EventTypeRepository {
 
+    private final JsonRowMapper<EventType> eventTypeMapper;
+
     @Autowired
     public EventTypeDbRepository(final JdbcTemplate jdbcTemplate, final ObjectMapper jsonMapper) {
         super(jdbcTemplate, jsonMapper);
+        this.eventTypeMapper = new JsonRowMapper<>(jsonMapper, EventType.class, "et_event_type_object");
     }
 
     @Override
@@ -61,7 +61,7 @@ public class EventTypeDbRepository extends AbstractDbRepository implements Event
         final String sql = "SELECT et_event_type_object FROM zn_data.event_type WHERE et_name = ?";
 
         try {
-            return jdbcTemplate.queryForObject(sql, new Object[]{name}, new EventTypeMapper());
+            return jdbcTemplate.queryForObject(sql, new Object[]{name}, eventTypeMapper);
         } catch (EmptyResultDataAccessException e) {
             throw new NoSuchEventTypeException("EventType \"" + name + "\" does not exist.");
         }
@@ -96,10 +96,17 @@ public class EventTypeDbRepository extends AbstractDbRepository implements Event
     public static class EtChange {
         private final String name;
         private final boolean deleted;
+        @Nullable
+        private final String updatedAt;
+
+        public EtChange(final String name, final boolean deleted) {
+            this(name, deleted, null);
+        }
 
-        EtChange(final String name, final boolean deleted) {
+        public EtChange(final String name, final boolean deleted, @Nullable final String updatedAt) {
             this.name = name;
             this.deleted = deleted;
+            this.updatedAt = updatedAt;
         }
 
         public String getName() {
@@ -110,6 +117,15 @@ public class EventTypeDbRepository extends AbstractDbRepository implements Event
             return deleted;
         }
 
+        /**
+         * @return updated_at of changed event type as it is stored in database, null for deleted event types and for
+         * changes returned by {@link #getChangeset(Map)}.
+         */
+        @Nullable
+        public String getUpdatedAt() {
+            return updatedAt;
+        }
+
         @Override
         public boolean equals(final Object o) {
             if (this == o) {
@@ -119,12 +135,13 @@ public class EventTypeDbRepository extends AbstractDbRepository implements Event
                 return false;
             }
             final EtChange etChange = (EtChange) o;
-            return deleted == etChange.deleted && Objects.equals(name, etChange.name);
+            return deleted == etChange.deleted && Objects.equals(name, etChange.name)
+                    && Objects.equals(updatedAt, etChange.updatedAt);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(name, deleted);
+            return Objects.hash(name, deleted, updatedAt);
         }
 
         @Override
@@ -132,10 +149,50 @@ public class EventTypeDbRepository extends AbstractDbRepository implements Event
             return "EtChange{" +
                     "name='" + name + '\'' +
                     ", deleted=" + deleted +
+                    ", updatedAt='" + updatedAt + '\'' +
                     '}';
         }
     }
 
+    /**
+     * Returns the position that can be used later to get changes made after this call with
+     * {@link #getChangesSince(long)}. Every change (including deletion) of event type is marked with id of
+     * transaction that made it (see event_type_track_change trigger). Transaction ids are not committed in order,
+     * therefore the position is the oldest transaction id that is still in progress: changes that are not visible yet
+     * are going to be returned by the next call.
+     */
+    public long getChangesPosition() {
+        return jdbcTemplate.queryForObject("SELECT txid_snapshot_xmin(txid_current_snapshot())", Long.class);
+    }
+
+    /**
+     * Returns event types that were changed or deleted starting from the position, obtained with
+     * {@link #getChangesPosition()}. Changes may be returned several times, if they were made by transactions that
+     * were running at the moment position was taken.
+     */
+    public List<EtChange> getChangesSince(final long position) {
+        return jdbcTemplate.query(
+                "SELECT et_name, FALSE, et_event_type_object ->> 'updated_at' FROM zn_data.event_type" +
+                        " WHERE et_change_txid >= ?" +
+                        " UNION ALL " +
+                        "SELECT etd_name, TRUE, NULL FROM zn_data.event_type_deletion WHERE etd_change_txid >= ?",
+                new Object[]{position, position},
+                (rs, rowNum) -> new EtChange(rs.getString(1), rs.getBoolean(2), rs.getString(3)));
+    }
+
+    /**
+     * Removes records of deletions that are older than retention. Caches that synchronize with a position older than
+     * that will not find out about these deletions incrementally, so the retention must be longer than the interval
+     * of full reconciliation of caches.
+     *
+     * @return number of removed records
+     */
+    public int deleteDeletionRecordsOlderThan(final long retentionMs) {
+        return jdbcTemplate.update(
+                "DELETE FROM zn_data.event_type_deletion WHERE etd_deleted_at < now() - ? * interval '1 millisecond'",
+                retentionMs);
+    }
+
     public List<EtChange> getChangeset(final Map<String, String> listToGet) {
         if (listToGet.isEmpty()) {
             return Collections.emptyList();
@@ -156,22 +213,11 @@ public class EventTypeDbRepository extends AbstractDbRepository implements Event
         return jdbcTemplate.query(query, (rs, rowNum) -> new EtChange(rs.getString(1), rs.getBoolean(2)));
     }
 
-    private class EventTypeMapper implements RowMapper<EventType> {
-        @Override
-        public EventType mapRow(final ResultSet rs, final int rowNum) throws SQLException {
-            try {
-                return jsonMapper.readValue(rs.getString("et_event_type_object"), EventType.class);
-            } catch (IOException e) {
-                throw new SQLException(e);
-            }
-        }
-    }
-
     @Override
     public List<EventType> list() {
         return jdbcTemplate.query(
                 "SELECT et_event_type_object FROM zn_data.event_type",
-                new EventTypeMapper());
+                eventTypeMapper);
     }
 
     @Override
@@ -4,22 +4,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.domain.EventTypeSchema;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSchemaException;
 
-import java.io.IOException;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import javax.annotation.Nullable;
 import java.util.List;
 
 @Component
 public class SchemaRepository extends AbstractDbRepository {
 
+    private final JsonRowMapper<EventTypeSchema> schemaMapper;
+
     @Autowired
     public SchemaRepository(final JdbcTemplate jdbcTemplate, final ObjectMapper objectMapper) {
         super(jdbcTemplate, objectMapper);
+        this.schemaMapper = new JsonRowMapper<>(objectMapper, EventTypeSchema.class, "ets_schema_object");
     }
 
     public List<EventTypeSchema> getSchemas(final String name, final int offset, final int limit) {
@@ -27,7 +27,45 @@ public class SchemaRepository extends AbstractDbRepository {
                 "SELECT ets_schema_object FROM zn_data.event_type_schema " +
                        "WHERE ets_event_type_name = ? ORDER BY ets_schema_object->>'created_at' DESC LIMIT ? OFFSET ? ",
                 new Object[]{name, limit, offset},
-                new SchemaRowMapper());
+                schemaMapper);
+    }
+
+    /**
+     * Lists schemas of event type (newest first) that go after schema with version {@code afterVersion}. Position of
+     * the page is located by index instead of skipping rows, so the cost of a page does not depend on its depth.
+     *
+     * @throws NoSuchSchemaException if there is no schema with version {@code afterVersion}
+     */
+    public List<EventTypeSchema> getSchemasAfter(final String name, @Nullable final String afterVersion,
+                                                 final int limit) throws NoSuchSchemaException {
+        if (null == afterVersion) {
+            return jdbcTemplate.query(
+                    "SELECT ets_schema_object FROM zn_data.event_type_schema WHERE ets_event_type_name = ? " +
+                            "ORDER BY ets_schema_object->>'created_at' DESC, ets_schema_object->>'version' DESC " +
+                            "LIMIT ?",
+                    new Object[]{name, limit},
+                    schemaMapper);
+        }
+        final List<EventTypeSchema> schemas = jdbcTemplate.query(
+                "SELECT ets_schema_object FROM zn_data.event_type_schema WHERE ets_event_type_name = ? " +
+                        "AND (ets_schema_object->>'created_at', ets_schema_object->>'version') < (" +
+                        "  SELECT ets_schema_object->>'created_at', ets_schema_object->>'version' " +
+                        "  FROM zn_data.event_type_schema " +
+                        "  WHERE ets_event_type_name = ? AND ets_schema_object->>'version' = ?) " +
+                        "ORDER BY ets_schema_object->>'created_at' DESC, ets_schema_object->>'version' DESC " +
+                        "LIMIT ?",
+                new Object[]{name, name, afterVersion, limit},
+                schemaMapper);
+        // Non empty page proves that the version exists, so it is only checked for the last (empty) page
+        if (schemas.isEmpty() && !jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM zn_data.event_type_schema " +
+                        "WHERE ets_event_type_name = ? AND ets_schema_object->>'version' = ?)",
+                new Object[]{name, afterVersion},
+                Boolean.class)) {
+            throw new NoSuchSchemaException("EventType \"" + name
+                    + "\" has no schema with version \"" + afterVersion + "\"");
+        }
+        return schemas;
     }
 
     public EventTypeSchema getSchemaVersion(final String name, final String version)
@@ -36,7 +74,7 @@ public class SchemaRepository extends AbstractDbRepository {
                 "WHERE ets_event_type_name = ? AND ets_schema_object ->> 'version' = ?";
 
         try {
-            return jdbcTemplate.queryForObject(sql, new Object[]{name, version}, new SchemaRowMapper());
+            return jdbcTemplate.queryForObject(sql, new Object[]{name, version}, schemaMapper);
         } catch (EmptyResultDataAccessException e) {
             throw new NoSuchSchemaException("EventType \"" + name
                     + "\" has no schema with version \"" + version + "\"", e);
@@ -49,15 +87,4 @@ public class SchemaRepository extends AbstractDbRepository {
                 new Object[]{name},
                 Integer.class);
     }
-
-    private final class SchemaRowMapper implements RowMapper<EventTypeSchema> {
-        @Override
-        public EventTypeSchema mapRow(final ResultSet rs, final int rowNum) throws SQLException {
-            try {
-                return jsonMapper.readValue(rs.getString("ets_schema_object"), EventTypeSchema.class);
-            } catch (IOException e) {
-                throw new SQLException(e);
-            }
-        }
-    }
 }
@@ -14,10 +14,10 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.domain.SubscriptionBase;
+import org.zalando.nakadi.domain.SubscriptionListingKey;
 import org.zalando.nakadi.exceptions.runtime.DuplicatedSubscriptionException;
 import org.zalando.nakadi.exceptions.runtime.InconsistentStateException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchSubscriptionException;
@@ -26,9 +26,7 @@ import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableExcept
 import org.zalando.nakadi.util.HashGenerator;
 import org.zalando.nakadi.util.UUIDGenerator;
 
-import java.io.IOException;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -43,7 +41,7 @@ public class SubscriptionDbRepository extends AbstractDbRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(SubscriptionDbRepository.class);
 
-    private final SubscriptionMapper rowMapper = new SubscriptionMapper();
+    private final JsonRowMapper<Subscription> rowMapper;
     private final UUIDGenerator uuidGenerator;
     private final HashGenerator hashGenerator;
 
@@ -51,6 +49,7 @@ public class SubscriptionDbRepository extends AbstractDbRepository {
     public SubscriptionDbRepository(final JdbcTemplate jdbcTemplate, final ObjectMapper jsonMapper,
                                     final UUIDGenerator uuidGenerator, final HashGenerator hashGenerator) {
         super(jdbcTemplate, jsonMapper);
+        this.rowMapper = new JsonRowMapper<>(jsonMapper, Subscription.class, "s_subscription_object");
         this.uuidGenerator = uuidGenerator;
         this.hashGenerator = hashGenerator;
     }
@@ -125,10 +124,41 @@ public class SubscriptionDbRepository extends AbstractDbRepository {
                                                 final int offset, final int limit)
             throws ServiceTemporarilyUnavailableException {
 
-        final StringBuilder queryBuilder = new StringBuilder("SELECT s_subscription_object FROM zn_data.subscription ");
         final List<String> clauses = Lists.newArrayList();
         final List<Object> params = Lists.newArrayList();
+        addListingFilters(eventTypes, owningApplication, clauses, params);
 
+        params.add(limit);
+        params.add(offset);
+        return querySubscriptionsList(clauses, " LIMIT ? OFFSET ? ", params);
+    }
+
+    /**
+     * Lists subscriptions that go after the provided key in the listing order. In contrast to offset based listing
+     * the cost of the query does not depend on how deep the page is, as it is served by the index on
+     * (created_at, id).
+     *
+     * @param after key of the last subscription of the previous page, or null to list from the beginning
+     */
+    public List<Subscription> listSubscriptions(final Set<String> eventTypes, final Optional<String> owningApplication,
+                                                @Nullable final SubscriptionListingKey after, final int limit)
+            throws ServiceTemporarilyUnavailableException {
+
+        final List<String> clauses = Lists.newArrayList();
+        final List<Object> params = Lists.newArrayList();
+        addListingFilters(eventTypes, owningApplication, clauses, params);
+        if (null != after) {
+            clauses.add(" (s_subscription_object->>'created_at', s_id) < (?, ?) ");
+            params.add(after.getCreatedAt());
+            params.add(after.getId());
+        }
+
+        params.add(limit);
+        return querySubscriptionsList(clauses, " LIMIT ? ", params);
+    }
+
+    private static void addListingFilters(final Set<String> eventTypes, final Optional<String> owningApplication,
+                                          final List<String> clauses, final List<Object> params) {
         owningApplication.ifPresent(owningApp -> {
             clauses.add(" s_subscription_object->>'owning_application' = ? ");
             params.add(owningApp);
@@ -142,14 +172,19 @@ public class SubscriptionDbRepository extends AbstractDbRepository {
                     .map(et -> format("\"{0}\"", et))
                     .forEach(params::add);
         }
+    }
+
+    private List<Subscription> querySubscriptionsList(final List<String> clauses, final String limitClause,
+                                                      final List<Object> params)
+            throws ServiceTemporarilyUnavailableException {
+        final StringBuilder queryBuilder = new StringBuilder("SELECT s_subscription_object FROM zn_data.subscription ");
         if (!clauses.isEmpty()) {
             queryBuilder.append(" WHERE ");
             queryBuilder.append(StringUtils.join(clauses, " AND "));
         }
 
-        queryBuilder.append(" ORDER BY s_subscription_object->>'created_at' DESC LIMIT ? OFFSET ? ");
-        params.add(limit);
-        params.add(offset);
+        queryBuilder.append(" ORDER BY s_subscription_object->>'created_at' DESC, s_id DESC ");
+        queryBuilder.append(limitClause);
         try {
             return jdbcTemplate.query(queryBuilder.toString(), params.toArray(), rowMapper);
         } catch (final DataAccessException e) {
@@ -162,13 +197,19 @@ public class SubscriptionDbRepository extends AbstractDbRepository {
                                         final String consumerGroup)
             throws InconsistentStateException, NoSuchSubscriptionException, RepositoryProblemException {
 
+        // lookup goes through the unique index on key fields hash, the rest of conditions only protect from hash
+        // collisions and are checked for the single row found
         final String sql = "SELECT s_subscription_object FROM zn_data.subscription " +
-                "WHERE s_subscription_object->>'owning_application' = ? " +
+                "WHERE s_key_fields_hash = ? " +
+                "AND s_subscription_object->>'owning_application' = ? " +
                 "AND replace(s_subscription_object->>'event_types', ' ', '') = ? " +
                 "AND s_subscription_object->>'consumer_group' = ? ";
         try {
+            final String keyFieldsHash =
+                    hashGenerator.generateSubscriptionKeyFieldsHash(owningApplication, eventTypes, consumerGroup);
             final String eventTypesJson = jsonMapper.writer().writeValueAsString(newTreeSet(eventTypes));
-            return jdbcTemplate.queryForObject(sql, new Object[]{owningApplication, eventTypesJson, consumerGroup},
+            return jdbcTemplate.queryForObject(sql,
+                    new Object[]{keyFieldsHash, owningApplication, eventTypesJson, consumerGroup},
                     rowMapper);
         } catch (final JsonProcessingException e) {
             throw new InconsistentStateException("Deserialization problem during reading subscription from DB", e);
@@ -179,15 +220,4 @@ public class SubscriptionDbRepository extends AbstractDbRepository {
         }
     }
 
-    private class SubscriptionMapper implements RowMapper<Subscription> {
-        @Override
-        public Subscription mapRow(final ResultSet rs, final int rowNum) throws SQLException {
-            try {
-                return jsonMapper.readValue(rs.getString("s_subscription_object"), Subscription.class);
-            } catch (final IOException e) {
-                throw new SQLException(e);
-            }
-        }
-    }
-
 }
@@ -0,0 +1,131 @@
+package org.zalando.nakadi.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.zalando.nakadi.config.JsonConfig;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.repository.db.EventTypeDbRepository;
+import org.zalando.nakadi.util.JsonUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
+
+public class EventTypeDataProviderTest {
+
+    private static final DateTime UPDATED_AT = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+    private static final long FULL_RECONCILIATION_INTERVAL_MS = 1000L;
+
+    private final ObjectMapper objectMapper = new JsonConfig().jacksonObjectMapper();
+    private final EventTypeDbRepository repository = Mockito.mock(EventTypeDbRepository.class);
+    private final AtomicLong currentMillis = new AtomicLong(0);
+    private final EventTypeDataProvider dataProvider = new EventTypeDataProvider(
+            objectMapper, repository, FULL_RECONCILIATION_INTERVAL_MS, currentMillis::get);
+    private List<EventTypeDataProvider.VersionedEventType> snapshot;
+
+    @Before
+    public void before() {
+        Mockito.when(repository.getChangesPosition()).thenReturn(10L, 15L, 20L);
+        snapshot = ImmutableList.of(load("et1"), load("et2"), load("et3"));
+    }
+
+    @Test
+    public void whenEventTypesAreLoadedThenPositionIsTakenOnceBeforeFirstLoad() {
+        final InOrder inOrder = Mockito.inOrder(repository);
+        inOrder.verify(repository).getChangesPosition();
+        inOrder.verify(repository).findByNameO("et1");
+        Mockito.verify(repository, Mockito.times(1)).getChangesPosition();
+    }
+
+    @Test
+    public void whenRefreshThenOnlyChangesSincePreviousPositionAreRequested() {
+        final String cachedVersion = JsonUtils.serializeDateTime(objectMapper, UPDATED_AT);
+        Mockito.when(repository.getChangesSince(10L)).thenReturn(ImmutableList.of(
+                new EventTypeDbRepository.EtChange("et1", false, cachedVersion),
+                new EventTypeDbRepository.EtChange("et2", false, "2020-02-02T00:00:00.000Z"),
+                new EventTypeDbRepository.EtChange("et3", true, null),
+                new EventTypeDbRepository.EtChange("not_cached", false, "2020-02-02T00:00:00.000Z"),
+                new EventTypeDbRepository.EtChange("not_cached_deleted", true, null)));
+
+        final CacheChange change = dataProvider.getFullChangeList(snapshot);
+
+        // changes of event types that are not in the snapshot may belong to the ones that were loaded after it
+        Assert.assertEquals(ImmutableList.of("et2", "not_cached"), change.getModifiedKeys());
+        Assert.assertEquals(ImmutableList.of("et3", "not_cached_deleted"), change.getDeletedKeys());
+
+        dataProvider.getFullChangeList(snapshot);
+        Mockito.verify(repository).getChangesSince(15L);
+        Mockito.verify(repository, Mockito.never()).getChangeset(anyMapOf(String.class, String.class));
+    }
+
+    @Test
+    public void whenNothingWasLoadedThenFirstRefreshOnlyTakesPosition() {
+        final EventTypeDbRepository emptyRepository = Mockito.mock(EventTypeDbRepository.class);
+        Mockito.when(emptyRepository.getChangesPosition()).thenReturn(10L, 15L);
+        final EventTypeDataProvider provider = new EventTypeDataProvider(
+                objectMapper, emptyRepository, FULL_RECONCILIATION_INTERVAL_MS, currentMillis::get);
+
+        final CacheChange change = provider.getFullChangeList(Collections.emptyList());
+
+        Assert.assertEquals(Collections.emptyList(), change.getModifiedKeys());
+        Assert.assertEquals(Collections.emptyList(), change.getDeletedKeys());
+        Mockito.verify(emptyRepository, Mockito.never()).getChangesSince(anyLong());
+        Mockito.verify(emptyRepository, Mockito.never()).getChangeset(anyMapOf(String.class, String.class));
+
+        provider.getFullChangeList(Collections.emptyList());
+        Mockito.verify(emptyRepository).getChangesSince(10L);
+    }
+
+    @Test
+    public void whenRefreshFailsThenPositionIsNotMoved() {
+        Mockito.when(repository.getChangesSince(10L))
+                .thenThrow(new RuntimeException("db is not available"))
+                .thenReturn(Collections.emptyList());
+
+        try {
+            dataProvider.getFullChangeList(snapshot);
+            Assert.fail("Exception is expected");
+        } catch (final RuntimeException ignore) {
+        }
+        dataProvider.getFullChangeList(snapshot);
+
+        Mockito.verify(repository, Mockito.times(2)).getChangesSince(10L);
+    }
+
+    @Test
+    public void whenFullReconciliationIntervalElapsedThenAllCachedEventTypesAreCompared() {
+        Mockito.when(repository.getChangesSince(anyLong())).thenReturn(Collections.emptyList());
+        Mockito.when(repository.getChangeset(anyMapOf(String.class, String.class))).thenReturn(
+                ImmutableList.of(new EventTypeDbRepository.EtChange("et1", false)));
+
+        currentMillis.set(FULL_RECONCILIATION_INTERVAL_MS - 1);
+        dataProvider.getFullChangeList(snapshot);
+        Mockito.verify(repository, Mockito.never()).getChangeset(anyMapOf(String.class, String.class));
+
+        currentMillis.set(FULL_RECONCILIATION_INTERVAL_MS);
+        final CacheChange change = dataProvider.getFullChangeList(snapshot);
+
+        Assert.assertEquals(ImmutableList.of("et1"), change.getModifiedKeys());
+        Mockito.verify(repository, Mockito.times(1)).getChangesSince(10L);
+        Mockito.verify(repository, Mockito.times(1)).getChangeset(anyMapOf(String.class, String.class));
+    }
+
+    private EventTypeDataProvider.VersionedEventType load(final String name) {
+        final EventType eventType = new EventType();
+        eventType.setName(name);
+        eventType.setUpdatedAt(UPDATED_AT);
+        Mockito.when(repository.findByNameO(name)).thenReturn(Optional.of(eventType));
+        return dataProvider.load(name);
+    }
+}
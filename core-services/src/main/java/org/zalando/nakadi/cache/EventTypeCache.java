@@ -1,8 +1,13 @@
 package org.zalando.nakadi.cache;
 
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.zalando.nakadi.domain.CleanupPolicy;
+import org.zalando.nakadi.domain.CompatibilityMode;
+import org.zalando.nakadi.domain.EventCategory;
 import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.EventTypeSchema;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.repository.db.TimelineDbRepository;
@@ -16,6 +21,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +39,9 @@ public class EventTypeCache {
     private final TimelineSync timelineSync;
     private final ZookeeperNodeInvalidator nodeInvalidator;
     private final Map<String, TimelineSync.ListenerRegistration> timelineRegistrations = new ConcurrentHashMap<>();
+    // Compiling validator is the most expensive part of event type reload, while most of the reloads are caused by
+    // changes that are not affecting validation (timelines, authorization, options, ...)
+    private final Map<String, CompiledValidator> validators = new ConcurrentHashMap<>();
 
     @Autowired
     public EventTypeCache(
@@ -75,11 +84,19 @@ public class EventTypeCache {
 
         return new CachedValue(
                 versionedEventType.getEventType(),
-                EventValidation.forType(versionedEventType.getEventType()),
+                getOrCompileValidator(versionedEventType.getEventType()),
                 timelines
         );
     }
 
+    private EventTypeValidator getOrCompileValidator(final EventType eventType) {
+        final ValidatorKey key = new ValidatorKey(eventType);
+        return validators.compute(eventType.getName(), (name, existing) ->
+                null != existing && existing.key.equals(key) ?
+                        existing : new CompiledValidator(key, EventValidation.forType(eventType))
+        ).validator;
+    }
+
     public void updated(final String name) {
         cache.invalidate(name);
         created(name);
@@ -93,6 +110,7 @@ public class EventTypeCache {
 
     public void removed(final String name) {
         cache.invalidate(name);
+        validators.remove(name);
         Optional.ofNullable(timelineRegistrations.remove(name))
                 .ifPresent(TimelineSync.ListenerRegistration::cancel);
         nodeInvalidator.notifyUpdate();
@@ -107,7 +125,11 @@ public class EventTypeCache {
     }
 
     public List<Timeline> getTimelinesOrdered(final String name) throws NoSuchEventTypeException {
-        return getCached(name).getTimelines();
+        return getCached(name).getTimelineIndex().getTimelines();
+    }
+
+    public TimelineIndex getTimelineIndex(final String name) throws NoSuchEventTypeException {
+        return getCached(name).getTimelineIndex();
     }
 
     private CachedValue getCached(final String name) {
@@ -126,14 +148,14 @@ public class EventTypeCache {
         private final EventType eventType;
         private final EventTypeValidator eventTypeValidator;
         @Nonnull
-        private final List<Timeline> timelines;
+        private final TimelineIndex timelineIndex;
 
         CachedValue(final EventType eventType,
                     final EventTypeValidator eventTypeValidator,
                     final List<Timeline> timelines) {
             this.eventType = eventType;
             this.eventTypeValidator = eventTypeValidator;
-            this.timelines = timelines;
+            this.timelineIndex = TimelineIndex.of(timelines);
         }
 
         public EventType getEventType() {
@@ -144,8 +166,60 @@ public class EventTypeCache {
             return eventTypeValidator;
         }
 
-        public List<Timeline> getTimelines() {
-            return timelines;
+        public TimelineIndex getTimelineIndex() {
+            return timelineIndex;
+        }
+    }
+
+    private static class CompiledValidator {
+        private final ValidatorKey key;
+        private final EventTypeValidator validator;
+
+        private CompiledValidator(final ValidatorKey key, final EventTypeValidator validator) {
+            this.key = key;
+            this.validator = validator;
+        }
+    }
+
+    /**
+     * Everything that is used to build effective schema and set of validation strategies of event type.
+     */
+    private static class ValidatorKey {
+        private final String schemaVersion;
+        private final DateTime schemaCreatedAt;
+        private final EventCategory category;
+        private final CompatibilityMode compatibilityMode;
+        private final CleanupPolicy cleanupPolicy;
+
+        private ValidatorKey(final EventType eventType) {
+            final EventTypeSchema schema = eventType.getSchema();
+            this.schemaVersion = schema.getVersion().toString();
+            // the same version may appear again if event type is deleted and created again
+            this.schemaCreatedAt = schema.getCreatedAt();
+            this.category = eventType.getCategory();
+            this.compatibilityMode = eventType.getCompatibilityMode();
+            this.cleanupPolicy = eventType.getCleanupPolicy();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ValidatorKey that = (ValidatorKey) o;
+            return Objects.equals(schemaVersion, that.schemaVersion)
+                    && Objects.equals(schemaCreatedAt, that.schemaCreatedAt)
+                    && category == that.category
+                    && compatibilityMode == that.compatibilityMode
+                    && cleanupPolicy == that.cleanupPolicy;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(schemaVersion, schemaCreatedAt, category, compatibilityMode, cleanupPolicy);
         }
     }
 }
@@ -0,0 +1,89 @@
+package org.zalando.nakadi.cache;
+
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.Timeline;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable lookup structure over the ordered timelines of one event type. It is built once per cached version of
+ * the event type, so that cursor conversion and comparison do not have to scan the timelines on every call.
+ */
+public class TimelineIndex {
+
+    private static final int NO_POSITION = -1;
+
+    private final List<Timeline> timelines;
+    private final int firstOrder;
+    // position in the ordered timelines by (order - firstOrder)
+    private final int[] positionsByOrder;
+    // latest positions by position, null for the timelines that are not switched yet
+    private final Timeline.StoragePosition[] latestPositions;
+
+    private TimelineIndex(final List<Timeline> timelines) {
+        this.timelines = Collections.unmodifiableList(timelines);
+        this.latestPositions = new Timeline.StoragePosition[timelines.size()];
+        if (timelines.isEmpty()) {
+            this.firstOrder = 0;
+            this.positionsByOrder = new int[0];
+            return;
+        }
+        this.firstOrder = timelines.get(0).getOrder();
+        this.positionsByOrder = new int[timelines.get(timelines.size() - 1).getOrder() - firstOrder + 1];
+        Arrays.fill(positionsByOrder, NO_POSITION);
+        for (int position = 0; position < timelines.size(); ++position) {
+            final Timeline timeline = timelines.get(position);
+            positionsByOrder[timeline.getOrder() - firstOrder] = position;
+            latestPositions[position] = timeline.getLatestPosition();
+        }
+    }
+
+    /**
+     * @param timelines timelines of the event type, ordered by order
+     */
+    public static TimelineIndex of(final List<Timeline> timelines) {
+        return new TimelineIndex(timelines);
+    }
+
+    public List<Timeline> getTimelines() {
+        return timelines;
+    }
+
+    @Nullable
+    public Timeline getTimeline(final int order) {
+        final int position = getPosition(order);
+        return NO_POSITION == position ? null : timelines.get(position);
+    }
+
+    /**
+     * @return timeline that follows the timeline with the same order, null if it is the last one
+     */
+    @Nullable
+    public Timeline getNext(final Timeline timeline) {
+        final int position = getPosition(timeline.getOrder());
+        if (NO_POSITION == position || position + 1 == timelines.size()) {
+            return null;
+        }
+        return timelines.get(position + 1);
+    }
+
+    /**
+     * Checks if the cursor points to the last offset of its partition in its timeline, using the latest position of
+     * the timeline with the same order from this index, as the timeline of the cursor may be obsolete.
+     */
+    public boolean isLast(final NakadiCursor cursor) {
+        final int position = getPosition(cursor.getTimeline().getOrder());
+        return NO_POSITION != position && cursor.isLast(latestPositions[position]);
+    }
+
+    private int getPosition(final int order) {
+        final int index = order - firstOrder;
+        if (index < 0 || index >= positionsByOrder.length) {
+            return NO_POSITION;
+        }
+        return positionsByOrder[index];
+    }
+}
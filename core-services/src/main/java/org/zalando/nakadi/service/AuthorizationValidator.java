@@ -1,9 +1,17 @@
 package org.zalando.nakadi.service;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
 import org.springframework.stereotype.Service;
+import org.zalando.nakadi.cache.EventTypeCache;
 import org.zalando.nakadi.domain.BatchItem;
+import org.zalando.nakadi.domain.EventOwnerHeader;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
@@ -15,15 +23,19 @@ import org.zalando.nakadi.exceptions.runtime.UnprocessableEntityException;
 import org.zalando.nakadi.plugin.api.authz.AuthorizationAttribute;
 import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
 import org.zalando.nakadi.plugin.api.authz.Resource;
+import org.zalando.nakadi.plugin.api.authz.Subject;
 import org.zalando.nakadi.plugin.api.exceptions.AuthorizationInvalidException;
 import org.zalando.nakadi.plugin.api.exceptions.OperationOnResourceNotPermittedException;
 import org.zalando.nakadi.plugin.api.exceptions.PluginException;
 import org.zalando.nakadi.repository.EventTypeRepository;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -35,15 +47,28 @@ public class AuthorizationValidator {
     private final AuthorizationService authorizationService;
     private final EventTypeRepository eventTypeRepository;
     private final AdminService adminService;
+    private final Cache<EventWriteDecisionKey, Boolean> eventWriteDecisions;
 
     @Autowired
     public AuthorizationValidator(
             final AuthorizationService authorizationService,
             final EventTypeRepository eventTypeRepository,
-            final AdminService adminService) {
+            final AdminService adminService,
+            final EventTypeCache eventTypeCache,
+            @Value("${nakadi.authz.eventWriteCache.ttlMs}") final long eventWriteCacheTtlMs,
+            @Value("${nakadi.authz.eventWriteCache.maxSize}") final long eventWriteCacheMaxSize) {
         this.authorizationService = authorizationService;
         this.eventTypeRepository = eventTypeRepository;
         this.adminService = adminService;
+        this.eventWriteDecisions = CacheBuilder.newBuilder()
+                .expireAfterWrite(eventWriteCacheTtlMs, TimeUnit.MILLISECONDS)
+                .maximumSize(eventWriteCacheMaxSize)
+                .build();
+        eventTypeCache.addInvalidationListener(this::onEventTypeInvalidated);
+    }
+
+    private void onEventTypeInvalidated(final String eventTypeName) {
+        eventWriteDecisions.asMap().keySet().removeIf(key -> key.eventTypeName.equals(eventTypeName));
     }
 
     public void validateAuthorization(final Resource resource) throws UnableProcessException,
@@ -120,14 +145,86 @@ public class AuthorizationValidator {
         }
     }
 
-    public void authorizeEventWrite(final BatchItem batchItem)
-            throws AccessDeniedException, ServiceTemporarilyUnavailableException {
+    /**
+     * Creates authorizer for writing events with event owner to the event type on behalf of current subject. The
+     * authorizer is supposed to be used for one batch only, as it remembers decisions made for each event owner.
+     */
+    public BatchWriteAuthorizer createBatchWriteAuthorizer(final String eventTypeName)
+            throws ServiceTemporarilyUnavailableException {
         try {
-            final boolean authorized = authorizationService.isAuthorized(
-                    AuthorizationService.Operation.WRITE, batchItem);
+            return new BatchWriteAuthorizer(
+                    eventTypeName,
+                    authorizationService.getSubject().map(Subject::getName).orElse(null),
+                    getAccessToken());
+        } catch (final PluginException ex) {
+            throw new ServiceTemporarilyUnavailableException("Error while checking authorization", ex);
+        }
+    }
+
+    /**
+     * Access token of current request. Plugin decides on the attributes of the subject that come with the token, so
+     * the same subject may get other decisions with a new token.
+     */
+    private static String getAccessToken() {
+        return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
+                .map(Authentication::getDetails)
+                .filter(details -> details instanceof OAuth2AuthenticationDetails)
+                .map(details -> ((OAuth2AuthenticationDetails) details).getTokenValue())
+                .orElse(null);
+    }
+
+    /**
+     * Plugin is asked only once per distinct event owner in a batch. Decisions are also shared between batches of
+     * the same subject with the same access token for a short period of time, or until the event type is changed.
+     */
+    public class BatchWriteAuthorizer {
+        private final String eventTypeName;
+        private final String subjectName;
+        private final String accessToken;
+        private final Map<EventOwnerHeader, Boolean> batchDecisions = new HashMap<>();
+
+        private BatchWriteAuthorizer(
+                final String eventTypeName, final String subjectName, final String accessToken) {
+            this.eventTypeName = eventTypeName;
+            this.subjectName = subjectName;
+            this.accessToken = accessToken;
+        }
+
+        public void authorize(final BatchItem batchItem)
+                throws AccessDeniedException, ServiceTemporarilyUnavailableException {
+            final EventOwnerHeader owner = batchItem.getOwner();
+            Boolean authorized = null == owner ? null : batchDecisions.get(owner);
+            if (null == authorized) {
+                authorized = isAuthorized(owner, batchItem);
+                if (null != owner) {
+                    batchDecisions.put(owner, authorized);
+                }
+            }
             if (!authorized) {
                 throw new AccessDeniedException(AuthorizationService.Operation.WRITE, batchItem);
             }
+        }
+
+        private boolean isAuthorized(final EventOwnerHeader owner, final BatchItem batchItem)
+                throws ServiceTemporarilyUnavailableException {
+            if (null == owner || null == subjectName || null == accessToken) {
+                return isEventWriteAuthorized(batchItem);
+            }
+            final EventWriteDecisionKey key =
+                    new EventWriteDecisionKey(eventTypeName, subjectName, accessToken, owner);
+            final Boolean cached = eventWriteDecisions.getIfPresent(key);
+            if (null != cached) {
+                return cached;
+            }
+            final boolean authorized = isEventWriteAuthorized(batchItem);
+            eventWriteDecisions.put(key, authorized);
+            return authorized;
+        }
+    }
+
+    private boolean isEventWriteAuthorized(final BatchItem batchItem) throws ServiceTemporarilyUnavailableException {
+        try {
+            return authorizationService.isAuthorized(AuthorizationService.Operation.WRITE, batchItem);
         } catch (final PluginException ex) {
             throw new ServiceTemporarilyUnavailableException("Error while checking authorization", ex);
         }
@@ -237,4 +334,39 @@ public class AuthorizationValidator {
         }
         validateAuthorization(newValue);
     }
+
+    private static class EventWriteDecisionKey {
+        private final String eventTypeName;
+        private final String subjectName;
+        private final String accessToken;
+        private final EventOwnerHeader owner;
+
+        private EventWriteDecisionKey(final String eventTypeName, final String subjectName,
+                                      final String accessToken, final EventOwnerHeader owner) {
+            this.eventTypeName = eventTypeName;
+            this.subjectName = subjectName;
+            this.accessToken = accessToken;
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final EventWriteDecisionKey that = (EventWriteDecisionKey) o;
+            return Objects.equals(eventTypeName, that.eventTypeName)
+                    && Objects.equals(subjectName, that.subjectName)
+                    && Objects.equals(accessToken, that.accessToken)
+                    && Objects.equals(owner, that.owner);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventTypeName, subjectName, accessToken, owner);
+        }
+    }
 }
@@ -7,10 +7,9 @@ import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.cache.TimelineIndex;
 
 import java.util.Comparator;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Objects;
 
 @Component
@@ -28,7 +27,7 @@ public class NakadiCursorComparator implements Comparator<NakadiCursor> {
             throw new IllegalArgumentException("Cursors from different event types are not comparable");
         }
         if (c1.getTimeline().getOrder() == c2.getTimeline().getOrder()) {
-            return c1.getOffset().compareTo(c2.getOffset());
+            return c1.compareOffset(c2);
         }
         if (c1.getTimeline().getOrder() > c2.getTimeline().getOrder()) {
             return -compareOrdered(c2, c1);
@@ -45,41 +44,28 @@ public class NakadiCursorComparator implements Comparator<NakadiCursor> {
             return -1;
         }
 
-        Iterator<Timeline> timelineIterator = null;
-
-        NakadiCursor first = c1;
-        // Handle obsolete timeline information
-        if (first.getTimeline().getLatestPosition() == null) {
-            timelineIterator = createTimelinesIterator(first.getEventType(), first.getTimeline().getOrder());
-            first = NakadiCursor.of(timelineIterator.next(), first.getPartition(), first.getOffset());
+        final TimelineIndex timelineIndex = getTimelineIndex(c1.getEventType());
+        // Timeline of the cursor may be obsolete (e.g. without latest position), so the cached one is used instead
+        Timeline timeline = timelineIndex.getTimeline(c1.getTimeline().getOrder());
+        if (null == timeline) {
+            throw new IllegalStateException("Timeline " + Timeline.debugString(c1.getTimeline()) + " is not found");
         }
-
-        while (first.getTimeline().getOrder() != c2.getTimeline().getOrder()) {
-            if (!first.isLast()) {
+        NakadiCursor cursor = c1;
+        while (timeline.getOrder() != c2.getTimeline().getOrder()) {
+            if (!timelineIndex.isLast(cursor)) {
                 return -1;
             }
-            if (null == timelineIterator) {
-                timelineIterator = createTimelinesIterator(first.getEventType(), first.getTimeline().getOrder() + 1);
-            }
-            final Timeline nextTimeline = timelineIterator.next();
-            final String initialOffset = StaticStorageWorkerFactory.get(nextTimeline).getBeforeFirstOffset();
-            first = NakadiCursor.of(nextTimeline, first.getPartition(), initialOffset);
+            timeline = timelineIndex.getNext(timeline);
+            // Cursors are created only when switching timelines, which does not happen on every comparison
+            cursor = NakadiCursor.of(
+                    timeline, c1.getPartition(), StaticStorageWorkerFactory.get(timeline).getBeforeFirstOffset());
         }
-        return first.getOffset().compareTo(c2.getOffset());
+        return cursor.compareOffset(c2);
     }
 
-
-    private Iterator<Timeline> createTimelinesIterator(final String eventType, final int order) {
+    private TimelineIndex getTimelineIndex(final String eventType) {
         try {
-            final List<Timeline> timelines = eventTypeCache.getTimelinesOrdered(eventType);
-            final Iterator<Timeline> result = timelines.iterator();
-            if (timelines.get(0).getOrder() == order) {
-                return result;
-            }
-            // I do not want to handle hasNext
-            while (result.next().getOrder() != (order - 1)) {
-            }
-            return result;
+            return eventTypeCache.getTimelineIndex(eventType);
         } catch (final NoSuchEventTypeException | InternalNakadiException ex) {
             // The reason for runtime exception is that cursors are constructed before, and probably should be working.
             // Otherwise it makes no sense for this exception.
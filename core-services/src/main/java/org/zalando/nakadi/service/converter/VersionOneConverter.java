@@ -1,6 +1,7 @@
 package org.zalando.nakadi.service.converter;
 
 import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.cache.TimelineIndex;
 import org.zalando.nakadi.domain.CursorError;
 import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.Timeline;
@@ -14,7 +15,6 @@ import org.zalando.nakadi.view.Cursor;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 class VersionOneConverter implements VersionedConverter {
@@ -73,27 +73,17 @@ class VersionOneConverter implements VersionedConverter {
     private NakadiCursor findCorrectTimelinedCursor(
             final String eventType, final int order, final String partition, final String offset)
             throws InternalNakadiException, NoSuchEventTypeException, InvalidCursorException {
-        final List<Timeline> timelines = eventTypeCache.getTimelinesOrdered(eventType);
-        final Iterator<Timeline> timelineIterator = timelines.iterator();
-        Timeline timeline = null;
-        while (timelineIterator.hasNext()) {
-            final Timeline t = timelineIterator.next();
-            if (t.getOrder() == order) {
-                timeline = t;
-                break;
-            }
-        }
+        final TimelineIndex timelineIndex = eventTypeCache.getTimelineIndex(eventType);
+        Timeline timeline = timelineIndex.getTimeline(order);
         if (null == timeline) {
             throw new InvalidCursorException(CursorError.UNAVAILABLE);
         }
         NakadiCursor cursor = NakadiCursor.of(timeline, partition, offset);
-        while (cursor.isLast()) {
+        while (timelineIndex.isLast(cursor)) {
             // Will not check this call, because latest offset is not set for last timeline
-            timeline = timelineIterator.next();
+            timeline = timelineIndex.getNext(timeline);
             cursor = NakadiCursor.of(
-                    timeline,
-                    partition,
-                    StaticStorageWorkerFactory.get(timeline).getBeforeFirstOffset());
+                    timeline, partition, StaticStorageWorkerFactory.get(timeline).getBeforeFirstOffset());
         }
         return cursor;
     }
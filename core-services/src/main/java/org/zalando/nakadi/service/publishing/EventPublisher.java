@@ -34,6 +34,8 @@ import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.PartitioningException;
 import org.zalando.nakadi.exceptions.runtime.PublishEventOwnershipException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+import org.zalando.nakadi.metrics.EventTypeMetricRegistry;
+import org.zalando.nakadi.metrics.PublishingTimings;
 import org.zalando.nakadi.partitioning.PartitionResolver;
 import org.zalando.nakadi.partitioning.PartitionStrategy;
 import org.zalando.nakadi.service.AuthorizationValidator;
@@ -68,6 +70,7 @@ public class EventPublisher {
     private final TimelineSync timelineSync;
     private final AuthorizationValidator authValidator;
     private final EventOwnerExtractorFactory eventOwnerExtractorFactory;
+    private final EventTypeMetricRegistry eventTypeMetricRegistry;
 
     @Autowired
     public EventPublisher(final TimelineService timelineService,
@@ -77,7 +80,8 @@ public class EventPublisher {
                           final NakadiSettings nakadiSettings,
                           final TimelineSync timelineSync,
                           final AuthorizationValidator authValidator,
-                          final EventOwnerExtractorFactory eventOwnerExtractorFactory) {
+                          final EventOwnerExtractorFactory eventOwnerExtractorFactory,
+                          final EventTypeMetricRegistry eventTypeMetricRegistry) {
         this.timelineService = timelineService;
         this.eventTypeCache = eventTypeCache;
         this.partitionResolver = partitionResolver;
@@ -86,6 +90,7 @@ public class EventPublisher {
         this.timelineSync = timelineSync;
         this.authValidator = authValidator;
         this.eventOwnerExtractorFactory = eventOwnerExtractorFactory;
+        this.eventTypeMetricRegistry = eventTypeMetricRegistry;
     }
 
     public EventPublishResult publish(final String events, final String eventTypeName, final Span parentSpan)
@@ -122,21 +127,27 @@ public class EventPublisher {
 
         Closeable publishingCloser = null;
         final List<BatchItem> batch = BatchFactory.from(events);
+        final PublishingTimings timings = new PublishingTimings();
         try {
             publishingCloser = timelineSync.workWithEventType(eventTypeName, nakadiSettings.getTimelineWaitTimeoutMs());
+            timings.checkpoint(PublishingTimings.Stage.TIMELINE_LOCK);
 
             final EventType eventType = eventTypeCache.getEventType(eventTypeName);
             if (useAuthz) {
                 authValidator.authorizeEventTypeWrite(eventType);
             }
             validateEventOwnership(eventType, batch);
+            timings.checkpoint(PublishingTimings.Stage.AUTHORIZATION);
             validate(batch, eventType, parentSpan, delete);
+            timings.checkpoint(PublishingTimings.Stage.VALIDATION);
             partition(batch, eventType);
             setEventKey(batch, eventType);
+            timings.checkpoint(PublishingTimings.Stage.PARTITIONING);
             if (!delete) {
                 enrich(batch, eventType);
+                timings.checkpoint(PublishingTimings.Stage.ENRICHMENT);
             }
-            submit(batch, eventType, parentSpan, delete);
+            submit(batch, eventType, parentSpan, delete, timings);
 
             return ok(batch);
         } catch (final EventValidationException e) {
@@ -162,9 +173,12 @@ public class EventPublisher {
             LOG.error("Failed to wait for timeline switch", e);
             throw new EventTypeTimeoutException("Event type is currently in maintenance, please repeat request");
         } catch (final TimeoutException e) {
+            timings.checkpoint(PublishingTimings.Stage.TIMELINE_LOCK);
             LOG.error("Failed to wait for timeline switch", e);
             throw new EventTypeTimeoutException("Event type is currently in maintenance, please repeat request");
         } finally {
+            eventTypeMetricRegistry.metricsFor(eventTypeName).reportStageTimings(timings);
+            TracingService.setStageTimingTags(parentSpan, timings);
             try {
                 if (publishingCloser != null) {
                     publishingCloser.close();
@@ -243,12 +257,14 @@ public class EventPublisher {
         if (null == extractor) {
             return;
         }
+        final AuthorizationValidator.BatchWriteAuthorizer authorizer =
+                authValidator.createBatchWriteAuthorizer(eventType.getName());
         for (final BatchItem item : batchItems) {
             item.setStep(EventPublishingStep.VALIDATING);
             try {
                 final EventOwnerHeader owner = extractor.apply(item.getEvent());
                 item.setOwner(owner);
-                authValidator.authorizeEventWrite(item);
+                authorizer.authorize(item);
             } catch (AccessDeniedException e) {
                 item.updateStatusAndDetail(EventPublishingStatus.FAILED, e.explain());
                 throw new PublishEventOwnershipException(e.explain(), e);
@@ -290,14 +306,16 @@ public class EventPublisher {
     }
 
     private void submit(
-            final List<BatchItem> batch, final EventType eventType, final Span parentSpan, final boolean delete)
+            final List<BatchItem> batch, final EventType eventType, final Span parentSpan, final boolean delete,
+            final PublishingTimings timings)
             throws EventPublishingException {
         final Timeline activeTimeline = timelineService.getActiveTimeline(eventType);
         final String topic = activeTimeline.getTopic();
         final Span publishSpan = TracingService.getNewSpanWithParent(parentSpan, "publishing_to_kafka")
                 .setTag(Tags.MESSAGE_BUS_DESTINATION.getKey(), topic);
         try {
-            timelineService.getTopicRepository(eventType).syncPostBatch(topic, batch, eventType.getName(), delete);
+            timelineService.getTopicRepository(eventType).syncPostBatch(
+                    topic, batch, eventType.getName(), delete, timings);
         } catch (final EventPublishingException epe) {
             publishSpan.log(epe.getMessage());
             throw epe;
@@ -1,74 +1,144 @@
 package org.zalando.nakadi.service.timeline;
 
+import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps track of event types being published on this node and of event types locked for timeline switch.
+ *
+ * State is kept per event type, so publishing to one event type does not contend with publishing to others. In the
+ * common case (event type is not locked) starting to work with event type costs one increment of the event type
+ * usage counter and one volatile read of its lock flag. Publishing thread and locking thread are synchronized in a
+ * Dekker-like way: publisher increments usage counter and then checks the flag, while locker sets the flag and then
+ * waits for usage counter to drop to zero. Monitor of event type state is used only when one of them has to wait.
+ *
+ * States of event types that were not used since the previous eviction run are dropped, so that the map does not
+ * grow with every event type ever published on this node. Evicted state is marked by its usage counter, publishers
+ * that still hold a reference to it take the new state from the map.
+ */
 public class LocalLocking {
     private static final Logger LOG = LoggerFactory.getLogger(LocalLocking.class);
-    private final Set<String> lockedEventTypes = new HashSet<>();
-    private final Map<String, Integer> eventTypesBeingPublished = new HashMap<>();
-    private final Object lock = new Object();
+    // Value of usage counter of the evicted state, it stays negative whatever publishers do with it afterwards
+    private static final int EVICTED = Integer.MIN_VALUE;
+
+    private final Map<String, EventTypeState> states = new ConcurrentHashMap<>();
+    private volatile Set<String> lockedEventTypes = ImmutableSet.of();
+
+    private static class EventTypeState {
+        private final AtomicInteger usages = new AtomicInteger();
+        private volatile boolean locked;
+        private volatile boolean used = true;
+    }
 
     public Closeable workWithEventType(final String eventType, final long timeoutMs)
             throws InterruptedException, TimeoutException {
         final long finishAt = System.currentTimeMillis() + timeoutMs;
-        synchronized (lock) {
+        EventTypeState state = getState(eventType);
+        while (true) {
+            if (state.usages.incrementAndGet() < 0) {
+                state = getState(eventType);
+                continue;
+            }
+            if (!state.used) {
+                state.used = true;
+            }
+            if (!state.locked) {
+                final EventTypeState acquired = state;
+                return () -> release(acquired);
+            }
+            release(state);
+            waitForUnlock(eventType, state, finishAt, timeoutMs);
+        }
+    }
+
+    private EventTypeState getState(final String eventType) {
+        final EventTypeState state = states.get(eventType);
+        return null != state ? state : states.computeIfAbsent(eventType, et -> new EventTypeState());
+    }
+
+    private static void release(final EventTypeState state) {
+        if (0 == state.usages.decrementAndGet() && state.locked) {
+            synchronized (state) {
+                state.notifyAll();
+            }
+        }
+    }
+
+    private static void waitForUnlock(
+            final String eventType, final EventTypeState state, final long finishAt, final long timeoutMs)
+            throws InterruptedException, TimeoutException {
+        synchronized (state) {
             long now = System.currentTimeMillis();
-            while (now < finishAt && lockedEventTypes.contains(eventType)) {
-                lock.wait(finishAt - now);
+            while (now < finishAt && state.locked) {
+                state.wait(finishAt - now);
                 now = System.currentTimeMillis();
             }
-            if (lockedEventTypes.contains(eventType)) {
+            if (state.locked) {
                 throw new TimeoutException("Timed out while waiting for event type " + eventType +
                         " to unlock within " + timeoutMs + " ms");
             }
-            eventTypesBeingPublished.put(eventType, eventTypesBeingPublished.getOrDefault(eventType, 0) + 1);
         }
-        return () -> {
-            synchronized (lock) {
-                final int currentCount = eventTypesBeingPublished.get(eventType);
-                if (1 == currentCount) {
-                    eventTypesBeingPublished.remove(eventType);
-                    lock.notifyAll();
-                } else {
-                    eventTypesBeingPublished.put(eventType, currentCount - 1);
-                }
-            }
-        };
     }
 
     public Set<String> getUnlockedEventTypes(final Set<String> lockedEventTypesUpdated) {
-        synchronized (lock) {
-            return this.lockedEventTypes.stream()
-                    .filter(v -> !lockedEventTypesUpdated.contains(v))
-                    .collect(Collectors.toSet());
+        return this.lockedEventTypes.stream()
+                .filter(v -> !lockedEventTypesUpdated.contains(v))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Drops states of event types that are neither used nor locked and were not used since the previous run. Runs
+     * exclusively with {@link #updateLockedEventTypes(Set)}, so that the state is not evicted while being locked.
+     */
+    public synchronized void evictIdleEventTypes() {
+        for (final String eventType : states.keySet()) {
+            states.computeIfPresent(eventType, (key, state) -> {
+                if (state.used) {
+                    state.used = false;
+                    return state;
+                }
+                return !state.locked && state.usages.compareAndSet(0, EVICTED) ? null : state;
+            });
         }
     }
 
-    public void updateLockedEventTypes(final Set<String> lockedEventTypes) throws InterruptedException {
-        synchronized (lock) {
-            this.lockedEventTypes.clear();
-            this.lockedEventTypes.addAll(lockedEventTypes);
-            boolean haveUsage = true;
-            while (haveUsage) {
-                final List<String> stillLocked = this.lockedEventTypes.stream()
-                        .filter(eventTypesBeingPublished::containsKey).collect(Collectors.toList());
-                haveUsage = !stillLocked.isEmpty();
-                if (haveUsage) {
-                    LOG.info("Event types are still locked: {}", stillLocked);
-                    lock.wait();
+    int getEventTypesCount() {
+        return states.size();
+    }
+
+    public synchronized void updateLockedEventTypes(final Set<String> lockedEventTypes) throws InterruptedException {
+        final Set<String> previouslyLocked = this.lockedEventTypes;
+        this.lockedEventTypes = ImmutableSet.copyOf(lockedEventTypes);
+
+        for (final String eventType : previouslyLocked) {
+            if (!lockedEventTypes.contains(eventType)) {
+                final EventTypeState state = getState(eventType);
+                synchronized (state) {
+                    state.locked = false;
+                    state.notifyAll();
+                }
+            }
+        }
+        for (final String eventType : lockedEventTypes) {
+            getState(eventType).locked = true;
+        }
+        for (final String eventType : lockedEventTypes) {
+            final EventTypeState state = getState(eventType);
+            synchronized (state) {
+                while (state.usages.get() > 0) {
+                    LOG.info("Event type is still being used: {}", eventType);
+                    state.wait();
                 }
             }
-            lock.notifyAll();
         }
     }
 }
@@ -58,7 +58,7 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
      * Offsets, that should trigger election of topic repository for next timeline. (Actually - map of latest offsets
      * for each event type partition within current timeline.
      */
-    private final Map<EventTypePartition, String> borderOffsets = new HashMap<>();
+    private final Map<EventTypePartition, NakadiCursor> borderOffsets = new HashMap<>();
     private final TimelineService timelineService;
     private final TimelineSync timelineSync;
     private final AtomicBoolean timelinesChanged = new AtomicBoolean(false);
@@ -82,6 +82,15 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
 
     @Override
     public List<ConsumedEvent> readEvents() {
+        return readEvents(EventConsumer::readEvents);
+    }
+
+    @Override
+    public List<ConsumedEvent> readEvents(final long timeoutMs) {
+        return readEvents(consumer -> consumer.readEvents(timeoutMs));
+    }
+
+    private List<ConsumedEvent> readEvents(final Function<EventConsumer, List<ConsumedEvent>> reader) {
         if (timelinesChanged.compareAndSet(true, false)) {
             try {
                 onTimelinesChanged();
@@ -91,7 +100,7 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
         }
         final List<ConsumedEvent> result;
         try {
-            result = poll();
+            result = poll(reader);
         } catch (KafkaFactory.KafkaCrutchException kce) {
             LOG.warn("Kafka connections should be reinitialized because consumers should be recreated", kce);
             final List<NakadiCursor> tmpOffsets = new ArrayList<>(latestOffsets.values());
@@ -109,9 +118,9 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
         for (final ConsumedEvent event : result) {
             final EventTypePartition etp = event.getPosition().getEventTypePartition();
             latestOffsets.put(etp, event.getPosition());
-            final String border = borderOffsets.get(etp);
+            final NakadiCursor border = borderOffsets.get(etp);
             final boolean timelineBorderReached = null != border
-                    && border.compareTo(event.getPosition().getOffset()) <= 0;
+                    && border.compareOffset(event.getPosition()) <= 0;
             if (timelineBorderReached) {
                 timelinesChanged.set(true);
             }
@@ -128,11 +137,11 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
      *
      * @return List of consumed events.
      */
-    private List<ConsumedEvent> poll() {
+    private List<ConsumedEvent> poll(final Function<EventConsumer, List<ConsumedEvent>> reader) {
         List<ConsumedEvent> result = null;
         boolean newCollectionCreated = false;
         for (final EventConsumer consumer : eventConsumers.values()) {
-            final List<ConsumedEvent> partialResult = consumer.readEvents();
+            final List<ConsumedEvent> partialResult = reader.apply(consumer);
             if (null == result) {
                 result = partialResult;
             } else {
@@ -209,7 +218,7 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
                     cursor,
                     cursorReplacement::set,
                     nc -> Optional.ofNullable(nc).ifPresent(
-                            itm -> borderOffsets.put(itm.getEventTypePartition(), itm.getOffset())));
+                            itm -> borderOffsets.put(itm.getEventTypePartition(), itm)));
             if (!newAssignment.containsKey(topicRepository)) {
                 newAssignment.put(topicRepository, new ArrayList<>());
             }
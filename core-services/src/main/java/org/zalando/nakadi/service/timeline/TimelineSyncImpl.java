@@ -176,6 +176,11 @@ public class TimelineSyncImpl implements TimelineSync {
         }
     }
 
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleEventTypes() {
+        localLocking.evictIdleEventTypes();
+    }
+
     private void updateSelfVersionTo(final int version) throws Exception {
         final String zkPath = toZkPath("/nodes/" + nodeId);
         final byte[] versionBytes = String.valueOf(version).getBytes(Charsets.UTF_8);
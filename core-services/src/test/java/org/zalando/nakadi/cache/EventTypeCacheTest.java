@@ -0,0 +1,83 @@
+package org.zalando.nakadi.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zalando.nakadi.config.JsonConfig;
+import org.zalando.nakadi.domain.CompatibilityMode;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.Version;
+import org.zalando.nakadi.repository.db.EventTypeDbRepository;
+import org.zalando.nakadi.repository.db.TimelineDbRepository;
+import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
+import org.zalando.nakadi.service.timeline.TimelineSync;
+import org.zalando.nakadi.utils.EventTypeTestBuilder;
+import org.zalando.nakadi.validation.EventTypeValidator;
+
+import java.util.Optional;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+
+public class EventTypeCacheTest {
+
+    private final ObjectMapper objectMapper = new JsonConfig().jacksonObjectMapper();
+    private final EventTypeDbRepository eventTypeRepository = Mockito.mock(EventTypeDbRepository.class);
+    private final TimelineSync timelineSync = Mockito.mock(TimelineSync.class);
+    private final EventTypeCache eventTypeCache;
+
+    public EventTypeCacheTest() {
+        Mockito.when(timelineSync.registerTimelineChangeListener(anyString(), any()))
+                .thenReturn(Mockito.mock(TimelineSync.ListenerRegistration.class));
+        eventTypeCache = new EventTypeCache(
+                Mockito.mock(ZooKeeperHolder.class, Mockito.RETURNS_DEEP_STUBS),
+                new EventTypeDataProvider(objectMapper, eventTypeRepository, 3600000L),
+                Mockito.mock(TimelineDbRepository.class),
+                timelineSync);
+    }
+
+    @Test
+    public void whenReloadedWithSameSchemaThenValidatorIsReused() {
+        final EventType eventType = EventTypeTestBuilder.builder().name("et").build();
+        mockEventType(eventType);
+        final EventTypeValidator validator = eventTypeCache.getValidator("et");
+
+        eventType.setUpdatedAt(new DateTime().plusMinutes(1));
+        eventTypeCache.updated("et");
+
+        Assert.assertSame(validator, eventTypeCache.getValidator("et"));
+    }
+
+    @Test
+    public void whenSchemaOrValidationOptionsChangedThenValidatorIsRecompiled() {
+        final EventType eventType = EventTypeTestBuilder.builder().name("et").build();
+        mockEventType(eventType);
+        final EventTypeValidator initial = eventTypeCache.getValidator("et");
+
+        eventType.getSchema().setVersion(new Version("1.1.0"));
+        eventTypeCache.updated("et");
+        final EventTypeValidator afterSchemaChange = eventTypeCache.getValidator("et");
+        Assert.assertNotSame(initial, afterSchemaChange);
+
+        eventType.setCompatibilityMode(CompatibilityMode.NONE);
+        eventTypeCache.updated("et");
+        Assert.assertNotSame(afterSchemaChange, eventTypeCache.getValidator("et"));
+    }
+
+    @Test
+    public void whenEventTypeRemovedThenValidatorIsNotReused() {
+        final EventType eventType = EventTypeTestBuilder.builder().name("et").build();
+        mockEventType(eventType);
+        final EventTypeValidator validator = eventTypeCache.getValidator("et");
+
+        eventTypeCache.removed("et");
+
+        Assert.assertNotSame(validator, eventTypeCache.getValidator("et"));
+    }
+
+    private void mockEventType(final EventType eventType) {
+        Mockito.when(eventTypeRepository.findByNameO(eventType.getName())).thenReturn(Optional.of(eventType));
+    }
+}
@@ -1,7 +1,15 @@
 package org.zalando.nakadi.service;
 
 import com.google.common.collect.ImmutableList;
+import org.junit.After;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.domain.BatchItem;
+import org.zalando.nakadi.domain.EventOwnerHeader;
 import org.zalando.nakadi.domain.ResourceAuthorization;
 import org.zalando.nakadi.domain.ResourceAuthorizationAttribute;
 import org.zalando.nakadi.domain.ResourceImpl;
@@ -19,19 +27,26 @@ import org.zalando.nakadi.plugin.api.exceptions.PluginException;
 import org.zalando.nakadi.repository.EventTypeRepository;
 import org.zalando.nakadi.utils.EventTypeTestBuilder;
 
+import java.util.Optional;
+import java.util.function.Consumer;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.zalando.nakadi.utils.TestUtils.createBatchItem;
 
 public class AuthorizationValidatorTest {
 
     private final AuthorizationValidator validator;
     private final AuthorizationService authorizationService;
     private final AdminService adminService;
+    private final Consumer<String> eventTypeInvalidationListener;
 
     private final AuthorizationAttribute attr1 = new ResourceAuthorizationAttribute("type1", "value1");
     private final AuthorizationAttribute attr2 = new ResourceAuthorizationAttribute("type2", "value2");
@@ -42,8 +57,19 @@ public class AuthorizationValidatorTest {
         authorizationService = mock(AuthorizationService.class);
         adminService = mock(AdminService.class);
 
+        final EventTypeCache eventTypeCache = mock(EventTypeCache.class);
+
         validator = new AuthorizationValidator(authorizationService,
-                mock(EventTypeRepository.class), adminService);
+                mock(EventTypeRepository.class), adminService, eventTypeCache, 60_000, 100);
+
+        final ArgumentCaptor<Consumer> listenerCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(eventTypeCache).addInvalidationListener(listenerCaptor.capture());
+        eventTypeInvalidationListener = listenerCaptor.getValue();
+    }
+
+    @After
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -155,4 +181,109 @@ public class AuthorizationValidatorTest {
         validator.authorizeEventTypeAdmin(EventTypeTestBuilder.builder()
                 .authorization(new ResourceAuthorization(null, null, null)).build());
     }
+
+    @Test
+    public void whenSameOwnerInBatchThenPluginCalledOncePerOwner() {
+        when(authorizationService.getSubject()).thenReturn(Optional.empty());
+        when(authorizationService.isAuthorized(any(), any())).thenReturn(true);
+
+        final AuthorizationValidator.BatchWriteAuthorizer authorizer = validator.createBatchWriteAuthorizer("et");
+        authorizer.authorize(ownedBatchItem("retailer", "a"));
+        authorizer.authorize(ownedBatchItem("retailer", "a"));
+        authorizer.authorize(ownedBatchItem("retailer", "b"));
+        authorizer.authorize(ownedBatchItem("retailer", "a"));
+
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+    }
+
+    @Test
+    public void whenOwnerNotAuthorizedThenEveryEventOfOwnerDenied() {
+        when(authorizationService.getSubject()).thenReturn(Optional.empty());
+        when(authorizationService.isAuthorized(any(), any())).thenReturn(false);
+
+        final AuthorizationValidator.BatchWriteAuthorizer authorizer = validator.createBatchWriteAuthorizer("et");
+        for (int i = 0; i < 2; ++i) {
+            final BatchItem item = ownedBatchItem("retailer", "a");
+            try {
+                authorizer.authorize(item);
+                fail("Exception expected to be thrown");
+            } catch (final AccessDeniedException e) {
+                assertThat(e.getResource(), equalTo(item));
+            }
+        }
+        verify(authorizationService, times(1)).isAuthorized(any(), any());
+    }
+
+    @Test
+    public void whenSameSubjectInNextBatchThenCachedDecisionUsed() {
+        authenticateWithToken("token");
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "client"));
+        when(authorizationService.isAuthorized(any(), any())).thenReturn(true);
+
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+        verify(authorizationService, times(1)).isAuthorized(any(), any());
+
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "another-client"));
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+    }
+
+    @Test
+    public void whenEventTypeChangedThenCachedDecisionsDropped() {
+        authenticateWithToken("token");
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "client"));
+        when(authorizationService.isAuthorized(any(), any())).thenReturn(true);
+
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+        eventTypeInvalidationListener.accept("et");
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+    }
+
+    @Test
+    public void whenSubjectComesWithAnotherTokenThenCachedDecisionNotUsed() {
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "client"));
+        when(authorizationService.isAuthorized(any(), any())).thenReturn(true);
+
+        authenticateWithToken("token");
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+        authenticateWithToken("new-token");
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+    }
+
+    @Test
+    public void whenSubjectHasNoTokenThenDecisionIsNotSharedBetweenBatches() {
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "client"));
+        when(authorizationService.isAuthorized(any(), any())).thenReturn(true);
+
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+    }
+
+    @Test(expected = ServiceTemporarilyUnavailableException.class)
+    public void whenPluginExceptionInEventWriteThenServiceTemporarilyUnavailableException() {
+        when(authorizationService.getSubject()).thenReturn(Optional.empty());
+        when(authorizationService.isAuthorized(any(), any())).thenThrow(new PluginException("blah"));
+        validator.createBatchWriteAuthorizer("et").authorize(ownedBatchItem("retailer", "a"));
+    }
+
+    private static void authenticateWithToken(final String token) {
+        final OAuth2AuthenticationDetails details = mock(OAuth2AuthenticationDetails.class);
+        when(details.getTokenValue()).thenReturn(token);
+        final Authentication authentication = mock(Authentication.class);
+        when(authentication.getDetails()).thenReturn(details);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static BatchItem ownedBatchItem(final String ownerName, final String ownerValue) {
+        final BatchItem item = createBatchItem("{}");
+        item.setOwner(new EventOwnerHeader(ownerName, ownerValue));
+        return item;
+    }
 }
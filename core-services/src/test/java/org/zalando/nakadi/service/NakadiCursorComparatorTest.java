@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.cache.TimelineIndex;
 import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.domain.storage.Storage;
@@ -38,7 +39,8 @@ public class NakadiCursorComparatorTest {
         TIMELINE_1.setLatestPosition(new Timeline.KafkaStoragePosition(Collections.singletonList(1L)));
         TIMELINE_2.setLatestPosition(new Timeline.KafkaStoragePosition(Collections.singletonList(-1L)));
         TIMELINE_3.setLatestPosition(new Timeline.KafkaStoragePosition(Collections.singletonList(2L)));
-        when(etCache.getTimelinesOrdered(ET)).thenReturn(Arrays.asList(TIMELINE_1, TIMELINE_2, TIMELINE_3, TIMELINE_4));
+        when(etCache.getTimelineIndex(ET))
+                .thenReturn(TimelineIndex.of(Arrays.asList(TIMELINE_1, TIMELINE_2, TIMELINE_3, TIMELINE_4)));
         comparator = new NakadiCursorComparator(etCache);
     }
 
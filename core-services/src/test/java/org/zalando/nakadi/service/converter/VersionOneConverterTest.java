@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.cache.TimelineIndex;
 import org.zalando.nakadi.domain.CursorError;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.NakadiCursor;
@@ -12,7 +13,9 @@ import org.zalando.nakadi.domain.storage.Storage;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.view.Cursor;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -35,8 +38,8 @@ public class VersionOneConverterTest {
         final Timeline firstTimeline = mock(Timeline.class);
         when(firstTimeline.getOrder()).thenReturn(1);
         final EventType eventType = mock(EventType.class);
-        when(eventTypeCache.getTimelinesOrdered(eq(eventTypeName)))
-                .thenReturn(Collections.singletonList(firstTimeline));
+        final TimelineIndex timelineIndex = TimelineIndex.of(Collections.singletonList(firstTimeline));
+        when(eventTypeCache.getTimelineIndex(eq(eventTypeName))).thenReturn(timelineIndex);
 
         try {
             converter.convert(eventTypeName, cursor);
@@ -53,14 +56,35 @@ public class VersionOneConverterTest {
         final Timeline firstTimeline = mock(Timeline.class);
         when(firstTimeline.getStorage()).thenReturn(new Storage("default", Storage.Type.KAFKA));
         when(firstTimeline.getOrder()).thenReturn(16);
-        when(eventTypeCache.getTimelinesOrdered(eq(eventTypeName)))
-                .thenReturn(Collections.singletonList(firstTimeline));
+        final TimelineIndex timelineIndex = TimelineIndex.of(Collections.singletonList(firstTimeline));
+        when(eventTypeCache.getTimelineIndex(eq(eventTypeName))).thenReturn(timelineIndex);
         final NakadiCursor nakadiCursor = converter.convert(eventTypeName, cursor);
         Assert.assertEquals(firstTimeline, nakadiCursor.getTimeline());
         Assert.assertEquals("1", nakadiCursor.getPartition());
         Assert.assertEquals("012345", nakadiCursor.getOffset());
     }
 
+    @Test
+    public void whenCursorIsLastInTimelineThenItIsMovedToTheNextNotEmptyTimeline() throws Exception {
+        final String eventTypeName = "my_et";
+        final Storage storage = new Storage("default", Storage.Type.KAFKA);
+        final Timeline first = new Timeline(eventTypeName, 1, storage, "t1", new Date());
+        first.setLatestPosition(new Timeline.KafkaStoragePosition(Arrays.asList(5L, 7L)));
+        final Timeline second = new Timeline(eventTypeName, 2, storage, "t2", new Date());
+        second.setLatestPosition(new Timeline.KafkaStoragePosition(Arrays.asList(-1L, 3L)));
+        final Timeline third = new Timeline(eventTypeName, 3, storage, "t3", new Date());
+        when(eventTypeCache.getTimelineIndex(eq(eventTypeName)))
+                .thenReturn(TimelineIndex.of(Arrays.asList(first, second, third)));
+
+        final NakadiCursor moved = converter.convert(eventTypeName, new Cursor("0", "001-0001-000000000000000005"));
+        Assert.assertEquals(third, moved.getTimeline());
+        Assert.assertEquals("-1", moved.getOffset());
+
+        final NakadiCursor notMoved = converter.convert(eventTypeName, new Cursor("1", "001-0001-000000000000000005"));
+        Assert.assertEquals(first, notMoved.getTimeline());
+        Assert.assertEquals("000000000000000005", notMoved.getOffset());
+    }
+
     @Test(expected = InvalidCursorException.class)
     public void testIncorrectValue1() throws Exception {
         converter.convert("my_et", new Cursor("1", "001-043"));
@@ -1,5 +1,6 @@
 package org.zalando.nakadi.service.publishing;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -24,6 +25,7 @@ import org.zalando.nakadi.exceptions.runtime.EnrichmentException;
 import org.zalando.nakadi.exceptions.runtime.EventPublishingException;
 import org.zalando.nakadi.exceptions.runtime.EventTypeTimeoutException;
 import org.zalando.nakadi.exceptions.runtime.PartitioningException;
+import org.zalando.nakadi.metrics.EventTypeMetricRegistry;
 import org.zalando.nakadi.partitioning.PartitionResolver;
 import org.zalando.nakadi.partitioning.PartitionStrategy;
 import org.zalando.nakadi.plugin.api.authz.Resource;
@@ -56,6 +58,7 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.zalando.nakadi.metrics.MetricUtils.metricNameFor;
 import static org.zalando.nakadi.utils.TestUtils.buildBusinessEvent;
 import static org.zalando.nakadi.utils.TestUtils.buildDefaultEventType;
 import static org.zalando.nakadi.utils.TestUtils.createBatchItem;
@@ -78,10 +81,15 @@ public class EventPublisherTest {
     private final TimelineSync timelineSync = mock(TimelineSync.class);
     private final Enrichment enrichment = mock(Enrichment.class);
     private final AuthorizationValidator authzValidator = mock(AuthorizationValidator.class);
+    private final AuthorizationValidator.BatchWriteAuthorizer batchWriteAuthorizer =
+            mock(AuthorizationValidator.BatchWriteAuthorizer.class);
     private final NakadiSettings nakadiSettings = new NakadiSettings(0, 0, 0, TOPIC_RETENTION_TIME_MS, 0, 60,
             NAKADI_POLL_TIMEOUT, NAKADI_SEND_TIMEOUT, TIMELINE_WAIT_TIMEOUT_MS, NAKADI_EVENT_MAX_BYTES,
             NAKADI_SUBSCRIPTION_MAX_PARTITIONS, "service", "org/zalando/nakadi", "", "",
             "nakadi_archiver", "nakadi_to_s3");
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final EventTypeMetricRegistry eventTypeMetricRegistry =
+            new EventTypeMetricRegistry(metricRegistry, 3600000);
     private EventOwnerExtractorFactory eventOwnerExtractorFactory;
     private EventPublisher publisher;
 
@@ -95,8 +103,9 @@ public class EventPublisherTest {
         Mockito.when(ts.getActiveTimeline(any(EventType.class))).thenReturn(timeline);
 
         eventOwnerExtractorFactory = mock(EventOwnerExtractorFactory.class);
+        Mockito.when(authzValidator.createBatchWriteAuthorizer(any())).thenReturn(batchWriteAuthorizer);
         publisher = new EventPublisher(ts, cache, partitionResolver, enrichment, nakadiSettings, timelineSync,
-                authzValidator, eventOwnerExtractorFactory);
+                authzValidator, eventOwnerExtractorFactory, eventTypeMetricRegistry);
     }
 
     @Test
@@ -109,7 +118,21 @@ public class EventPublisherTest {
         final EventPublishResult result = publisher.publish(batch.toString(), eventType.getName(), null);
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.SUBMITTED));
-        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
+        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false), any());
+    }
+
+    @Test
+    public void whenPublishIsSuccessfulThenStageTimingsAreReported() throws Exception {
+        final EventType eventType = buildDefaultEventType();
+        mockSuccessfulValidation(eventType);
+
+        publisher.publish(buildDefaultBatch(1).toString(), eventType.getName(), null);
+
+        for (final String stage : ImmutableList.of("timeline_lock", "authorization", "validation", "partitioning",
+                "enrichment")) {
+            final String name = metricNameFor(eventType.getName(), "publishing.stages." + stage + ".count");
+            assertThat(metricRegistry.getGauges().get(name).getValue(), equalTo(1L));
+        }
     }
 
     @Test
@@ -123,7 +146,8 @@ public class EventPublisherTest {
 
         // invoked once for a batch
         Mockito.verify(eventOwnerExtractorFactory, Mockito.times(1)).createExtractor(eq(eventType));
-        Mockito.verify(authzValidator, Mockito.times(0)).authorizeEventWrite(any());
+        Mockito.verify(authzValidator, Mockito.times(0)).createBatchWriteAuthorizer(any());
+        Mockito.verify(batchWriteAuthorizer, Mockito.times(0)).authorize(any());
     }
 
     @Test
@@ -137,7 +161,8 @@ public class EventPublisherTest {
                         new EventOwnerSelector(EventOwnerSelector.Type.STATIC, "retailer", "nakadi")));
 
         publisher.publish(batch.toString(), eventType.getName(), null);
-        Mockito.verify(authzValidator, Mockito.times(3)).authorizeEventWrite(any());
+        Mockito.verify(authzValidator, Mockito.times(1)).createBatchWriteAuthorizer(eq(eventType.getName()));
+        Mockito.verify(batchWriteAuthorizer, Mockito.times(3)).authorize(any());
     }
 
     @Test(expected = AccessDeniedException.class)
@@ -164,7 +189,7 @@ public class EventPublisherTest {
         final EventPublishResult result = publisher.publish(batch.toString(), eventType.getName(), null);
 
         assertThat(result.getResponses().get(0).getEid(), equalTo(event.getJSONObject("metadata").optString("eid")));
-        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
+        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false), any());
     }
 
     @Test
@@ -201,7 +226,7 @@ public class EventPublisherTest {
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(createBatchItem(event), eventType);
         verify(partitionResolver, times(0)).resolvePartition(eventType, event);
-        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
+        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -250,7 +275,7 @@ public class EventPublisherTest {
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(any(), any());
         verify(partitionResolver, times(0)).resolvePartition(any(), any());
-        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
+        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -331,7 +356,7 @@ public class EventPublisherTest {
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.SUBMITTED));
         verify(enrichment, times(1)).enrich(any(), any());
         verify(partitionResolver, times(1)).resolvePartition(any(), any());
-        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
+        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false), any());
     }
 
     @Test
@@ -346,7 +371,7 @@ public class EventPublisherTest {
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(any(), any());
         verify(partitionResolver, times(0)).resolvePartition(any(), any());
-        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
+        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -361,7 +386,7 @@ public class EventPublisherTest {
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(any(), any());
         verify(partitionResolver, times(0)).resolvePartition(any(), any());
-        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
+        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -376,7 +401,7 @@ public class EventPublisherTest {
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.SUBMITTED));
         verify(enrichment, times(1)).enrich(any(), any());
         verify(partitionResolver, times(1)).resolvePartition(any(), any());
-        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
+        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false), any());
     }
 
     @Test
@@ -436,7 +461,7 @@ public class EventPublisherTest {
         final EventPublishResult result = publisher.publish(batch.toString(), eventType.getName(), null);
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.FAILED));
-        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
+        verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false), any());
     }
 
     @Test
@@ -454,7 +479,7 @@ public class EventPublisherTest {
         verify(cache, times(1)).getValidator(eventType.getName());
         verify(partitionResolver, times(1)).resolvePartition(any(), any());
         verify(enrichment, times(1)).enrich(any(), any());
-        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
+        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -513,7 +538,7 @@ public class EventPublisherTest {
     @SuppressWarnings("unchecked")
     private List<BatchItem> capturePublishedBatch() {
         final ArgumentCaptor<List> batchCaptor = ArgumentCaptor.forClass(List.class);
-        verify(topicRepository, atLeastOnce()).syncPostBatch(any(), batchCaptor.capture(), any(), eq(false));
+        verify(topicRepository, atLeastOnce()).syncPostBatch(any(), batchCaptor.capture(), any(), eq(false), any());
         return (List<BatchItem>) batchCaptor.getValue();
     }
 
@@ -551,8 +576,8 @@ public class EventPublisherTest {
         mockSuccessfulOwnerExtraction(eventType);
         Mockito
                 .doThrow(new AccessDeniedException(Mockito.mock(Resource.class)))
-                .when(authzValidator)
-                .authorizeEventWrite(any());
+                .when(batchWriteAuthorizer)
+                .authorize(any());
 
         final EventPublishResult result = publisher.publish(batch.toString(), eventType.getName(), null);
 
@@ -568,7 +593,7 @@ public class EventPublisherTest {
         assertThat(second.getStep(), equalTo(EventPublishingStep.NONE));
         assertThat(second.getDetail(), is(isEmptyString()));
 
-        verify(authzValidator, times(1)).authorizeEventWrite(any());
+        verify(batchWriteAuthorizer, times(1)).authorize(any());
     }
 
     @Test
@@ -586,7 +611,7 @@ public class EventPublisherTest {
         Mockito
                 .doThrow(EventPublishingException.class)
                 .when(topicRepository)
-                .syncPostBatch(any(), any(), any(), anyBoolean());
+                .syncPostBatch(any(), any(), any(), anyBoolean(), any());
     }
 
     private void mockFaultPartition() throws PartitioningException {
@@ -0,0 +1,172 @@
+package org.zalando.nakadi.service.timeline;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class LocalLockingTest {
+
+    private final LocalLocking localLocking = new LocalLocking();
+
+    @Test
+    public void whenNotLockedThenWorkIsAllowed() throws Exception {
+        try (Closeable ignore1 = localLocking.workWithEventType("et", 0);
+             Closeable ignore2 = localLocking.workWithEventType("et", 0)) {
+            // both usages are allowed concurrently
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void whenLockedThenWorkTimesOut() throws Exception {
+        localLocking.updateLockedEventTypes(ImmutableSet.of("et"));
+        localLocking.workWithEventType("et", 10);
+    }
+
+    @Test
+    public void whenOtherEventTypeLockedThenWorkIsAllowed() throws Exception {
+        localLocking.updateLockedEventTypes(ImmutableSet.of("et"));
+        localLocking.workWithEventType("et2", 0).close();
+    }
+
+    @Test
+    public void whenUnlockedThenWaitingWorkProceeds() throws Exception {
+        localLocking.updateLockedEventTypes(ImmutableSet.of("et"));
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean acquired = new AtomicBoolean(false);
+        final Thread publisher = new Thread(() -> {
+            started.countDown();
+            try {
+                localLocking.workWithEventType("et", TimeUnit.SECONDS.toMillis(10)).close();
+                acquired.set(true);
+            } catch (final Exception ignore) {
+            }
+        });
+        publisher.start();
+        started.await();
+
+        Assert.assertThat(localLocking.getUnlockedEventTypes(ImmutableSet.of()), equalTo(ImmutableSet.of("et")));
+        localLocking.updateLockedEventTypes(ImmutableSet.of());
+        publisher.join(TimeUnit.SECONDS.toMillis(10));
+
+        Assert.assertTrue(acquired.get());
+    }
+
+    @Test
+    public void whenLockingThenWaitsForCurrentUsagesToFinish() throws Exception {
+        final Closeable usage = localLocking.workWithEventType("et", 0);
+        final AtomicBoolean locked = new AtomicBoolean(false);
+        final Thread locker = new Thread(() -> {
+            try {
+                localLocking.updateLockedEventTypes(ImmutableSet.of("et"));
+                locked.set(true);
+            } catch (final InterruptedException ignore) {
+            }
+        });
+        locker.start();
+
+        locker.join(100);
+        Assert.assertFalse(locked.get());
+
+        usage.close();
+        locker.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertTrue(locked.get());
+    }
+
+    @Test
+    public void whenLockedThenNoUsagesUntilUnlocked() throws Exception {
+        final AtomicInteger activeUsages = new AtomicInteger();
+        final AtomicBoolean violation = new AtomicBoolean(false);
+        final AtomicBoolean lockedPhase = new AtomicBoolean(false);
+        final AtomicBoolean stop = new AtomicBoolean(false);
+
+        final Thread[] publishers = new Thread[4];
+        for (int i = 0; i < publishers.length; ++i) {
+            publishers[i] = new Thread(() -> {
+                while (!stop.get()) {
+                    try (Closeable ignore = localLocking.workWithEventType("et", TimeUnit.SECONDS.toMillis(10))) {
+                        activeUsages.incrementAndGet();
+                        if (lockedPhase.get()) {
+                            violation.set(true);
+                        }
+                        activeUsages.decrementAndGet();
+                    } catch (final Exception ignore) {
+                    }
+                }
+            });
+            publishers[i].start();
+        }
+
+        for (int i = 0; i < 50; ++i) {
+            localLocking.updateLockedEventTypes(ImmutableSet.of("et"));
+            lockedPhase.set(true);
+            if (activeUsages.get() != 0) {
+                violation.set(true);
+            }
+            Thread.sleep(1);
+            lockedPhase.set(false);
+            localLocking.updateLockedEventTypes(ImmutableSet.of());
+        }
+        stop.set(true);
+        for (final Thread publisher : publishers) {
+            publisher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        Assert.assertFalse(violation.get());
+    }
+
+    @Test
+    public void whenEventTypeIsNotUsedSincePreviousEvictionThenItsStateIsEvicted() throws Exception {
+        localLocking.workWithEventType("et", 0).close();
+
+        localLocking.evictIdleEventTypes();
+        Assert.assertEquals(1, localLocking.getEventTypesCount());
+        localLocking.evictIdleEventTypes();
+        Assert.assertEquals(0, localLocking.getEventTypesCount());
+
+        localLocking.workWithEventType("et", 0).close();
+        Assert.assertEquals(1, localLocking.getEventTypesCount());
+    }
+
+    @Test
+    public void whenEventTypeIsUsedOrLockedThenItsStateIsNotEvicted() throws Exception {
+        final Closeable usage = localLocking.workWithEventType("et", 0);
+        localLocking.updateLockedEventTypes(ImmutableSet.of("et2"));
+
+        localLocking.evictIdleEventTypes();
+        localLocking.evictIdleEventTypes();
+        Assert.assertEquals(2, localLocking.getEventTypesCount());
+
+        usage.close();
+        try {
+            localLocking.workWithEventType("et2", 10);
+            Assert.fail("Event type is expected to stay locked");
+        } catch (final TimeoutException ignore) {
+        }
+    }
+
+    @Test
+    public void whenStatesAreEvictedConcurrentlyThenNoUsagesWhileLocked() throws Exception {
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final Thread evictor = new Thread(() -> {
+            while (!stop.get()) {
+                localLocking.evictIdleEventTypes();
+            }
+        });
+        evictor.start();
+        try {
+            whenLockedThenNoUsagesUntilUnlocked();
+        } finally {
+            stop.set(true);
+            evictor.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+SET ROLE zalando_nakadi_data_owner;
+
+-- Applied after event-type-change-txid.sql. Serves the lookup of event types changed since a position, CONCURRENTLY
+-- can not run inside a transaction block, so it is kept apart from the rest of that migration
+CREATE INDEX CONCURRENTLY event_type_change_txid_idx ON zn_data.event_type (et_change_txid);
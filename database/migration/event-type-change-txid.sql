@@ -0,0 +1,36 @@
+SET ROLE zalando_nakadi_data_owner;
+
+-- Every change of event type is marked with id of transaction that made it, deletions are tracked separately. It
+-- allows event type caches to ask only for changes made since the oldest transaction that was in progress during
+-- their previous check, instead of comparing all the cached event types with database.
+
+ALTER TABLE zn_data.event_type ADD COLUMN et_change_txid bigint NOT NULL DEFAULT txid_current();
+-- Index on et_change_txid is created concurrently by event-type-change-txid-index.sql, as it can not run in the same
+-- transaction with the rest of the migration
+
+CREATE TABLE zn_data.event_type_deletion (
+  etd_name varchar(255) NOT NULL PRIMARY KEY,
+  etd_change_txid bigint NOT NULL DEFAULT txid_current(),
+  etd_deleted_at timestamptz NOT NULL DEFAULT now()
+);
+CREATE INDEX event_type_deletion_change_txid_idx ON zn_data.event_type_deletion (etd_change_txid);
+
+CREATE OR REPLACE FUNCTION zn_data.event_type_track_change() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    INSERT INTO zn_data.event_type_deletion (etd_name, etd_change_txid, etd_deleted_at)
+    VALUES (OLD.et_name, txid_current(), now())
+    ON CONFLICT (etd_name) DO UPDATE
+    SET etd_change_txid = EXCLUDED.etd_change_txid, etd_deleted_at = EXCLUDED.etd_deleted_at;
+    RETURN OLD;
+  END IF;
+  IF TG_OP = 'INSERT' THEN
+    DELETE FROM zn_data.event_type_deletion WHERE etd_name = NEW.et_name;
+  END IF;
+  NEW.et_change_txid := txid_current();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER event_type_track_change BEFORE INSERT OR UPDATE OR DELETE ON zn_data.event_type
+  FOR EACH ROW EXECUTE PROCEDURE zn_data.event_type_track_change();
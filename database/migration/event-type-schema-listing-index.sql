@@ -0,0 +1,5 @@
+SET ROLE zalando_nakadi_data_owner;
+
+-- Serves schemas listing of event type, ordered by (created_at, version), and keyset pagination over it
+CREATE INDEX CONCURRENTLY event_type_schema_name_created_at_version_idx ON zn_data.event_type_schema
+  (ets_event_type_name, (ets_schema_object ->> 'created_at') DESC, (ets_schema_object ->> 'version') DESC);
@@ -0,0 +1,16 @@
+SET ROLE zalando_nakadi_data_owner;
+
+-- Subscription lookup by key fields (owning application, event types, consumer group) goes through the unique index
+-- on s_key_fields_hash, therefore the hash has to be filled for every subscription. The value is the same as the one
+-- calculated by HashGenerator: md5 of owning application, consumer group and sorted event types concatenated.
+UPDATE zn_data.subscription
+SET s_key_fields_hash = md5(
+    (s_subscription_object ->> 'owning_application') ||
+    (s_subscription_object ->> 'consumer_group') ||
+    (SELECT string_agg(et, '' ORDER BY et COLLATE "C")
+     FROM jsonb_array_elements_text(s_subscription_object -> 'event_types') et))
+WHERE s_key_fields_hash = '';
+
+ALTER TABLE zn_data.subscription ALTER COLUMN s_key_fields_hash DROP DEFAULT;
+ALTER TABLE zn_data.subscription ADD CONSTRAINT subscription_key_fields_hash_is_not_empty
+  CHECK (s_key_fields_hash <> '');
@@ -0,0 +1,12 @@
+SET ROLE zalando_nakadi_data_owner;
+
+-- Serves event type filter of subscriptions listing (s_subscription_object->'event_types' @> '"et"')
+CREATE INDEX CONCURRENTLY subscription_event_types_idx ON zn_data.subscription
+  USING GIN ((s_subscription_object -> 'event_types') jsonb_path_ops);
+
+-- Serves both offset and keyset pagination of subscriptions listing, ordered by (created_at, id)
+CREATE INDEX CONCURRENTLY subscription_created_at_id_idx ON zn_data.subscription
+  ((s_subscription_object ->> 'created_at') DESC, s_id DESC);
+
+-- Index on created_at alone (created by aruha-311-list-subscriptions.sql) is covered by the one above
+DROP INDEX CONCURRENTLY IF EXISTS zn_data.subscription_expr_idx;
@@ -1,7 +1,39 @@
 CREATE TABLE IF NOT EXISTS zn_data.event_type (
   et_name varchar(255) NOT NULL PRIMARY KEY CHECK (et_name <> ''),
   et_event_type_object jsonb NOT NULL,
+  et_change_txid bigint NOT NULL DEFAULT txid_current(),
   CHECK (et_event_type_object->>'name' = et_name)
 );
 
 CREATE INDEX ON zn_data.event_type USING gin (et_event_type_object);
+CREATE INDEX event_type_change_txid_idx ON zn_data.event_type (et_change_txid);
+
+-- Names of deleted event types, so that caches can find out about deletions together with other changes. Rows are
+-- removed by EventTypeDeletionCleanupJob after the retention period
+CREATE TABLE IF NOT EXISTS zn_data.event_type_deletion (
+  etd_name varchar(255) NOT NULL PRIMARY KEY,
+  etd_change_txid bigint NOT NULL DEFAULT txid_current(),
+  etd_deleted_at timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE INDEX event_type_deletion_change_txid_idx ON zn_data.event_type_deletion (etd_change_txid);
+
+CREATE OR REPLACE FUNCTION zn_data.event_type_track_change() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    INSERT INTO zn_data.event_type_deletion (etd_name, etd_change_txid, etd_deleted_at)
+    VALUES (OLD.et_name, txid_current(), now())
+    ON CONFLICT (etd_name) DO UPDATE
+    SET etd_change_txid = EXCLUDED.etd_change_txid, etd_deleted_at = EXCLUDED.etd_deleted_at;
+    RETURN OLD;
+  END IF;
+  IF TG_OP = 'INSERT' THEN
+    DELETE FROM zn_data.event_type_deletion WHERE etd_name = NEW.et_name;
+  END IF;
+  NEW.et_change_txid := txid_current();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER event_type_track_change BEFORE INSERT OR UPDATE OR DELETE ON zn_data.event_type
+  FOR EACH ROW EXECUTE PROCEDURE zn_data.event_type_track_change();
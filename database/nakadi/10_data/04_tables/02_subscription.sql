@@ -10,9 +10,13 @@ CREATE TABLE IF NOT EXISTS zn_data.subscription (
   CHECK ((s_subscription_object->>'owning_application') IS NOT NULL AND (s_subscription_object->>'owning_application') <> ''),
   CHECK ((s_subscription_object->>'event_types') IS NOT NULL AND (s_subscription_object->>'event_types') <> '[]'),
   CHECK ((s_subscription_object->>'consumer_group') IS NOT NULL AND (s_subscription_object->>'consumer_group') <> ''),
+  CONSTRAINT subscription_key_fields_hash_is_not_empty CHECK (s_key_fields_hash <> ''),
   CONSTRAINT subscription_key_fields_hash_is_unique UNIQUE (s_key_fields_hash)
 );
 
-CREATE INDEX ON zn_data.subscription ((s_subscription_object->>'created_at'));
+CREATE INDEX subscription_created_at_id_idx ON zn_data.subscription
+  ((s_subscription_object->>'created_at') DESC, s_id DESC);
+CREATE INDEX subscription_event_types_idx ON zn_data.subscription
+  USING GIN ((s_subscription_object->'event_types') jsonb_path_ops);
 
 COMMIT;
\ No newline at end of file
@@ -7,6 +7,9 @@ CREATE INDEX ON zn_data.event_type_schema USING gin (ets_schema_object);
 
 CREATE INDEX ON zn_data.event_type_schema ((ets_schema_object->>'version'));
 CREATE INDEX ON zn_data.event_type_schema ((ets_schema_object->>'created_at'));
+CREATE INDEX ON zn_data.event_type_schema (ets_event_type_name,
+                                           (ets_schema_object->>'created_at') DESC,
+                                           (ets_schema_object->>'version') DESC);
 
 CREATE UNIQUE INDEX ON zn_data.event_type_schema ((ets_schema_object->>'version'),
                                                   (ets_event_type_name));